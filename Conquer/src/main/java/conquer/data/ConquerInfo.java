@@ -2,8 +2,10 @@ package conquer.data;
 
 import conquer.data.strategy.StrategyObject;
 import conquer.data.strategy.StrategyProvider;
+import conquer.data.strategy.StrategyTiming;
 import conquer.plugins.Plugin;
 import conquer.plugins.PluginInterface;
+import conquer.utils.ShortestPaths;
 
 import java.awt.Color;
 import java.awt.Image;
@@ -48,6 +50,45 @@ public interface ConquerInfo extends StrategyObject, PluginInterface {
 	 */
 	void executeActions();
 
+	/**
+	 * Creates a snapshot of the cities, clans and relations, that can be changed without changing this game. A
+	 * strategy can try actions on the fork or simulate rounds with {@link #executeActions()} and throw it away
+	 * afterwards. A fork doesn't produce messages and doesn't call plugins or hooks. Gifts to the player are
+	 * declined. Every fork of a round uses the same seed, {@link #fork(long)} creates a fork with another seed.
+	 *
+	 * @return The fork.
+	 * @throws UnsupportedOperationException If the implementation can't be forked.
+	 */
+	default ConquerInfo fork() {
+		throw new UnsupportedOperationException("fork");
+	}
+
+	/**
+	 * Creates a fork like {@link #fork()}, that is seeded with the given seed. A fork is never initialized with
+	 * {@link #init()}, so it can't be seeded with {@link #setSeed(long)} afterwards.
+	 *
+	 * @param seed The seed of the fork.
+	 * @return The fork.
+	 * @throws UnsupportedOperationException If the implementation can't be forked.
+	 */
+	default ConquerInfo fork(final long seed) {
+		throw new UnsupportedOperationException("fork");
+	}
+
+	/**
+	 * Returns how long the strategy of a clan took in the rounds played so far. Turns of the clan of the player
+	 * aren't measured, as they aren't played by the game.
+	 *
+	 * @param clan The clan. May not be {@code null}.
+	 * @return The timing, {@link StrategyTiming#NONE} if the implementation doesn't measure the strategies.
+	 */
+	default StrategyTiming getStrategyTiming(final IClan clan) {
+		if (clan == null) {
+			throw new IllegalArgumentException("clan==null");
+		}
+		return StrategyTiming.NONE;
+	}
+
 	/**
 	 * Exit this game with the specified result.
 	 *
@@ -203,6 +244,29 @@ public interface ConquerInfo extends StrategyObject, PluginInterface {
 
 	}
 
+	/**
+	 * Seeds all random number generators of this game, so two games with the same
+	 * scenario, strategies and seed play the same. Has to be called before
+	 * {@link #init()}, otherwise the behavior is undefined. Without calling this
+	 * method, the seed is {@link RandomStreams#defaultSeed()}. Forks are seeded with {@link #fork(long)}. The
+	 * default implementation ignores the seed.
+	 *
+	 * @param seed The seed.
+	 */
+	default void setSeed(final long seed) {
+
+	}
+
+	/**
+	 * Returns the seed of the random number generators of this game.
+	 *
+	 * @return The seed.
+	 * @throws UnsupportedOperationException If the implementation isn't seeded.
+	 */
+	default long getSeed() {
+		throw new UnsupportedOperationException("getSeed");
+	}
+
 	/**
 	 * Set a callback function that is called as soon as the player is gifted by
 	 * another clan.
@@ -273,6 +337,19 @@ public interface ConquerInfo extends StrategyObject, PluginInterface {
 				Shared.STONE_PER_SOLDIER_INITIAL, Shared.WOOD_PER_SOLDIER_INITIAL);
 	}
 
+	/**
+	 * Returns the cheapest routes between all cities. The cost of a route is the amount of coins that is paid for
+	 * moving one soldier along it, according to {@link #getSoldierCosts()}.
+	 *
+	 * @return The cheapest routes.
+	 */
+	@Override
+	default ShortestPaths<ICity> getTravelCosts() {
+		final var costs = this.getSoldierCosts();
+		return new ShortestPaths<>(this.getCities(),
+				weight -> costs.coinsPerMoveOfSoldierBase() + (costs.coinsPerMovePerSoldier() * weight));
+	}
+
 	/**
 	 * Return an object describing the costs for soldiers for this clan.
 	 *
@@ -7,6 +7,7 @@ import conquer.data.strategy.StrategyProvider;
 
 import java.awt.Color;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 public interface IClan {
 
@@ -239,28 +240,47 @@ public interface IClan {
 		}
 	}
 
+	/**
+	 * Upgrades the soldiers by up to {@code levels} levels at once, as long as the coins and the maximum level
+	 * allow it. The default implementation upgrades one level after another. Implementations, that keep the default
+	 * costs, can find the number of levels at once with {@link UpgradeTable}.
+	 *
+	 * @param upgrade The upgrade. May not be {@code null}, otherwise an {@code IllegalArgumentException} is thrown.
+	 * @param levels  The maximum number of levels. May not be negative, otherwise an
+	 *                {@code IllegalArgumentException} is thrown.
+	 * @return The number of levels, that were upgraded.
+	 */
+	default int upgradeBy(final SoldierUpgrade upgrade, final int levels) {
+		if (upgrade == null) {
+			throw new IllegalArgumentException("upgrade==null");
+		} else if (levels < 0) {
+			throw new IllegalArgumentException("levels < 0: " + levels);
+		}
+		final BooleanSupplier step = switch (upgrade) {
+			case BOTH -> this::upgradeSoldiers;
+			case DEFENSE -> this::upgradeSoldiersDefense;
+			case OFFENSE -> this::upgradeSoldiersOffense;
+		};
+		var cnt = 0;
+		while ((cnt < levels) && step.getAsBoolean()) {
+			cnt++;
+		}
+		return cnt;
+	}
+
 	@InternalUseOnly
 	default void upgradeSoldiersDefenseFully() {
-		var b = true;
-		while (b) {
-			b = this.upgradeSoldiersDefense();
-		}
+		this.upgradeBy(SoldierUpgrade.DEFENSE, Integer.MAX_VALUE);
 	}
 
 	@InternalUseOnly
 	default void upgradeSoldiersFully() {
-		var b = true;
-		while (b) {
-			b = this.upgradeSoldiers();
-		}
+		this.upgradeBy(SoldierUpgrade.BOTH, Integer.MAX_VALUE);
 	}
 
 	@InternalUseOnly
 	default void upgradeSoldiersOffenseFully() {
-		var b = true;
-		while (b) {
-			b = this.upgradeSoldiersOffense();
-		}
+		this.upgradeBy(SoldierUpgrade.OFFENSE, Integer.MAX_VALUE);
 	}
 
 	/**
@@ -290,11 +310,7 @@ public interface IClan {
 	 */
 	@Deprecated
 	default double upgradeCostsForOffense(final int x) {
-		// Duplicated, as it would otherwise depend on another method.
-		if (x == 0) {
-			return 40;
-		}
-		return Math.sqrt(Math.pow(Math.log(x), 3)) * x * x * Math.sqrt(x) * Math.log(x);
+		return UpgradeTable.soldiers(SoldierUpgrade.OFFENSE).costs(x);
 	}
 
 	/**
@@ -306,10 +322,7 @@ public interface IClan {
 	 */
 	@Deprecated
 	default double upgradeCostsForDefense(final int x) {
-		if (x == 0) {
-			return 40;
-		}
-		return Math.sqrt(Math.pow(Math.log(x), 3)) * x * x * Math.sqrt(x) * Math.log(x);
+		return UpgradeTable.soldiers(SoldierUpgrade.DEFENSE).costs(x);
 	}
 
 	/**
@@ -346,10 +359,7 @@ public interface IClan {
 	@InternalUseOnly
 	@Deprecated
 	default double upgradeCostsForOffenseAndDefense(final int x) {
-		if (x == 0) {
-			return 40;
-		}
-		return Math.sqrt(Math.pow(Math.log(x), 3)) * x * x * Math.sqrt(x) * Math.log(x);
+		return UpgradeTable.soldiers(SoldierUpgrade.DEFENSE).costs(x);
 	}
 
 	/**
@@ -482,7 +492,7 @@ public interface IClan {
 	@InternalUseOnly
 	@Deprecated
 	default double newPowerOfSoldiersForDefense(final int level) {
-		return Math.sqrt(Math.log(level) + (4 * level)) / 50;
+		return UpgradeTable.soldiers(SoldierUpgrade.DEFENSE).power(level);
 	}
 
 	/**
@@ -495,7 +505,7 @@ public interface IClan {
 	@InternalUseOnly
 	@Deprecated
 	default double newPowerOfSoldiersForOffense(final int level) {
-		return Math.sqrt(Math.log(level) + (4 * level)) / 50;
+		return UpgradeTable.soldiers(SoldierUpgrade.OFFENSE).power(level);
 	}
 
 	/**
@@ -508,7 +518,7 @@ public interface IClan {
 	@InternalUseOnly
 	@Deprecated
 	default double newPowerForSoldiers(final int level) {
-		return Math.sqrt(Math.log(level) + (4 * level)) / 100;
+		return UpgradeTable.soldiers(SoldierUpgrade.BOTH).power(level);
 	}
 
 	/**
@@ -521,7 +531,7 @@ public interface IClan {
 	@InternalUseOnly
 	@Deprecated
 	default double newPowerOfSoldiersForOffenseAndDefense(final int level) {
-		return Math.sqrt(Math.log(level) + (4 * level)) / 50;
+		return UpgradeTable.soldiers(SoldierUpgrade.DEFENSE).power(level);
 	}
 
 	/**
@@ -542,14 +552,7 @@ public interface IClan {
 	 * @return Costs in coins for upgrading to next level.
 	 */
 	default double costs(final int level) {
-		var ret = Math.pow(level, Math.E);
-		if (level != 0) {
-			ret = Math.pow(ret, 1.0d / 8.0d) * Math.pow(level, 1.0d / 3.0d);
-		}
-		ret = Math.pow(ret, (Math.PI / Math.E) + Math.pow(level, 1.0d / 40.0d));
-		ret *= Math.toRadians(level);
-		ret *= Math.toDegrees(level / 360.0d) / Math.PI;
-		return ret;
+		return UpgradeTable.city().costs(level);
 	}
 
 	/**
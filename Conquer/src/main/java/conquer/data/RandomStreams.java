@@ -0,0 +1,116 @@
+package conquer.data;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Derives independent random number generators from one seed. Every subsystem of a game gets its own named
+ * stream, so the same seed always produces the same game, no matter how many other streams are used or in which
+ * order they are created. As no stream is shared, games and subsystems can use their streams concurrently
+ * without contending on one random source.
+ */
+public final class RandomStreams {
+	/**
+	 * The system property that overrides the seed of new games.
+	 */
+	public static final String SEED_PROPERTY = "conquer.seed";
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private final long seed;
+
+	/**
+	 * Creates new streams.
+	 *
+	 * @param seed The seed all streams are derived from.
+	 */
+	public RandomStreams(final long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the seed for new games: The value of the system property {@value #SEED_PROPERTY}, if it is set,
+	 * otherwise a value based on the current time.
+	 *
+	 * @return The seed.
+	 */
+	public static long defaultSeed() {
+		return Long.getLong(RandomStreams.SEED_PROPERTY, System.nanoTime());
+	}
+
+	/**
+	 * Returns the seed all streams are derived from.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Creates the stream with the given name. Every call returns a new generator, that starts at the same state.
+	 *
+	 * @param name The name of the stream. May not be {@code null}.
+	 * @return A new generator.
+	 */
+	public SplittableRandom stream(final String name) {
+		if (name == null) {
+			throw new IllegalArgumentException("name==null");
+		}
+		return new SplittableRandom(RandomStreams.mix(this.seed + RandomStreams.mix(name.hashCode())));
+	}
+
+	/**
+	 * Creates one stream of a family of streams, e.g. one stream per clan.
+	 *
+	 * @param name  The name of the family. May not be {@code null}.
+	 * @param index The index of the stream in the family.
+	 * @return A new generator.
+	 */
+	public SplittableRandom stream(final String name, final int index) {
+		if (name == null) {
+			throw new IllegalArgumentException("name==null");
+		}
+		return new SplittableRandom(RandomStreams.mix(
+				this.seed + RandomStreams.mix(name.hashCode() + (RandomStreams.GOLDEN_GAMMA * (index + 1L)))));
+	}
+
+	// MurmurHash3 finalizer, spreads similar seeds over the entire range.
+	private static long mix(final long value) {
+		var z = value;
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return z ^ (z >>> 33);
+	}
+
+	/**
+	 * Returns a normally distributed value with mean 0 and standard deviation 1.
+	 *
+	 * @param random The source of randomness. May not be {@code null}.
+	 * @return The value.
+	 */
+	public static double nextGaussian(final SplittableRandom random) {
+		// Marsaglia polar method
+		double v1;
+		double v2;
+		double s;
+		do {
+			v1 = (2 * random.nextDouble()) - 1;
+			v2 = (2 * random.nextDouble()) - 1;
+			s = (v1 * v1) + (v2 * v2);
+		} while ((s >= 1) || (s == 0));
+		return v1 * StrictMath.sqrt((-2 * StrictMath.log(s)) / s);
+	}
+
+	/**
+	 * Shuffles a list in place.
+	 *
+	 * @param list   The list. May not be {@code null}.
+	 * @param random The source of randomness. May not be {@code null}.
+	 * @param <T>    The type of the elements.
+	 */
+	public static <T> void shuffle(final List<T> list, final SplittableRandom random) {
+		for (var i = list.size() - 1; i > 0; i--) {
+			final var j = random.nextInt(i + 1);
+			list.set(i, list.set(j, list.get(i)));
+		}
+	}
+}
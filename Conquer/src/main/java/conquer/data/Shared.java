@@ -10,6 +10,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * A class with some shared utility methods.
@@ -243,7 +244,7 @@ public final class Shared {
 			{Shared.LEATHER_PER_PERSON_PER_ROUND, Shared.LEATHER_PER_SOLDIER_PER_ROUND},
 			{Shared.STONE_PER_PERSON_PER_ROUND, Shared.STONE_PER_SOLDIER_PER_ROUND}};
 
-	private static final Random RANDOM = new Random(System.nanoTime());
+	private static final Random RANDOM = new Random(RandomStreams.defaultSeed());
 
 	/**
 	 * Utility method to delete an entire directory.
@@ -296,11 +297,15 @@ public final class Shared {
 	}
 
 	/**
-	 * Returns a random number between 0 (inclusive) and {@code i} (exclusive).
+	 * Returns a random number between 0 (inclusive) and {@code i} (exclusive). The generator is shared by all games,
+	 * so the results aren't reproducible. The game doesn't use it anymore, plugins and strategies should use their
+	 * streams, see {@link conquer.plugins.PluginInterface#getRandom(conquer.plugins.Plugin)} and
+	 * {@link conquer.data.strategy.StrategyObject#getRandom(IClan)}.
 	 *
 	 * @param i Upper bound, should be positive
 	 * @return A random number in [0;i[
 	 */
+	@Deprecated
 	public static int getRandomNumber(final int i) {
 		return Shared.RANDOM.nextInt(i);
 	}
@@ -342,14 +347,28 @@ public final class Shared {
 	}
 
 	/**
-	 * Returns a percentage in [down;upper]
+	 * Returns a percentage in [down;upper]. The generator is shared by all games, so the results aren't
+	 * reproducible. Use {@link #randomPercentage(SplittableRandom, double, double)} with a stream of the game.
 	 *
 	 * @param down  Lower limit
 	 * @param upper Upper limit
 	 * @return Random percentage
 	 */
+	@Deprecated
 	public static double randomPercentage(final double down, final double upper) {
-		return (Math.random() * (upper / 100)) + (down / 100);
+		return (Shared.RANDOM.nextDouble() * (upper / 100)) + (down / 100);
+	}
+
+	/**
+	 * Returns a percentage in [down;upper], using the given random number generator.
+	 *
+	 * @param random The source of randomness. May not be {@code null}.
+	 * @param down   Lower limit
+	 * @param upper  Upper limit
+	 * @return Random percentage
+	 */
+	public static double randomPercentage(final SplittableRandom random, final double down, final double upper) {
+		return (random.nextDouble() * (upper / 100)) + (down / 100);
 	}
 
 	/**
@@ -4,9 +4,14 @@ import conquer.data.strategy.StrategyObject;
 import conquer.utils.Graph;
 
 import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An utilities class to convert an graph of cities to a stream and apply
@@ -15,7 +20,7 @@ import java.util.stream.Stream;
  */
 public final class StreamUtils {
 	public static void forEach(final Graph<ICity> cities, final IClan clan, final Consumer<ICity> consumer) {
-		StreamUtils.forEach(cities, a -> a.getClan() == clan, consumer);
+		StreamUtils.getCitiesAsStream(cities, clan).forEach(consumer);
 	}
 
 	public static void forEach(final Graph<ICity> cities, final Consumer<ICity> consumer) {
@@ -28,13 +33,85 @@ public final class StreamUtils {
 	}
 
 	public static Stream<ICity> getCitiesAroundCity(final Graph<ICity> cities, final ICity middle) {
-		return cities.getConnected(middle).stream();
+		final var cursor = cities.newNeighbourCursor().reset(StreamUtils.indexOf(cities, middle));
+		return StreamSupport.stream(new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+				Spliterator.ORDERED) {
+			@Override
+			public boolean tryAdvance(final Consumer<? super ICity> action) {
+				if (!cursor.next()) {
+					return false;
+				}
+				action.accept(cities.getValue(cursor.index()));
+				return true;
+			}
+		}, false);
 	}
 
 	//TODO: Write test
 	public static Stream<ICity> getCitiesAroundCity(final StrategyObject info, final Graph<ICity> cities,
 													final ICity middle) {
-		return StreamUtils.getCitiesAsStream(cities).filter(a -> info.canMove(middle, a));
+		// Only neighbours can be reached with one move, there is no need to check every city.
+		return StreamUtils.getCitiesAroundCity(cities, middle).filter(a -> info.canMove(middle, a));
+	}
+
+	/**
+	 * Counts the neighbours of {@code middle}, that match {@code predicate}, without allocating a stream.
+	 */
+	public static long countCitiesAroundCity(final Graph<ICity> cities, final ICity middle,
+											 final Predicate<ICity> predicate) {
+		final var cursor = cities.newNeighbourCursor().reset(StreamUtils.indexOf(cities, middle));
+		var ret = 0L;
+		while (cursor.next()) {
+			if (predicate.test(cities.getValue(cursor.index()))) {
+				ret++;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Counts the cities, that can be reached from {@code middle} with one move and match {@code predicate},
+	 * without allocating a stream.
+	 */
+	public static long countCitiesAroundCity(final StrategyObject info, final Graph<ICity> cities,
+											 final ICity middle, final Predicate<ICity> predicate) {
+		return StreamUtils.countCitiesAroundCity(cities, middle, a -> info.canMove(middle, a) && predicate.test(a));
+	}
+
+	/**
+	 * Sums {@code function} over the neighbours of {@code middle}, that match {@code predicate}, without
+	 * allocating a stream.
+	 */
+	public static double sumCitiesAroundCity(final Graph<ICity> cities, final ICity middle,
+											 final Predicate<ICity> predicate, final ToDoubleFunction<ICity> function) {
+		final var cursor = cities.newNeighbourCursor().reset(StreamUtils.indexOf(cities, middle));
+		var ret = 0.0;
+		while (cursor.next()) {
+			final var city = cities.getValue(cursor.index());
+			if (predicate.test(city)) {
+				ret += function.applyAsDouble(city);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Sums {@code function} over the cities, that can be reached from {@code middle} with one move and match
+	 * {@code predicate}, without allocating a stream.
+	 */
+	public static double sumCitiesAroundCity(final StrategyObject info, final Graph<ICity> cities,
+											 final ICity middle, final Predicate<ICity> predicate,
+											 final ToDoubleFunction<ICity> function) {
+		return StreamUtils.sumCitiesAroundCity(cities, middle, a -> info.canMove(middle, a) && predicate.test(a),
+				function);
+	}
+
+	private static int indexOf(final Graph<ICity> cities, final ICity city) {
+		final var ret = cities.indexOf(city);
+		if (ret == -1) {
+			throw new NoSuchElementException();
+		}
+		return ret;
 	}
 
 	public static Stream<ICity> getCitiesAroundCity(final Graph<ICity> cities, final ICity middle, final IClan clan) {
@@ -50,7 +127,7 @@ public final class StreamUtils {
 
 	public static Stream<ICity> getCitiesAroundCity(final Graph<ICity> cities, final ICity middle,
 													final Predicate<ICity> predicate) {
-		return cities.getConnected(middle).stream().filter(predicate);
+		return StreamUtils.getCitiesAroundCity(cities, middle).filter(predicate);
 	}
 
 	public static Stream<ICity> getCitiesAroundCity(final StrategyObject info, final Graph<ICity> cities,
@@ -83,17 +160,31 @@ public final class StreamUtils {
 	}
 
 	public static Stream<ICity> getCitiesAsStream(final Graph<ICity> cities, final IClan clan) {
+		final var info = StreamUtils.ownerOf(cities);
+		if (info != null) {
+			return info.getCitiesOfClan(clan);
+		}
 		return StreamUtils.getCitiesAsStream(cities).filter(a -> a.getClan() == clan);
 	}
 
 	public static Stream<ICity> getCitiesAsStream(final Graph<ICity> cities, final IClan clan,
 												  final Comparator<ICity> comparator) {
-		return StreamUtils.getCitiesAsStream(cities, a -> a.getClan() == clan).sorted(comparator);
+		return StreamUtils.getCitiesAsStream(cities, clan).sorted(comparator);
 	}
 
 	public static Stream<ICity> getCitiesAsStream(final Graph<ICity> cities, final IClan clan,
 												  final Predicate<ICity> predicate) {
-		return StreamUtils.getCitiesAsStream(cities, a -> a.getClan() == clan, predicate);
+		return StreamUtils.getCitiesAsStream(cities, clan).filter(predicate);
+	}
+
+	// If the graph is the city graph of a game, the game can answer queries by clan from its ownership index.
+	private static StrategyObject ownerOf(final Graph<ICity> cities) {
+		if (cities.size() == 0) {
+			return null;
+		}
+		final var city = cities.getValue(0);
+		final var info = city == null ? null : city.getInfo();
+		return (info != null) && (info.getCities() == cities) ? info : null;
 	}
 
 	public static Stream<ICity> getCitiesAsStream(final Graph<ICity> cities, final Predicate<ICity> filterPredicate) {
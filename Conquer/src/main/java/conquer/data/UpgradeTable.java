@@ -0,0 +1,199 @@
+package conquer.data;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Precomputed costs and powers of one kind of upgrade for every level up to {@link #MAX_LEVEL}. The
+ * formulas behind the default methods of {@link IClan} need several calls to {@link Math#pow(double, double)} and
+ * {@link Math#log(double)} per level, the tables are built once instead.<br>
+ * The cumulative costs are stored, too, so the costs of many levels at once are a single subtraction and the
+ * number of affordable levels is found with a binary search. Levels outside of the tables are calculated with the
+ * formulas.
+ */
+public final class UpgradeTable {
+	// The default of ConquerInfo#getMaximumLevel(), the constant of Shared is only deprecated for strategies.
+	@SuppressWarnings("deprecation")
+	static final int MAX_LEVEL = Shared.MAX_LEVEL;
+	private static final int SIZE = UpgradeTable.MAX_LEVEL + 2;
+	private static final UpgradeTable CITY = new UpgradeTable(UpgradeTable::cityCosts, level -> 0);
+	private static final UpgradeTable SOLDIERS = new UpgradeTable(level -> UpgradeTable.soldierCosts(level) * 10,
+			level -> Math.sqrt(Math.log(level) + (4 * level)) / 100);
+	private static final UpgradeTable SOLDIERS_DEFENSE = new UpgradeTable(UpgradeTable::soldierCosts,
+			level -> Math.sqrt(Math.log(level) + (4 * level)) / 50);
+	private static final UpgradeTable SOLDIERS_OFFENSE = new UpgradeTable(UpgradeTable::soldierCosts,
+			level -> Math.sqrt(Math.log(level) + (4 * level)) / 50);
+	private final IntToDoubleFunction costFunction;
+	private final IntToDoubleFunction powerFunction;
+	private final double[] costs;
+	// cumulative[i] is the sum of costs[0..i-1]
+	private final double[] cumulative;
+	private final double[] powers;
+
+	private UpgradeTable(final IntToDoubleFunction costFunction, final IntToDoubleFunction powerFunction) {
+		this.costFunction = costFunction;
+		this.powerFunction = powerFunction;
+		this.costs = new double[UpgradeTable.SIZE];
+		this.cumulative = new double[UpgradeTable.SIZE + 1];
+		this.powers = new double[UpgradeTable.SIZE];
+		for (var level = 0; level < UpgradeTable.SIZE; level++) {
+			this.costs[level] = costFunction.applyAsDouble(level);
+			this.cumulative[level + 1] = this.cumulative[level] + this.costs[level];
+			this.powers[level] = powerFunction.applyAsDouble(level);
+		}
+	}
+
+	/**
+	 * Returns the table for the upgrades of the defense and the resource production of a city.
+	 *
+	 * @return The table, that matches {@link IClan#costs(int)}.
+	 */
+	public static UpgradeTable city() {
+		return UpgradeTable.CITY;
+	}
+
+	/**
+	 * Returns the table for an upgrade of the soldiers.
+	 *
+	 * @param upgrade The upgrade. May not be {@code null}, otherwise an {@code IllegalArgumentException} is thrown.
+	 * @return The table, that matches {@link IClan#upgradeCosts(SoldierUpgrade, int)} and
+	 * {@link IClan#newPower(SoldierUpgrade, int)}.
+	 */
+	public static UpgradeTable soldiers(final SoldierUpgrade upgrade) {
+		if (upgrade == null) {
+			throw new IllegalArgumentException("upgrade==null");
+		}
+		return switch (upgrade) {
+			case BOTH -> UpgradeTable.SOLDIERS;
+			case DEFENSE -> UpgradeTable.SOLDIERS_DEFENSE;
+			case OFFENSE -> UpgradeTable.SOLDIERS_OFFENSE;
+		};
+	}
+
+	private static double cityCosts(final int level) {
+		var ret = Math.pow(level, Math.E);
+		if (level != 0) {
+			ret = Math.pow(ret, 1.0d / 8.0d) * Math.pow(level, 1.0d / 3.0d);
+		}
+		ret = Math.pow(ret, (Math.PI / Math.E) + Math.pow(level, 1.0d / 40.0d));
+		ret *= Math.toRadians(level);
+		ret *= Math.toDegrees(level / 360.0d) / Math.PI;
+		return ret;
+	}
+
+	private static double soldierCosts(final int level) {
+		if (level == 0) {
+			return 40;
+		}
+		return Math.sqrt(Math.pow(Math.log(level), 3)) * level * level * Math.sqrt(level) * Math.log(level);
+	}
+
+	/**
+	 * Returns the costs of one level.
+	 *
+	 * @param level The level.
+	 * @return The costs in coins.
+	 */
+	public double costs(final int level) {
+		return (level >= 0) && (level < UpgradeTable.SIZE) ? this.costs[level]
+				: this.costFunction.applyAsDouble(level);
+	}
+
+	/**
+	 * Returns the sum of the costs of the levels {@code from} (inclusive) to {@code to} (exclusive).
+	 *
+	 * @param from The first level.
+	 * @param to   The level after the last one.
+	 * @return The costs in coins, 0 if {@code to <= from}.
+	 */
+	public double costs(final int from, final int to) {
+		if (to <= from) {
+			return 0;
+		} else if (to == (from + 1)) {
+			return this.costs(from);
+		} else if ((from >= 0) && (to <= UpgradeTable.SIZE)) {
+			return this.cumulative[to] - this.cumulative[from];
+		}
+		var ret = 0.0;
+		for (var level = from; level < to; level++) {
+			ret += this.costs(level);
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the power after an upgrade to a level.
+	 *
+	 * @param level The new level.
+	 * @return The power, that matches {@link IClan#newPower(SoldierUpgrade, int)}. Always 0 for
+	 * {@link #city()}.
+	 */
+	public double power(final int level) {
+		return (level >= 0) && (level < UpgradeTable.SIZE) ? this.powers[level]
+				: this.powerFunction.applyAsDouble(level);
+	}
+
+	/**
+	 * Returns the number of consecutive levels starting at {@code from}, that can be paid with {@code coins}. The
+	 * result is the same as paying one level after another until the coins aren't enough anymore, the cumulative
+	 * costs are only used, if rounding can't change the result.
+	 *
+	 * @param from  The first level to pay.
+	 * @param coins The available coins.
+	 * @param limit The maximum number of levels.
+	 * @return The number of levels, between 0 and {@code limit}.
+	 */
+	public int affordableLevels(final int from, final double coins, final int limit) {
+		if ((limit <= 0) || (this.costs(from) > coins)) {
+			return 0;
+		} else if ((from < 0) || (limit > (UpgradeTable.SIZE - from))) {
+			return this.sequential(from, coins, limit);
+		}
+		// The costs are never negative, so the cumulative costs are sorted.
+		var low = 1;
+		var high = limit;
+		while (low < high) {
+			final var mid = (low + high + 1) >>> 1;
+			if ((this.cumulative[from + mid] - this.cumulative[from]) <= coins) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		// Both the cumulative costs and the sequential payment round at every step. If the coins are that close
+		// to the costs of the last or the next level, only paying level by level gives the exact result.
+		final var next = Math.min(low + 1, limit);
+		final var error = 4.0 * (from + next + 2) * Math.ulp(Math.max(coins, this.cumulative[from + next]));
+		if (((coins - (this.cumulative[from + low] - this.cumulative[from])) <= error) || ((low < limit)
+				&& (((this.cumulative[from + next] - this.cumulative[from]) - coins) <= error))) {
+			return this.sequential(from, coins, limit);
+		}
+		return low;
+	}
+
+	private int sequential(final int from, final double coins, final int limit) {
+		var cnt = 0;
+		var remaining = coins;
+		while ((cnt < limit) && (this.costs(from + cnt) <= remaining)) {
+			remaining -= this.costs(from + cnt);
+			cnt++;
+		}
+		return cnt;
+	}
+
+	/**
+	 * Returns the coins, that are left after paying {@code count} levels starting at {@code from} one after
+	 * another. Unlike subtracting {@link #costs(int, int)}, this rounds exactly like single upgrades.
+	 *
+	 * @param from  The first level to pay.
+	 * @param count The number of levels.
+	 * @param coins The available coins.
+	 * @return The remaining coins.
+	 */
+	public double pay(final int from, final int count, final double coins) {
+		var ret = coins;
+		for (var level = from; level < (from + count); level++) {
+			ret -= this.costs(level);
+		}
+		return ret;
+	}
+}
@@ -4,10 +4,15 @@ import conquer.data.Gift;
 import conquer.data.ICity;
 import conquer.data.IClan;
 import conquer.data.Resource;
+import conquer.data.Shared;
 import conquer.data.StreamUtils;
 import conquer.data.strategy.StrategyObject;
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProfile.Parameter;
 import conquer.utils.Graph;
 
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -18,14 +23,32 @@ import java.util.function.Predicate;
 
 final class BuiltinShared {
 
-	private static final int GOOD_RELATION = 75;
-	private static final int MAX_ITERATIONS = 100;
-	private static final int COINS_TO_RETAIN = 20;
+	// The profile of the builtin strategies, unless a profile is given explicitly
+	static final StrategyProfile PROFILE = BuiltinShared.loadProfile(System.getProperty("conquer.builtin.profile"));
 
 	private BuiltinShared() {
 
 	}
 
+	static StrategyProfile loadProfile(final String file) {
+		if (file == null) {
+			return StrategyProfile.DEFAULT;
+		}
+		try (final var in = new FileInputStream(file)) {
+			final var ret = StrategyProfile.read(in);
+			Shared.LOGGER.message("Using strategy profile " + file);
+			return ret;
+		} catch (final IOException | IllegalArgumentException e) {
+			Shared.LOGGER.exception(e);
+			return StrategyProfile.DEFAULT;
+		}
+	}
+
+	// Plan the attacks with FrontierAttackPlanner instead of checking every city
+	static boolean usesFrontierPlanner(final StrategyProfile profile) {
+		return profile.getInt(Parameter.FRONTIER_PLANNER) != 0;
+	}
+
 	// Method for checking things that MUST be true.
 	static void assertThat(final boolean b, final String message) {
 		if (!b) {
@@ -34,15 +57,15 @@ final class BuiltinShared {
 	}
 
 	static void moderateAttack(final IClan clan, final ICity source, final Graph<ICity> graph,
-							   final StrategyObject object) {
+							   final StrategyObject object, final StrategyProfile profile) {
 		BuiltinShared.assertThat(clan != null, "clan==null");
 		BuiltinShared.assertThat(source != null, "source==null");
 		BuiltinShared.assertThat(graph != null, "graph==null");
 		BuiltinShared.assertThat(object != null, "object==null");
 		// Find all cities around the source of clans with a relationship < GOOD_RELATION
+		final var goodRelation = profile.get(Parameter.GOOD_RELATION);
 		final var citiesOfEnemies = StreamUtils
-				.getCitiesAroundCityNot(object, graph, source,
-						a -> object.getRelationship(clan, a) < BuiltinShared.GOOD_RELATION)
+				.getCitiesAroundCityNot(object, graph, source, a -> object.getRelationship(clan, a) < goodRelation)
 				.toList();
 		// Peace!
 		if (citiesOfEnemies.isEmpty()) {
@@ -53,35 +76,45 @@ final class BuiltinShared {
 		final var estimatedPowerOfDefender = weakestCity.getNumberOfSoldiers();
 		// If this clan may lose the attack, cancel it.
 		final var numberOfSoldiersInSource = source.getNumberOfSoldiers();
-		if ((estimatedPowerOfDefender >= numberOfSoldiersInSource) || (numberOfSoldiersInSource == 0)) {
+		if (((estimatedPowerOfDefender * profile.get(Parameter.MODERATE_ATTACK_RATIO)) >= numberOfSoldiersInSource)
+				|| (numberOfSoldiersInSource == 0)) {
 			return;
 		}
 		// Attack the weakest city
 		object.attack(source, weakestCity, false, 0);
 	}
 
-	static void moderatePlay(final Graph<ICity> graph, final StrategyObject object, final IClan clan) {
+	static void moderatePlay(final Graph<ICity> graph, final StrategyObject object, final IClan clan,
+							 final StrategyProfile profile) {
 		BuiltinShared.assertThat(clan != null, "clan==null");
 		BuiltinShared.assertThat(graph != null, "graph==null");
 		BuiltinShared.assertThat(object != null, "object==null");
 		final var citiesOfClan = StreamUtils.getCitiesAsStream(graph, clan).toList();
+		final var coinsToRetain = profile.get(Parameter.COINS_TO_RETAIN);
+		final var frontierPlanner = BuiltinShared.usesFrontierPlanner(profile);
 		StreamUtils.forEach(graph, clan, c -> {
 			// If there are too many soldiers in a city, try to move them, else recruit
 			// some.
 			final var diff = c.getCoinDiff();
-			if ((diff < -BuiltinShared.COINS_TO_RETAIN) && (citiesOfClan.size() > 1)) {
+			if ((diff < -coinsToRetain) && (citiesOfClan.size() > 1)) {
 				object.moveSoldiers(c, StreamUtils.getCitiesAroundCity(graph, c), false, null, 0);
-			} else if (diff > BuiltinShared.COINS_TO_RETAIN) {
-				object.recruitSoldiers(diff - BuiltinShared.COINS_TO_RETAIN, c, false, 0);
+			} else if (diff > coinsToRetain) {
+				object.recruitSoldiers(diff - coinsToRetain, c, false, 0);
 			}
 			// Do some expansion
-			BuiltinShared.moderateAttack(clan, c, graph, object);
+			if (!frontierPlanner) {
+				BuiltinShared.moderateAttack(clan, c, graph, object, profile);
+			}
 		});
+		if (frontierPlanner) {
+			FrontierAttackPlanner.moderateAttack(clan, graph, object, profile);
+		}
 		// Upgrade resources
-		BuiltinShared.moderateResourcesUpgrade(graph, object, clan);
+		BuiltinShared.moderateResourcesUpgrade(graph, object, clan, profile);
 	}
 
-	static void moderateResourcesUpgrade(final Graph<ICity> graph, final StrategyObject object, final IClan clan) {
+	static void moderateResourcesUpgrade(final Graph<ICity> graph, final StrategyObject object, final IClan clan,
+										 final StrategyProfile profile) {
 		if (clan.isPlayerClan()) {
 			return;
 		}
@@ -96,25 +129,32 @@ final class BuiltinShared {
 		Collections.sort(resources);
 		if (resources.get(0) > 0) {
 			// Update defense, because there are enough resources produced.
-			BuiltinShared.tryUpdatingDefense(graph, object, clan);
+			BuiltinShared.tryUpdatingDefense(graph, object, clan, profile.getInt(Parameter.UPGRADE_LEVELS));
 		} else {
 			// Else update the resources
 			BuiltinShared.tryUpdatingResources(graph, object, clan, map);
 		}
 	}
 
-	static void offensiveAttack(final IClan clan, final Graph<ICity> cityGraph, final StrategyObject object) {
+	static void offensiveAttack(final IClan clan, final Graph<ICity> cityGraph, final StrategyObject object,
+								final StrategyProfile profile) {
 		BuiltinShared.assertThat(clan != null, "clan==null");
 		BuiltinShared.assertThat(cityGraph != null, "cityGraph==null");
 		BuiltinShared.assertThat(object != null, "object==null");
-		final Predicate<ICity> inSafeCountry = city -> StreamUtils.getCitiesAroundCity(object, cityGraph, city, clan)
-				.count() > 0;
-		final Predicate<ICity> isReachableCityOfTheEnemy = city -> (StreamUtils
-				.getCitiesAroundCity(object, cityGraph, city, clan).count() > 0) && (city.getClan() != clan);
+		if (BuiltinShared.usesFrontierPlanner(profile)) {
+			FrontierAttackPlanner.offensiveAttack(clan, cityGraph, object, profile);
+			return;
+		}
+		final var attackRatio = profile.get(Parameter.OFFENSIVE_ATTACK_RATIO);
+		final Predicate<ICity> ownCity = city -> city.getClan() == clan;
+		final Predicate<ICity> inSafeCountry = city -> StreamUtils.countCitiesAroundCity(object, cityGraph, city,
+				ownCity) > 0;
+		final Predicate<ICity> isReachableCityOfTheEnemy = city -> (StreamUtils.countCitiesAroundCity(object,
+				cityGraph, city, ownCity) > 0) && (city.getClan() != clan);
 		StreamUtils.getCitiesAsStream(cityGraph, isReachableCityOfTheEnemy).distinct().forEach(
 				enemyCity -> StreamUtils.getCitiesAroundCity(object, cityGraph, enemyCity, clan).sorted((a, b) -> {
-					final var cnt1 = StreamUtils.getCitiesAroundCity(object, cityGraph, a, inSafeCountry).count();
-					final var cnt2 = StreamUtils.getCitiesAroundCity(object, cityGraph, b, inSafeCountry).count();
+					final var cnt1 = StreamUtils.countCitiesAroundCity(object, cityGraph, a, inSafeCountry);
+					final var cnt2 = StreamUtils.countCitiesAroundCity(object, cityGraph, b, inSafeCountry);
 					if (cnt1 == cnt2) {
 						final var compared = Long.compare(a.getNumberOfSoldiers(), b.getNumberOfSoldiers());
 						if ((compared == 0) && (a.getClan() != clan) && (b.getClan() != clan)) {
@@ -126,11 +166,11 @@ final class BuiltinShared {
 					// Attack them, starting with the weakest.
 				}).forEach(own -> {
 					final var cnt = object.maximumNumberToMove(clan, own, enemyCity, own.getNumberOfSoldiers());
-					if (own.getNumberOfSoldiers() < enemyCity.getDefense()) {
+					if (own.getNumberOfSoldiers() < (enemyCity.getDefense() * attackRatio)) {
 						object.recruitSoldiers(clan.getCoins(), own, false, 0);
 					}
 					// The enemy city could already be conquered...
-					if ((own.getNumberOfSoldiers() < enemyCity.getDefense()) || (cnt == 0)
+					if ((own.getNumberOfSoldiers() < (enemyCity.getDefense() * attackRatio)) || (cnt == 0)
 							|| (own.getClan() == enemyCity.getClan())) {
 						return;
 					}
@@ -143,8 +183,8 @@ final class BuiltinShared {
 		BuiltinShared.assertThat(graph != null, "graph==null");
 		BuiltinShared.assertThat(object != null, "object==null");
 		BuiltinShared.assertThat(clan != null, "clan==null");
-		StreamUtils.getCitiesAsStream(graph, clan,
-				a -> StreamUtils.getCitiesAroundCityNot(object, graph, a, clan).count() > 0).sorted((a, b) -> {
+		final var threats = object.getThreatMap();
+		StreamUtils.getCitiesAsStream(graph, clan, threats::isBorder).sorted((a, b) -> {
 			// Sort them using the defense strength
 			final var defenseStrengthA = a.getDefenseStrength();
 			final var defenseStrengthB = b.getDefenseStrength();
@@ -163,7 +203,8 @@ final class BuiltinShared {
 		return gift.getNumberOfCoins() + gift.getMap().values().stream().mapToDouble(Double::doubleValue).sum();
 	}
 
-	private static void tryUpdatingDefense(final Graph<ICity> graph, final StrategyObject object, final IClan clan) {
+	private static void tryUpdatingDefense(final Graph<ICity> graph, final StrategyObject object, final IClan clan,
+										   final int levels) {
 		BuiltinShared.assertThat(graph != null, "graph==null");
 		BuiltinShared.assertThat(object != null, "object==null");
 		BuiltinShared.assertThat(clan != null, "clan==null");
@@ -188,26 +229,16 @@ final class BuiltinShared {
 			}
 		}
 		// Now find the cities, that are at the border==> Make these cities stronger.
+		final var threats = object.getThreatMap();
 		StreamUtils.getCitiesAsStream(graph, clan).sorted((a, b) -> {
 			final var defense = a.getDefenseStrength();
-			final var neighbours = StreamUtils.getCitiesAroundCityNot(object, graph, a, a.getClan())
-					.toList();
-			final var attack = neighbours.stream().mapToDouble(ICity::getNumberOfSoldiers).sum();
+			final var attack = threats.getEnemyPressure(a);
 			final var defenseB = b.getDefenseStrength();
-			final var neighboursB = StreamUtils.getCitiesAroundCityNot(object, graph, b, b.getClan())
-					.toList();
-			final var attackB = neighboursB.stream().mapToDouble(ICity::getNumberOfSoldiers).sum();
+			final var attackB = threats.getEnemyPressure(b);
 			final var diff = attack - defense;
 			final var diff2 = attackB - defenseB;
 			return Double.compare(diff, diff2);
-		}).forEach(a -> {
-			var cnter = 0;
-			var b = true;
-			while (b && (cnter < BuiltinShared.MAX_ITERATIONS)) {
-				b = object.upgradeDefense(a);
-				cnter++;
-			}
-		});
+		}).forEach(a -> object.upgradeDefenseBy(a, levels));
 	}
 
 	static void tryUpdatingResources(final Graph<ICity> graph, final StrategyObject object, final IClan clan,
@@ -228,13 +259,9 @@ final class BuiltinShared {
 				final var i = Double.compare(productions1.get(aKey), productions2.get(aKey));
 				return i == 0 ? Double.compare(o1.getLevels().get(aKey), o2.getLevels().get(aKey)) : i;
 			}).toList();
-			var cnter = 0;
 			// In every city upgrade the production.
-			while (cnter != sortedListOfCities.size()) {
-				final var b = object.upgradeResource(Resource.values()[a.getKey()], sortedListOfCities.get(cnter));
-				if (!b) {
-					cnter++;
-				}
+			for (final var city : sortedListOfCities) {
+				object.upgradeResourceBy(Resource.values()[aKey], city, Integer.MAX_VALUE);
 			}
 		});
 	}
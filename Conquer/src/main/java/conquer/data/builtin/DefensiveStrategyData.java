@@ -7,15 +7,19 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public final class DefensiveStrategyData implements StrategyData {
 	private int counter;
-	private final Random random;
+	private final SplittableRandom random;
 	private DefensiveStrategy strategy;
 
 	public DefensiveStrategyData() {
-		this.random = new Random(System.nanoTime());
+		this(new SplittableRandom());
+	}
+
+	public DefensiveStrategyData(final SplittableRandom random) {
+		this.random = random;
 		this.counter = Math.abs(this.random.nextInt(20)) + 1;
 		this.strategy = DefensiveStrategy.values()[Math.abs(this.random.nextInt(DefensiveStrategy.values().length))];
 	}
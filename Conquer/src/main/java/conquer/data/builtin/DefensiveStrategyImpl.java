@@ -3,23 +3,36 @@ package conquer.data.builtin;
 import conquer.data.Gift;
 import conquer.data.ICity;
 import conquer.data.IClan;
+import conquer.data.SoldierUpgrade;
 import conquer.data.StreamUtils;
 import conquer.data.strategy.Strategy;
 import conquer.data.strategy.StrategyData;
 import conquer.data.strategy.StrategyObject;
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProfile.Parameter;
 import conquer.utils.Graph;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.SplittableRandom;
 import java.util.function.DoubleConsumer;
-import java.util.function.Predicate;
 
 public final class DefensiveStrategyImpl implements Strategy {
-	private static final int MAX_ITERATIONS = 100;
+	// Package-private, so the tests can check the copies.
+	final StrategyProfile profile;
 	private Graph<ICity> graph;
 	private StrategyObject object;
 
+	// Restored games are created with reflection.
+	public DefensiveStrategyImpl() {
+		this(BuiltinShared.PROFILE);
+	}
+
+	DefensiveStrategyImpl(final StrategyProfile profile) {
+		this.profile = profile;
+	}
+
 	@Override
 	public boolean acceptGift(final IClan sourceClan, final IClan destinationClan, final Gift gift,
 							  final double oldValue, final DoubleConsumer newValue,
@@ -32,7 +45,7 @@ public final class DefensiveStrategyImpl implements Strategy {
 		BuiltinShared.assertThat(oldValue >= 0, "oldValue<0: " + oldValue);
 		final var own = BuiltinShared.sum(destinationClan);
 		final var giftValue = BuiltinShared.sum(gift);
-		final var prop = own == 0 ? Math.random() * 2 : (giftValue / own);
+		final var prop = own == 0 ? strategyObject.getRandom(destinationClan).nextDouble() * 2 : (giftValue / own);
 		newValue.accept(oldValue + (prop * 0.05 * strategyObject.getRelationship(sourceClan, destinationClan)));
 		return true;
 	}
@@ -45,23 +58,24 @@ public final class DefensiveStrategyImpl implements Strategy {
 		this.object = obj;
 		this.graph = cities;
 		final var dt = clan.getData();
+		final var random = obj.getRandom(clan);
 		if (dt instanceof DefensiveStrategyData dsd) {
 			final var ds = dsd.getStrategy();
 			if (ds == DefensiveStrategy.EXPAND) {
-				if (Math.random() > 0.5) {
+				if (random.nextDouble() > 0.5) {
 					this.tryAttacking(clan);
-					BuiltinShared.offensiveAttack(clan, cities, obj);
+					BuiltinShared.offensiveAttack(clan, cities, obj, this.profile);
 				} else {
-					BuiltinShared.offensiveAttack(clan, cities, obj);
+					BuiltinShared.offensiveAttack(clan, cities, obj, this.profile);
 					this.tryAttacking(clan);
 				}
 			} else if (ds == DefensiveStrategy.FORTIFYANDUPGRADE) {
-				if (Math.random() > 0.5) {
-					BuiltinShared.moderatePlay(cities, obj, clan);
+				if (DefensiveStrategyImpl.playsModerately(random, this.profile)) {
+					BuiltinShared.moderatePlay(cities, obj, clan, this.profile);
 				} else {
 					this.defensiveUpgrades(clan);
 					this.defensiveCityUpgrades(clan);
-					BuiltinShared.moderateResourcesUpgrade(cities, obj, clan);
+					BuiltinShared.moderateResourcesUpgrade(cities, obj, clan, this.profile);
 				}
 			} else if (ds == DefensiveStrategy.RECRUIT) {
 				BuiltinShared.offensiveRecruiting(cities, obj, clan);
@@ -72,31 +86,37 @@ public final class DefensiveStrategyImpl implements Strategy {
 		}
 	}
 
+	// Whether a fortifying clan plays like the moderate strategy this round
+	static boolean playsModerately(final SplittableRandom random, final StrategyProfile profile) {
+		return random.nextDouble() < profile.get(Parameter.DEFENSIVE_MODERATE_PROBABILITY);
+	}
+
 	private void sendGift(final IClan clan) {
-		if (StreamUtils.getCitiesAsStream(this.graph, clan).count() < 2) {
+		if (this.object.getNumberOfCities(clan) < 2) {
 			return;// We can't waste our power.
 		}
 		// Create a working copy.
 		final var list = new ArrayList<>(clan.getResources());
 		Collections.sort(list);
-		if (list.get(0) < 1500) {
+		if (list.get(0) < this.profile.get(Parameter.DEFENSIVE_GIFT_RESERVE)) {
 			// Don't waste resources, we may need them.
 			return;
 		}
+		final var random = this.object.getRandom(clan);
 		final var giftedResources = new ArrayList<Double>();
 		for (final var totalResource : clan.getResources()) {
 			// Give up to 50% of a resource as gift.
-			final var amount = Math.random() * 0.5 * totalResource;
+			final var amount = random.nextDouble() * 0.5 * totalResource;
 			giftedResources.add(Math.min(totalResource, amount));
 		}
-		final var totalCoins = clan.getCoins() * Math.random() * 0.33;
+		final var totalCoins = clan.getCoins() * random.nextDouble() * 0.33;
 		final var gift = new Gift(giftedResources, totalCoins);
 		final var clans = StreamUtils.getCitiesAsStream(this.graph).map(ICity::getClan).distinct()
 				.filter(a -> a != clan).sorted(Comparator.comparingDouble(a -> this.object.getRelationship(a, clan)))
 				.toList();
 		// Improve relationship, start from the one with the worst relationship.
 		for (final var otherClan : clans) {
-			if (Math.random() < 0.75) {
+			if (random.nextDouble() < this.profile.get(Parameter.DEFENSIVE_GIFT_SKIP_PROBABILITY)) {
 				continue;
 			}
 			if (this.object.sendGift(clan, otherClan, gift)) {
@@ -108,44 +128,28 @@ public final class DefensiveStrategyImpl implements Strategy {
 	private void defensiveCityUpgrades(final IClan clan) {
 		// Try to build fortresses that are difficult to conquer, starting with
 		// upgrading the weakest cities.
+		final var threats = this.object.getThreatMap();
 		StreamUtils.getCitiesAsStream(this.graph, clan, (a, b) -> {
-			final Predicate<ICity> predicate = c -> c.getClan() != clan;
-			final var cnt1 = StreamUtils.getCitiesAroundCity(this.object, this.graph, a, predicate).count();
-			final var cnt2 = StreamUtils.getCitiesAroundCity(this.object, this.graph, b, predicate).count();
+			final var cnt1 = threats.getHostileNeighbours(a);
+			final var cnt2 = threats.getHostileNeighbours(b);
 			if (cnt1 == cnt2) {
 				return Double.compare(a.getDefense(), b.getDefense());
 			} else {
-				return Long.compare(cnt1, cnt2);
+				return Integer.compare(cnt1, cnt2);
 			}
-		}).forEach(a -> {
-			var b = true;
-			var cnter = 0;
-			while (b && (cnter < DefensiveStrategyImpl.MAX_ITERATIONS)) {
-				b = this.object.upgradeDefense(a);
-				cnter++;
-			}
-		});
+		}).forEach(a -> this.object.upgradeDefenseBy(a, this.profile.getInt(Parameter.UPGRADE_LEVELS)));
 	}
 
 	private void defensiveUpgrades(final IClan clan) {
-		var b = true;
-		var cnter = 0;
-		while (b && (cnter < DefensiveStrategyImpl.MAX_ITERATIONS)) {
-			b = clan.upgradeSoldiersDefense();
-			cnter++;
-		}
-		b = true;
-		cnter = 0;
-		while (b && (cnter < DefensiveStrategyImpl.MAX_ITERATIONS)) {
-			b = clan.upgradeSoldiers();
-			cnter++;
-		}
-		b = true;
-		cnter = 0;
-		while (b && (cnter < DefensiveStrategyImpl.MAX_ITERATIONS)) {
-			b = clan.upgradeSoldiersOffense();
-			cnter++;
-		}
+		final var levels = this.profile.getInt(Parameter.UPGRADE_LEVELS);
+		clan.upgradeBy(SoldierUpgrade.DEFENSE, levels);
+		clan.upgradeBy(SoldierUpgrade.BOTH, levels);
+		clan.upgradeBy(SoldierUpgrade.OFFENSE, levels);
+	}
+
+	@Override
+	public Strategy copy() {
+		return new DefensiveStrategyImpl(this.profile);
 	}
 
 	@Override
@@ -153,6 +157,11 @@ public final class DefensiveStrategyImpl implements Strategy {
 		return new DefensiveStrategyData();
 	}
 
+	@Override
+	public StrategyData getData(final SplittableRandom random) {
+		return new DefensiveStrategyData(random);
+	}
+
 	@Override
 	public StrategyData resume(final StrategyObject strategyObject, final byte[] bytes, final boolean hasStrategyData,
 							   final byte[] dataBytes) {
@@ -174,7 +183,7 @@ public final class DefensiveStrategyImpl implements Strategy {
 							// Estimated strength of the enemy
 							final var dTwo = enemy.getDefense() + (enemy.getNumberOfSoldiers() * enemy.getBonus());
 							// Only attack, if a victory is very probable.
-							if (dOwn > (dTwo * 1.1)) {
+							if (dOwn > (dTwo * this.profile.get(Parameter.DEFENSIVE_ATTACK_RATIO))) {
 								this.object.attack(ownCity, enemy, false, 0);
 							}
 						}));
@@ -0,0 +1,164 @@
+package conquer.data.builtin;
+
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.data.StreamUtils;
+import conquer.data.strategy.StrategyObject;
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProfile.Parameter;
+import conquer.utils.Graph;
+import conquer.utils.NeighbourCursor;
+
+import java.util.BitSet;
+import java.util.PriorityQueue;
+
+/**
+ * Plans the attacks of a clan on its frontier, i.e. the edges from an own city to a city of another clan. Every
+ * edge is scored once, the edges are attacked in the order of a priority queue, starting with the best score. If
+ * the score of an edge dropped since it was queued, e.g. because its source already attacked, the edge is queued
+ * again with the new score. A conquered city adds its edges to the frontier.
+ * <p>
+ * The whole plan costs O(F log F) for F frontier edges, instead of scanning all cities for every enemy city.
+ */
+final class FrontierAttackPlanner {
+	private final IClan clan;
+	private final Graph<ICity> graph;
+	private final StrategyObject object;
+	private final boolean moderate;
+	private final double goodRelation;
+	// Moderate: The multiple of the soldiers of the target, offensive: the multiple of its defense
+	private final double attackRatio;
+	private final NeighbourCursor cursor;
+	private final PriorityQueue<Candidate> queue = new PriorityQueue<>();
+	// Every city attacks at most once in moderate mode
+	private final BitSet attacked = new BitSet();
+
+	private FrontierAttackPlanner(final IClan clan, final Graph<ICity> graph, final StrategyObject object,
+								  final boolean moderate, final StrategyProfile profile) {
+		this.clan = clan;
+		this.graph = graph;
+		this.object = object;
+		this.moderate = moderate;
+		this.goodRelation = profile.get(Parameter.GOOD_RELATION);
+		this.attackRatio = profile.get(moderate ? Parameter.MODERATE_ATTACK_RATIO : Parameter.OFFENSIVE_ATTACK_RATIO);
+		this.cursor = graph.newNeighbourCursor();
+	}
+
+	/**
+	 * Attacks every city of another clan, that can be conquered. If a city doesn't have enough soldiers, soldiers
+	 * are recruited first. The attacks use as many soldiers as possible.
+	 *
+	 * @param clan    The attacking clan.
+	 * @param graph   The graph of all cities.
+	 * @param object  The object that executes the attacks.
+	 * @param profile The thresholds of the attacks.
+	 */
+	static void offensiveAttack(final IClan clan, final Graph<ICity> graph, final StrategyObject object,
+								final StrategyProfile profile) {
+		new FrontierAttackPlanner(clan, graph, object, false, profile).run();
+	}
+
+	/**
+	 * Attacks cities of clans with a bad relationship, if the own city has more soldiers than the city of the
+	 * enemy. Every city attacks at most once, the number of soldiers is chosen by the {@link StrategyObject}.
+	 *
+	 * @param clan    The attacking clan.
+	 * @param graph   The graph of all cities.
+	 * @param object  The object that executes the attacks.
+	 * @param profile The thresholds of the attacks.
+	 */
+	static void moderateAttack(final IClan clan, final Graph<ICity> graph, final StrategyObject object,
+							   final StrategyProfile profile) {
+		new FrontierAttackPlanner(clan, graph, object, true, profile).run();
+	}
+
+	private void run() {
+		StreamUtils.getCitiesAsStream(this.graph, this.clan).toList().forEach(this::addFrontier);
+		while (!this.queue.isEmpty()) {
+			final var candidate = this.queue.poll();
+			final var own = this.graph.getValue(candidate.source);
+			final var target = this.graph.getValue(candidate.target);
+			if ((own.getClan() != this.clan) || (target.getClan() == this.clan)
+					|| (this.moderate && this.attacked.get(candidate.source))) {
+				continue;
+			}
+			final var score = this.score(own, target);
+			if (score < candidate.score) {
+				// Outdated, the edge may be worse than the next one.
+				this.queue.add(new Candidate(candidate.source, candidate.target, score));
+				continue;
+			}
+			this.attack(candidate, own, target);
+			if (target.getClan() == this.clan) {
+				this.addFrontier(target);
+			}
+		}
+	}
+
+	private void addFrontier(final ICity own) {
+		final var source = this.graph.indexOf(own);
+		this.cursor.reset(source);
+		while (this.cursor.next()) {
+			final var target = this.graph.getValue(this.cursor.index());
+			if ((target.getClan() == this.clan) || !this.object.canMove(own, target)) {
+				continue;
+			}
+			if (this.moderate && (this.object.getRelationship(this.clan, target) >= this.goodRelation)) {
+				continue;
+			}
+			this.queue.add(new Candidate(source, this.cursor.index(), this.score(own, target)));
+		}
+	}
+
+	// The soldiers, that would be left after the attack
+	private double score(final ICity own, final ICity target) {
+		if (this.moderate) {
+			return own.getNumberOfSoldiers() - target.getNumberOfSoldiers();
+		}
+		return this.object.maximumNumberToMove(this.clan, own, target, own.getNumberOfSoldiers())
+				- target.getDefense();
+	}
+
+	private void attack(final Candidate candidate, final ICity own, final ICity target) {
+		final var soldiers = own.getNumberOfSoldiers();
+		if (this.moderate) {
+			if (((target.getNumberOfSoldiers() * this.attackRatio) >= soldiers) || (soldiers == 0)) {
+				return;
+			}
+			this.attacked.set(candidate.source);
+			this.object.attack(own, target, false, 0);
+			return;
+		}
+		final var cnt = this.object.maximumNumberToMove(this.clan, own, target, soldiers);
+		if (soldiers < (target.getDefense() * this.attackRatio)) {
+			this.object.recruitSoldiers(this.clan.getCoins(), own, false, 0);
+		}
+		if ((own.getNumberOfSoldiers() < (target.getDefense() * this.attackRatio)) || (cnt == 0)) {
+			return;
+		}
+		this.object.attack(own, target, true, cnt);
+	}
+
+	private static final class Candidate implements Comparable<Candidate> {
+		private final int source;
+		private final int target;
+		private final double score;
+
+		private Candidate(final int source, final int target, final double score) {
+			this.source = source;
+			this.target = target;
+			this.score = score;
+		}
+
+		@Override
+		public int compareTo(final Candidate o) {
+			// Best score first, ties are broken by the indices, so the plan doesn't depend on the queue.
+			final var compared = Double.compare(o.score, this.score);
+			if (compared != 0) {
+				return compared;
+			}
+			return this.source != o.source ? Integer.compare(this.source, o.source)
+					: Integer.compare(this.target, o.target);
+		}
+	}
+}
@@ -7,16 +7,27 @@ import conquer.data.StreamUtils;
 import conquer.data.strategy.Strategy;
 import conquer.data.strategy.StrategyData;
 import conquer.data.strategy.StrategyObject;
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProfile.Parameter;
 import conquer.utils.Graph;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.DoubleConsumer;
 
 public final class ModerateStrategyImpl implements Strategy {
-	private static final double BIG_RELATIONSHIP_INCREASE_FACTOR = 7.3;
-	private static final int SMALL_RELATIONSHIP_INCREASE_FACTOR = 5;
+	// Package-private, so the tests can check the copies.
+	final StrategyProfile profile;
+
+	// Restored games are created with reflection.
+	public ModerateStrategyImpl() {
+		this(BuiltinShared.PROFILE);
+	}
+
+	ModerateStrategyImpl(final StrategyProfile profile) {
+		this.profile = profile;
+	}
 
 	@Override
 	public boolean acceptGift(final IClan sourceClan, final IClan destinationClan, final Gift gift,
@@ -28,15 +39,16 @@ public final class ModerateStrategyImpl implements Strategy {
 		BuiltinShared.assertThat(newValue != null, "newValue==null");
 		BuiltinShared.assertThat(strategyObject != null, "strategyObject==null");
 		BuiltinShared.assertThat(oldValue >= 0, "oldValue<0: " + oldValue);
-		if (Math.random() < (1 - (strategyObject.getRelationship(sourceClan, destinationClan) * 0.1))) {
+		if (strategyObject.getRandom(destinationClan).nextDouble() < (1 - (strategyObject.getRelationship(sourceClan, destinationClan) * 0.1))) {
 			return false;
 		}
 		final var pref = BuiltinShared.sum(gift);
 		final var own = BuiltinShared.sum(destinationClan);
 		if (pref > own) {
-			newValue.accept(oldValue + ((pref / own) * ModerateStrategyImpl.SMALL_RELATIONSHIP_INCREASE_FACTOR));
+			newValue.accept(oldValue
+					+ ((pref / own) * this.profile.get(Parameter.MODERATE_SMALL_RELATIONSHIP_INCREASE)));
 		} else {
-			newValue.accept(oldValue + ((pref / own) * ModerateStrategyImpl.BIG_RELATIONSHIP_INCREASE_FACTOR));
+			newValue.accept(oldValue + ((pref / own) * this.profile.get(Parameter.MODERATE_BIG_RELATIONSHIP_INCREASE)));
 		}
 		return true;
 	}
@@ -46,12 +58,13 @@ public final class ModerateStrategyImpl implements Strategy {
 		BuiltinShared.assertThat(clan != null, "clan==null");
 		BuiltinShared.assertThat(cities != null, "cities==null");
 		BuiltinShared.assertThat(object != null, "object==null");
-		BuiltinShared.moderatePlay(cities, object, clan);
+		BuiltinShared.moderatePlay(cities, object, clan, this.profile);
 		this.sendGift(clan, cities, object);
 	}
 
 	private void sendGift(final IClan clan, final Graph<ICity> cities, final StrategyObject object) {
-		final var map = new HashMap<IClan, Integer>();
+		// Keep the order of the cities, so ties are broken the same way in every run.
+		final var map = new LinkedHashMap<IClan, Integer>();
 		StreamUtils.forEach(cities, a -> {
 			final var clanObject = a.getClan();
 			if (map.containsKey(clanObject)) {
@@ -60,10 +73,12 @@ public final class ModerateStrategyImpl implements Strategy {
 				map.put(clanObject, 1);
 			}
 		});
+		final var giftRelation = this.profile.get(Parameter.MODERATE_GIFT_RELATION);
 		final var clansSortedByDescendingSize = map.entrySet().stream().filter(a -> a.getKey() != clan)
 				.sorted((a, b) -> Integer.compare(b.getValue(), a.getValue()))
-				.filter(otherClan -> object.getRelationship(clan, otherClan.getKey()) < 65).map(Map.Entry::getKey)
-				.toList();
+				.filter(otherClan -> object.getRelationship(clan, otherClan.getKey()) < giftRelation)
+				.map(Map.Entry::getKey).toList();
+		final var random = object.getRandom(clan);
 		// Try to get relationships with the strongest clans.
 		for (final var otherClan : clansSortedByDescendingSize) {
 			final var resourcesToGive = new ArrayList<Double>();
@@ -75,22 +90,29 @@ public final class ModerateStrategyImpl implements Strategy {
 					resourcesToGive.add(0d);
 				} else {
 					final var numRoundsOfResourceStored = clan.getResources().get(i) / ownValue;
-					final var roundsToGive = Math.random() * 0.5 * numRoundsOfResourceStored;
+					final var roundsToGive = random.nextDouble() * this.profile.get(Parameter.MODERATE_GIFT_RESOURCES)
+							* numRoundsOfResourceStored;
 					resourcesToGive.add(Double.isNaN(roundsToGive) || Double.isInfinite(roundsToGive) ? 0
 							: roundsToGive * ownValue);
 				}
 			}
 			final var ownCoins = clan.getCoins();
 			final var otherClanCoins = otherClan.getCoins();
-			if ((ownCoins < otherClanCoins) || (ownCoins == 0) || Math.random() < 0.2) {
+			if ((ownCoins < otherClanCoins) || (ownCoins == 0)
+					|| (random.nextDouble() < this.profile.get(Parameter.MODERATE_GIFT_SKIP_PROBABILITY))) {
 				continue;
 			}
-			final var coinsToGive = Math.random() * 0.35 * ownCoins;
+			final var coinsToGive = random.nextDouble() * this.profile.get(Parameter.MODERATE_GIFT_COINS) * ownCoins;
 			final var gift = new Gift(resourcesToGive, coinsToGive);
 			object.sendGift(clan, otherClan, gift);
 		}
 	}
 
+	@Override
+	public Strategy copy() {
+		return new ModerateStrategyImpl(this.profile);
+	}
+
 	@Override
 	public StrategyData getData() {
 		return null;
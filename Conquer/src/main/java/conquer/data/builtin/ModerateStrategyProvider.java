@@ -1,13 +1,22 @@
 package conquer.data.builtin;
 
 import conquer.data.strategy.Strategy;
+import conquer.data.strategy.StrategyProfile;
 import conquer.data.strategy.StrategyProvider;
 
 public final class ModerateStrategyProvider implements StrategyProvider {
 
 	@Override
 	public Strategy buildStrategy() {
-		return new ModerateStrategyImpl();
+		return this.buildStrategy(BuiltinShared.PROFILE);
+	}
+
+	@Override
+	public Strategy buildStrategy(final StrategyProfile profile) {
+		if (profile == null) {
+			throw new IllegalArgumentException("profile==null");
+		}
+		return new ModerateStrategyImpl(profile);
 	}
 
 	@Override
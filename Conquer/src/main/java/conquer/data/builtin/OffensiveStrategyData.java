@@ -7,16 +7,20 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public final class OffensiveStrategyData implements StrategyData {
 	private static final int MAX_ROUND_NUMBER = 20;
 	private int counter;
 	private OffensiveStrategy action;
-	private final Random random;
+	private final SplittableRandom random;
 
 	public OffensiveStrategyData() {
-		this.random = new Random(System.nanoTime());
+		this(new SplittableRandom());
+	}
+
+	public OffensiveStrategyData(final SplittableRandom random) {
+		this.random = random;
 		this.counter = Math.abs(this.random.nextInt(OffensiveStrategyData.MAX_ROUND_NUMBER)) + 1;
 		this.action = OffensiveStrategy.EXPAND;
 	}
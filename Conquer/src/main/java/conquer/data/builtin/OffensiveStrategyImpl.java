@@ -4,21 +4,33 @@ import conquer.data.Gift;
 import conquer.data.ICity;
 import conquer.data.IClan;
 import conquer.data.Resource;
+import conquer.data.SoldierUpgrade;
 import conquer.data.StreamUtils;
 import conquer.data.strategy.Strategy;
 import conquer.data.strategy.StrategyData;
 import conquer.data.strategy.StrategyObject;
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProfile.Parameter;
 import conquer.utils.Graph;
 
+import java.util.SplittableRandom;
 import java.util.function.DoubleConsumer;
 
 public final class OffensiveStrategyImpl implements Strategy {
-	private static final double OFFENSIVE_UPGRADE_PROBABILITY = 0.15;
-	private static final double DECLINE_GIFT_PROBABILITY = 0.875;
-	private static final int MAX_ITERATIONS_PER_ROUND = 100;
+	// Package-private, so the tests can check the copies.
+	final StrategyProfile profile;
 	private StrategyObject object;
 	private Graph<ICity> graph;
 
+	// Restored games are created with reflection.
+	public OffensiveStrategyImpl() {
+		this(BuiltinShared.PROFILE);
+	}
+
+	OffensiveStrategyImpl(final StrategyProfile profile) {
+		this.profile = profile;
+	}
+
 	@Override
 	public boolean acceptGift(final IClan sourceClan, final IClan destinationClan, final Gift gift,
 							  final double oldValue, final DoubleConsumer newValue,
@@ -29,14 +41,14 @@ public final class OffensiveStrategyImpl implements Strategy {
 		BuiltinShared.assertThat(newValue != null, "newValue==null");
 		BuiltinShared.assertThat(strategyObject != null, "strategyObject==null");
 		BuiltinShared.assertThat(oldValue >= 0, "oldValue<0: " + oldValue);
-		if (Math.random() > OffensiveStrategyImpl.DECLINE_GIFT_PROBABILITY) {
+		final var random = strategyObject.getRandom(destinationClan);
+		if (random.nextDouble() > this.profile.get(Parameter.OFFENSIVE_GIFT_PROBABILITY)) {
 			return false;
 		} else {
-			final var cities = strategyObject.getCities();
-			final var numOwn = StreamUtils.getCitiesAsStream(cities, destinationClan).count();
-			final var numOther = StreamUtils.getCitiesAsStream(cities, sourceClan).count();
+			final var numOwn = strategyObject.getNumberOfCities(destinationClan);
+			final var numOther = strategyObject.getNumberOfCities(sourceClan);
 			if (numOwn < numOther) {// "Alliance" with stronger clans
-				newValue.accept(oldValue + (Math.random() * 120 * (numOther / (double) numOwn)));
+				newValue.accept(oldValue + (random.nextDouble() * 120 * (numOther / (double) numOwn)));
 				return true;
 			} else {
 				return false;
@@ -55,13 +67,13 @@ public final class OffensiveStrategyImpl implements Strategy {
 		if (data instanceof OffensiveStrategyData strategyData) {
 			final var action = strategyData.getAction();
 			if (action == OffensiveStrategy.EXPAND) {
-				BuiltinShared.offensiveAttack(clan, cities, obj);
+				BuiltinShared.offensiveAttack(clan, cities, obj, this.profile);
 			} else {// Upgrades
-				if (Math.random() < OffensiveStrategyImpl.OFFENSIVE_UPGRADE_PROBABILITY) {
+				if (obj.getRandom(clan).nextDouble() < this.profile.get(Parameter.OFFENSIVE_UPGRADE_PROBABILITY)) {
 					// Rarely, only the resources for recruiting soldiers upgraded
 					this.offensiveResourcesUpgrade(clan);
 				} else {
-					BuiltinShared.moderateResourcesUpgrade(cities, obj, clan);
+					BuiltinShared.moderateResourcesUpgrade(cities, obj, clan, this.profile);
 				}
 				// Recruit as many soldiers as possible
 				BuiltinShared.offensiveRecruiting(cities, obj, clan);
@@ -75,17 +87,28 @@ public final class OffensiveStrategyImpl implements Strategy {
 		}
 	}
 
+	@Override
+	public Strategy copy() {
+		return new OffensiveStrategyImpl(this.profile);
+	}
+
 	@Override
 	public StrategyData getData() {
 		return new OffensiveStrategyData();
 	}
 
+	@Override
+	public StrategyData getData(final SplittableRandom random) {
+		return new OffensiveStrategyData(random);
+	}
+
 	private void moveTroops(final IClan clan) {
 		// All cities, of the own clan, that are not at the border (=Are only surrounded
 		// by cities of the same clan), and have soldiers. (Set W in the following)
+		final var threats = this.object.getThreatMap();
 		final var citiesWithoutBordersWithSoldiers = StreamUtils
 				.getCitiesAsStream(this.graph, clan, a -> a.getNumberOfSoldiers() > 0)
-				.filter(a -> StreamUtils.getCitiesAroundCityNot(this.object, this.graph, a, clan).count() == 0)
+				.filter(a -> !threats.isBorder(a))
 				.toList();
 		// All cities that are adjacent to another clan. (Set B in the following)
 		final var citiesOnBorder = StreamUtils
@@ -130,18 +153,9 @@ public final class OffensiveStrategyImpl implements Strategy {
 	// Upgrade the only the soldiers strength and the soldiers offense strength.
 	// Upgrading the defense is a "waste of money" for this algorithm.
 	private void offensiveSoldierUpgrading(final IClan clan) {
-		var b = true;
-		var cnter = 0;
-		while (b && (cnter < OffensiveStrategyImpl.MAX_ITERATIONS_PER_ROUND)) {
-			b = clan.upgradeSoldiersOffense();
-			cnter++;
-		}
-		b = true;
-		cnter = 0;
-		while (b && (cnter < OffensiveStrategyImpl.MAX_ITERATIONS_PER_ROUND)) {
-			b = clan.upgradeSoldiers();
-			cnter++;
-		}
+		final var levels = this.profile.getInt(Parameter.UPGRADE_LEVELS);
+		clan.upgradeBy(SoldierUpgrade.OFFENSE, levels);
+		clan.upgradeBy(SoldierUpgrade.BOTH, levels);
 	}
 
 	@Override
@@ -159,9 +173,9 @@ public final class OffensiveStrategyImpl implements Strategy {
 	// all cities are used for upgrading the resource production.
 	// The cities are upgraded in ascending order.
 	private void upgradeResourcesForClan(final IClan clan, final Resource resc) {
+		final var threats = this.object.getThreatMap();
 		final var citiesWithoutBorders = StreamUtils
-				.getCitiesAsStream(this.graph, clan,
-						a -> StreamUtils.getCitiesAroundCityNot(this.object, this.graph, a, clan).count() == 0)
+				.getCitiesAsStream(this.graph, clan, a -> !threats.isBorder(a))
 				.toList();
 		final var cityStream = (citiesWithoutBorders.isEmpty() ? StreamUtils.getCitiesAsStream(this.graph, clan)
 				: citiesWithoutBorders.stream());
@@ -170,10 +184,6 @@ public final class OffensiveStrategyImpl implements Strategy {
 			final double resA = a.getProductions().get(index);
 			final double resB = b.getProductions().get(index);
 			return Double.compare(resA, resB);
-		}).forEach(a -> {
-			while (this.object.upgradeResource(resc, a)) {
-				// Empty
-			}
-		});
+		}).forEach(a -> this.object.upgradeResourceBy(resc, a, Integer.MAX_VALUE));
 	}
 }
@@ -1,21 +1,44 @@
 package conquer.data.builtin;
 
-import conquer.data.Shared;
 import conquer.data.strategy.Strategy;
+import conquer.data.strategy.StrategyProfile;
 import conquer.data.strategy.StrategyProvider;
 
+import java.util.SplittableRandom;
+
 public final class RandomStrategyProvider implements StrategyProvider {
 
+	// Without the generator of a game, the choice isn't reproducible.
 	@Override
 	public Strategy buildStrategy() {
-		return switch (Shared.getRandomNumber(3)) {
+		return this.buildStrategy(BuiltinShared.PROFILE, new SplittableRandom());
+	}
+
+	@Override
+	public Strategy buildStrategy(final StrategyProfile profile) {
+		return this.buildStrategy(profile, new SplittableRandom());
+	}
+
+	@Override
+	public Strategy buildStrategy(final SplittableRandom random) {
+		return this.buildStrategy(BuiltinShared.PROFILE, random);
+	}
+
+	@Override
+	public Strategy buildStrategy(final StrategyProfile profile, final SplittableRandom random) {
+		if (profile == null) {
+			throw new IllegalArgumentException("profile==null");
+		} else if (random == null) {
+			throw new IllegalArgumentException("random==null");
+		}
+		return switch (random.nextInt(3)) {
 			case 0:
-				yield new DefensiveStrategyImpl();
+				yield new DefensiveStrategyImpl(profile);
 			case 2:
-				yield new OffensiveStrategyImpl();
+				yield new OffensiveStrategyImpl(profile);
 			case 1:
 			default:
-				yield new ModerateStrategyImpl();
+				yield new ModerateStrategyImpl(profile);
 		};
 	}
 
@@ -0,0 +1,266 @@
+package conquer.data.ri;
+
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.messages.Message;
+import conquer.utils.Graph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs the turns of the CPU clans in parallel. Two clans conflict, if a city of one clan borders a city of the
+ * other one, or if both border the same city. The conflict graph is coloured greedily in the order of the turns,
+ * every colour is a wave. The waves run one after another, the clans of one wave run in parallel.
+ * <p>
+ * The territory of a clan is made of its cities and their neighbours. The territories of the clans of a wave are
+ * disjoint, so they can attack, move and recruit in their territory without waiting for each other. A clan, that
+ * acts on a city outside of its territory, e.g. after a conquest, waits until the other clans of the wave finished
+ * or left their territories, too, and finishes its turn alone. Strategies, that read cities outside of their
+ * territory, may see them while another clan changes them.
+ * <p>
+ * While a clan of a wave plays, its messages are buffered and its gifts are deferred. Both are applied after the
+ * wave finished, in the order of the turns.
+ */
+final class CPUPlayScheduler {
+	private final ThreadLocal<Group> currentGroup = new ThreadLocal<>();
+	private final ExecutorService pool;
+
+	CPUPlayScheduler() {
+		this(PoolHolder.POOL);
+	}
+
+	/**
+	 * @param pool The threads, that play the clans of a wave.
+	 */
+	CPUPlayScheduler(final ExecutorService pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Colours the clans, that are still alive, into waves of clans that don't conflict.
+	 *
+	 * @param cities   The city graph
+	 * @param order    The clans in the order in which they should play
+	 * @param numClans The number of clans of the game
+	 * @return The waves, every wave keeps the relative order of {@code order}. Clans without cities are skipped.
+	 */
+	List<List<IClan>> partition(final Graph<ICity> cities, final List<IClan> order, final int numClans) {
+		final var conflicts = new BitSet[numClans];
+		for (var i = 0; i < numClans; i++) {
+			conflicts[i] = new BitSet(numClans);
+		}
+		final var alive = new BitSet(numClans);
+		// Every clan, that owns a city or one of its neighbours, conflicts with all the other ones.
+		final var touching = new BitSet(numClans);
+		final var cursor = cities.newNeighbourCursor();
+		for (var i = 0; i < cities.size(); i++) {
+			final var owner = cities.getValue(i).getClanId();
+			alive.set(owner);
+			touching.clear();
+			touching.set(owner);
+			cursor.reset(i);
+			while (cursor.next()) {
+				touching.set(cities.getValue(cursor.index()).getClanId());
+			}
+			for (var clan = touching.nextSetBit(0); clan >= 0; clan = touching.nextSetBit(clan + 1)) {
+				conflicts[clan].or(touching);
+			}
+		}
+		final List<List<IClan>> waves = new ArrayList<>();
+		final List<BitSet> members = new ArrayList<>();
+		for (final var clan : order) {
+			final var id = clan.getId();
+			if (!alive.get(id)) {
+				continue;
+			}
+			var wave = 0;
+			while ((wave < waves.size()) && members.get(wave).intersects(conflicts[id])) {
+				wave++;
+			}
+			if (wave == waves.size()) {
+				waves.add(new ArrayList<>());
+				members.add(new BitSet(numClans));
+			}
+			waves.get(wave).add(clan);
+			members.get(wave).set(id);
+		}
+		return waves;
+	}
+
+	/**
+	 * Runs the turns of all given clans, wave by wave. A wave with a single clan is played by the calling thread.
+	 *
+	 * @param cities The city graph
+	 * @param waves  The waves as returned by {@link #partition(Graph, List, int)}
+	 * @param turn   Executes the turn of one clan.
+	 * @param events Receives the buffered messages after every wave.
+	 */
+	void run(final Graph<ICity> cities, final List<List<IClan>> waves, final Consumer<IClan> turn,
+			 final Consumer<Message> events) {
+		for (final var wave : waves) {
+			if (wave.size() == 1) {
+				turn.accept(wave.get(0));
+			} else {
+				this.runWave(cities, wave, turn, events);
+			}
+		}
+	}
+
+	private void runWave(final Graph<ICity> cities, final List<IClan> wave, final Consumer<IClan> turn,
+						 final Consumer<Message> events) {
+		final var lock = new ReentrantReadWriteLock();
+		final var territories = CPUPlayScheduler.territories(cities, wave);
+		final var tasks = wave.stream().map(clan -> new Group(clan, territories.get(clan.getId()), lock)).toList();
+		final List<Future<?>> futures = new ArrayList<>(tasks.size());
+		tasks.forEach(group -> futures.add(this.pool.submit(() -> this.runGroup(group, turn))));
+		Throwable failure = null;
+		// Wait for every clan, even if one failed, nothing may run concurrently after returning.
+		for (final var future : futures) {
+			try {
+				future.get();
+			} catch (final ExecutionException e) {
+				failure = failure == null ? e.getCause() : failure;
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failure = failure == null ? e : failure;
+			}
+		}
+		tasks.forEach(group -> group.messages.forEach(events));
+		tasks.forEach(group -> group.deferred.forEach(Runnable::run));
+		if (failure instanceof RuntimeException re) {
+			throw re;
+		} else if (failure instanceof Error error) {
+			throw error;
+		} else if (failure != null) {
+			throw new IllegalStateException(failure);
+		}
+	}
+
+	// Computed when the wave starts, the clans of earlier waves may have conquered some of the cities.
+	private static Map<Integer, BitSet> territories(final Graph<ICity> cities, final List<IClan> wave) {
+		final var ret = new HashMap<Integer, BitSet>();
+		wave.forEach(clan -> ret.put(clan.getId(), new BitSet(cities.size())));
+		final var cursor = cities.newNeighbourCursor();
+		for (var i = 0; i < cities.size(); i++) {
+			final var territory = ret.get(cities.getValue(i).getClanId());
+			if (territory != null) {
+				territory.set(i);
+				cursor.reset(i);
+				while (cursor.next()) {
+					territory.set(cursor.index());
+				}
+			}
+		}
+		return ret;
+	}
+
+	private void runGroup(final Group group, final Consumer<IClan> turn) {
+		group.lock.readLock().lock();
+		this.currentGroup.set(group);
+		try {
+			turn.accept(group.clan);
+		} finally {
+			this.currentGroup.remove();
+			if (group.exclusive) {
+				group.lock.writeLock().unlock();
+			} else {
+				group.lock.readLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Returns the group that is executed by the current thread.
+	 *
+	 * @return The group or {@code null}, if the current thread doesn't execute a group.
+	 */
+	Group currentGroup() {
+		return this.currentGroup.get();
+	}
+
+	/**
+	 * The turn of one clan of a wave.
+	 */
+	static final class Group {
+		private final IClan clan;
+		private final BitSet territory;
+		private final ReadWriteLock lock;
+		private final List<Message> messages = new ArrayList<>();
+		private final List<Runnable> deferred = new ArrayList<>();
+		private boolean exclusive;
+
+		private Group(final IClan clan, final BitSet territory, final ReadWriteLock lock) {
+			this.clan = clan;
+			this.territory = territory;
+			this.lock = lock;
+		}
+
+		/**
+		 * Returns whether the given clan is the clan of this group.
+		 *
+		 * @param other The clan
+		 * @return {@code true} if the clan plays in this group.
+		 */
+		boolean contains(final IClan other) {
+			return this.clan == other;
+		}
+
+		/**
+		 * Has to be called before a city is changed. If the city is outside of the territory of the clan, waits
+		 * until no other clan of the wave plays in its territory anymore. The rest of the turn is played alone.
+		 *
+		 * @param slot The index of the city
+		 */
+		void claim(final int slot) {
+			if (!this.territory.get(slot)) {
+				this.claimAll();
+			}
+		}
+
+		/**
+		 * Waits until no other clan of the wave plays in its territory anymore, e.g. before the whole game is read.
+		 * The rest of the turn is played alone.
+		 */
+		void claimAll() {
+			if (!this.exclusive) {
+				this.lock.readLock().unlock();
+				this.lock.writeLock().lock();
+				this.exclusive = true;
+			}
+		}
+
+		/**
+		 * Buffers a message until the wave finished.
+		 *
+		 * @param message The message
+		 */
+		void addMessage(final Message message) {
+			this.messages.add(message);
+		}
+
+		/**
+		 * Defers an action until the wave finished.
+		 *
+		 * @param action The action
+		 */
+		void defer(final Runnable action) {
+			this.deferred.add(action);
+		}
+	}
+
+	// A pool of its own, so the strategies may use the common pool without stealing turns of other clans.
+	private static final class PoolHolder {
+		private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	}
+}
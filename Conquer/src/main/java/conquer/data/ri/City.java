@@ -3,49 +3,83 @@ package conquer.data.ri;
 import conquer.data.ConquerInfo;
 import conquer.data.ICity;
 import conquer.data.IClan;
+import conquer.data.RandomStreams;
 import conquer.data.Resource;
-import conquer.data.Shared;
 
 import java.awt.Image;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
 
+/**
+ * A city of the reference implementation. The values that change every round are not stored in the city itself,
+ * but in a slot of a {@link CityStore}.
+ */
 class City implements ICity {
 	private static final int MAX_VARIANCE = 101;
 	private static final long BASE_POPULATION = 100L;
 	private static final int PEOPLE_THRESHOLD = 50;
 	private double bonus = -1;
-	private int clanId = -1;
 	private double defense = -1;
 	private final ConquerInfo game;
-	private double growth;
+	private final CityStore store;
+	private final int slot;
 	private Image image;
-	private List<Integer> levels = new ArrayList<>();
+	private final List<Integer> levels;
 	private String name;
 	private long numAttacksOfPlayer = -1;
-	private long numberOfPeople;
-	private long numberOfSoldiers;
-	private List<Double> productions;
+	private final List<Double> productions;
+	private boolean productionsSet;
 	private int numberOfRoundsWithZeroPeople = 0;
 	private int x = -1;
 	private int y = -1;
 	private double oldOne = 1;
-	private IClan clan;
+	private SplittableRandom random;
 
 	/**
 	 * Create a new City.
 	 *
-	 * @param game A handle to the game object
+	 * @param game  A handle to the game object
+	 * @param store The store holding the values of the city
+	 * @param slot  The slot of the city in the store, has to be equal to the index in the city graph.
 	 */
-	City(final ConquerInfo game) {
+	City(final ConquerInfo game, final CityStore store, final int slot) {
 		if (game == null) {
 			throw new IllegalArgumentException("game==null");
-		}
-		for (var i = 0; i < (Resource.values().length + 1); i++) {
-			this.levels.add(0);
+		} else if (store == null) {
+			throw new IllegalArgumentException("store==null");
+		} else if ((slot < 0) || (slot >= store.size())) {
+			throw new IllegalArgumentException("slot out of bounds: " + slot);
 		}
 		this.game = game;
+		this.store = store;
+		this.slot = slot;
+		this.levels = store.levelsView(slot);
+		this.productions = store.productionsView(slot);
+	}
+
+	/**
+	 * Creates a view of the same slot in another store, e.g. of a fork of the game. The values that never change,
+	 * like the name and the image, are shared.
+	 *
+	 * @param otherGame  The game of the copy
+	 * @param otherStore The store of the copy
+	 * @return The copy.
+	 */
+	City copy(final ConquerInfo otherGame, final CityStore otherStore) {
+		final var ret = new City(otherGame, otherStore, this.slot);
+		ret.bonus = this.bonus;
+		ret.defense = this.defense;
+		ret.image = this.image;
+		ret.name = this.name;
+		ret.numAttacksOfPlayer = this.numAttacksOfPlayer;
+		ret.productionsSet = this.productionsSet;
+		ret.numberOfRoundsWithZeroPeople = this.numberOfRoundsWithZeroPeople;
+		ret.x = this.x;
+		ret.y = this.y;
+		ret.oldOne = this.oldOne;
+		return ret;
 	}
 
 	/**
@@ -80,15 +114,35 @@ class City implements ICity {
 	}
 
 	/**
-	 * Called at the end of the round.
+	 * Called at the end of the round. The game passes its own generator, this one uses a generator of the city,
+	 * that is derived from the seed of the game.
 	 */
 	@Override
 	public void endOfRound() {
-		if (this.numberOfPeople <= City.PEOPLE_THRESHOLD) {
+		if (this.random == null) {
+			long seed;
+			try {
+				seed = this.game.getSeed();
+			} catch (final UnsupportedOperationException e) {
+				// A game without a seed
+				seed = RandomStreams.defaultSeed();
+			}
+			this.random = new RandomStreams(seed).stream("city", this.slot);
+		}
+		this.endOfRound(this.random::nextInt);
+	}
+
+	/**
+	 * Called at the end of the round.
+	 *
+	 * @param random Returns a random number in [0;bound[ for a given bound.
+	 */
+	void endOfRound(final IntUnaryOperator random) {
+		if (this.getNumberOfPeople() <= City.PEOPLE_THRESHOLD) {
 			this.numberOfRoundsWithZeroPeople++;
 			if (this.numberOfRoundsWithZeroPeople == 3) {
 				this.numberOfRoundsWithZeroPeople = 0;
-				this.setNumberOfPeople(City.BASE_POPULATION + Shared.getRandomNumber(City.MAX_VARIANCE));
+				this.setNumberOfPeople(City.BASE_POPULATION + random.applyAsInt(City.MAX_VARIANCE));
 			}
 		} else {
 			this.numberOfRoundsWithZeroPeople = 0;
@@ -128,7 +182,7 @@ class City implements ICity {
 	 */
 	@Override
 	public IClan getClan() {
-		return this.clan;
+		return this.store.getClan(this.slot);
 	}
 
 	/**
@@ -138,7 +192,7 @@ class City implements ICity {
 	 */
 	@Override
 	public int getClanId() {
-		return this.clanId;
+		return this.store.getClanId(this.slot);
 	}
 
 	/**
@@ -149,8 +203,9 @@ class City implements ICity {
 	 */
 	@Override
 	public double getCoinDiff() {
-		return (this.numberOfPeople * this.game.getResourceUsage(this.clan).getCoinsPerRoundPerPerson())
-				- (this.numberOfSoldiers * this.game.getSoldierCosts(this.clan).coinsPerSoldierPerRound());
+		final var clan = this.getClan();
+		return (this.getNumberOfPeople() * this.game.getResourceUsage(clan).getCoinsPerRoundPerPerson())
+				- (this.getNumberOfSoldiers() * this.game.getSoldierCosts(clan).coinsPerSoldierPerRound());
 	}
 
 	/**
@@ -171,8 +226,9 @@ class City implements ICity {
 	 */
 	@Override
 	public double getDefenseStrength() {
-		return this.getDefense() + (this.getNumberOfSoldiers() * this.getBonus() * this.clan.getSoldiersStrength()
-				* this.clan.getSoldiersDefenseStrength());
+		final var clan = this.getClan();
+		return this.getDefense() + (this.getNumberOfSoldiers() * this.getBonus() * clan.getSoldiersStrength()
+				* clan.getSoldiersDefenseStrength());
 	}
 
 	/**
@@ -185,7 +241,7 @@ class City implements ICity {
 	 */
 	@Override
 	public double getGrowth() {
-		return this.growth;
+		return this.store.getGrowth(this.slot);
 	}
 
 	/**
@@ -244,7 +300,7 @@ class City implements ICity {
 	 */
 	@Override
 	public long getNumberOfPeople() {
-		return this.numberOfPeople;
+		return this.store.getPeople(this.slot);
 	}
 
 	/**
@@ -264,7 +320,7 @@ class City implements ICity {
 	 */
 	@Override
 	public long getNumberOfSoldiers() {
-		return this.numberOfSoldiers;
+		return this.store.getSoldiers(this.slot);
 	}
 
 	/**
@@ -274,7 +330,7 @@ class City implements ICity {
 	 */
 	@Override
 	public List<Double> getProductions() {
-		return this.productions;
+		return this.productionsSet ? this.productions : null;
 	}
 
 	/**
@@ -316,7 +372,7 @@ class City implements ICity {
 	 */
 	@Override
 	public boolean isPlayerCity() {
-		return this.clan.isPlayerClan();
+		return this.getClan().isPlayerClan();
 	}
 
 	/**
@@ -329,6 +385,15 @@ class City implements ICity {
 		return this.oldOne;
 	}
 
+	/**
+	 * Returns the slot of this city in the {@link CityStore}, which is equal to its index in the city graph.
+	 *
+	 * @return The slot of the city.
+	 */
+	int getSlot() {
+		return this.slot;
+	}
+
 	/**
 	 * Get the production of a resource per round
 	 *
@@ -340,7 +405,7 @@ class City implements ICity {
 		if (resource == null) {
 			throw new IllegalArgumentException("resource == null");
 		}
-		return this.productions.get(resource.getIndex()) * this.numberOfPeople;
+		return this.store.getProduction(this.slot, resource.getIndex()) * this.getNumberOfPeople();
 	}
 
 	/**
@@ -366,8 +431,7 @@ class City implements ICity {
 		if (clan == null) {
 			throw new IllegalArgumentException("clan == null");
 		}
-		this.clanId = clan.getId();
-		this.clan = clan;
+		this.store.setClan(this.slot, clan);
 	}
 
 	/**
@@ -413,11 +477,11 @@ class City implements ICity {
 		if (growth < 0) {
 			throw new IllegalArgumentException("growth < 0");
 		}
-		this.growth = growth;
+		this.store.setGrowth(this.slot, growth);
 	}
 
 	void setId(final int id) {
-		this.clanId = id;
+		this.store.setClanId(this.slot, id);
 	}
 
 	/**
@@ -438,10 +502,18 @@ class City implements ICity {
 	/**
 	 * Sets the levels of each resource.
 	 *
-	 * @param levels
+	 * @param levels The levels, the last one is the level of the defense. May not be null.
 	 */
 	public void setLevels(final List<Integer> levels) {
-		this.levels = levels;
+		if (levels == null) {
+			throw new IllegalArgumentException("levels == null");
+		} else if (levels.size() != this.levels.size()) {
+			throw new IllegalArgumentException(
+					"Wrong length, expected " + this.levels.size() + ", got " + levels.size());
+		}
+		for (var i = 0; i < levels.size(); i++) {
+			this.levels.set(i, levels.get(i));
+		}
 	}
 
 	/**
@@ -466,7 +538,7 @@ class City implements ICity {
 		if (num < 0) {
 			throw new IllegalArgumentException("num < 0 : " + num);
 		}
-		this.numberOfPeople = num;
+		this.store.setPeople(this.slot, num);
 	}
 
 	/**
@@ -488,7 +560,7 @@ class City implements ICity {
 		if (num < 0) {
 			throw new IllegalArgumentException("num < 0 : " + num);
 		}
-		this.numberOfSoldiers = num;
+		this.store.setSoldiers(this.slot, num);
 	}
 
 	/**
@@ -506,7 +578,7 @@ class City implements ICity {
 	 * @param productions
 	 */
 	public void setProductionRates(final List<Double> productions) {
-		if (this.productions != null) {
+		if (this.productionsSet) {
 			throw new UnsupportedOperationException("Can't change the productions!");
 		} else if (productions == null) {
 			throw new IllegalArgumentException("productions == null");
@@ -514,7 +586,11 @@ class City implements ICity {
 			throw new IllegalArgumentException(
 					"Wrong length, expected " + Resource.values().length + ", got " + productions.size());
 		}
-		this.productions = new GoodDoubleList(productions);
+		final var checked = new GoodDoubleList(productions);
+		for (var i = 0; i < checked.size(); i++) {
+			this.store.setProduction(this.slot, i, checked.get(i));
+		}
+		this.productionsSet = true;
 	}
 
 	/**
@@ -547,8 +623,9 @@ class City implements ICity {
 
 	@Override
 	public String toString() {
-		return "City [image=" + this.image + ", clan=" + this.clanId + ", numberOfPeople=" + this.numberOfPeople
-				+ ", numberOfSoldiers=" + this.numberOfSoldiers + ", y=" + this.y + ", x=" + this.x + ", defense="
-				+ this.defense + ", bonus=" + this.bonus + ", name=" + this.name + ", growth=" + this.growth + "]";
+		return "City [image=" + this.image + ", clan=" + this.getClanId() + ", numberOfPeople="
+				+ this.getNumberOfPeople() + ", numberOfSoldiers=" + this.getNumberOfSoldiers() + ", y=" + this.y
+				+ ", x=" + this.x + ", defense=" + this.defense + ", bonus=" + this.bonus + ", name=" + this.name
+				+ ", growth=" + this.getGrowth() + "]";
 	}
 }
@@ -9,8 +9,8 @@ import java.util.List;
 class CityBuilder {
 	private final City tmp;
 
-	public CityBuilder(final ConquerInfo info) {
-		this.tmp = new City(info);
+	public CityBuilder(final ConquerInfo info, final CityStore store, final int slot) {
+		this.tmp = new City(info, store, slot);
 	}
 
 	public City build() {
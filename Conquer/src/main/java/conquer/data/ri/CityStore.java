@@ -0,0 +1,360 @@
+package conquer.data.ri;
+
+import conquer.data.IClan;
+import conquer.data.Resource;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Columnar storage for the values of all cities of a game that change every round. Every city owns one slot,
+ * which is the index of the city in the city graph. {@link City} is only a view on its slot, so the phases of a
+ * round can run as plain loops over primitive arrays instead of walking the graph and unboxing lists.
+ * <p>
+ * The store also indexes the cities by their owner, so the cities of a clan, their number and the number of
+ * clans that are still alive can be queried without scanning all cities. An optional listener is told about
+ * every slot whose soldiers or owner changed.
+ */
+final class CityStore {
+	/**
+	 * The number of resources, i.e. the stride of {@link #productions}
+	 */
+	static final int NUM_RESOURCES = Resource.values().length;
+	/**
+	 * The number of levels per city, i.e. the stride of {@link #levels}. The last level is the level of the
+	 * defense.
+	 */
+	static final int NUM_LEVELS = CityStore.NUM_RESOURCES + 1;
+	private final int size;
+	private final long[] people;
+	private final long[] soldiers;
+	private final double[] growth;
+	private final double[] productions;
+	private final int[] levels;
+	private final int[] clanIds;
+	private final IClan[] clans;
+	private int[] ownedCounts = new int[0];
+	private BitSet[] ownedSlots = new BitSet[0];
+	// Read without the lock of the index, while the clans of a parallel wave conquer cities.
+	private final AtomicInteger aliveClans = new AtomicInteger();
+	private IntConsumer changeListener;
+
+	/**
+	 * Creates a new store with a fixed number of slots.
+	 *
+	 * @param size The number of cities. May not be negative.
+	 */
+	CityStore(final int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("size < 0: " + size);
+		}
+		this.size = size;
+		this.people = new long[size];
+		this.soldiers = new long[size];
+		this.growth = new double[size];
+		this.productions = new double[size * CityStore.NUM_RESOURCES];
+		this.levels = new int[size * CityStore.NUM_LEVELS];
+		this.clanIds = new int[size];
+		this.clans = new IClan[size];
+		Arrays.fill(this.clanIds, -1);
+	}
+
+	/**
+	 * Copies all values and the ownership index into a new store. The listener isn't copied.
+	 *
+	 * @param newClans The clans of the new store, the clan of every slot is looked up by its id.
+	 * @return The copy.
+	 */
+	CityStore copy(final List<IClan> newClans) {
+		final var ret = new CityStore(this.size);
+		System.arraycopy(this.people, 0, ret.people, 0, this.size);
+		System.arraycopy(this.soldiers, 0, ret.soldiers, 0, this.size);
+		System.arraycopy(this.growth, 0, ret.growth, 0, this.size);
+		System.arraycopy(this.productions, 0, ret.productions, 0, this.productions.length);
+		System.arraycopy(this.levels, 0, ret.levels, 0, this.levels.length);
+		System.arraycopy(this.clanIds, 0, ret.clanIds, 0, this.size);
+		for (var i = 0; i < this.size; i++) {
+			ret.clans[i] = this.clans[i] == null ? null : newClans.get(this.clans[i].getId());
+		}
+		ret.ownedCounts = this.ownedCounts.clone();
+		ret.ownedSlots = new BitSet[this.ownedSlots.length];
+		for (var i = 0; i < this.ownedSlots.length; i++) {
+			ret.ownedSlots[i] = (BitSet) this.ownedSlots[i].clone();
+		}
+		ret.aliveClans.set(this.aliveClans.get());
+		return ret;
+	}
+
+	/**
+	 * Returns the number of slots.
+	 *
+	 * @return The number of cities.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Sets the listener, that accepts the slot of every city whose number of soldiers or owner changed.
+	 *
+	 * @param listener The new listener or {@code null} to remove it.
+	 */
+	void setChangeListener(final IntConsumer listener) {
+		this.changeListener = listener;
+	}
+
+	long getPeople(final int slot) {
+		return this.people[slot];
+	}
+
+	void setPeople(final int slot, final long people) {
+		this.people[slot] = people;
+	}
+
+	long getSoldiers(final int slot) {
+		return this.soldiers[slot];
+	}
+
+	void setSoldiers(final int slot, final long soldiers) {
+		final var old = this.soldiers[slot];
+		this.soldiers[slot] = soldiers;
+		if (old != soldiers) {
+			this.changed(slot);
+		}
+	}
+
+	double getGrowth(final int slot) {
+		return this.growth[slot];
+	}
+
+	void setGrowth(final int slot, final double growth) {
+		this.growth[slot] = growth;
+	}
+
+	double getProduction(final int slot, final int resource) {
+		return this.productions[(slot * CityStore.NUM_RESOURCES) + resource];
+	}
+
+	void setProduction(final int slot, final int resource, final double value) {
+		this.productions[(slot * CityStore.NUM_RESOURCES) + resource] = value;
+	}
+
+	int getLevel(final int slot, final int index) {
+		return this.levels[(slot * CityStore.NUM_LEVELS) + index];
+	}
+
+	void setLevel(final int slot, final int index, final int level) {
+		this.levels[(slot * CityStore.NUM_LEVELS) + index] = level;
+	}
+
+	int getClanId(final int slot) {
+		return this.clanIds[slot];
+	}
+
+	void setClanId(final int slot, final int clanId) {
+		final var old = this.clanIds[slot];
+		this.updateOwner(slot, clanId);
+		this.clanIds[slot] = clanId;
+		if (old != clanId) {
+			this.changed(slot);
+		}
+	}
+
+	IClan getClan(final int slot) {
+		return this.clans[slot];
+	}
+
+	void setClan(final int slot, final IClan clan) {
+		final var old = this.clanIds[slot];
+		this.updateOwner(slot, clan.getId());
+		this.clanIds[slot] = clan.getId();
+		this.clans[slot] = clan;
+		if (old != clan.getId()) {
+			this.changed(slot);
+		}
+	}
+
+	private void changed(final int slot) {
+		final var listener = this.changeListener;
+		if (listener != null) {
+			listener.accept(slot);
+		}
+	}
+
+	// The clans of a parallel wave may conquer cities of the same clan at the same time.
+	private synchronized void updateOwner(final int slot, final int newClanId) {
+		final var oldClanId = this.clanIds[slot];
+		if (oldClanId == newClanId) {
+			return;
+		}
+		if (oldClanId >= 0) {
+			this.ownedSlots[oldClanId].clear(slot);
+			this.ownedCounts[oldClanId]--;
+			if (this.ownedCounts[oldClanId] == 0) {
+				this.aliveClans.decrementAndGet();
+			}
+		}
+		if (newClanId >= 0) {
+			this.reserveClans(newClanId + 1);
+			this.ownedSlots[newClanId].set(slot);
+			this.ownedCounts[newClanId]++;
+			if (this.ownedCounts[newClanId] == 1) {
+				this.aliveClans.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Makes room in the ownership index for the given number of clans. Owners with higher ids are added on
+	 * demand, but that mustn't happen while the cities are changed concurrently.
+	 *
+	 * @param numClans The number of clans
+	 */
+	void reserveClans(final int numClans) {
+		final var oldLength = this.ownedCounts.length;
+		if (numClans <= oldLength) {
+			return;
+		}
+		this.ownedCounts = Arrays.copyOf(this.ownedCounts, numClans);
+		this.ownedSlots = Arrays.copyOf(this.ownedSlots, numClans);
+		for (var i = oldLength; i < numClans; i++) {
+			// Allocate all words up front, so setting a bit never reallocates.
+			this.ownedSlots[i] = new BitSet(this.size);
+		}
+	}
+
+	/**
+	 * Returns the number of cities owned by a clan.
+	 *
+	 * @param clanId The id of the clan
+	 * @return The number of cities
+	 */
+	int getNumberOfCities(final int clanId) {
+		return (clanId >= 0) && (clanId < this.ownedCounts.length) ? this.ownedCounts[clanId] : 0;
+	}
+
+	/**
+	 * Returns the number of clans that own at least one city.
+	 *
+	 * @return The number of clans
+	 */
+	int getNumberOfAliveClans() {
+		return this.aliveClans.get();
+	}
+
+	/**
+	 * Returns the first slot owned by a clan, that is greater than or equal to {@code fromSlot}.
+	 *
+	 * @param clanId   The id of the clan
+	 * @param fromSlot The slot to start at
+	 * @return The slot or {@code -1}, if there is none.
+	 */
+	int nextOwnedSlot(final int clanId, final int fromSlot) {
+		if ((clanId < 0) || (clanId >= this.ownedSlots.length)) {
+			return -1;
+		}
+		return this.ownedSlots[clanId].nextSetBit(fromSlot);
+	}
+
+	/**
+	 * Returns a mutable view on the production rates of one slot. Like the lists of the clans, the view rejects
+	 * negative, infinite and NaN values.
+	 *
+	 * @param slot The slot of the city
+	 * @return A view with {@link #NUM_RESOURCES} elements.
+	 */
+	List<Double> productionsView(final int slot) {
+		return new ProductionsView(slot);
+	}
+
+	/**
+	 * Returns a mutable view on the levels of one slot.
+	 *
+	 * @param slot The slot of the city
+	 * @return A view with {@link #NUM_LEVELS} elements.
+	 */
+	List<Integer> levelsView(final int slot) {
+		return new LevelsView(slot);
+	}
+
+	private final class ProductionsView extends AbstractList<Double> implements RandomAccess {
+		private final int slot;
+
+		ProductionsView(final int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		public Double get(final int index) {
+			return CityStore.this.getProduction(this.slot, this.checkIndex(index));
+		}
+
+		@Override
+		public Double set(final int index, final Double element) {
+			if (element == null) {
+				throw new IllegalArgumentException("element==null");
+			} else if (element < 0) {
+				throw new IllegalArgumentException("element < 0: " + element);
+			} else if (Double.isNaN(element)) {
+				throw new IllegalArgumentException("element is NaN");
+			} else if (Double.isInfinite(element)) {
+				throw new IllegalArgumentException("element is infinite");
+			}
+			final var old = this.get(index);
+			CityStore.this.setProduction(this.slot, index, element);
+			return old;
+		}
+
+		@Override
+		public int size() {
+			return CityStore.NUM_RESOURCES;
+		}
+
+		private int checkIndex(final int index) {
+			if ((index < 0) || (index >= CityStore.NUM_RESOURCES)) {
+				throw new IndexOutOfBoundsException(index);
+			}
+			return index;
+		}
+	}
+
+	private final class LevelsView extends AbstractList<Integer> implements RandomAccess {
+		private final int slot;
+
+		LevelsView(final int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		public Integer get(final int index) {
+			return CityStore.this.getLevel(this.slot, this.checkIndex(index));
+		}
+
+		@Override
+		public Integer set(final int index, final Integer element) {
+			if (element == null) {
+				throw new IllegalArgumentException("element==null");
+			}
+			final var old = this.get(index);
+			CityStore.this.setLevel(this.slot, index, element);
+			return old;
+		}
+
+		@Override
+		public int size() {
+			return CityStore.NUM_LEVELS;
+		}
+
+		private int checkIndex(final int index) {
+			if ((index < 0) || (index >= CityStore.NUM_LEVELS)) {
+				throw new IndexOutOfBoundsException(index);
+			}
+			return index;
+		}
+	}
+}
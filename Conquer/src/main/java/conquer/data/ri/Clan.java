@@ -2,15 +2,19 @@ package conquer.data.ri;
 
 import conquer.data.ConquerInfo;
 import conquer.data.IClan;
+import conquer.data.RandomStreams;
 import conquer.data.Resource;
 import conquer.data.Shared;
 import conquer.data.SoldierUpgrade;
+import conquer.data.UpgradeTable;
 import conquer.data.Version;
 import conquer.data.strategy.Strategy;
 import conquer.data.strategy.StrategyData;
 import conquer.data.strategy.StrategyProvider;
 
 import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -42,6 +46,50 @@ final class Clan implements IClan {
 		this.info = info;
 	}
 
+	/**
+	 * Copies the clan for a fork of the game. The strategy and its data are copied the same way a saved game
+	 * restores them, so the fork can play without changing the state of this clan.
+	 *
+	 * @param otherInfo The game of the copy
+	 * @return The copy.
+	 */
+	Clan copy(final ConquerInfo otherInfo) {
+		final var ret = new Clan();
+		ret.id = this.id;
+		ret.coins = this.coins;
+		ret.name = this.name;
+		ret.color = this.color;
+		ret.resources = new GoodDoubleList(this.resources);
+		ret.resourceStats = new GoodDoubleList(this.resourceStats, true);
+		ret.soldiersStrength = this.soldiersStrength;
+		ret.soldiersLevel = this.soldiersLevel;
+		ret.soldiersDefenseStrength = this.soldiersDefenseStrength;
+		ret.soldiersDefenseLevel = this.soldiersDefenseLevel;
+		ret.soldiersOffenseStrength = this.soldiersOffenseStrength;
+		ret.soldiersOffenseLevel = this.soldiersOffenseLevel;
+		ret.flags = this.flags;
+		ret.info = otherInfo;
+		ret.strategy = this.strategy;
+		ret.strategyData = this.strategyData;
+		if (this.strategy == null) {
+			return ret;
+		}
+		try (final var strategyBytes = new ByteArrayOutputStream(); final var dataBytes = new ByteArrayOutputStream()) {
+			this.strategy.save(strategyBytes);
+			if (this.strategyData != null) {
+				this.strategyData.save(dataBytes);
+			}
+			final var copy = this.strategy.copy();
+			ret.strategyData = copy.resume(otherInfo, strategyBytes.toByteArray(), this.strategyData != null,
+					dataBytes.toByteArray());
+			ret.strategy = copy;
+		} catch (final IOException | ReflectiveOperationException e) {
+			// The strategy can't be copied, so the fork has to share it.
+			Shared.LOGGER.exception(e);
+		}
+		return ret;
+	}
+
 	/**
 	 * Get the number of coins this clan has
 	 *
@@ -222,9 +270,12 @@ final class Clan implements IClan {
 			Shared.LOGGER.error("Found invalid strategy id: " + this.flags);
 			Shared.LOGGER.message("Clan: " + this.name + " " + strategies[1].getName());
 		} else {
-			final var s = strategies[givenPlayType].buildStrategy();
+			final var provider = strategies[givenPlayType];
+			// A stream of its own, choosing the strategy doesn't change the numbers its turns draw.
+			final var s = this.info == null ? provider.buildStrategy()
+					: provider.buildStrategy(new RandomStreams(this.info.getSeed()).stream("provider", this.id));
 			this.strategy = s;
-			this.strategyData = s.getData();
+			this.strategyData = this.info == null ? s.getData() : s.getData(this.info.getRandom(this).split());
 			Shared.LOGGER.message("Clan: " + this.name + " " + strategies[givenPlayType].getName());
 		}
 	}
@@ -394,6 +445,44 @@ final class Clan implements IClan {
 		return true;
 	}
 
+	@Override
+	public int upgradeBy(final SoldierUpgrade upgrade, final int levels) {
+		if (upgrade == null) {
+			throw new IllegalArgumentException("upgrade==null");
+		} else if (levels < 0) {
+			throw new IllegalArgumentException("levels < 0: " + levels);
+		}
+		final var currLevel = switch (upgrade) {
+			case BOTH -> this.getSoldiersLevel();
+			case DEFENSE -> this.getSoldiersDefenseLevel();
+			case OFFENSE -> this.getSoldiersOffenseLevel();
+		};
+		// Clan keeps the default costs of IClan, so they are the ones of the table.
+		final var table = UpgradeTable.soldiers(upgrade);
+		final var cnt = table.affordableLevels(currLevel + 1, this.getCoins(),
+				Math.min(levels, this.info.getMaximumLevel() - currLevel));
+		if (cnt == 0) {
+			return 0;
+		}
+		final var newLevel = currLevel + cnt;
+		this.setCoins(table.pay(currLevel + 1, cnt, this.getCoins()));
+		switch (upgrade) {
+			case BOTH -> {
+				this.setSoldiersLevel(newLevel);
+				this.setSoldiersStrength(1 + this.newPower(SoldierUpgrade.BOTH, newLevel));
+			}
+			case DEFENSE -> {
+				this.setSoldiersDefenseLevel(newLevel);
+				this.setSoldiersDefenseStrength(1 + this.newPower(SoldierUpgrade.DEFENSE, newLevel));
+			}
+			case OFFENSE -> {
+				this.setSoldiersOffenseLevel(newLevel);
+				this.setSoldiersOffenseStrength(1 + this.newPower(SoldierUpgrade.OFFENSE, newLevel));
+			}
+		}
+		return cnt;
+	}
+
 	void setSoldiersOffenseStrength(final double soldiersOffenseStrength) {
 		this.soldiersOffenseStrength = soldiersOffenseStrength;
 	}
@@ -0,0 +1,229 @@
+package conquer.data.ri;
+
+import conquer.data.ConquerInfo;
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.plugins.MoneyHook;
+import conquer.plugins.ResourceHook;
+import conquer.utils.Graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the economic part of a round over a {@link CityStore}: Every city pays its coins, produces and consumes
+ * resources and grows. Without {@link MoneyHook}s and {@link ResourceHook}s, this is done in one traversal.
+ * The hooks may change the cities and the clans, so with hooks, the steps are run one after another and the hooks
+ * are called in between, exactly like the separate passes did. Either way, the results are the same as running
+ * the steps as separate passes over all cities.
+ */
+final class EconomyPipeline {
+	private static final int FALLBACK_POPULATION = 15;
+	private final CityStore store;
+	private final double[] consumption;
+	private final double[] peopleUsage = new double[CityStore.NUM_RESOURCES];
+	private final double[] soldierUsage = new double[CityStore.NUM_RESOURCES];
+	private double[] coins = new double[0];
+	private double[] coinsPerPerson = new double[0];
+	private double[] coinsPerSoldier = new double[0];
+	private double[] resources = new double[0];
+	private double[] stats = new double[0];
+
+	/**
+	 * Creates a new pipeline for the cities of one game.
+	 *
+	 * @param store The values of all cities. May not be null.
+	 */
+	EconomyPipeline(final CityStore store) {
+		if (store == null) {
+			throw new IllegalArgumentException("store==null");
+		}
+		this.store = store;
+		this.consumption = new double[store.size() * CityStore.NUM_RESOURCES];
+	}
+
+	/**
+	 * Runs one round of the economy.
+	 *
+	 * @param info          The game, used for the costs and the usage of resources.
+	 * @param clans         All clans, the index of each clan has to be equal to its id.
+	 * @param cities        The city graph, only used for passing the cities to the hooks.
+	 * @param moneyHooks    Called for every clan after the coins were paid, before anything was produced.
+	 * @param resourceHooks Called for every city after its resources were consumed, before the cities grow.
+	 */
+	void run(final ConquerInfo info, final List<IClan> clans, final Graph<ICity> cities,
+			 final List<MoneyHook> moneyHooks, final List<ResourceHook> resourceHooks) {
+		this.load(info, clans);
+		final var cityStore = this.store;
+		if (moneyHooks.isEmpty() && resourceHooks.isEmpty()) {
+			for (var slot = 0; slot < cityStore.size(); slot++) {
+				final var clanId = cityStore.getClanId(slot);
+				this.pay(slot, clanId);
+				this.produce(slot, clanId);
+				final var people = cityStore.getPeople(slot);
+				final var soldiers = cityStore.getSoldiers(slot);
+				final var slotBase = slot * CityStore.NUM_RESOURCES;
+				for (var i = 0; i < CityStore.NUM_RESOURCES; i++) {
+					this.consumption[slotBase + i] = (soldiers * this.soldierUsage[i]) + (people * this.peopleUsage[i]);
+				}
+				this.grow(slot);
+			}
+			this.settleConsumption();
+			this.writeBack(clans);
+			return;
+		}
+		for (var slot = 0; slot < cityStore.size(); slot++) {
+			this.pay(slot, cityStore.getClanId(slot));
+		}
+		this.writeBack(clans);
+		this.callMoneyHooks(clans, cities, moneyHooks);
+		// The hooks may have changed the clans.
+		for (var clanId = 0; clanId < clans.size(); clanId++) {
+			this.read(clanId, clans.get(clanId));
+		}
+		for (var slot = 0; slot < cityStore.size(); slot++) {
+			this.produce(slot, cityStore.getClanId(slot));
+		}
+		for (var slot = 0; slot < cityStore.size(); slot++) {
+			final var clanId = cityStore.getClanId(slot);
+			this.consume(slot, clanId);
+			if (!resourceHooks.isEmpty()) {
+				final var clan = clans.get(clanId);
+				this.write(clanId, clan);
+				final var city = cities.getValue(slot);
+				final var stats = clan.getResourceStats();
+				resourceHooks.forEach(a -> a.analyzeStats(city, stats, clan));
+				this.read(clanId, clan);
+			}
+		}
+		this.writeBack(clans);
+		for (var slot = 0; slot < cityStore.size(); slot++) {
+			this.grow(slot);
+		}
+	}
+
+	// The coins are clamped after every city, just like Clan#setCoins does.
+	private void pay(final int slot, final int clanId) {
+		final var newCoins = this.coins[clanId] + ((this.store.getPeople(slot) * this.coinsPerPerson[clanId])
+				- (this.store.getSoldiers(slot) * this.coinsPerSoldier[clanId]));
+		this.coins[clanId] = newCoins < 0 ? 0 : newCoins;
+	}
+
+	private void produce(final int slot, final int clanId) {
+		final var people = this.store.getPeople(slot);
+		final var clanBase = clanId * CityStore.NUM_RESOURCES;
+		for (var i = 0; i < CityStore.NUM_RESOURCES; i++) {
+			final var produced = people * this.store.getProduction(slot, i);
+			this.resources[clanBase + i] += produced;
+			this.stats[clanBase + i] += produced;
+		}
+	}
+
+	private void consume(final int slot, final int clanId) {
+		final var people = this.store.getPeople(slot);
+		final var soldiers = this.store.getSoldiers(slot);
+		final var clanBase = clanId * CityStore.NUM_RESOURCES;
+		for (var i = 0; i < CityStore.NUM_RESOURCES; i++) {
+			final var use = (soldiers * this.soldierUsage[i]) + (people * this.peopleUsage[i]);
+			final var left = this.resources[clanBase + i] - use;
+			this.resources[clanBase + i] = left < 0 ? 0 : left;
+			this.stats[clanBase + i] -= use;
+		}
+	}
+
+	private void grow(final int slot) {
+		final var people = this.store.getPeople(slot);
+		final var l = people < 0 ? 0 : people;
+		var lNew = (long) (people * this.store.getGrowth(slot));
+		// Every city will get at least one person per round.
+		if ((lNew - l) == 0) {
+			lNew++;
+		}
+		this.store.setPeople(slot, lNew < 0 ? EconomyPipeline.FALLBACK_POPULATION : lNew);
+	}
+
+	private void load(final ConquerInfo info, final List<IClan> clans) {
+		final var numClans = clans.size();
+		if (this.coins.length != numClans) {
+			this.coins = new double[numClans];
+			this.coinsPerPerson = new double[numClans];
+			this.coinsPerSoldier = new double[numClans];
+			this.resources = new double[numClans * CityStore.NUM_RESOURCES];
+			this.stats = new double[numClans * CityStore.NUM_RESOURCES];
+		}
+		final var usage = info.getResourceUsage();
+		for (var i = 0; i < CityStore.NUM_RESOURCES; i++) {
+			final var va = usage.get(i);
+			this.peopleUsage[i] = va[0];
+			this.soldierUsage[i] = va[1];
+		}
+		for (var clanId = 0; clanId < numClans; clanId++) {
+			final var clan = clans.get(clanId);
+			this.coinsPerPerson[clanId] = info.getResourceUsage(clan).getCoinsPerRoundPerPerson();
+			this.coinsPerSoldier[clanId] = info.getSoldierCosts(clan).coinsPerSoldierPerRound();
+			this.read(clanId, clan);
+		}
+	}
+
+	private void read(final int clanId, final IClan clan) {
+		this.coins[clanId] = clan.getCoins();
+		final var resourcesOfClan = clan.getResources();
+		final var statsOfClan = clan.getResourceStats();
+		for (var i = 0; i < CityStore.NUM_RESOURCES; i++) {
+			this.resources[(clanId * CityStore.NUM_RESOURCES) + i] = resourcesOfClan.get(i);
+			this.stats[(clanId * CityStore.NUM_RESOURCES) + i] = statsOfClan.get(i);
+		}
+	}
+
+	private void write(final int clanId, final IClan clan) {
+		clan.setCoins(this.coins[clanId]);
+		final var resourcesOfClan = clan.getResources();
+		final var statsOfClan = clan.getResourceStats();
+		for (var i = 0; i < CityStore.NUM_RESOURCES; i++) {
+			resourcesOfClan.set(i, this.resources[(clanId * CityStore.NUM_RESOURCES) + i]);
+			statsOfClan.set(i, this.stats[(clanId * CityStore.NUM_RESOURCES) + i]);
+		}
+	}
+
+	// The resources of a clan are clamped to zero after every city, but only after everything was produced, so
+	// the consumption has to be subtracted in a second step. It only touches the primitive arrays.
+	private void settleConsumption() {
+		final var cityStore = this.store;
+		for (var slot = 0; slot < cityStore.size(); slot++) {
+			final var clanBase = cityStore.getClanId(slot) * CityStore.NUM_RESOURCES;
+			final var slotBase = slot * CityStore.NUM_RESOURCES;
+			for (var i = 0; i < CityStore.NUM_RESOURCES; i++) {
+				final var use = this.consumption[slotBase + i];
+				final var left = this.resources[clanBase + i] - use;
+				this.resources[clanBase + i] = left < 0 ? 0 : left;
+				this.stats[clanBase + i] -= use;
+			}
+		}
+	}
+
+	private void writeBack(final List<IClan> clans) {
+		for (var clanId = 0; clanId < clans.size(); clanId++) {
+			this.write(clanId, clans.get(clanId));
+		}
+	}
+
+	private void callMoneyHooks(final List<IClan> clans, final Graph<ICity> cities,
+								final List<MoneyHook> moneyHooks) {
+		if (moneyHooks.isEmpty()) {
+			return;
+		}
+		final var cityStore = this.store;
+		final List<List<ICity>> citiesOfClans = new ArrayList<>(clans.size());
+		for (var clanId = 0; clanId < clans.size(); clanId++) {
+			citiesOfClans.add(new ArrayList<>());
+		}
+		for (var slot = 0; slot < cityStore.size(); slot++) {
+			citiesOfClans.get(cityStore.getClanId(slot)).add(cities.getValue(slot));
+		}
+		for (var clanId = 0; clanId < clans.size(); clanId++) {
+			final var clan = clans.get(clanId);
+			final var citiesOfClan = List.copyOf(citiesOfClans.get(clanId));
+			moneyHooks.forEach(a -> a.moneyPaid(citiesOfClan, clan));
+		}
+	}
+}
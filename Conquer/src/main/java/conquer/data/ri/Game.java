@@ -9,21 +9,27 @@ import conquer.data.GlobalContext;
 import conquer.data.ICity;
 import conquer.data.IClan;
 import conquer.data.PlayerGiftCallback;
+import conquer.data.RandomStreams;
 import conquer.data.Resource;
 import conquer.data.Result;
 import conquer.data.Shared;
 import conquer.data.StreamUtils;
+import conquer.data.UpgradeTable;
 import conquer.data.Version;
 import conquer.data.builtin.DefensiveStrategyProvider;
 import conquer.data.builtin.ModerateStrategyProvider;
 import conquer.data.builtin.OffensiveStrategyProvider;
 import conquer.data.builtin.RandomStrategyProvider;
+import conquer.data.strategy.CommandBatch;
 import conquer.data.strategy.StrategyProvider;
+import conquer.data.strategy.StrategyTiming;
+import conquer.data.strategy.ThreatMap;
 import conquer.messages.AnnihilationMessage;
 import conquer.messages.AttackLostMessage;
 import conquer.messages.BetterRelationshipMessage;
 import conquer.messages.ConquerMessage;
 import conquer.messages.ExtinctionMessage;
+import conquer.messages.Message;
 import conquer.messages.RandomEvent;
 import conquer.messages.RandomEventMessage;
 import conquer.messages.WorseRelationshipMessage;
@@ -38,21 +44,24 @@ import conquer.plugins.Plugin;
 import conquer.plugins.RecruitHook;
 import conquer.plugins.ResourceHook;
 import conquer.utils.Graph;
+import conquer.utils.ShortestPaths;
+import conquer.utils.SpatialIndex;
 
 import java.awt.Color;
 import java.awt.Image;
 import java.io.File;
 import java.io.IOException;
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 final class Game implements ConquerInfo {
@@ -63,7 +72,6 @@ final class Game implements ConquerInfo {
 	private static final int SOFT_POPULATION_LIMIT = 500_000;
 	private static final int MAX_SELECTOR_VALUE = 5000;
 	private static final int RETAINED_PEOPLE = 5;
-	private static final int FALLBACK_POPULATION = 15;
 	private static final int MAXIMUM_SURVIVING_PEOPLE_CONQUERED = 60;
 	private static final int MINIMUM_SURVIVING_PEOPLE_CITY_CONQUERED = 20;
 	private static final int MAXIMUM_SURVIVING_PEOPLE_ALL_DEAD = 80;
@@ -74,12 +82,28 @@ final class Game implements ConquerInfo {
 	private static final double RELATIONSHIP_CHANGE_ALL_DEAD = 7.5;
 	private static final int RELATIONSHIP_CHANGE_ATTACK_DEFEATED = 5;
 	private static final int MAX_STRATEGIES = 2048;
-	private final Random random = new SecureRandom();
+	private RandomStreams randomStreams = new RandomStreams(RandomStreams.defaultSeed());
+	private SplittableRandom eventRandom;
+	private SplittableRandom relationsRandom;
+	private SplittableRandom orderRandom;
+	private SplittableRandom cityRandom;
+	private SplittableRandom[] strategyRandoms;
+	private SplittableRandom[] combatRandoms;
+	private final Map<String, SplittableRandom> pluginRandoms = new ConcurrentHashMap<>();
 	private List<IClan> clans;
 	private Image background;
 	private Graph<ICity> cities;
+	private volatile ShortestPaths<ICity> travelCosts;
+	private ThreatMap threatMap;
+	private SpatialIndex spatialIndex;
+	private CityStore store;
+	private EconomyPipeline economy;
+	// Package-private, so the tests can use a pool of their own
+	CPUPlayScheduler scheduler = new CPUPlayScheduler();
+	private final boolean parallelCPUPlay = System.getProperty("conquer.cpu.parallel") != null;
 	private final EventList events = new EventList();
 	private final StrategyProvider[] strategies;
+	private StrategyBudget budget;
 	private boolean isPlayersTurn = true;
 	private int numPlayers = -1;
 	private Graph<Integer> relations;
@@ -90,6 +114,8 @@ final class Game implements ConquerInfo {
 	private File directory;
 	private Consumer<Throwable> throwableConsumer;
 	private GlobalContext context;
+	// Forks don't produce messages and play the CPU clans one after another.
+	private boolean forked;
 
 	Game() {
 		this.data.setRecruitHooks(new ArrayList<>());
@@ -105,6 +131,25 @@ final class Game implements ConquerInfo {
 		this.strategies[1] = new ModerateStrategyProvider();
 		this.strategies[2] = new OffensiveStrategyProvider();
 		this.strategies[3] = new RandomStrategyProvider();
+		this.createRandoms();
+	}
+
+	// Every subsystem and every clan gets its own stream, so the parallel turns don't share a generator and
+	// the outcome doesn't depend on how the turns are scheduled.
+	private void createRandoms() {
+		this.eventRandom = this.randomStreams.stream("events");
+		this.relationsRandom = this.randomStreams.stream("relations");
+		this.orderRandom = this.randomStreams.stream("order");
+		this.cityRandom = this.randomStreams.stream("cities");
+		if (this.clans != null) {
+			this.strategyRandoms = new SplittableRandom[this.clans.size()];
+			this.combatRandoms = new SplittableRandom[this.clans.size()];
+			for (var i = 0; i < this.clans.size(); i++) {
+				this.strategyRandoms[i] = this.randomStreams.stream("strategy", i);
+				this.combatRandoms[i] = this.randomStreams.stream("combat", i);
+			}
+		}
+		this.pluginRandoms.clear();
 	}
 
 	@Override
@@ -192,16 +237,24 @@ final class Game implements ConquerInfo {
 	public void attack(final ICity src, final ICity destination, final boolean managed, final long num) {
 		this.throwIfNull(src, "src==null");
 		this.throwIfNull(destination, "destination==null");
+		this.claim(src);
+		this.claim(destination);
 		this.checkPreconditions(managed, num);
 		this.cantAttack(src, destination);
+		this.executeAttack(src, destination, managed, num, this::addEvent);
+	}
+
+	private void executeAttack(final ICity src, final ICity destination, final boolean managed, final long num,
+							   final Consumer<Message> sink) {
 		final var powerOfAttacker = this.calculatePowerOfAttacker(src, destination, managed, num);
 		if (((powerOfAttacker == 0) && !src.isPlayerCity()) || ((!src.isPlayerCity()) && (powerOfAttacker == 1))) {
 			return;
 		}
 		final var diff = this.setup(powerOfAttacker, src, destination);
 		src.setNumberOfSoldiers(src.getNumberOfSoldiers() - powerOfAttacker);
-		this.data.getAttackHooks().forEach(a -> a.before(src, destination, powerOfAttacker));
+		this.callHooks(this.data.getAttackHooks(), a -> a.before(src, destination, powerOfAttacker));
 		var relationshipValue = this.getRelationship(src.getClan(), destination.getClan());
+		final var combatRandom = this.combatRandoms[src.getClanId()];
 		final double numberOfSurvivingPeople;
 		final var destinationClan = destination.getClan();
 		final long survivingSoldiers;
@@ -218,16 +271,16 @@ final class Game implements ConquerInfo {
 			}
 			survivingSoldiers = surviving;
 			destination.setNumberOfSoldiers(surviving);
-			this.events.add(new AttackLostMessage(src, destination, powerOfAttacker));
+			sink.accept(new AttackLostMessage(src, destination, powerOfAttacker));
 			relationshipValue -= Game.RELATIONSHIP_CHANGE_ATTACK_DEFEATED;
-			numberOfSurvivingPeople = Shared.randomPercentage(Game.MINIMUM_SURVIVING_PEOPLE_ATTACK_DEFEATED,
+			numberOfSurvivingPeople = Shared.randomPercentage(combatRandom, Game.MINIMUM_SURVIVING_PEOPLE_ATTACK_DEFEATED,
 					Game.MAXIMUM_SURVIVING_PEOPLE_ATTACK_DEFEATED);
 			result = AttackResult.ATTACK_DEFEATED;
 		} else if (diff == 0) {// All soldiers are dead
 			destination.setNumberOfSoldiers(0);
-			this.events.add(new AnnihilationMessage(src, destination, powerOfAttacker));
+			sink.accept(new AnnihilationMessage(src, destination, powerOfAttacker));
 			relationshipValue -= Game.RELATIONSHIP_CHANGE_ALL_DEAD;
-			numberOfSurvivingPeople = Shared.randomPercentage(Game.MINIMUM_SURVIVING_PEOPLE_ALL_DEAD,
+			numberOfSurvivingPeople = Shared.randomPercentage(combatRandom, Game.MINIMUM_SURVIVING_PEOPLE_ALL_DEAD,
 					Game.MAXIMUM_SURVIVING_PEOPLE_ALL_DEAD);
 			survivingSoldiers = 0;
 			result = AttackResult.ALL_SOLDIERS_DEAD;
@@ -235,20 +288,19 @@ final class Game implements ConquerInfo {
 			survivingSoldiers = this.calculateNumberOfSurvivingAttackers(diff, src);
 			destination.setNumberOfSoldiers(survivingSoldiers);
 			relationshipValue -= Game.RELATIONSHIP_CHANGE_CITY_CONQUERED;
-			numberOfSurvivingPeople = Shared.randomPercentage(Game.MINIMUM_SURVIVING_PEOPLE_CITY_CONQUERED,
+			numberOfSurvivingPeople = Shared.randomPercentage(combatRandom, Game.MINIMUM_SURVIVING_PEOPLE_CITY_CONQUERED,
 					Game.MAXIMUM_SURVIVING_PEOPLE_CONQUERED);
 			result = AttackResult.CITY_CONQUERED;
-			this.events.add(new ConquerMessage(src, destination, powerOfAttacker));
+			sink.accept(new ConquerMessage(src, destination, powerOfAttacker));
 			destination.setClan(src.getClan());
 		}
 		if (relationshipValue < 0) {
 			relationshipValue = 0;
 		}
 		destination.setNumberOfPeople((long) (destination.getNumberOfPeople() * numberOfSurvivingPeople));
-		this.getRelations().addDirectedEdge(src.getClanId(), destinationClan.getId(), relationshipValue,
-				relationshipValue);
-		this.data.getAttackHooks().forEach(a -> a.after(src, destination, survivingSoldiers, result));
-		this.checkExtinction(result, destinationClan);
+		this.setRelationship(src.getClanId(), destinationClan.getId(), relationshipValue);
+		this.callHooks(this.data.getAttackHooks(), a -> a.after(src, destination, survivingSoldiers, result));
+		this.checkExtinction(result, destinationClan, sink);
 	}
 
 	private boolean isBad(final double d) {
@@ -283,8 +335,7 @@ final class Game implements ConquerInfo {
 
 	@Override
 	public Result calculateResult() {
-		return StreamUtils.getCitiesAsStream(this.getCities(), this.getPlayerClan()).count() == 0 ? Result.CPU_WON
-				: Result.PLAYER_WON;
+		return this.isDead(this.getPlayerClan()) ? Result.CPU_WON : Result.PLAYER_WON;
 	}
 
 	private void cantAttack(final ICity src, final ICity destination) {
@@ -297,9 +348,10 @@ final class Game implements ConquerInfo {
 		}
 	}
 
-	private void checkExtinction(final AttackResult result, final IClan destinationClan) {
+	private void checkExtinction(final AttackResult result, final IClan destinationClan,
+								 final Consumer<Message> sink) {
 		if ((result == AttackResult.CITY_CONQUERED) && this.isDead(destinationClan)) {
-			this.events.add(new ExtinctionMessage(destinationClan));
+			sink.accept(new ExtinctionMessage(destinationClan));
 		}
 	}
 
@@ -310,19 +362,71 @@ final class Game implements ConquerInfo {
 	}
 
 	private void cpuPlay() {
+		// Computed once before the waves start, the moves of the clans update it afterwards.
+		this.getThreatMap();
 		// Skip clan of the player
 		final var order = this.clans.stream().filter(a -> !a.isPlayerClan()).collect(Collectors.toList());
-		Collections.shuffle(order);
-		order.forEach(this::executeCPUPlay);
+		RandomStreams.shuffle(order, this.orderRandom);
+		if (this.parallelCPUPlay && !this.forked) {
+			final var waves = this.scheduler.partition(this.cities, order, this.clans.size());
+			this.scheduler.run(this.cities, waves, this::executeCPUPlay, this.events::add);
+		} else {
+			order.forEach(this::executeCPUPlay);
+		}
 		this.isPlayersTurn = true;
 	}
 
+	// Called before a city is changed, a clan of a parallel wave waits, if the city is outside of its territory.
+	private void claim(final ICity city) {
+		final var group = this.scheduler.currentGroup();
+		if ((group != null) && (city != null)) {
+			final var idx = this.cities.indexOf(city);
+			if (idx != -1) {
+				group.claim(idx);
+			}
+		}
+	}
+
+	// The territories of a wave don't change, so claiming the cities of a batch once is enough.
+	private void claim(final CommandBatch batch) {
+		final var group = this.scheduler.currentGroup();
+		if (group == null) {
+			return;
+		}
+		for (var i = 0; i < batch.size(); i++) {
+			group.claim(batch.getSource(i));
+			final var kind = batch.getKind(i);
+			if ((kind == CommandBatch.Kind.ATTACK) || (kind == CommandBatch.Kind.MOVE)) {
+				group.claim(batch.getTarget(i));
+			}
+		}
+	}
+
+	private void addEvent(final Message message) {
+		if (this.forked) {
+			return;
+		}
+		final var group = this.scheduler.currentGroup();
+		if (group == null) {
+			this.events.add(message);
+		} else {
+			group.addMessage(message);
+		}
+	}
+
+	// Hooks of plugins aren't expected to be thread-safe, so they are never called concurrently.
+	private <H> void callHooks(final List<H> hooks, final Consumer<H> call) {
+		synchronized (this.data) {
+			hooks.forEach(call);
+		}
+	}
+
 	@Override
 	public int currentRound() {
 		return this.currentRound;
 	}
 
-	private void eval(final int selector, final int clanOne, final int clanTwo, final Random r) {
+	private void eval(final int selector, final int clanOne, final int clanTwo, final SplittableRandom r) {
 		if (this.isDead(this.getClan(clanOne)) || this.isDead(this.getClan(clanTwo))) {
 			return;
 		}
@@ -331,11 +435,11 @@ final class Game implements ConquerInfo {
 		} else if ((selector >= 4500) && (selector < 4700)) {
 			this.improveRelationship(r, clanOne, clanTwo);
 		} else if (selector >= 4500) {
-			final var newValue = this.relations.getWeight(clanOne, clanTwo)
-					+ (Math.random() > 0.5 ? Math.random() : -Math.random());
+			final var newValue = this.getRelationship(clanOne, clanTwo)
+					+ (r.nextDouble() > 0.5 ? r.nextDouble() : -r.nextDouble());
 			final var clampedToZero = newValue < 0 ? 0 : newValue;
 			final var clampedToHundred = clampedToZero > 100 ? 100 : clampedToZero;
-			this.relations.addDirectedEdge(clanOne, clanTwo, clampedToHundred, clampedToHundred);
+			this.setRelationship(clanOne, clanTwo, clampedToHundred);
 		}
 
 	}
@@ -345,89 +449,90 @@ final class Game implements ConquerInfo {
 	}
 
 	private void events() {
-		Stream.of(this.getCities().getValues(new ICity[0])).forEach(a -> {
-			final var number = this.random.nextInt(20_000_001);
+		final var cityStore = this.store;
+		final var random = this.eventRandom;
+		for (var slot = 0; slot < cityStore.size(); slot++) {
+			final var number = random.nextInt(20_000_001);
 			var factorOfPeople = 1.0;
 			var factorOfSoldiers = 1.0;
 			var growthFactor = 1.0;
 			RandomEvent re = null;
 			if (this.isBetween(number, 0, 300)) {// pestilence
-				factorOfPeople = Shared.randomPercentage(30, 80);
-				factorOfSoldiers = Shared.randomPercentage(30, 80);
-				growthFactor = Shared.randomPercentage(85, 95);
+				factorOfPeople = Shared.randomPercentage(random, 30, 80);
+				factorOfSoldiers = Shared.randomPercentage(random, 30, 80);
+				growthFactor = Shared.randomPercentage(random, 85, 95);
 				re = RandomEvent.PESTILENCE;
 			} else if (this.isBetween(number, 3200, 3300)) {// fire
-				factorOfPeople = Shared.randomPercentage(85, 95);
-				factorOfSoldiers = Shared.randomPercentage(80, 90);
-				growthFactor = Shared.randomPercentage(80, 95);
+				factorOfPeople = Shared.randomPercentage(random, 85, 95);
+				factorOfSoldiers = Shared.randomPercentage(random, 80, 90);
+				growthFactor = Shared.randomPercentage(random, 80, 95);
 				re = RandomEvent.FIRE;
 			} else if (this.isBetween(number, 4500, 6500)) {// growth
-				factorOfPeople = Shared.randomPercentage(105, 115);
-				growthFactor = Shared.randomPercentage(104, 112.5);
+				factorOfPeople = Shared.randomPercentage(random, 105, 115);
+				growthFactor = Shared.randomPercentage(random, 104, 112.5);
 				re = RandomEvent.GROWTH;
 			} else if (this.isBetween(number, 7900, 8900)) {// bad harvesting
-				factorOfPeople = Shared.randomPercentage(85, 90);
-				factorOfSoldiers = Shared.randomPercentage(80, 90);
-				growthFactor = Shared.randomPercentage(85, 90);
+				factorOfPeople = Shared.randomPercentage(random, 85, 90);
+				factorOfSoldiers = Shared.randomPercentage(random, 80, 90);
+				growthFactor = Shared.randomPercentage(random, 85, 90);
 				re = RandomEvent.CROP_FAILURE;
 			} else if (this.isBetween(number, 12_670, 12_900)) {// rebellion
-				factorOfPeople = Shared.randomPercentage(28, 60);
-				factorOfSoldiers = Shared.randomPercentage(20, 85);
-				growthFactor = Shared.randomPercentage(15, 30);
+				factorOfPeople = Shared.randomPercentage(random, 28, 60);
+				factorOfSoldiers = Shared.randomPercentage(random, 20, 85);
+				growthFactor = Shared.randomPercentage(random, 15, 30);
 				re = RandomEvent.REBELLION;
 			} else if (this.isBetween(number, 19_200, 19_330)) {// civil war
-				factorOfPeople = Shared.randomPercentage(2, 12);
-				factorOfSoldiers = Shared.randomPercentage(20, 45);
-				growthFactor = Shared.randomPercentage(2, 30);
+				factorOfPeople = Shared.randomPercentage(random, 2, 12);
+				factorOfSoldiers = Shared.randomPercentage(random, 20, 45);
+				growthFactor = Shared.randomPercentage(random, 2, 30);
 				re = RandomEvent.CIVIL_WAR;
 			} else if (this.isBetween(number, 239_400, 250_100)) {// migration
-				factorOfPeople = Shared.randomPercentage(102, 135);
-				factorOfSoldiers = Shared.randomPercentage(100, 103.5);
-				growthFactor = Shared.randomPercentage(107, 145);
+				factorOfPeople = Shared.randomPercentage(random, 102, 135);
+				factorOfSoldiers = Shared.randomPercentage(random, 100, 103.5);
+				growthFactor = Shared.randomPercentage(random, 107, 145);
 				re = RandomEvent.MIGRATION;
 			} else if (this.isBetween(number, 405_200, 409_900)) {// economic growth
-				growthFactor = Shared.randomPercentage(102, 105);
+				growthFactor = Shared.randomPercentage(random, 102, 105);
 				re = RandomEvent.ECONOMIC_GROWTH;
 			} else if (this.isBetween(number, 562_000, 569_900)) {// pandemic
-				factorOfPeople = Shared.randomPercentage(2, 35);
-				factorOfSoldiers = Shared.randomPercentage(0, 20);
-				growthFactor = Shared.randomPercentage(45, 60);
+				factorOfPeople = Shared.randomPercentage(random, 2, 35);
+				factorOfSoldiers = Shared.randomPercentage(random, 0, 20);
+				growthFactor = Shared.randomPercentage(random, 45, 60);
 				re = RandomEvent.PANDEMIC;
 			} else if (this.isBetween(number, 1_000_000, 5_000_000)) {// accident
-				final var numberOfPeople = a.getNumberOfPeople() - (this.random.nextInt(12) + 1);
-				a.setNumberOfPeople(numberOfPeople < 0 ? 0 : numberOfPeople);
+				final var numberOfPeople = cityStore.getPeople(slot) - (random.nextInt(12) + 1);
+				cityStore.setPeople(slot, numberOfPeople < 0 ? 0 : numberOfPeople);
 			} else if (this.isBetween(number, 5_100_100, 5_100_200)) {//another accident
-				factorOfPeople = Shared.randomPercentage(92, 99);
-				factorOfSoldiers = Shared.randomPercentage(92, 99);
-				growthFactor = Shared.randomPercentage(98, 99);
+				factorOfPeople = Shared.randomPercentage(random, 92, 99);
+				factorOfSoldiers = Shared.randomPercentage(random, 92, 99);
+				growthFactor = Shared.randomPercentage(random, 98, 99);
 				re = RandomEvent.ACCIDENT;
 			} else if (this.isBetween(number, 12_010_000, 12_015_000)) {// sabotage
-				factorOfPeople = Shared.randomPercentage(80, 90);
-				factorOfSoldiers = Shared.randomPercentage(75, 90);
-				growthFactor = Shared.randomPercentage(90, 98);
+				factorOfPeople = Shared.randomPercentage(random, 80, 90);
+				factorOfSoldiers = Shared.randomPercentage(random, 75, 90);
+				growthFactor = Shared.randomPercentage(random, 90, 98);
 				re = RandomEvent.SABOTAGE;
 			}
 			if ((factorOfPeople == 1) && (factorOfSoldiers == 1) && (growthFactor == 1)) {
-				return;
+				continue;
 			}
-			a.setNumberOfPeople((long) (a.getNumberOfPeople() * factorOfPeople));
-			a.setNumberOfSoldiers((long) (a.getNumberOfSoldiers() * factorOfSoldiers));
-			a.setGrowth(a.getGrowth() * growthFactor);
-			this.events.add(new RandomEventMessage(re, factorOfPeople, factorOfSoldiers, growthFactor, a));
-		});
+			cityStore.setPeople(slot, (long) (cityStore.getPeople(slot) * factorOfPeople));
+			cityStore.setSoldiers(slot, (long) (cityStore.getSoldiers(slot) * factorOfSoldiers));
+			cityStore.setGrowth(slot, cityStore.getGrowth(slot) * growthFactor);
+			this.addEvent(new RandomEventMessage(re, factorOfPeople, factorOfSoldiers, growthFactor,
+					this.cities.getValue(slot)));
+		}
 	}
 
 	@Override
 	public void executeActions() {
 		final var start = System.nanoTime();
+		this.invalidateThreatMap();
 		this.sanityCheckForGrowth();
 		this.sanityCheckForBadCityValues();
 		this.sanityCheckForBadClanValues();
 		this.relationshipEvents();
-		this.payMoney();
-		this.produceResources();
-		this.useResources();
-		this.growCities();
+		this.economy.run(this, this.clans, this.cities, this.data.getMoneyHooks(), this.data.getResourceHooks());
 		this.events();
 		this.cpuPlay();
 		try {
@@ -442,13 +547,17 @@ final class Game implements ConquerInfo {
 		this.sanityCheckForGrowth();
 		this.sanityCheckForBadCityValues();
 		this.sanityCheckForBadClanValues();
-		StreamUtils.forEach(this.cities, ICity::endOfRound);
+		// Every city changes, so computing the map again is cheaper than updating it.
+		this.invalidateThreatMap();
+		StreamUtils.forEach(this.cities, city -> ((City) city).endOfRound(this.cityRandom::nextInt));
 		this.currentRound++;
 		final var end = System.nanoTime();
 		var diff = ((double) end - start);
 		diff /= 1000;// 10^-6 s
 		diff /= 1000;// 10^-3 s
-		Shared.LOGGER.message("CPUPLAY: " + diff + "ms");
+		if (!this.forked) {
+			Shared.LOGGER.message("CPUPLAY: " + diff + "ms");
+		}
 		this.isPlayersTurn = true;
 	}
 
@@ -456,7 +565,7 @@ final class Game implements ConquerInfo {
 		if (this.isDead(clan)) {
 			return;
 		}
-		clan.getStrategy().applyStrategy(clan, this.cities, this);
+		this.budget.play(clan, strategy -> strategy.applyStrategy(clan, this.cities, this));
 		clan.update(this.currentRound);
 	}
 
@@ -476,6 +585,58 @@ final class Game implements ConquerInfo {
 		}
 	}
 
+	@Override
+	public ConquerInfo fork() {
+		return this.fork(this.randomStreams.getSeed() + this.currentRound);
+	}
+
+	@Override
+	public ConquerInfo fork(final long seed) {
+		final var group = this.scheduler.currentGroup();
+		if (group != null) {
+			// The other clans of a parallel wave mustn't change the game while it is copied.
+			group.claimAll();
+		}
+		final var ret = new Game();
+		ret.forked = true;
+		System.arraycopy(this.strategies, 0, ret.strategies, 0, this.strategies.length);
+		ret.background = this.background;
+		ret.numPlayers = this.numPlayers;
+		ret.currentRound = this.currentRound;
+		ret.isPlayersTurn = this.isPlayersTurn;
+		ret.context = this.context;
+		ret.data.setPlugins(List.of());
+		ret.playerGiftCallback = (source, destination, gift, oldValue, newValue, object) -> false;
+		ret.setSeed(seed);
+		final var clanCopies = new ArrayList<IClan>(this.clans.size());
+		this.clans.forEach(clan -> clanCopies.add(((Clan) clan).copy(ret)));
+		ret.setClans(clanCopies);
+		final var storeCopy = this.store.copy(clanCopies);
+		final var cityCopies = new ArrayList<ICity>(this.cities.size());
+		for (var slot = 0; slot < this.cities.size(); slot++) {
+			cityCopies.add(((City) this.cities.getValue(slot)).copy(ret, storeCopy));
+		}
+		// The edges between the cities never change, so they are shared with the fork.
+		ret.setGraph(this.cities.copyWithValues(cityCopies), storeCopy);
+		// The relations change in every round, but they are small enough to be copied.
+		final var relationsCopy = new Graph<Integer>(this.relations.size());
+		for (var i = 0; i < this.relations.size(); i++) {
+			relationsCopy.add(this.relations.getValue(i));
+		}
+		synchronized (this.relations) {
+			for (var i = 0; i < this.relations.size(); i++) {
+				for (var j = 0; j < this.relations.size(); j++) {
+					final var weight = this.relations.getWeightAt(i, j);
+					if ((i != j) && (weight != -1)) {
+						relationsCopy.addDirectedEdge(i, j, weight);
+					}
+				}
+			}
+		}
+		ret.setRelations(relationsCopy);
+		return ret;
+	}
+
 	@Override
 	public Image getBackground() {
 		return this.background;
@@ -486,6 +647,62 @@ final class Game implements ConquerInfo {
 		return this.cities;
 	}
 
+	@Override
+	public ShortestPaths<ICity> getTravelCosts() {
+		// The routes follow changes of the graph, so one instance is enough.
+		var ret = this.travelCosts;
+		if (ret == null) {
+			ret = ConquerInfo.super.getTravelCosts();
+			this.travelCosts = ret;
+		}
+		return ret;
+	}
+
+	@Override
+	public StrategyTiming getStrategyTiming(final IClan clan) {
+		this.throwIfNull(clan, "clan==null");
+		return this.budget.getTiming(clan);
+	}
+
+	@Override
+	public long getDeadline(final IClan clan) {
+		this.throwIfNull(clan, "clan==null");
+		return this.budget.getDeadline(clan);
+	}
+
+	@Override
+	public ThreatMap getThreatMap() {
+		// Kept up to date by the store, it has to be computed again only after it was invalidated.
+		if (this.threatMap == null) {
+			this.threatMap = new ThreatMap(this.cities);
+		} else if (!this.threatMap.isValid()) {
+			this.threatMap.recompute();
+		}
+		return this.threatMap;
+	}
+
+	@Override
+	public SpatialIndex getSpatialIndex() {
+		// Built once in init(), the positions are fixed when the scenario is loaded.
+		if (this.spatialIndex == null) {
+			this.spatialIndex = ConquerInfo.super.getSpatialIndex();
+		}
+		return this.spatialIndex;
+	}
+
+	private void invalidateThreatMap() {
+		if (this.threatMap != null) {
+			this.threatMap.invalidate();
+		}
+	}
+
+	private void cityChanged(final int slot) {
+		final var map = this.threatMap;
+		if (map != null) {
+			map.update(slot);
+		}
+	}
+
 	public Map<String, CityKeyHandler> getCityKeyHandlers() {
 		return this.data.getCityKeyHandlers();
 	}
@@ -527,6 +744,23 @@ final class Game implements ConquerInfo {
 		return this.events;
 	}
 
+	@Override
+	public SplittableRandom getRandom(final IClan clan) {
+		this.throwIfNull(clan, "clan==null");
+		return this.strategyRandoms[clan.getId()];
+	}
+
+	@Override
+	public SplittableRandom getRandom(final Plugin plugin) {
+		this.throwIfNull(plugin, "plugin==null");
+		return this.pluginRandoms.computeIfAbsent(plugin.getClass().getName(), this.randomStreams::stream);
+	}
+
+	@Override
+	public long getSeed() {
+		return this.randomStreams.getSeed();
+	}
+
 	@Override
 	public List<String> getExtraMusic() {
 		return this.data.getExtraMusic();
@@ -546,6 +780,7 @@ final class Game implements ConquerInfo {
 		return this.data.getPlugins();
 	}
 
+	// The clans of a parallel wave change it concurrently, readers have to synchronize on the graph.
 	@Override
 	public Graph<Integer> getRelations() {
 		return this.relations;
@@ -564,43 +799,26 @@ final class Game implements ConquerInfo {
 	private List<ICity> getWeakestCityInRatioToSurroundingEnemyCities(final List<ICity> reachableCities) {
 		this.throwIfNull(reachableCities, "reachableCities==null");
 		reachableCities.forEach(this::throwIfNull);
+		final var threats = this.getThreatMap();
 		return Stream.of(reachableCities.toArray(new ICity[0])).sorted((a, b) -> {
 			final var defense = a.getDefenseStrength();
-			final var neighbours = StreamUtils.getCitiesAroundCityNot(this.cities, a, a.getClan())
-					.toList();
-			final var attack = neighbours.stream().mapToDouble(ICity::getNumberOfSoldiers).sum();
+			final var attack = threats.getEnemyPressure(a);
 			final var defenseB = b.getDefenseStrength();
-			final var neighboursB = StreamUtils.getCitiesAroundCityNot(this.cities, b, b.getClan())
-					.toList();
-			final var attackB = neighboursB.stream().mapToDouble(ICity::getNumberOfSoldiers).sum();
+			final var attackB = threats.getEnemyPressure(b);
 			final var diff = attack - defense;
 			final var diff2 = attackB - defenseB;
 			return Double.compare(diff, diff2);
 		}).toList();
 	}
 
-	private void growCities() {
-		StreamUtils.forEach(this.cities, a -> {
-			final var cnt = a.getNumberOfPeople();
-			final var l = cnt < 0 ? 0 : cnt;
-			var lNew = (long) (cnt * a.getGrowth());
-			// Every city will get at least one person per round.
-			if ((lNew - l) == 0) {
-				lNew++;
-			}
-			a.setNumberOfPeople(lNew < 0 ? Game.FALLBACK_POPULATION : lNew);
-		});
-	}
-
 	public boolean hasResult() {
-		final var others = StreamUtils.getCitiesAsStreamNot(this.getCities(), this.getPlayerClan()).count();
-		final var player = StreamUtils.getCitiesAsStream(this.getCities(), this.getPlayerClan()).count();
-		return (others == 0) || (player == 0);
+		final var player = this.store.getNumberOfCities(this.getPlayerClan().getId());
+		return (player == 0) || (player == this.store.size());
 	}
 
-	private void improveRelationship(final Random r, final int clanOne, final int clanTwo) {
-		final var bigger = Math.abs(r.nextGaussian() * 20);
-		final var oldValue = this.relations.getWeight(clanOne, clanTwo);
+	private void improveRelationship(final SplittableRandom r, final int clanOne, final int clanTwo) {
+		final var bigger = Math.abs(RandomStreams.nextGaussian(r) * 20);
+		final var oldValue = this.getRelationship(clanOne, clanTwo);
 		var newValue = oldValue + bigger;
 		if (newValue > 100) {
 			newValue = 100;
@@ -608,8 +826,8 @@ final class Game implements ConquerInfo {
 		if ((newValue - oldValue) == 0) {
 			return;
 		}
-		this.relations.addDirectedEdge(clanOne, clanTwo, newValue, newValue);
-		this.events.add(
+		this.setRelationship(clanOne, clanTwo, newValue);
+		this.addEvent(
 				new BetterRelationshipMessage(this.clans.get(clanOne), this.clans.get(clanTwo), oldValue, newValue));
 	}
 
@@ -635,6 +853,7 @@ final class Game implements ConquerInfo {
 			this.data.getPlugins().forEach(a -> a.init(this));
 		}
 		this.cities.initCache();
+		this.getSpatialIndex();
 	}
 
 	@Override
@@ -642,11 +861,11 @@ final class Game implements ConquerInfo {
 		if (clan == null) {
 			throw new IllegalArgumentException("clan==null");
 		}
-		return StreamUtils.getCitiesAsStream(this.cities, clan).count() == 0;
+		return this.store.getNumberOfCities(clan.getId()) == 0;
 	}
 
 	private boolean isInFriendlyCountry(final ICity c) {
-		return this.cities.getConnected(c).stream().noneMatch(a -> a.getClan() != c.getClan());
+		return this.cities.getConnectedAt(this.slotOf(c)).stream().noneMatch(a -> a.getClan() != c.getClan());
 	}
 
 	@Override
@@ -728,6 +947,8 @@ final class Game implements ConquerInfo {
 	@Override
 	public void moveSoldiers(final ICity src, final Stream<ICity> reachableCities, final boolean managed,
 							 final ICity other, final long numberOfSoldiersToMove) {
+		this.claim(src);
+		this.claim(other);
 		final var saved = this.moveSoldiersCheck(managed, src, reachableCities, other, numberOfSoldiersToMove);
 		final ICity destination;
 		final List<ICity> list;
@@ -740,6 +961,7 @@ final class Game implements ConquerInfo {
 				return;
 			}
 			destination = list.get(list.size() - 1);
+			this.claim(destination);
 		}
 		if (src == destination) {// This should theoretically be a critical error,....
 			return;
@@ -754,11 +976,14 @@ final class Game implements ConquerInfo {
 				return;
 			}
 		}
+		this.executeMove(src, destination, moveAmount, this.distance(src, destination));
+	}
+
+	private void executeMove(final ICity src, final ICity destination, final long moveAmount, final double distance) {
 		destination.setNumberOfSoldiers(destination.getNumberOfSoldiers() + moveAmount);
-		this.payForMove(src.getClan(), moveAmount, this.getCities().getWeight(src, destination));
+		this.payForMove(src.getClan(), moveAmount, distance);
 		src.setNumberOfSoldiers(src.getNumberOfSoldiers() - moveAmount);
-		final var finalMoveAmout = moveAmount;
-		this.data.getMoveHooks().forEach(a -> a.handleMove(src, destination, finalMoveAmout));
+		this.callHooks(this.data.getMoveHooks(), a -> a.handleMove(src, destination, moveAmount));
 	}
 
 	private long numberOfSurvivingDefenders(final double diff, final ICity destination,
@@ -772,7 +997,22 @@ final class Game implements ConquerInfo {
 
 	@Override
 	public boolean onlyOneClanAlive() {
-		return StreamUtils.getCitiesAsStream(this.cities).map(ICity::getClan).distinct().count() == 1;
+		return this.store.getNumberOfAliveClans() == 1;
+	}
+
+	@Override
+	public Stream<ICity> getCitiesOfClan(final IClan clan) {
+		this.throwIfNull(clan, "clan==null");
+		final var clanId = clan.getId();
+		final var cityStore = this.store;
+		return IntStream.iterate(cityStore.nextOwnedSlot(clanId, 0), slot -> slot >= 0,
+				slot -> cityStore.nextOwnedSlot(clanId, slot + 1)).mapToObj(this.cities::getValue);
+	}
+
+	@Override
+	public long getNumberOfCities(final IClan clan) {
+		this.throwIfNull(clan, "clan==null");
+		return this.store.getNumberOfCities(clan.getId());
 	}
 
 	private void pay(final IClan srcClan, final double subtract) {
@@ -785,33 +1025,10 @@ final class Game implements ConquerInfo {
 				numSoldiers * (costs.coinsPerMoveOfSoldierBase() + (costs.coinsPerMovePerSoldier() * weight)));
 	}
 
-	private void payMoney() {
-		StreamUtils.forEach(this.cities, city -> {
-			final var clan = this.getClan(city);
-			final var toGet = city.getCoinDiff();
-			clan.setCoins(clan.getCoins() + toGet);
-		});
-		this.clans.forEach(clan -> this.data.getMoneyHooks().forEach(
-				a -> a.moneyPaid(StreamUtils.getCitiesAsStream(this.cities, clan).toList(),
-						clan)));
-
-	}
-
-	private void produceResources() {
-		StreamUtils.forEach(this.getCities(), city -> {
-			final var clan = city.getClan();
-			final var resourcesOfClan = clan.getResources();
-			for (var i = 0; i < resourcesOfClan.size(); i++) {
-				final var productions = (city.getNumberOfPeople() * city.getProductions().get(i));
-				resourcesOfClan.set(i, resourcesOfClan.get(i) + productions);
-				clan.getResourceStats().set(i, clan.getResourceStats().get(i) + productions);
-			}
-		});
-	}
-
 	@Override
 	public void recruitSoldiers(final double maxToPay, final ICity c, final boolean managed, final long count) {
 		this.throwIfNull(c, "c==null");
+		this.claim(c);
 		final var clan = c.getClan();
 		if ((!managed) && (maxToPay < 0)) {
 			throw new IllegalArgumentException("maxToPay < 0 :" + maxToPay);
@@ -834,6 +1051,11 @@ final class Game implements ConquerInfo {
 				return;
 			}
 		}
+		this.executeRecruit(c, clan, numberToRecruit);
+	}
+
+	private void executeRecruit(final ICity c, final IClan clan, final long numberToRecruit) {
+		final var costs = this.getSoldierCosts();
 		c.setNumberOfPeople(c.getNumberOfPeople() - numberToRecruit);
 		c.setNumberOfSoldiers(c.getNumberOfSoldiers() + numberToRecruit);
 		final var resourcesOfClan = clan.getResources();
@@ -847,12 +1069,99 @@ final class Game implements ConquerInfo {
 		resourcesOfClan.set(Resource.WOOD.getIndex(), woodNew);
 		resourcesOfClan.set(Resource.STONE.getIndex(), stoneNew);
 		clan.setCoins(clan.getCoins() - (numberToRecruit * costs.coinsPerSoldierInitial()));
-		final var finalNumberToRecruit = numberToRecruit;
-		this.data.getRecruitHooks().forEach(a -> a.recruited(c, finalNumberToRecruit));
+		this.callHooks(this.data.getRecruitHooks(), a -> a.recruited(c, numberToRecruit));
+	}
+
+	@Override
+	public int submit(final IClan clan, final CommandBatch batch) {
+		this.throwIfNull(clan, "clan==null");
+		this.throwIfNull(batch, "batch==null");
+		final var size = this.cities.size();
+		for (var i = 0; i < batch.size(); i++) {
+			final var kind = batch.getKind(i);
+			final var maxTarget = kind == CommandBatch.Kind.UPGRADE_RESOURCE ? Resource.values().length : size;
+			if ((batch.getSource(i) >= size) || (batch.getTarget(i) >= maxTarget)) {
+				throw new IllegalArgumentException("Invalid command " + i + ": " + kind);
+			}
+		}
+		// A claim may wait for the other clans of a parallel wave, that may wait for the lock of the hooks. So
+		// everything is claimed before the lock is held.
+		this.claim(batch);
+		// The messages are added after the batch and the lock of the hooks is only acquired once.
+		final var messages = new ArrayList<Message>();
+		final int executed;
+		if (this.data.getAttackHooks().isEmpty() && this.data.getMoveHooks().isEmpty()
+				&& this.data.getRecruitHooks().isEmpty()) {
+			executed = this.executeBatch(clan, batch, messages::add);
+		} else {
+			synchronized (this.data) {
+				executed = this.executeBatch(clan, batch, messages::add);
+			}
+		}
+		messages.forEach(this::addEvent);
+		return executed;
+	}
+
+	private int executeBatch(final IClan clan, final CommandBatch batch, final Consumer<Message> sink) {
+		var executed = 0;
+		for (var i = 0; i < batch.size(); i++) {
+			final var result = this.executeCommand(clan, batch, i, sink);
+			batch.setResult(i, result);
+			if (result != CommandBatch.REJECTED) {
+				executed++;
+			}
+		}
+		return executed;
+	}
+
+	// Validates the command against the current state, a command may be invalid after an earlier one was executed.
+	private long executeCommand(final IClan clan, final CommandBatch batch, final int idx,
+								final Consumer<Message> sink) {
+		final var sourceIdx = batch.getSource(idx);
+		final var source = this.cities.getValue(sourceIdx);
+		this.claim(source);
+		if (source.getClan() != clan) {
+			return CommandBatch.REJECTED;
+		}
+		final var amount = batch.getAmount(idx);
+		final var levels = (int) Math.min(amount, Integer.MAX_VALUE);
+		return switch (batch.getKind(idx)) {
+			case ATTACK, MOVE -> {
+				final var targetIdx = batch.getTarget(idx);
+				final var target = this.cities.getValue(targetIdx);
+				this.claim(target);
+				final var isAttack = batch.getKind(idx) == CommandBatch.Kind.ATTACK;
+				if (!this.cities.isConnectedAt(sourceIdx, targetIdx) || ((target.getClan() == clan) == isAttack)) {
+					yield CommandBatch.REJECTED;
+				}
+				final var distance = this.cities.getWeightAt(sourceIdx, targetIdx);
+				final var cnt = this.maximumNumberToMove(clan, distance, Math.min(amount, source.getNumberOfSoldiers()));
+				if (cnt == 0) {
+					yield 0;
+				}
+				final var before = source.getNumberOfSoldiers();
+				if (isAttack) {
+					this.executeAttack(source, target, true, cnt, sink);
+				} else {
+					this.executeMove(source, target, cnt, distance);
+				}
+				yield before - source.getNumberOfSoldiers();
+			}
+			case RECRUIT -> {
+				final var cnt = this.maximumNumberOfSoldiersToRecruit(clan,
+						Math.min(amount, source.getNumberOfPeople()));
+				if (cnt > 0) {
+					this.executeRecruit(source, clan, cnt);
+				}
+				yield cnt;
+			}
+			case UPGRADE_DEFENSE -> this.upgradeDefenseBy(source, levels);
+			case UPGRADE_RESOURCE -> this.upgradeResourceBy(Resource.values()[batch.getTarget(idx)], source, levels);
+		};
 	}
 
 	private void relationshipEvents() {
-		final var r = new Random(System.nanoTime());
+		final var r = this.relationsRandom;
 		final var size = this.clans.size();
 		final var numTries = r.nextInt((size / 2) + 1);
 		for (var i = 0; i < numTries; i++) {
@@ -945,16 +1254,20 @@ final class Game implements ConquerInfo {
 	}
 
 	private void sanityCheckForGrowth() {
-		StreamUtils.forEach(this.cities, a -> a.getGrowth() > Game.GROWTH_LIMIT,
-				a -> a.setGrowth(a.getGrowth() * Game.GROWTH_REDUCE_FACTOR));
-		StreamUtils.forEach(this.cities, a -> {
-			while (a.getGrowth() > Game.ALTERNATIVE_GROWTH_LIMIT) {
-				a.setGrowth(a.getGrowth() * Game.WEAK_GROWTH_REDUCE_FACTOR);
+		final var cityStore = this.store;
+		for (var slot = 0; slot < cityStore.size(); slot++) {
+			var growth = cityStore.getGrowth(slot);
+			if (growth > Game.GROWTH_LIMIT) {
+				growth *= Game.GROWTH_REDUCE_FACTOR;
 			}
-			if ((a.getNumberOfPeople() > Game.SOFT_POPULATION_LIMIT) && (a.getGrowth() > 0.8)) {
-				a.setGrowth(a.getGrowth() * 0.6);
+			while (growth > Game.ALTERNATIVE_GROWTH_LIMIT) {
+				growth *= Game.WEAK_GROWTH_REDUCE_FACTOR;
 			}
-		});
+			if ((cityStore.getPeople(slot) > Game.SOFT_POPULATION_LIMIT) && (growth > 0.8)) {
+				growth *= 0.6;
+			}
+			cityStore.setGrowth(slot, growth);
+		}
 	}
 
 	private void sanityCheckOfLevels(final List<Integer> levels, final ICity city) {
@@ -1014,10 +1327,16 @@ final class Game implements ConquerInfo {
 				&& (gift.getMap().entrySet().stream().noneMatch(a -> a.getValue() != 0))) {
 			return false;
 		}
+		final var group = this.scheduler.currentGroup();
+		if ((group != null) && !group.contains(destination)) {
+			// The destination may play concurrently, the gift is offered after the wave finished.
+			group.defer(() -> this.sendDeferredGift(source, destination, gift));
+			return false;
+		}
 		final boolean acceptedGift;
 		final DoubleConsumer dc = newValue -> {
 			final var d = newValue < 0 ? 0 : (newValue > 100 ? 100 : newValue);
-			this.relations.addUndirectedEdge(source.getId(), destination.getId(), d);
+			this.setRelationship(source.getId(), destination.getId(), d);
 		};
 		final var relationship = this.getRelationship(source, destination);
 		if (destination.isPlayerClan()) {
@@ -1031,6 +1350,15 @@ final class Game implements ConquerInfo {
 		return acceptedGift;
 	}
 
+	private void sendDeferredGift(final IClan source, final IClan destination, final Gift gift) {
+		if (this.isDead(destination) || (source.getCoins() < gift.getNumberOfCoins())
+				|| gift.getMap().entrySet().stream()
+				.anyMatch(a -> source.getResources().get(a.getKey().getIndex()) < a.getValue())) {
+			return;
+		}
+		this.sendGift(source, destination, gift);
+	}
+
 	private void calculateChanges(final IClan source, final IClan destination, final Gift gift) {
 		if (source.getCoins() < gift.getNumberOfCoins()) {
 			throw new IllegalArgumentException("More coins were gifted than available!");
@@ -1057,7 +1385,20 @@ final class Game implements ConquerInfo {
 		if (a == b) {
 			throw new IllegalArgumentException("clanA==clanB");
 		}
-		return this.relations.getWeight(a.getId(), b.getId());
+		return this.getRelationship(a.getId(), b.getId());
+	}
+
+	// The clans of a parallel wave change their relations concurrently.
+	private double getRelationship(final int a, final int b) {
+		synchronized (this.relations) {
+			return this.relations.getWeightAt(a, b);
+		}
+	}
+
+	private void setRelationship(final int a, final int b, final double value) {
+		synchronized (this.relations) {
+			this.relations.addDirectedEdge(a, b, value, value);
+		}
 	}
 
 	void setBackground(final Image gi) {
@@ -1074,6 +1415,19 @@ final class Game implements ConquerInfo {
 			throw new UnsupportedOperationException("Can't change clans!");
 		}
 		this.clans = clans;
+		// The turns of a fork are part of the turn of a clan of the game, they aren't limited again.
+		this.budget = this.forked ? new StrategyBudget(clans.size(), 0, 0, null)
+				: StrategyBudget.fromProperties(clans.size(), () -> this.strategies[1].buildStrategy());
+		if (this.store != null) {
+			this.store.reserveClans(clans.size());
+		}
+		this.createRandoms();
+	}
+
+	@Override
+	public void setSeed(final long seed) {
+		this.randomStreams = new RandomStreams(seed);
+		this.createRandoms();
 	}
 
 	@Override
@@ -1081,12 +1435,28 @@ final class Game implements ConquerInfo {
 		this.throwableConsumer = handler;
 	}
 
-	void setGraph(final Graph<ICity> g) {
+	void setGraph(final Graph<ICity> g, final CityStore cityStore) {
 		this.throwIfNull(g, "g==null");
+		this.throwIfNull(cityStore, "cityStore==null");
 		if (this.cities != null) {
 			throw new UnsupportedOperationException("Can't change graph!");
 		}
+		final var values = g.getValues(new ICity[0]);
+		if (values.length != cityStore.size()) {
+			throw new IllegalArgumentException("values.length != cityStore.size(): " + values.length);
+		}
+		for (var i = 0; i < values.length; i++) {
+			if (!(values[i] instanceof City c) || (c.getSlot() != i)) {
+				throw new IllegalArgumentException("City at index " + i + " is not stored in slot " + i);
+			}
+		}
 		this.cities = g;
+		this.store = cityStore;
+		cityStore.setChangeListener(this::cityChanged);
+		if (this.clans != null) {
+			cityStore.reserveClans(this.clans.size());
+		}
+		this.economy = new EconomyPipeline(cityStore);
 	}
 
 	@Override
@@ -1121,13 +1491,22 @@ final class Game implements ConquerInfo {
 		this.relations = relations;
 	}
 
+	private double distance(final ICity a, final ICity b) {
+		return this.cities.getWeightAt(this.slotOf(a), this.slotOf(b));
+	}
+
+	// setGraph ensures that every city of this game is stored at the index of its slot
+	private int slotOf(final ICity city) {
+		return city instanceof City c ? c.getSlot() : this.cities.indexOf(city);
+	}
+
 	void setRound(final int r) {
 		this.currentRound = r;
 	}
 
 	private double setup(final long powerOfAttacker, final ICity src, final ICity destination) {
 		final var srcClan = src.getClan();
-		this.payForMove(srcClan, powerOfAttacker, this.getCities().getWeight(src, destination));
+		this.payForMove(srcClan, powerOfAttacker, this.distance(src, destination));
 		var newPowerOfAttacker = powerOfAttacker * srcClan.getSoldiersStrength();
 		newPowerOfAttacker *= srcClan.getSoldiersOffenseStrength();
 		final var powerOfDefender = this.calculatePowerOfDefender(destination);
@@ -1149,6 +1528,7 @@ final class Game implements ConquerInfo {
 	@Override
 	public boolean upgradeDefense(final ICity city) {
 		this.throwIfNull(city, "city==null");
+		this.claim(city);
 		final var levels = city.getLevels();
 		final var costs = this.getPlayerClan().costs(levels.get(Resource.values().length) + 1);
 		final var clan = city.getClan();
@@ -1164,17 +1544,42 @@ final class Game implements ConquerInfo {
 	}
 
 	@Override
-	public void upgradeDefenseFully(final ICity city) {
+	public int upgradeDefenseBy(final ICity city, final int levels) {
 		this.throwIfNull(city, "city==null");
-		var shouldNotBreak = true;
-		while (shouldNotBreak) {
-			shouldNotBreak = this.upgradeDefense(city);
+		this.claim(city);
+		if (levels < 0) {
+			throw new IllegalArgumentException("levels < 0: " + levels);
+		}
+		final var index = Resource.values().length;
+		final var levelList = city.getLevels();
+		final int level = levelList.get(index);
+		final var clan = city.getClan();
+		// The clans of a game are always Clan, whose costs are the ones of the table.
+		final var table = UpgradeTable.city();
+		final var cnt = table.affordableLevels(level + 1, clan.getCoins(),
+				Math.min(levels, this.getMaximumLevel() - level));
+		if (cnt == 0) {
+			return 0;
+		}
+		clan.setCoins(table.pay(level + 1, cnt, clan.getCoins()));
+		// Every level grows the defense based on the previous one, so only the payment is done at once.
+		for (var i = 1; i <= cnt; i++) {
+			final var defense = city.getDefense();
+			city.setDefense(this.getPlayerClan().newPowerOfUpdate(level + i, defense < 1 ? 1 : defense));
 		}
+		levelList.set(index, level + cnt);
+		return cnt;
+	}
+
+	@Override
+	public void upgradeDefenseFully(final ICity city) {
+		this.upgradeDefenseBy(city, Integer.MAX_VALUE);
 	}
 
 	@Override
 	public boolean upgradeResource(final Resource resc, final ICity city) {
 		this.throwIfNull(city, "city==null");
+		this.claim(city);
 		this.throwIfNull(resc, "resc==null");
 		final var index = resc.getIndex();
 		final var levels = city.getLevels();
@@ -1191,48 +1596,54 @@ final class Game implements ConquerInfo {
 	}
 
 	@Override
-	public void upgradeResourceFully(final Resource resources, final ICity city) {
+	public int upgradeResourceBy(final Resource resc, final ICity city, final int levels) {
 		this.throwIfNull(city, "city==null");
+		this.claim(city);
+		this.throwIfNull(resc, "resc==null");
+		if (levels < 0) {
+			throw new IllegalArgumentException("levels < 0: " + levels);
+		}
+		final var index = resc.getIndex();
+		final var levelList = city.getLevels();
+		final int level = levelList.get(index);
+		final var clan = city.getClan();
+		// The clans of a game are always Clan, whose costs are the ones of the table.
+		final var table = UpgradeTable.city();
+		final var cnt = table.affordableLevels(level + 1, clan.getCoins(),
+				Math.min(levels, this.getMaximumLevel() - level));
+		if (cnt == 0) {
+			return 0;
+		}
+		clan.setCoins(table.pay(level + 1, cnt, clan.getCoins()));
+		// Same growth as in upgradeResource, applied once per level.
+		final var productions = city.getProductions();
+		var production = productions.get(index);
+		for (var i = 0; i < cnt; i++) {
+			production = this.getPlayerClan().newPowerOfUpdate(levelList.get(index + 1), production);
+		}
+		productions.set(index, production);
+		levelList.set(index, level + cnt);
+		return cnt;
+	}
+
+	@Override
+	public void upgradeResourceFully(final Resource resources, final ICity city) {
 		this.throwIfNull(resources, "resources==null");
-		var shouldNotBreak = true;
-		while (shouldNotBreak) {
-			shouldNotBreak = this.upgradeResource(resources, city);
-		}
-	}
-
-	private void useResources() {
-		StreamUtils.forEach(this.cities, city -> {
-			final var resources2 = city.getClan().getResources();
-			final var stats = city.getClan().getResourceStats();
-			final var copy = new GoodDoubleList(true);
-			for (var i = 0; i < Resource.values().length; i++) {
-				final var va = this.getResourceUsage().get(i);
-				final var use = ((city.getNumberOfSoldiers() * va[1]) + (city.getNumberOfPeople() * va[0]));
-				copy.add(resources2.get(i) - use);
-				stats.set(i, stats.get(i) - use);
-			}
-			for (var i = 0; i < Resource.values().length; i++) {
-				if (copy.get(i) < 0) {
-					copy.set(i, 0.0);
-				}
-				resources2.set(i, copy.get(i));
-			}
-			this.data.getResourceHooks().forEach(a -> a.analyzeStats(city, stats, city.getClan()));
-		});
+		this.upgradeResourceBy(resources, city, Integer.MAX_VALUE);
 	}
 
-	private void worseRelationship(final Random r, final int clanOne, final int clanTwo) {
-		final var smaller = Math.abs(r.nextGaussian() * 20);
-		final var oldValue = this.relations.getWeight(clanOne, clanTwo);
+	private void worseRelationship(final SplittableRandom r, final int clanOne, final int clanTwo) {
+		final var smaller = Math.abs(RandomStreams.nextGaussian(r) * 20);
+		final var oldValue = this.getRelationship(clanOne, clanTwo);
 		var newValue = oldValue - smaller;
 		if (newValue <= 0) {
 			newValue = 0;
 		}
-		this.relations.addDirectedEdge(clanOne, clanTwo, newValue, newValue);
+		this.setRelationship(clanOne, clanTwo, newValue);
 		if ((newValue - oldValue) == 0) {
 			return;
 		}
-		this.events.add(
+		this.addEvent(
 				new WorseRelationshipMessage(this.clans.get(clanOne), this.clans.get(clanTwo), oldValue, newValue));
 	}
 
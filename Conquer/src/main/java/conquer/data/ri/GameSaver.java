@@ -70,9 +70,10 @@ public final class GameSaver implements ConquerSaver {
 
 	private void readCities(final DataInputStream dis, final Game game) throws IOException {
 		final var numberOfCities = dis.readInt();
-		final var cities = new Graph<ICity>(numberOfCities);
+		final var cities = new Graph<ICity>(numberOfCities, true);
+		final var store = new CityStore(numberOfCities);
 		for (var i = 0; i < numberOfCities; i++) {
-			final var city = new CityBuilder(game);
+			final var city = new CityBuilder(game, store, i);
 			city.setName(dis.readUTF());
 			city.setDefenseBonus(dis.readDouble());
 			city.setId(dis.readInt());
@@ -107,7 +108,7 @@ public final class GameSaver implements ConquerSaver {
 		for (var i = 0; i < n; i++) {
 			cities.addUndirectedEdge(dis.readInt(), dis.readInt(), dis.readDouble());
 		}
-		game.setGraph(cities);
+		game.setGraph(cities, store);
 	}
 
 	private Clan readClan(final File file, final Game game) throws IOException, InstantiationException,
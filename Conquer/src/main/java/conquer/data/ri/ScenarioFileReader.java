@@ -160,9 +160,10 @@ public final class ScenarioFileReader implements ConquerInfoReader {
 			}
 			game.setRelations(relations);
 			final int numCities = dis.readShort();
-			final var g = new Graph<ICity>(numCities);
+			final var g = new Graph<ICity>(numCities, true);
+			final var store = new CityStore(numCities);
 			for (var i = 0; i < numCities; i++) {
-				g.add(new City(game));
+				g.add(new City(game, store, i));
 			}
 			for (var i = 0; i < numCities; i++) {
 				final var bytesOfPicture = dis.readInt();
@@ -175,7 +176,7 @@ public final class ScenarioFileReader implements ConquerInfoReader {
 				if (bytesRead != bytesOfPicture) {
 					throw new RuntimeException("bytesRead: " + bytesRead + " != bytesOfPicture: " + bytesOfPicture);
 				}
-				final var c = new CityBuilder(game);
+				final var c = new CityBuilder(game, store, i);
 				c.setImage(ImageIO.read(new ByteArrayInputStream(pic)));
 				final var clanN = dis.readInt();
 				if (clanN < 0) {
@@ -252,7 +253,7 @@ public final class ScenarioFileReader implements ConquerInfoReader {
 				c.setProductionRates(productions);
 			}
 			game.setClans(tmp);
-			game.setGraph(g);
+			game.setGraph(g, store);
 		} catch (final IOException ioe) {
 			Shared.LOGGER.exception(ioe);
 			throw new RuntimeException(ioe);
@@ -0,0 +1,127 @@
+package conquer.data.ri;
+
+import conquer.data.IClan;
+import conquer.data.Shared;
+import conquer.data.strategy.Strategy;
+import conquer.data.strategy.StrategyObject;
+import conquer.data.strategy.StrategyTiming;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Gives the turn of every CPU clan a time budget and measures every turn. The budget is cooperative: A strategy
+ * can read its deadline with {@link StrategyObject#getDeadline(IClan)}, but it isn't interrupted. A turn that
+ * takes longer counts as an overrun. A clan, that overruns in too many consecutive turns, is played by a cheap
+ * fallback strategy for the rest of the game.<br>
+ * The budget in milliseconds is read from the property {@code conquer.cpu.budget}, the number of consecutive
+ * overruns from {@code conquer.cpu.fallback}. Without them, the turns are only measured.<br>
+ * All values are indexed by the id of the clan, so the groups of a parallel round can use the budget
+ * concurrently.
+ */
+final class StrategyBudget {
+	private final long budget;
+	private final int fallbackAfter;
+	private final Supplier<Strategy> fallbackProvider;
+	private final long[] deadlines;
+	private final StrategyTiming[] timings;
+	private final int[] consecutiveOverruns;
+	private final Strategy[] fallbacks;
+
+	/**
+	 * Creates a new budget.
+	 *
+	 * @param numClans         The number of clans.
+	 * @param budget           The budget of a turn in nanoseconds, 0 if the turns aren't limited.
+	 * @param fallbackAfter    The number of consecutive overruns, after which the fallback strategy is used, 0 if
+	 *                         the strategies are never replaced.
+	 * @param fallbackProvider Builds the fallback strategy.
+	 */
+	StrategyBudget(final int numClans, final long budget, final int fallbackAfter,
+				   final Supplier<Strategy> fallbackProvider) {
+		this.budget = budget;
+		this.fallbackAfter = fallbackAfter;
+		this.fallbackProvider = fallbackProvider;
+		this.deadlines = new long[numClans];
+		Arrays.fill(this.deadlines, StrategyObject.NO_DEADLINE);
+		this.timings = new StrategyTiming[numClans];
+		Arrays.fill(this.timings, StrategyTiming.NONE);
+		this.consecutiveOverruns = new int[numClans];
+		this.fallbacks = new Strategy[numClans];
+	}
+
+	/**
+	 * Creates a budget, that is configured by the system properties.
+	 *
+	 * @param numClans         The number of clans.
+	 * @param fallbackProvider Builds the fallback strategy.
+	 * @return The budget.
+	 */
+	static StrategyBudget fromProperties(final int numClans, final Supplier<Strategy> fallbackProvider) {
+		final var budget = TimeUnit.MILLISECONDS.toNanos(Long.getLong("conquer.cpu.budget", 0));
+		final var fallbackAfter = Integer.getInteger("conquer.cpu.fallback", 0);
+		return new StrategyBudget(numClans, Math.max(0, budget), Math.max(0, fallbackAfter), fallbackProvider);
+	}
+
+	/**
+	 * Plays one turn of a clan with its strategy or with the fallback strategy, if the clan overran too often.
+	 *
+	 * @param clan The clan.
+	 * @param turn Executes the turn with the given strategy.
+	 */
+	void play(final IClan clan, final Consumer<Strategy> turn) {
+		final var id = clan.getId();
+		final var strategy = this.fallbacks[id] == null ? clan.getStrategy() : this.fallbacks[id];
+		final var start = System.nanoTime();
+		if (this.budget != 0) {
+			this.deadlines[id] = start + this.budget;
+		}
+		try {
+			turn.accept(strategy);
+		} finally {
+			this.deadlines[id] = StrategyObject.NO_DEADLINE;
+			final var duration = System.nanoTime() - start;
+			final var overrun = (this.budget != 0) && (duration > this.budget);
+			this.timings[id] = this.timings[id].add(duration, overrun);
+			this.consecutiveOverruns[id] = overrun ? this.consecutiveOverruns[id] + 1 : 0;
+			if ((this.fallbackAfter != 0) && (this.consecutiveOverruns[id] >= this.fallbackAfter)
+					&& (this.fallbacks[id] == null)) {
+				this.fallbacks[id] = this.fallbackProvider.get();
+				Shared.LOGGER.message("Clan " + clan.getName() + " overran its budget " + this.fallbackAfter
+						+ " times in a row, using the fallback strategy");
+			}
+		}
+	}
+
+	/**
+	 * Returns the deadline of the current turn of a clan.
+	 *
+	 * @param clan The clan.
+	 * @return The deadline or {@link StrategyObject#NO_DEADLINE}.
+	 */
+	long getDeadline(final IClan clan) {
+		return this.deadlines[clan.getId()];
+	}
+
+	/**
+	 * Returns the timing of all turns of a clan.
+	 *
+	 * @param clan The clan.
+	 * @return The timing.
+	 */
+	StrategyTiming getTiming(final IClan clan) {
+		return this.timings[clan.getId()];
+	}
+
+	/**
+	 * Returns whether a clan is played by the fallback strategy.
+	 *
+	 * @param clan The clan.
+	 * @return {@code true} if the clan overran too often.
+	 */
+	boolean usesFallback(final IClan clan) {
+		return this.fallbacks[clan.getId()] != null;
+	}
+}
@@ -0,0 +1,17 @@
+package conquer.data.strategy;
+
+import conquer.data.AttackResult;
+
+/**
+ * The predicted outcome of an attack, see {@link StrategyObject#predictAttack(conquer.data.ICity,
+ * conquer.data.ICity, long)}.
+ *
+ * @param result             The result of the fight or {@code null}, if the attack wouldn't be executed at all.
+ * @param survivingAttackers The soldiers, that occupy the city after it was conquered, otherwise 0.
+ * @param survivingDefenders The soldiers, that are left in the city, if the attack was defeated. If there is no
+ *                           fight, the soldiers of the city, otherwise 0.
+ * @param winProbability     The probability, that the city is conquered.
+ */
+public record AttackPrediction(AttackResult result, long survivingAttackers, long survivingDefenders,
+							   double winProbability) {
+}
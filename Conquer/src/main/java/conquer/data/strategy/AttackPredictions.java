@@ -0,0 +1,214 @@
+package conquer.data.strategy;
+
+import conquer.data.AttackResult;
+
+import java.util.Arrays;
+
+/**
+ * A list of hypothetical attacks, whose outcomes are predicted at once with
+ * {@link StrategyObject#predictAttacks(AttackPredictions)}. The cities are given as indices of
+ * {@link StrategyObject#getCities()} like in a {@link CommandBatch}, so neither queueing nor predicting allocates
+ * anything, and the list can be cleared and reused for thousands of queries per round.
+ */
+public final class AttackPredictions {
+	private static final AttackResult[] RESULTS = AttackResult.values();
+	private static final byte NO_FIGHT = -1;
+	private int[] sources;
+	private int[] targets;
+	private long[] counts;
+	private byte[] results;
+	private long[] attackers;
+	private long[] defenders;
+	private double[] probabilities;
+	private int size;
+
+	/**
+	 * Creates an empty list.
+	 */
+	public AttackPredictions() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty list.
+	 *
+	 * @param capacity The expected number of attacks. May not be negative.
+	 */
+	public AttackPredictions(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity < 0: " + capacity);
+		}
+		this.sources = new int[capacity];
+		this.targets = new int[capacity];
+		this.counts = new long[capacity];
+		this.results = new byte[capacity];
+		this.attackers = new long[capacity];
+		this.defenders = new long[capacity];
+		this.probabilities = new double[capacity];
+	}
+
+	/**
+	 * Queues an attack. The outcome is undefined until the list was passed to
+	 * {@link StrategyObject#predictAttacks(AttackPredictions)}.
+	 *
+	 * @param source The index of the attacking city.
+	 * @param target The index of the attacked city.
+	 * @param count  The number of soldiers. May not be negative.
+	 * @return This list.
+	 */
+	public AttackPredictions add(final int source, final int target, final long count) {
+		if ((source < 0) || (target < 0)) {
+			throw new IllegalArgumentException("Negative index: " + source + ", " + target);
+		} else if (count < 0) {
+			throw new IllegalArgumentException("count < 0: " + count);
+		}
+		if (this.size == this.sources.length) {
+			final var newLength = Math.max(16, this.sources.length * 2);
+			this.sources = Arrays.copyOf(this.sources, newLength);
+			this.targets = Arrays.copyOf(this.targets, newLength);
+			this.counts = Arrays.copyOf(this.counts, newLength);
+			this.results = Arrays.copyOf(this.results, newLength);
+			this.attackers = Arrays.copyOf(this.attackers, newLength);
+			this.defenders = Arrays.copyOf(this.defenders, newLength);
+			this.probabilities = Arrays.copyOf(this.probabilities, newLength);
+		}
+		this.sources[this.size] = source;
+		this.targets[this.size] = target;
+		this.counts[this.size] = count;
+		this.results[this.size] = AttackPredictions.NO_FIGHT;
+		this.attackers[this.size] = 0;
+		this.defenders[this.size] = 0;
+		this.probabilities[this.size] = 0;
+		this.size++;
+		return this;
+	}
+
+	/**
+	 * Removes all attacks.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the number of attacks.
+	 *
+	 * @return The number of attacks.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the index of the attacking city.
+	 *
+	 * @param idx The index of the attack.
+	 * @return The index of the city.
+	 */
+	public int getSource(final int idx) {
+		this.checkIndex(idx);
+		return this.sources[idx];
+	}
+
+	/**
+	 * Returns the index of the attacked city.
+	 *
+	 * @param idx The index of the attack.
+	 * @return The index of the city.
+	 */
+	public int getTarget(final int idx) {
+		this.checkIndex(idx);
+		return this.targets[idx];
+	}
+
+	/**
+	 * Returns the number of attacking soldiers.
+	 *
+	 * @param idx The index of the attack.
+	 * @return The number of soldiers.
+	 */
+	public long getCount(final int idx) {
+		this.checkIndex(idx);
+		return this.counts[idx];
+	}
+
+	/**
+	 * Returns the predicted result of the fight.
+	 *
+	 * @param idx The index of the attack.
+	 * @return The result or {@code null}, if the attack wouldn't be executed.
+	 */
+	public AttackResult getResult(final int idx) {
+		this.checkIndex(idx);
+		return this.results[idx] == AttackPredictions.NO_FIGHT ? null : AttackPredictions.RESULTS[this.results[idx]];
+	}
+
+	/**
+	 * Returns the soldiers, that occupy the city after it was conquered.
+	 *
+	 * @param idx The index of the attack.
+	 * @return The number of soldiers, 0 if the city isn't conquered.
+	 */
+	public long getSurvivingAttackers(final int idx) {
+		this.checkIndex(idx);
+		return this.attackers[idx];
+	}
+
+	/**
+	 * Returns the soldiers, that are left in the attacked city, if it isn't conquered.
+	 *
+	 * @param idx The index of the attack.
+	 * @return The number of soldiers, 0 if the city is conquered.
+	 */
+	public long getSurvivingDefenders(final int idx) {
+		this.checkIndex(idx);
+		return this.defenders[idx];
+	}
+
+	/**
+	 * Returns the probability, that the city is conquered.
+	 *
+	 * @param idx The index of the attack.
+	 * @return The probability.
+	 */
+	public double getWinProbability(final int idx) {
+		this.checkIndex(idx);
+		return this.probabilities[idx];
+	}
+
+	/**
+	 * Returns the outcome of one attack as object.
+	 *
+	 * @param idx The index of the attack.
+	 * @return The prediction.
+	 */
+	public AttackPrediction get(final int idx) {
+		return new AttackPrediction(this.getResult(idx), this.getSurvivingAttackers(idx),
+				this.getSurvivingDefenders(idx), this.getWinProbability(idx));
+	}
+
+	/**
+	 * Stores the outcome of an attack. Only used by the implementations of
+	 * {@link StrategyObject#predictAttacks(AttackPredictions)}.
+	 *
+	 * @param idx            The index of the attack.
+	 * @param result         The result of the fight or {@code null}, if there is no fight.
+	 * @param attackers      The surviving attackers.
+	 * @param defenders      The surviving defenders.
+	 * @param winProbability The probability, that the city is conquered.
+	 */
+	public void setPrediction(final int idx, final AttackResult result, final long attackers, final long defenders,
+							  final double winProbability) {
+		this.checkIndex(idx);
+		this.results[idx] = result == null ? AttackPredictions.NO_FIGHT : (byte) result.ordinal();
+		this.attackers[idx] = attackers;
+		this.defenders[idx] = defenders;
+		this.probabilities[idx] = winProbability;
+	}
+
+	private void checkIndex(final int idx) {
+		if ((idx < 0) || (idx >= this.size)) {
+			throw new IllegalArgumentException("Index out of range: " + idx);
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package conquer.data.strategy;
+
+import conquer.data.Resource;
+
+import java.util.Arrays;
+
+/**
+ * A list of primitive commands of one clan, that is executed with {@link StrategyObject#submit(conquer.data.IClan,
+ * CommandBatch)}. The cities are given as indices of {@link StrategyObject#getCities()}, so queueing a command
+ * allocates nothing, and a batch can be cleared and reused in every round.<br>
+ * After the batch was submitted, {@link #getResult(int)} returns the outcome of every command.
+ */
+public final class CommandBatch {
+	/**
+	 * The result of a command, that was rejected, because it wasn't valid anymore when it was executed.
+	 */
+	public static final long REJECTED = -1;
+	private static final Kind[] KINDS = Kind.values();
+	private byte[] kinds;
+	private int[] sources;
+	private int[] targets;
+	private long[] amounts;
+	private long[] results;
+	private int size;
+
+	/**
+	 * Creates an empty batch.
+	 */
+	public CommandBatch() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty batch.
+	 *
+	 * @param capacity The expected number of commands. May not be negative.
+	 */
+	public CommandBatch(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity < 0: " + capacity);
+		}
+		this.kinds = new byte[capacity];
+		this.sources = new int[capacity];
+		this.targets = new int[capacity];
+		this.amounts = new long[capacity];
+		this.results = new long[capacity];
+	}
+
+	/**
+	 * Queues an attack.
+	 *
+	 * @param source The index of the attacking city.
+	 * @param target The index of the attacked city.
+	 * @param count  The number of soldiers. May not be negative.
+	 * @return This batch.
+	 */
+	public CommandBatch attack(final int source, final int target, final long count) {
+		return this.add(Kind.ATTACK, source, target, count);
+	}
+
+	/**
+	 * Queues moving soldiers between two cities of the clan.
+	 *
+	 * @param source The index of the source city.
+	 * @param target The index of the destination city.
+	 * @param count  The number of soldiers. May not be negative.
+	 * @return This batch.
+	 */
+	public CommandBatch move(final int source, final int target, final long count) {
+		return this.add(Kind.MOVE, source, target, count);
+	}
+
+	/**
+	 * Queues recruiting soldiers in a city.
+	 *
+	 * @param city  The index of the city.
+	 * @param count The number of soldiers. May not be negative, at most the people of the city are recruited.
+	 * @return This batch.
+	 */
+	public CommandBatch recruit(final int city, final long count) {
+		return this.add(Kind.RECRUIT, city, city, count);
+	}
+
+	/**
+	 * Queues upgrading the defense of a city.
+	 *
+	 * @param city   The index of the city.
+	 * @param levels The maximum number of levels. May not be negative.
+	 * @return This batch.
+	 */
+	public CommandBatch upgradeDefense(final int city, final int levels) {
+		return this.add(Kind.UPGRADE_DEFENSE, city, city, levels);
+	}
+
+	/**
+	 * Queues upgrading the production of a resource in a city.
+	 *
+	 * @param city     The index of the city.
+	 * @param resource The resource. May not be {@code null}.
+	 * @param levels   The maximum number of levels. May not be negative.
+	 * @return This batch.
+	 */
+	public CommandBatch upgradeResource(final int city, final Resource resource, final int levels) {
+		if (resource == null) {
+			throw new IllegalArgumentException("resource==null");
+		}
+		return this.add(Kind.UPGRADE_RESOURCE, city, resource.getIndex(), levels);
+	}
+
+	private CommandBatch add(final Kind kind, final int source, final int target, final long amount) {
+		if ((source < 0) || (target < 0)) {
+			throw new IllegalArgumentException("Negative index: " + source + ", " + target);
+		} else if (amount < 0) {
+			throw new IllegalArgumentException("amount < 0: " + amount);
+		}
+		if (this.size == this.kinds.length) {
+			final var newLength = Math.max(16, this.kinds.length * 2);
+			this.kinds = Arrays.copyOf(this.kinds, newLength);
+			this.sources = Arrays.copyOf(this.sources, newLength);
+			this.targets = Arrays.copyOf(this.targets, newLength);
+			this.amounts = Arrays.copyOf(this.amounts, newLength);
+			this.results = Arrays.copyOf(this.results, newLength);
+		}
+		this.kinds[this.size] = (byte) kind.ordinal();
+		this.sources[this.size] = source;
+		this.targets[this.size] = target;
+		this.amounts[this.size] = amount;
+		this.results[this.size] = 0;
+		this.size++;
+		return this;
+	}
+
+	/**
+	 * Removes all commands.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the number of commands.
+	 *
+	 * @return The number of commands.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the kind of a command.
+	 *
+	 * @param idx The index of the command.
+	 * @return The kind.
+	 */
+	public Kind getKind(final int idx) {
+		this.checkIndex(idx);
+		return CommandBatch.KINDS[this.kinds[idx]];
+	}
+
+	/**
+	 * Returns the index of the source city of a command, the city itself for recruits and upgrades.
+	 *
+	 * @param idx The index of the command.
+	 * @return The index of the city.
+	 */
+	public int getSource(final int idx) {
+		this.checkIndex(idx);
+		return this.sources[idx];
+	}
+
+	/**
+	 * Returns the index of the target city of a command. For {@link Kind#UPGRADE_RESOURCE} it is the index of the
+	 * resource, for recruits and defense upgrades it is the city itself.
+	 *
+	 * @param idx The index of the command.
+	 * @return The index.
+	 */
+	public int getTarget(final int idx) {
+		this.checkIndex(idx);
+		return this.targets[idx];
+	}
+
+	/**
+	 * Returns the number of soldiers or levels of a command.
+	 *
+	 * @param idx The index of the command.
+	 * @return The amount.
+	 */
+	public long getAmount(final int idx) {
+		this.checkIndex(idx);
+		return this.amounts[idx];
+	}
+
+	/**
+	 * Returns the outcome of a submitted command.
+	 *
+	 * @param idx The index of the command.
+	 * @return The number of soldiers, that attacked, moved or were recruited, the number of levels, that were
+	 * upgraded, or {@link #REJECTED}.
+	 */
+	public long getResult(final int idx) {
+		this.checkIndex(idx);
+		return this.results[idx];
+	}
+
+	/**
+	 * Stores the outcome of a command. Only used by the implementations of
+	 * {@link StrategyObject#submit(conquer.data.IClan, CommandBatch)}.
+	 *
+	 * @param idx    The index of the command.
+	 * @param result The outcome.
+	 */
+	public void setResult(final int idx, final long result) {
+		this.checkIndex(idx);
+		this.results[idx] = result;
+	}
+
+	private void checkIndex(final int idx) {
+		if ((idx < 0) || (idx >= this.size)) {
+			throw new IllegalArgumentException("Index out of range: " + idx);
+		}
+	}
+
+	/**
+	 * The kind of a command.
+	 */
+	public enum Kind {
+		ATTACK, MOVE, RECRUIT, UPGRADE_DEFENSE, UPGRADE_RESOURCE
+	}
+}
@@ -7,6 +7,7 @@ import conquer.utils.Graph;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.SplittableRandom;
 import java.util.function.DoubleConsumer;
 
 /**
@@ -48,6 +49,17 @@ public interface Strategy {
 	 */
 	StrategyData getData();
 
+	/**
+	 * Returns an optional Strategydata, that uses {@code random} for all of its
+	 * random decisions. The default implementation calls {@link #getData()}.
+	 *
+	 * @param random A generator that belongs to the clan.
+	 * @return Data or {@code null}.
+	 */
+	default StrategyData getData(final SplittableRandom random) {
+		return this.getData();
+	}
+
 	/**
 	 * Resume after saving.
 	 *
@@ -74,4 +86,17 @@ public interface Strategy {
 	default void save(final OutputStream out) throws IOException {
 
 	}
+
+	/**
+	 * Creates a new instance of this strategy with the same configuration, e.g. for a fork of the game. The
+	 * internal state isn't copied, it is transferred with {@link #save(OutputStream)} and
+	 * {@link #resume(StrategyObject, byte[], boolean, byte[])} afterwards. The default implementation calls the
+	 * public constructor without arguments.
+	 *
+	 * @return The new instance.
+	 * @throws ReflectiveOperationException If the strategy couldn't be created.
+	 */
+	default Strategy copy() throws ReflectiveOperationException {
+		return this.getClass().getConstructor().newInstance();
+	}
 }
@@ -1,18 +1,27 @@
 package conquer.data.strategy;
 
+import conquer.data.AttackResult;
 import conquer.data.ConquerInfo;
 import conquer.data.Gift;
 import conquer.data.ICity;
 import conquer.data.IClan;
 import conquer.data.Resource;
+import conquer.data.StreamUtils;
 import conquer.utils.Graph;
+import conquer.utils.ShortestPaths;
+import conquer.utils.SpatialIndex;
 
+import java.util.SplittableRandom;
 import java.util.stream.Stream;
 
 /**
  * An interface providing everything that is needed for strategies.
  */
 public interface StrategyObject {
+	/**
+	 * Returned by {@link #getDeadline(IClan)}, if the turn of a clan isn't limited.
+	 */
+	long NO_DEADLINE = Long.MAX_VALUE;
 
 	/**
 	 * Attack a city. An {@code IllegalArgumentException} is thrown if:
@@ -45,6 +54,91 @@ public interface StrategyObject {
 	 */
 	void attack(ICity source, ICity target, boolean managedByPlayer, long numberOfSoldiersToMoveIfManaged);
 
+	/**
+	 * Predicts the outcome of a managed attack without executing it. Nothing is changed and no random numbers are
+	 * drawn. The fights don't depend on chance, so the prediction is exact, as long as the cities and clans don't
+	 * change before the attack. Only the number of surviving people is random, it isn't predicted.<br>
+	 * The cities don't have to be connected, so attacks with soldiers, that first have to be moved or recruited,
+	 * can be scored, too.
+	 *
+	 * @param source The attacking city. May not be {@code null}, otherwise an {@code IllegalArgumentException} is
+	 *               thrown.
+	 * @param target The attacked city. May not be {@code null} and has to belong to another clan, otherwise an
+	 *               {@code IllegalArgumentException} is thrown.
+	 * @param count  The number of soldiers. May not be negative, otherwise an {@code IllegalArgumentException} is
+	 *               thrown.
+	 * @return The prediction.
+	 */
+	default AttackPrediction predictAttack(final ICity source, final ICity target, final long count) {
+		if (source == null) {
+			throw new IllegalArgumentException("source==null");
+		} else if (target == null) {
+			throw new IllegalArgumentException("target==null");
+		} else if (source.getClan() == target.getClan()) {
+			throw new IllegalArgumentException("Same clan");
+		}
+		final var predictions = new AttackPredictions(1).add(0, 0, count);
+		StrategyObject.predict(predictions, 0, source, target);
+		return predictions.get(0);
+	}
+
+	/**
+	 * Predicts the outcomes of many attacks like {@link #predictAttack(ICity, ICity, long)}. The outcomes are
+	 * stored in the list, nothing is allocated. Attacks on cities of the own clan are predicted as no fight.
+	 *
+	 * @param predictions The attacks. May not be {@code null} and every index has to be valid, otherwise an
+	 *                    {@code IllegalArgumentException} is thrown before any attack is predicted.
+	 */
+	default void predictAttacks(final AttackPredictions predictions) {
+		if (predictions == null) {
+			throw new IllegalArgumentException("predictions==null");
+		}
+		final var graph = this.getCities();
+		for (var i = 0; i < predictions.size(); i++) {
+			if ((predictions.getSource(i) >= graph.size()) || (predictions.getTarget(i) >= graph.size())) {
+				throw new IllegalArgumentException("Invalid attack " + i);
+			}
+		}
+		for (var i = 0; i < predictions.size(); i++) {
+			StrategyObject.predict(predictions, i, graph.getValue(predictions.getSource(i)),
+					graph.getValue(predictions.getTarget(i)));
+		}
+	}
+
+	// The same arithmetic as the fights of the game, so the results are the same up to the last bit.
+	private static void predict(final AttackPredictions predictions, final int idx, final ICity source,
+								final ICity target) {
+		final var count = predictions.getCount(idx);
+		final var attackingClan = source.getClan();
+		final var defendingClan = target.getClan();
+		final var soldiers = target.getNumberOfSoldiers();
+		// Attacks of the CPU with less than two soldiers are skipped.
+		if ((attackingClan == defendingClan) || (!source.isPlayerCity() && (count <= 1))) {
+			predictions.setPrediction(idx, null, 0, soldiers, 0);
+			return;
+		}
+		var powerOfAttacker = count * attackingClan.getSoldiersStrength();
+		powerOfAttacker *= attackingClan.getSoldiersOffenseStrength();
+		final var powerOfDefender = target.getDefense() + (soldiers * target.getBonus()
+				* defendingClan.getSoldiersDefenseStrength() * defendingClan.getSoldiersStrength());
+		final var diff = powerOfDefender - powerOfAttacker;
+		if (diff > 0) {
+			var remaining = diff - target.getDefense();
+			remaining /= target.getBonus();
+			remaining /= defendingClan.getSoldiersDefenseStrength();
+			remaining /= defendingClan.getSoldiersStrength();
+			final var surviving = soldiers == 0 ? 0 : Math.min(soldiers, (long) Math.abs(remaining));
+			predictions.setPrediction(idx, AttackResult.ATTACK_DEFEATED, 0, surviving, 0);
+		} else if (diff == 0) {
+			predictions.setPrediction(idx, AttackResult.ALL_SOLDIERS_DEAD, 0, 0, 0);
+		} else {
+			var remaining = diff;
+			remaining /= attackingClan.getSoldiersOffenseStrength();
+			remaining /= attackingClan.getSoldiersStrength();
+			predictions.setPrediction(idx, AttackResult.CITY_CONQUERED, (long) -remaining, 0, 1);
+		}
+	}
+
 	/**
 	 * Returns whether troops can be moved from {@code source} to {@code target}.
 	 *
@@ -70,6 +164,114 @@ public interface StrategyObject {
 	 */
 	Graph<ICity> getCities();
 
+	/**
+	 * Returns the cheapest routes between all cities. A strategy can use it to send soldiers to a distant city
+	 * over several rounds, one move per round along {@link ShortestPaths#getNextHop(Object, Object)}. The default
+	 * implementation uses the distances as costs and creates a new object on every call.
+	 *
+	 * @return The cheapest routes.
+	 */
+	default ShortestPaths<ICity> getTravelCosts() {
+		return new ShortestPaths<>(this.getCities());
+	}
+
+	/**
+	 * Returns the time, when the current turn of a clan should end. The deadline is cooperative: A strategy, that
+	 * runs longer, isn't stopped, but it counts as an overrun and may be replaced by a cheaper strategy.
+	 *
+	 * @param clan The clan. May not be {@code null}.
+	 * @return The deadline in the time base of {@link System#nanoTime()} or {@link #NO_DEADLINE}, if the turn
+	 * isn't limited or the clan isn't playing.
+	 */
+	default long getDeadline(final IClan clan) {
+		if (clan == null) {
+			throw new IllegalArgumentException("clan==null");
+		}
+		return StrategyObject.NO_DEADLINE;
+	}
+
+	/**
+	 * Returns whether the current turn of a clan should end now.
+	 *
+	 * @param clan The clan. May not be {@code null}.
+	 * @return {@code true}, if the deadline of the clan passed.
+	 * @see #getDeadline(IClan)
+	 */
+	default boolean isOverDeadline(final IClan clan) {
+		final var deadline = this.getDeadline(clan);
+		return (deadline != StrategyObject.NO_DEADLINE) && ((System.nanoTime() - deadline) >= 0);
+	}
+
+	/**
+	 * Returns the enemy and friendly soldiers around every city and which cities are at the border. The default
+	 * implementation computes a new map on every call, an implementation may keep one map up to date instead.
+	 *
+	 * @return The threats of all cities.
+	 */
+	default ThreatMap getThreatMap() {
+		return new ThreatMap(this.getCities());
+	}
+
+	/**
+	 * Returns an index over the positions of all cities, that finds the cities near a point or inside a rectangle
+	 * without looking at every city. The indices of the points are the indices of {@link #getCities()}. The
+	 * default implementation builds a new index on every call, an implementation may build it once, as the
+	 * positions of the cities never change.
+	 *
+	 * @return The index over {@link ICity#getX()} and {@link ICity#getY()}.
+	 */
+	default SpatialIndex getSpatialIndex() {
+		final var graph = this.getCities();
+		final var xs = new int[graph.size()];
+		final var ys = new int[graph.size()];
+		for (var i = 0; i < xs.length; i++) {
+			final var city = graph.getValue(i);
+			xs[i] = city.getX();
+			ys[i] = city.getY();
+		}
+		return new SpatialIndex(xs, ys);
+	}
+
+	/**
+	 * Returns all cities of a clan in the order of {@link #getCities()}. The
+	 * stream is lazy: A city is part of the stream, if it belongs to the clan at
+	 * the time the stream reaches it.
+	 *
+	 * @param clan The clan. May not be {@code null}.
+	 * @return The cities of the clan.
+	 */
+	default Stream<ICity> getCitiesOfClan(final IClan clan) {
+		if (clan == null) {
+			throw new IllegalArgumentException("clan==null");
+		}
+		return StreamUtils.getCitiesAsStream(this.getCities()).filter(a -> a.getClan() == clan);
+	}
+
+	/**
+	 * Returns the number of cities of a clan.
+	 *
+	 * @param clan The clan. May not be {@code null}.
+	 * @return The number of cities.
+	 */
+	default long getNumberOfCities(final IClan clan) {
+		return this.getCitiesOfClan(clan).count();
+	}
+
+	/**
+	 * Returns the random number generator of the strategy of a clan. Strategies should use it instead of
+	 * {@link Math#random()}, so games with the same seed play the same. The default implementation returns a new,
+	 * unseeded generator on every call.
+	 *
+	 * @param clan The clan. May not be {@code null}.
+	 * @return The generator. It may only be used during the turn of the clan or while it decides about a gift.
+	 */
+	default SplittableRandom getRandom(final IClan clan) {
+		if (clan == null) {
+			throw new IllegalArgumentException("clan==null");
+		}
+		return new SplittableRandom();
+	}
+
 	/**
 	 * Describes the relationship between the different clans.
 	 *
@@ -270,4 +472,119 @@ public interface StrategyObject {
 	 * @return {@code true} if successful, {@code false} otherwise.
 	 */
 	boolean upgradeResource(Resource resc, ICity city);
+
+	/**
+	 * Upgrade the defense of a city by up to {@code levels} levels at once, as long as the coins of the clan and
+	 * the maximum level allow it. The default implementation calls {@link #upgradeDefense(ICity)} for every level,
+	 * implementations should pay all levels at once, see {@link conquer.data.UpgradeTable}.
+	 *
+	 * @param city   The city. May not be {@code null}, otherwise an
+	 *               {@code IllegalArgumentException} is thrown.
+	 * @param levels The maximum number of levels. May not be negative, otherwise an
+	 *               {@code IllegalArgumentException} is thrown.
+	 * @return The number of levels, that were upgraded.
+	 */
+	default int upgradeDefenseBy(final ICity city, final int levels) {
+		if (levels < 0) {
+			throw new IllegalArgumentException("levels < 0: " + levels);
+		}
+		var cnt = 0;
+		while ((cnt < levels) && this.upgradeDefense(city)) {
+			cnt++;
+		}
+		return cnt;
+	}
+
+	/**
+	 * Upgrade the resource production in a city by up to {@code levels} levels at once, as long as the coins of
+	 * the clan and the maximum level allow it. The default implementation calls
+	 * {@link #upgradeResource(Resource, ICity)} for every level.
+	 *
+	 * @param resc   The resource to upgrade. May not be {@code null}, otherwise an
+	 *               {@code IllegalArgumentException} is thrown.
+	 * @param city   The city. May not be {@code null}, otherwise an
+	 *               {@code IllegalArgumentException} is thrown.
+	 * @param levels The maximum number of levels. May not be negative, otherwise an
+	 *               {@code IllegalArgumentException} is thrown.
+	 * @return The number of levels, that were upgraded.
+	 */
+	default int upgradeResourceBy(final Resource resc, final ICity city, final int levels) {
+		if (levels < 0) {
+			throw new IllegalArgumentException("levels < 0: " + levels);
+		}
+		var cnt = 0;
+		while ((cnt < levels) && this.upgradeResource(resc, city)) {
+			cnt++;
+		}
+		return cnt;
+	}
+
+	/**
+	 * Executes all commands of a batch in their order. A command is rejected, if it isn't valid anymore when it is
+	 * executed, for example if the source city was conquered by an earlier attack of the batch or if the clan
+	 * doesn't own the source city. The numbers of soldiers are limited to the available soldiers, people, coins and
+	 * resources, the outcome of every command is stored in the batch.<br>
+	 * The default implementation calls the single methods like {@link #attack(ICity, ICity, boolean, long)} for
+	 * every command. Implementations should validate and apply the commands in one pass and add the messages of
+	 * the batch at once.
+	 *
+	 * @param clan  The clan, that executes the commands. May not be {@code null}, otherwise an
+	 *              {@code IllegalArgumentException} is thrown.
+	 * @param batch The commands. May not be {@code null} and every index has to be valid, otherwise an
+	 *              {@code IllegalArgumentException} is thrown before any command is executed.
+	 * @return The number of commands, that weren't rejected.
+	 */
+	default int submit(final IClan clan, final CommandBatch batch) {
+		if (clan == null) {
+			throw new IllegalArgumentException("clan==null");
+		} else if (batch == null) {
+			throw new IllegalArgumentException("batch==null");
+		}
+		final var graph = this.getCities();
+		for (var i = 0; i < batch.size(); i++) {
+			final var kind = batch.getKind(i);
+			final var maxTarget = kind == CommandBatch.Kind.UPGRADE_RESOURCE ? Resource.values().length
+					: graph.size();
+			if ((batch.getSource(i) >= graph.size()) || (batch.getTarget(i) >= maxTarget)) {
+				throw new IllegalArgumentException("Invalid command " + i + ": " + kind);
+			}
+		}
+		var executed = 0;
+		for (var i = 0; i < batch.size(); i++) {
+			final var source = graph.getValue(batch.getSource(i));
+			final var amount = batch.getAmount(i);
+			final var levels = (int) Math.min(amount, Integer.MAX_VALUE);
+			var result = CommandBatch.REJECTED;
+			if (source.getClan() == clan) {
+				final var before = source.getNumberOfSoldiers();
+				switch (batch.getKind(i)) {
+					case ATTACK, MOVE -> {
+						final var target = graph.getValue(batch.getTarget(i));
+						final var isAttack = batch.getKind(i) == CommandBatch.Kind.ATTACK;
+						if (this.canMove(source, target) && ((target.getClan() == clan) != isAttack)) {
+							final var cnt = this.maximumNumberToMove(clan, source, target, Math.min(amount, before));
+							if ((cnt != 0) && isAttack) {
+								this.attack(source, target, true, cnt);
+							} else if (cnt != 0) {
+								this.moveSoldiers(source, null, true, target, cnt);
+							}
+							result = before - source.getNumberOfSoldiers();
+						}
+					}
+					case RECRUIT -> {
+						this.recruitSoldiers(0, source, true, Math.min(amount, source.getNumberOfPeople()));
+						result = source.getNumberOfSoldiers() - before;
+					}
+					case UPGRADE_DEFENSE -> result = this.upgradeDefenseBy(source, levels);
+					case UPGRADE_RESOURCE -> result = this.upgradeResourceBy(Resource.values()[batch.getTarget(i)],
+							source, levels);
+				}
+			}
+			batch.setResult(i, result);
+			if (result != CommandBatch.REJECTED) {
+				executed++;
+			}
+		}
+		return executed;
+	}
 }
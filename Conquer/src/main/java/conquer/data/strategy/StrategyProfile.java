@@ -0,0 +1,326 @@
+package conquer.data.strategy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * The tunable thresholds of the builtin strategies as a vector of numbers, one entry per {@link Parameter}. A
+ * profile is immutable, every value is clamped to the range of its parameter.<br>
+ * Profiles are stored as properties files, that map {@link Parameter#getKey()} to the value. Missing keys keep
+ * their default value. The builtin strategies use the profile in the file named by the property
+ * {@code conquer.builtin.profile}, or {@link #DEFAULT}, that reproduces the original behaviour.
+ */
+public final class StrategyProfile {
+	private static final Parameter[] PARAMETERS = Parameter.values();
+	/**
+	 * The profile with the default value of every parameter.
+	 */
+	public static final StrategyProfile DEFAULT = new StrategyProfile(
+			Arrays.stream(StrategyProfile.PARAMETERS).mapToDouble(Parameter::getDefaultValue).toArray());
+	private final double[] values;
+
+	private StrategyProfile(final double[] values) {
+		this.values = values;
+	}
+
+	/**
+	 * Creates a profile from a vector. Integral parameters are rounded, all values are clamped to the range of
+	 * their parameter.
+	 *
+	 * @param vector The values in the order of {@link Parameter#values()}. May not be {@code null}.
+	 * @return The profile.
+	 * @throws IllegalArgumentException If the vector has the wrong length or contains NaN.
+	 */
+	public static StrategyProfile of(final double[] vector) {
+		if (vector == null) {
+			throw new IllegalArgumentException("vector==null");
+		} else if (vector.length != StrategyProfile.PARAMETERS.length) {
+			throw new IllegalArgumentException(
+					"vector.length != " + StrategyProfile.PARAMETERS.length + ": " + vector.length);
+		}
+		final var values = new double[vector.length];
+		for (var i = 0; i < vector.length; i++) {
+			values[i] = StrategyProfile.PARAMETERS[i].clamp(vector[i]);
+		}
+		return new StrategyProfile(values);
+	}
+
+	/**
+	 * Reads a profile from a properties file.
+	 *
+	 * @param in The stream. Is not closed. May not be {@code null}.
+	 * @return The profile.
+	 * @throws IOException              If the stream couldn't be read.
+	 * @throws IllegalArgumentException If a key is unknown or a value isn't a number.
+	 */
+	public static StrategyProfile read(final InputStream in) throws IOException {
+		if (in == null) {
+			throw new IllegalArgumentException("in==null");
+		}
+		final var properties = new Properties();
+		properties.load(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+		final var vector = StrategyProfile.DEFAULT.toVector();
+		for (final var key : properties.stringPropertyNames()) {
+			final var parameter = Arrays.stream(StrategyProfile.PARAMETERS).filter(a -> a.getKey().equals(key))
+					.findFirst().orElseThrow(() -> new IllegalArgumentException("Unknown parameter: " + key));
+			vector[parameter.ordinal()] = Double.parseDouble(properties.getProperty(key).trim());
+		}
+		return StrategyProfile.of(vector);
+	}
+
+	/**
+	 * Writes this profile as properties file, one parameter per line in the order of {@link Parameter#values()}.
+	 *
+	 * @param out     The stream. Is flushed, but not closed. May not be {@code null}.
+	 * @param comment A comment for the first line or {@code null}.
+	 * @throws IOException If the profile couldn't be written.
+	 */
+	public void write(final OutputStream out, final String comment) throws IOException {
+		if (out == null) {
+			throw new IllegalArgumentException("out==null");
+		}
+		final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+		if (comment != null) {
+			for (final var line : comment.split("\n")) {
+				writer.write("# " + line + "\n");
+			}
+		}
+		for (final var parameter : StrategyProfile.PARAMETERS) {
+			writer.write(parameter.getKey() + "=" + this.values[parameter.ordinal()] + "\n");
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Returns the value of a parameter.
+	 *
+	 * @param parameter The parameter. May not be {@code null}.
+	 * @return The value.
+	 */
+	public double get(final Parameter parameter) {
+		if (parameter == null) {
+			throw new IllegalArgumentException("parameter==null");
+		}
+		return this.values[parameter.ordinal()];
+	}
+
+	/**
+	 * Returns the value of an integral parameter.
+	 *
+	 * @param parameter The parameter. May not be {@code null}.
+	 * @return The value.
+	 */
+	public int getInt(final Parameter parameter) {
+		return (int) this.get(parameter);
+	}
+
+	/**
+	 * Returns a copy of this profile with one changed value.
+	 *
+	 * @param parameter The parameter. May not be {@code null}.
+	 * @param value     The new value, it is clamped to the range of the parameter.
+	 * @return The new profile.
+	 */
+	public StrategyProfile with(final Parameter parameter, final double value) {
+		if (parameter == null) {
+			throw new IllegalArgumentException("parameter==null");
+		}
+		final var vector = this.toVector();
+		vector[parameter.ordinal()] = value;
+		return StrategyProfile.of(vector);
+	}
+
+	/**
+	 * Returns the values of all parameters.
+	 *
+	 * @return A new array in the order of {@link Parameter#values()}.
+	 */
+	public double[] toVector() {
+		return this.values.clone();
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		return (obj instanceof StrategyProfile other) && Arrays.equals(this.values, other.values);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.values);
+	}
+
+	@Override
+	public String toString() {
+		final var ret = new StringBuilder("StrategyProfile[");
+		for (final var parameter : StrategyProfile.PARAMETERS) {
+			if (parameter.ordinal() != 0) {
+				ret.append(", ");
+			}
+			ret.append(parameter.getKey()).append('=').append(this.values[parameter.ordinal()]);
+		}
+		return ret.append(']').toString();
+	}
+
+	/**
+	 * A tunable threshold of the builtin strategies. The defaults are the values, the strategies were designed
+	 * with.
+	 */
+	public enum Parameter {
+		/**
+		 * Clans with a relationship below this value are attacked by the moderate attacks.
+		 */
+		GOOD_RELATION("relation.good", 75, 0, 100, false),
+		/**
+		 * The coins, that every city keeps instead of recruiting soldiers.
+		 */
+		COINS_TO_RETAIN("coins.retain", 20, 0, 500, false),
+		/**
+		 * The maximum number of levels of every upgrade in one round.
+		 */
+		UPGRADE_LEVELS("upgrade.levels", 100, 1, 1000, true),
+		/**
+		 * A moderate attack needs more soldiers than this multiple of the soldiers of the target.
+		 */
+		MODERATE_ATTACK_RATIO("moderate.attack.ratio", 1, 0.25, 4, false),
+		/**
+		 * Scales the increase of the relationship by a gift, that is smaller than the own wealth.
+		 */
+		MODERATE_BIG_RELATIONSHIP_INCREASE("moderate.relationship.big", 7.3, 0, 20, false),
+		/**
+		 * Scales the increase of the relationship by a gift, that is bigger than the own wealth.
+		 */
+		MODERATE_SMALL_RELATIONSHIP_INCREASE("moderate.relationship.small", 5, 0, 20, false),
+		/**
+		 * Gifts are only sent to clans with a relationship below this value.
+		 */
+		MODERATE_GIFT_RELATION("moderate.gift.relation", 65, 0, 100, false),
+		/**
+		 * The probability to skip a clan when sending gifts.
+		 */
+		MODERATE_GIFT_SKIP_PROBABILITY("moderate.gift.skip", 0.2, 0, 1, false),
+		/**
+		 * The maximum share of the stored rounds of a resource, that is given away.
+		 */
+		MODERATE_GIFT_RESOURCES("moderate.gift.resources", 0.5, 0, 1, false),
+		/**
+		 * The maximum share of the coins, that is given away.
+		 */
+		MODERATE_GIFT_COINS("moderate.gift.coins", 0.35, 0, 1, false),
+		/**
+		 * An offensive attack needs at least this multiple of the defense of the target as soldiers.
+		 */
+		OFFENSIVE_ATTACK_RATIO("offensive.attack.ratio", 1, 0.25, 4, false),
+		/**
+		 * The probability, that the offensive strategy only upgrades the resources needed for recruiting.
+		 */
+		OFFENSIVE_UPGRADE_PROBABILITY("offensive.upgrade", 0.15, 0, 1, false),
+		/**
+		 * The probability, that the offensive strategy considers a gift at all.
+		 */
+		OFFENSIVE_GIFT_PROBABILITY("offensive.gift.accept", 0.875, 0, 1, false),
+		/**
+		 * The defensive strategy attacks, if its soldiers are stronger than this multiple of the target.
+		 */
+		DEFENSIVE_ATTACK_RATIO("defensive.attack.ratio", 1.1, 0.25, 4, false),
+		/**
+		 * The probability, that a fortifying defensive strategy plays like the moderate strategy instead of
+		 * upgrading.
+		 */
+		DEFENSIVE_MODERATE_PROBABILITY("defensive.moderate", 0.5, 0, 1, false),
+		/**
+		 * The defensive strategy only sends gifts, if it has more of every resource.
+		 */
+		DEFENSIVE_GIFT_RESERVE("defensive.gift.reserve", 1500, 0, 100_000, false),
+		/**
+		 * The probability to skip a clan when sending gifts.
+		 */
+		DEFENSIVE_GIFT_SKIP_PROBABILITY("defensive.gift.skip", 0.75, 0, 1, false),
+		/**
+		 * If it is 1, the moderate and offensive attacks are planned on the frontier of the clan, starting with the
+		 * best attack, instead of checking the neighbours of every city. 0 keeps the original order of the attacks.
+		 */
+		FRONTIER_PLANNER("attack.frontier", 0, 0, 1, true);
+
+		private final String key;
+		private final double defaultValue;
+		private final double min;
+		private final double max;
+		private final boolean integral;
+
+		Parameter(final String key, final double defaultValue, final double min, final double max,
+				  final boolean integral) {
+			this.key = key;
+			this.defaultValue = defaultValue;
+			this.min = min;
+			this.max = max;
+			this.integral = integral;
+		}
+
+		/**
+		 * Returns the name of the parameter in a properties file.
+		 *
+		 * @return The key.
+		 */
+		public String getKey() {
+			return this.key;
+		}
+
+		/**
+		 * Returns the value of {@link StrategyProfile#DEFAULT}.
+		 *
+		 * @return The default value.
+		 */
+		public double getDefaultValue() {
+			return this.defaultValue;
+		}
+
+		/**
+		 * Returns the smallest allowed value.
+		 *
+		 * @return The lower bound.
+		 */
+		public double getMin() {
+			return this.min;
+		}
+
+		/**
+		 * Returns the biggest allowed value.
+		 *
+		 * @return The upper bound.
+		 */
+		public double getMax() {
+			return this.max;
+		}
+
+		/**
+		 * Returns whether the parameter only takes integers.
+		 *
+		 * @return True if the values are rounded.
+		 */
+		public boolean isIntegral() {
+			return this.integral;
+		}
+
+		/**
+		 * Moves a value into the range of this parameter and rounds it, if the parameter is integral.
+		 *
+		 * @param value The value. May not be NaN.
+		 * @return The valid value.
+		 */
+		public double clamp(final double value) {
+			if (Double.isNaN(value)) {
+				throw new IllegalArgumentException(this.key + " is NaN");
+			}
+			final var ret = Math.min(this.max, Math.max(this.min, value));
+			return this.integral ? Math.rint(ret) : ret;
+		}
+	}
+}
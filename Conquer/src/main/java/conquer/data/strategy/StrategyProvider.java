@@ -3,6 +3,7 @@ package conquer.data.strategy;
 import conquer.data.Version;
 
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * This is a SPI interface for providing a new Strategy.
@@ -15,6 +16,49 @@ public interface StrategyProvider {
 	 */
 	Strategy buildStrategy();
 
+	/**
+	 * Return a new strategy object, that uses the thresholds of a profile. Strategies without tunable thresholds
+	 * ignore the profile, that's the default implementation.
+	 *
+	 * @param profile The profile. May not be {@code null}.
+	 * @return New strategy object.
+	 */
+	default Strategy buildStrategy(final StrategyProfile profile) {
+		if (profile == null) {
+			throw new IllegalArgumentException("profile==null");
+		}
+		return this.buildStrategy();
+	}
+
+	/**
+	 * Return a new strategy object, that uses {@code random} for the random decisions while building it, e.g. to
+	 * choose between other strategies. The default implementation calls {@link #buildStrategy()}.
+	 *
+	 * @param random A generator that belongs to the clan and the game. May not be {@code null}.
+	 * @return New strategy object.
+	 */
+	default Strategy buildStrategy(final SplittableRandom random) {
+		if (random == null) {
+			throw new IllegalArgumentException("random==null");
+		}
+		return this.buildStrategy();
+	}
+
+	/**
+	 * Return a new strategy object, that uses the thresholds of a profile and {@code random} for the random
+	 * decisions while building it. The default implementation calls {@link #buildStrategy(StrategyProfile)}.
+	 *
+	 * @param profile The profile. May not be {@code null}.
+	 * @param random  A generator that belongs to the clan and the game. May not be {@code null}.
+	 * @return New strategy object.
+	 */
+	default Strategy buildStrategy(final StrategyProfile profile, final SplittableRandom random) {
+		if (random == null) {
+			throw new IllegalArgumentException("random==null");
+		}
+		return this.buildStrategy(profile);
+	}
+
 	/**
 	 * Returns whether this strategy is compatible to the version of the game
 	 * engine.
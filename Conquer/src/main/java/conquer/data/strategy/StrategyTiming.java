@@ -0,0 +1,59 @@
+package conquer.data.strategy;
+
+/**
+ * How long the strategy of a clan took in all its turns so far.<br>
+ * {@code calls} is the number of turns, {@code totalNanos} the sum and {@code maxNanos} the longest duration of
+ * {@link Strategy#applyStrategy(conquer.data.IClan, conquer.utils.Graph, StrategyObject)} in nanoseconds.
+ * {@code overruns} is the number of turns, that took longer than the budget of the clan.
+ */
+public record StrategyTiming(long calls, long totalNanos, long maxNanos, long overruns) {
+	/**
+	 * The timing of a strategy, that didn't run yet.
+	 */
+	public static final StrategyTiming NONE = new StrategyTiming(0, 0, 0, 0);
+
+	/**
+	 * Adds one turn, that didn't overrun.
+	 *
+	 * @param nanos The duration of the turn in nanoseconds.
+	 * @return The new timing.
+	 */
+	public StrategyTiming add(final long nanos) {
+		return this.add(nanos, false);
+	}
+
+	/**
+	 * Adds one turn.
+	 *
+	 * @param nanos   The duration of the turn in nanoseconds.
+	 * @param overrun Whether the turn took longer than the budget.
+	 * @return The new timing.
+	 */
+	public StrategyTiming add(final long nanos, final boolean overrun) {
+		return new StrategyTiming(this.calls + 1, this.totalNanos + nanos, Math.max(this.maxNanos, nanos),
+				this.overruns + (overrun ? 1 : 0));
+	}
+
+	/**
+	 * Merges the turns of two timings, e.g. of two clans, that play the same strategy.
+	 *
+	 * @param other The other timing. May not be {@code null}.
+	 * @return The merged timing.
+	 */
+	public StrategyTiming merge(final StrategyTiming other) {
+		if (other == null) {
+			throw new IllegalArgumentException("other==null");
+		}
+		return new StrategyTiming(this.calls + other.calls, this.totalNanos + other.totalNanos,
+				Math.max(this.maxNanos, other.maxNanos), this.overruns + other.overruns);
+	}
+
+	/**
+	 * Returns the mean duration of a turn.
+	 *
+	 * @return The mean in nanoseconds, 0 if the strategy didn't run yet.
+	 */
+	public double meanNanos() {
+		return this.calls == 0 ? 0 : (double) this.totalNanos / this.calls;
+	}
+}
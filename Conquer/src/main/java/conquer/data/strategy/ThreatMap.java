@@ -0,0 +1,207 @@
+package conquer.data.strategy;
+
+import conquer.data.ICity;
+import conquer.utils.Graph;
+import conquer.utils.NeighbourCursor;
+
+/**
+ * The threat every city is exposed to, seen from the clan that currently owns the city. For every city the map
+ * stores the soldiers of the enemy neighbours, the soldiers of the friendly neighbours and the number of enemy
+ * neighbours. A neighbour is a city, that can be reached with one edge, every clan except the owner is an enemy. A
+ * city is at the border, if it has at least one enemy neighbour.<br>
+ * All values are stored in primitive arrays, so a query is an array lookup. After the number of soldiers or the
+ * owner of a city changed, {@link #update(int)} fixes the city and its neighbours in O(degree^2) instead of
+ * computing the whole map again. The updates are synchronized, so the clans of a parallel wave can update
+ * overlapping neighbourhoods without losing a change. The queries aren't synchronized, a city may be read while
+ * one of its neighbours is updated.
+ */
+public final class ThreatMap {
+	private final Graph<ICity> cities;
+	private final long[] enemyPressure;
+	private final long[] friendlySupport;
+	private final int[] hostileNeighbours;
+	private boolean valid;
+
+	/**
+	 * Creates a new map and computes it.
+	 *
+	 * @param cities The graph of all cities. May not be {@code null}.
+	 */
+	public ThreatMap(final Graph<ICity> cities) {
+		if (cities == null) {
+			throw new IllegalArgumentException("cities==null");
+		}
+		this.cities = cities;
+		this.enemyPressure = new long[cities.size()];
+		this.friendlySupport = new long[cities.size()];
+		this.hostileNeighbours = new int[cities.size()];
+		this.recompute();
+	}
+
+	/**
+	 * Computes the values of all cities in O(V+E). Afterwards the map is valid.
+	 */
+	public synchronized void recompute() {
+		final var cursor = this.cities.newNeighbourCursor();
+		for (var i = 0; i < this.enemyPressure.length; i++) {
+			this.compute(cursor, i);
+		}
+		this.valid = true;
+	}
+
+	/**
+	 * Updates the map after the number of soldiers or the owner of a city changed. Nothing happens, if the map is
+	 * not valid.
+	 *
+	 * @param idx The index of the city.
+	 */
+	public synchronized void update(final int idx) {
+		this.checkIndex(idx);
+		if (!this.valid) {
+			return;
+		}
+		final var cursor = this.cities.newNeighbourCursor();
+		this.compute(cursor, idx);
+		final var neighbours = this.cities.newNeighbourCursor().reset(idx);
+		while (neighbours.next()) {
+			this.compute(cursor, neighbours.index());
+		}
+	}
+
+	/**
+	 * Marks the map as outdated, e.g. if many cities will change and computing the map once afterwards is cheaper
+	 * than updating it for every change.
+	 */
+	public void invalidate() {
+		this.valid = false;
+	}
+
+	/**
+	 * Returns whether the values are up to date.
+	 *
+	 * @return False if {@link #invalidate()} was called after the last {@link #recompute()}.
+	 */
+	public boolean isValid() {
+		return this.valid;
+	}
+
+	/**
+	 * Returns the number of soldiers in the neighbouring cities of other clans.
+	 *
+	 * @param idx The index of the city.
+	 * @return The number of enemy soldiers around the city.
+	 */
+	public long getEnemyPressure(final int idx) {
+		this.checkIndex(idx);
+		return this.enemyPressure[idx];
+	}
+
+	/**
+	 * Returns the number of soldiers in the neighbouring cities of other clans.
+	 *
+	 * @param city The city. May not be {@code null}.
+	 * @return The number of enemy soldiers around the city.
+	 */
+	public long getEnemyPressure(final ICity city) {
+		return this.getEnemyPressure(this.indexOf(city));
+	}
+
+	/**
+	 * Returns the number of soldiers in the neighbouring cities of the same clan.
+	 *
+	 * @param idx The index of the city.
+	 * @return The number of friendly soldiers around the city.
+	 */
+	public long getFriendlySupport(final int idx) {
+		this.checkIndex(idx);
+		return this.friendlySupport[idx];
+	}
+
+	/**
+	 * Returns the number of soldiers in the neighbouring cities of the same clan.
+	 *
+	 * @param city The city. May not be {@code null}.
+	 * @return The number of friendly soldiers around the city.
+	 */
+	public long getFriendlySupport(final ICity city) {
+		return this.getFriendlySupport(this.indexOf(city));
+	}
+
+	/**
+	 * Returns the number of neighbouring cities of other clans.
+	 *
+	 * @param idx The index of the city.
+	 * @return The number of enemy neighbours.
+	 */
+	public int getHostileNeighbours(final int idx) {
+		this.checkIndex(idx);
+		return this.hostileNeighbours[idx];
+	}
+
+	/**
+	 * Returns the number of neighbouring cities of other clans.
+	 *
+	 * @param city The city. May not be {@code null}.
+	 * @return The number of enemy neighbours.
+	 */
+	public int getHostileNeighbours(final ICity city) {
+		return this.getHostileNeighbours(this.indexOf(city));
+	}
+
+	/**
+	 * Returns whether a city has at least one neighbour of another clan.
+	 *
+	 * @param idx The index of the city.
+	 * @return True if the city is at the border.
+	 */
+	public boolean isBorder(final int idx) {
+		return this.getHostileNeighbours(idx) > 0;
+	}
+
+	/**
+	 * Returns whether a city has at least one neighbour of another clan.
+	 *
+	 * @param city The city. May not be {@code null}.
+	 * @return True if the city is at the border.
+	 */
+	public boolean isBorder(final ICity city) {
+		return this.getHostileNeighbours(city) > 0;
+	}
+
+	private void compute(final NeighbourCursor cursor, final int idx) {
+		final var clan = this.cities.getValue(idx).getClanId();
+		var enemy = 0L;
+		var friendly = 0L;
+		var hostile = 0;
+		cursor.reset(idx);
+		while (cursor.next()) {
+			final var neighbour = this.cities.getValue(cursor.index());
+			if (neighbour.getClanId() == clan) {
+				friendly += neighbour.getNumberOfSoldiers();
+			} else {
+				enemy += neighbour.getNumberOfSoldiers();
+				hostile++;
+			}
+		}
+		this.enemyPressure[idx] = enemy;
+		this.friendlySupport[idx] = friendly;
+		this.hostileNeighbours[idx] = hostile;
+	}
+
+	private int indexOf(final ICity city) {
+		if (city == null) {
+			throw new IllegalArgumentException("city==null");
+		}
+		final var idx = this.cities.indexOf(city);
+		if (idx == -1) {
+			throw new IllegalArgumentException("city is not part of the graph");
+		}
+		return idx;
+	}
+
+	private void checkIndex(final int idx) {
+		if ((idx < 0) || (idx >= this.enemyPressure.length)) {
+			throw new IllegalArgumentException("index out of bounds: " + idx);
+		}
+	}
+}
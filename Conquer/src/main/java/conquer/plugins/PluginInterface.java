@@ -2,6 +2,8 @@ package conquer.plugins;
 
 import conquer.data.EventList;
 
+import java.util.SplittableRandom;
+
 /**
  * An interface providing several possibilities to hook into internal events of
  * the game.
@@ -85,4 +87,20 @@ public interface PluginInterface {
 	 * @return Current eventlist.
 	 */
 	EventList getEventList();
+
+	/**
+	 * Returns the random number generator of a plugin. Plugins should use it
+	 * instead of {@link Math#random()}, so games with the same seed play the same.
+	 * Every plugin class gets its own generator. The default implementation returns
+	 * a new, unseeded generator on every call.
+	 *
+	 * @param plugin The plugin. May not be {@code null}.
+	 * @return The generator.
+	 */
+	default SplittableRandom getRandom(final Plugin plugin) {
+		if (plugin == null) {
+			throw new IllegalArgumentException("plugin==null");
+		}
+		return new SplittableRandom();
+	}
 }
@@ -0,0 +1,72 @@
+package conquer.utils;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Stores the weighted edges of a {@link Graph}. A missing edge has the weight -1, an edge from a node to itself
+ * has the weight -2, unless it was set explicitly.
+ */
+interface Adjacency {
+	/**
+	 * Returns the weight of the edge from {@code from} to {@code to}.
+	 *
+	 * @param from The index of the source node.
+	 * @param to   The index of the destination node.
+	 * @return The weight, -1 if there is no such edge.
+	 */
+	double get(int from, int to);
+
+	/**
+	 * Sets the weight of the edge from {@code from} to {@code to}. A weight of -1 removes the edge.
+	 *
+	 * @param from   The index of the source node.
+	 * @param to     The index of the destination node.
+	 * @param weight The new weight.
+	 */
+	void set(int from, int to, double weight);
+
+	/**
+	 * Calls {@code consumer} for every node with an edge from {@code from}, in ascending order. The node itself is
+	 * skipped.
+	 *
+	 * @param from     The index of the source node.
+	 * @param consumer The consumer that accepts the indices of the destination nodes.
+	 */
+	void forEachOut(int from, IntConsumer consumer);
+
+	/**
+	 * Calls {@code consumer} for every node with an edge to {@code to}, in ascending order. The node itself is
+	 * skipped.
+	 *
+	 * @param to       The index of the destination node.
+	 * @param consumer The consumer that accepts the indices of the source nodes.
+	 */
+	void forEachIn(int to, IntConsumer consumer);
+
+	/**
+	 * Returns the smallest index of a node with an edge to {@code to}, that is at least {@code from}. The node
+	 * itself is skipped.
+	 *
+	 * @param to   The index of the destination node.
+	 * @param from The smallest index to return.
+	 * @return The index of the source node or -1, if there is no such node.
+	 */
+	int nextIn(int to, int from);
+
+	/**
+	 * Returns the smallest index of a node with an edge from {@code from}, that is at least {@code start}. The
+	 * node itself is skipped.
+	 *
+	 * @param from  The index of the source node.
+	 * @param start The smallest index to return.
+	 * @return The index of the destination node or -1, if there is no such node.
+	 */
+	int nextOut(int from, int start);
+
+	/**
+	 * Returns an independent copy with the same edges.
+	 *
+	 * @return The copy.
+	 */
+	Adjacency copy();
+}
@@ -0,0 +1,165 @@
+package conquer.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The bridges, articulation points and components of a graph, found with one low-link depth-first-search (Tarjan,
+ * Hopcroft) in O(V+E). The graph is treated as undirected: Two nodes are adjacent, if there is an edge in either
+ * direction.
+ */
+final class Decomposition {
+	private final int number;
+	// Preorder number of every node and the number of nodes in its subtree of the search
+	private final int[] preorder;
+	private final int[] subtreeSize;
+	// The root of the search tree every node belongs to
+	private final int[] roots;
+	// For every bridge: The child node in the search tree
+	private final List<Integer> bridgeChildren = new ArrayList<>();
+	private final List<Pair<Integer, Integer>> bridges = new ArrayList<>();
+	private final List<Integer> articulationPoints;
+	private List<Pair<Set<Integer>, Set<Integer>>> components;
+
+	Decomposition(final Adjacency adjacency, final int number) {
+		this.number = number;
+		this.preorder = new int[number];
+		this.subtreeSize = new int[number];
+		this.roots = new int[number];
+		final var neighbours = Decomposition.undirected(adjacency, number);
+		final var low = new int[number];
+		final var parent = new int[number];
+		final var next = new int[number];
+		final var children = new int[number];
+		final var articulation = new boolean[number];
+		final var stack = new int[number];
+		final var found = new ArrayList<int[]>();
+		Arrays.fill(this.preorder, -1);
+		var counter = 0;
+		for (var root = 0; root < number; root++) {
+			if (this.preorder[root] != -1) {
+				continue;
+			}
+			var top = 0;
+			stack[0] = root;
+			parent[root] = -1;
+			this.roots[root] = root;
+			this.preorder[root] = low[root] = counter++;
+			while (top >= 0) {
+				final var v = stack[top];
+				if (next[v] < neighbours[v].length) {
+					final var w = neighbours[v][next[v]++];
+					if (this.preorder[w] == -1) {
+						parent[w] = v;
+						this.roots[w] = root;
+						this.preorder[w] = low[w] = counter++;
+						stack[++top] = w;
+					} else if (w != parent[v]) {
+						low[v] = Math.min(low[v], this.preorder[w]);
+					}
+					continue;
+				}
+				top--;
+				this.subtreeSize[v]++;
+				final var p = parent[v];
+				if (p == -1) {
+					continue;
+				}
+				low[p] = Math.min(low[p], low[v]);
+				this.subtreeSize[p] += this.subtreeSize[v];
+				children[p]++;
+				if (low[v] > this.preorder[p]) {
+					found.add(new int[]{Math.min(p, v), Math.max(p, v), v});
+				}
+				if ((parent[p] != -1) && (low[v] >= this.preorder[p])) {
+					articulation[p] = true;
+				}
+			}
+			articulation[root] = children[root] > 1;
+		}
+		found.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+		for (final var bridge : found) {
+			this.bridges.add(new Pair<>(bridge[0], bridge[1]));
+			this.bridgeChildren.add(bridge[2]);
+		}
+		final var points = new ArrayList<Integer>();
+		for (var i = 0; i < number; i++) {
+			if (articulation[i]) {
+				points.add(i);
+			}
+		}
+		this.articulationPoints = Collections.unmodifiableList(points);
+	}
+
+	// Sorted, duplicate free neighbours of every node, without the node itself.
+	private static int[][] undirected(final Adjacency adjacency, final int number) {
+		final var ret = new int[number][];
+		final var out = new ArrayList<Integer>();
+		final var in = new ArrayList<Integer>();
+		for (var i = 0; i < number; i++) {
+			out.clear();
+			in.clear();
+			adjacency.forEachOut(i, out::add);
+			adjacency.forEachIn(i, in::add);
+			final var merged = new int[out.size() + in.size()];
+			var size = 0;
+			var a = 0;
+			var b = 0;
+			while ((a < out.size()) || (b < in.size())) {
+				final int value;
+				if ((b == in.size()) || ((a < out.size()) && (out.get(a) <= in.get(b)))) {
+					value = out.get(a++);
+				} else {
+					value = in.get(b++);
+				}
+				if ((size == 0) || (merged[size - 1] != value)) {
+					merged[size++] = value;
+				}
+			}
+			ret[i] = Arrays.copyOf(merged, size);
+		}
+		return ret;
+	}
+
+	List<Pair<Integer, Integer>> getBridges() {
+		return this.bridges;
+	}
+
+	List<Integer> getArticulationPoints() {
+		return this.articulationPoints;
+	}
+
+	synchronized List<Pair<Set<Integer>, Set<Integer>>> getComponents() {
+		if (this.components == null) {
+			final var ret = new ArrayList<Pair<Set<Integer>, Set<Integer>>>();
+			for (var i = 0; i < this.bridges.size(); i++) {
+				final var bridge = this.bridges.get(i);
+				final int child = this.bridgeChildren.get(i);
+				final var start = this.preorder[child];
+				final var end = start + this.subtreeSize[child];
+				// The subtree of the child is one side of the bridge, the rest of its part of the graph the other.
+				final Set<Integer> inside = new HashSet<>();
+				final Set<Integer> outside = new HashSet<>();
+				for (var j = 0; j < this.number; j++) {
+					if (this.roots[j] != this.roots[child]) {
+						continue;
+					}
+					if ((this.preorder[j] >= start) && (this.preorder[j] < end)) {
+						inside.add(j);
+					} else {
+						outside.add(j);
+					}
+				}
+				final var firstInside = bridge.first() == child;
+				ret.add(new Pair<>(Collections.unmodifiableSet(firstInside ? inside : outside),
+						Collections.unmodifiableSet(firstInside ? outside : inside)));
+			}
+			this.components = Collections.unmodifiableList(ret);
+		}
+		return this.components;
+	}
+}
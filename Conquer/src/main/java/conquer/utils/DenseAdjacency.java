@@ -0,0 +1,83 @@
+package conquer.utils;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Stores the edges in an adjacency matrix. The lookup of a weight is cheap, but the memory grows quadratic with the
+ * number of nodes and every iteration over the neighbours visits every node.
+ */
+final class DenseAdjacency implements Adjacency {
+	private final double[][] matrix;
+
+	private DenseAdjacency(final double[][] matrix) {
+		this.matrix = matrix;
+	}
+
+	DenseAdjacency(final int number) {
+		this.matrix = new double[number][number];
+		for (var i = 0; i < number; i++) {
+			for (var j = 0; j < number; j++) {
+				this.matrix[i][j] = (i == j) ? -2 : -1;
+			}
+		}
+	}
+
+	@Override
+	public Adjacency copy() {
+		final var ret = new double[this.matrix.length][];
+		for (var i = 0; i < ret.length; i++) {
+			ret[i] = this.matrix[i].clone();
+		}
+		return new DenseAdjacency(ret);
+	}
+
+	@Override
+	public double get(final int from, final int to) {
+		return this.matrix[from][to];
+	}
+
+	@Override
+	public void set(final int from, final int to, final double weight) {
+		this.matrix[from][to] = weight;
+	}
+
+	@Override
+	public void forEachOut(final int from, final IntConsumer consumer) {
+		final var row = this.matrix[from];
+		for (var i = 0; i < row.length; i++) {
+			if ((i != from) && (row[i] != -1)) {
+				consumer.accept(i);
+			}
+		}
+	}
+
+	@Override
+	public void forEachIn(final int to, final IntConsumer consumer) {
+		for (var i = 0; i < this.matrix.length; i++) {
+			if ((i != to) && (this.matrix[i][to] != -1)) {
+				consumer.accept(i);
+			}
+		}
+	}
+
+	@Override
+	public int nextOut(final int from, final int start) {
+		final var row = this.matrix[from];
+		for (var i = start; i < row.length; i++) {
+			if ((i != from) && (row[i] != -1)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int nextIn(final int to, final int from) {
+		for (var i = from; i < this.matrix.length; i++) {
+			if ((i != to) && (this.matrix[i][to] != -1)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -1,9 +1,11 @@
 package conquer.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -11,32 +13,90 @@ import java.util.Set;
 import java.util.function.Consumer;
 
 public class Graph<T> implements Consumer<T> {
-	private final double[][] matrix;
+	/**
+	 * Graphs with at least this number of nodes use a sparse representation, unless the representation is chosen
+	 * explicitly.
+	 */
+	public static final int SPARSE_THRESHOLD = 1024;
+	private final int capacity;
+	private final boolean sparse;
+	private Adjacency adjacency;
+	// True if the edges are shared with a copy, the first graph that changes an edge copies them.
+	private volatile boolean sharedAdjacency;
 	private final ArrayList<T> values;
-	private final ArrayList<Boolean> visited = new ArrayList<>();
+	// Maps every value to its first index, compared by identity
+	private final Map<T, Integer> indices;
 
-	private int cnt = 0;
-	private boolean cached = false;
-
-	private final Map<T, Map<T, Boolean>> map = new HashMap<>();
+	// Sorted indices of the destinations of the edges from every node, null if the cache isn't initialized.
+	// Rows are replaced and never modified, so readers always see a consistent row.
+	private volatile int[][] neighbours;
+	// Bridges, articulation points and components, null if the edges changed since they were computed
+	private volatile Decomposition decomposition;
+	// Incremented whenever a node or an edge is added or a weight changes
+	private volatile long edgeVersion;
 
 	/**
-	 * Create a new graph with the specified size.
+	 * Create a new graph with the specified size. Graphs with at least {@link #SPARSE_THRESHOLD} nodes are sparse.
 	 *
 	 * @param number The fixed number, no further element can be added
 	 * @throws IllegalArgumentException If number &lt; 0
 	 */
 	public Graph(final int number) {
+		this(number, number >= Graph.SPARSE_THRESHOLD);
+	}
+
+	/**
+	 * Create a new graph with the specified size. A dense graph stores the edges in an adjacency matrix, this is
+	 * the best choice for small graphs or graphs with many edges. A sparse graph only stores the existing edges,
+	 * iterating over the neighbours of a node costs O(degree) and the memory grows with the number of edges, this
+	 * is the best choice for maps.
+	 *
+	 * @param number The fixed number, no further element can be added
+	 * @param sparse Whether the graph should be sparse.
+	 * @throws IllegalArgumentException If number &lt; 0
+	 */
+	public Graph(final int number, final boolean sparse) {
+		this(number, sparse, Graph.createAdjacency(number, sparse));
+	}
+
+	private Graph(final int number, final boolean sparse, final Adjacency adjacency) {
+		this.capacity = number;
+		this.sparse = sparse;
+		this.values = new ArrayList<>(number);
+		this.indices = new IdentityHashMap<>(number);
+		this.adjacency = adjacency;
+	}
+
+	private static Adjacency createAdjacency(final int number, final boolean sparse) {
 		if (number < 0) {
 			throw new IllegalArgumentException("number < 0");
 		}
-		this.values = new ArrayList<>(number);
-		this.matrix = new double[number][number];
-		for (var i = 0; i < number; i++) {
-			for (var j = 0; j < number; j++) {
-				this.matrix[i][j] = (i == j) ? -2 : -1;
-			}
+		return sparse ? new SparseAdjacency(number) : new DenseAdjacency(number);
+	}
+
+	/**
+	 * Creates a graph with the same edges, but other values. The edges are shared until one of the graphs changes
+	 * an edge, so the copy costs O(V) instead of copying all edges.
+	 *
+	 * @param newValues The values of the new graph, one for every node of this graph. May not be {@code null}.
+	 * @param <U>       The type of the new values.
+	 * @return The new graph.
+	 */
+	public <U> Graph<U> copyWithValues(final List<U> newValues) {
+		if (newValues == null) {
+			throw new IllegalArgumentException("newValues==null");
+		} else if (newValues.size() != this.values.size()) {
+			throw new IllegalArgumentException("newValues.size() != size(): " + newValues.size());
 		}
+		final var ret = new Graph<U>(this.capacity, this.sparse, this.adjacency);
+		newValues.forEach(ret::add);
+		this.sharedAdjacency = true;
+		ret.sharedAdjacency = true;
+		// The rows of the cache are never modified, only the array of the rows
+		final var rows = this.neighbours;
+		ret.neighbours = rows == null ? null : rows.clone();
+		ret.decomposition = this.decomposition;
+		return ret;
 	}
 
 	/**
@@ -49,15 +109,21 @@ public class Graph<T> implements Consumer<T> {
 	 */
 	public void _set(final int i, final T t) {
 		this.checkIndex(i);
-		this.values.set(i, t);
+		final var old = this.values.set(i, t);
+		final var idx = this.indices.get(old);
+		if ((idx != null) && (idx == i)) {
+			// If the old value is stored at another index, too, it is found by the fallback in indexOf
+			this.indices.remove(old);
+		}
+		this.indices.putIfAbsent(t, i);
 	}
 
 	/**
-	 * Don't use!
+	 * Don't use! Has no effect.
 	 */
 	@Override
 	public void accept(final T t) {
-		this.cnt++;
+		// Only exists for compatibility, isConnected doesn't need it anymore
 	}
 
 	/**
@@ -67,11 +133,13 @@ public class Graph<T> implements Consumer<T> {
 	 * @return The index of the added element
 	 */
 	public int add(final T t) {
-		if (this.values.size() == this.matrix.length) {
+		if (this.values.size() == this.capacity) {
 			throw new IndexOutOfBoundsException();
 		}
 		this.values.add(t);
-		this.visited.add(false);
+		this.indices.putIfAbsent(t, this.values.size() - 1);
+		this.decomposition = null;
+		this.edgeVersion++;
 		return this.values.size() - 1;
 	}
 
@@ -89,7 +157,10 @@ public class Graph<T> implements Consumer<T> {
 		}
 		this.checkIndex(a);
 		this.checkIndex(b);
-		this.matrix[a][b] = value;
+		this.edgeChanged(a, b);
+		this.writableAdjacency().set(a, b, value);
+		this.cacheEdge(a, b);
+		this.edgeVersion++;
 	}
 
 	/**
@@ -108,8 +179,14 @@ public class Graph<T> implements Consumer<T> {
 		}
 		this.checkIndex(a);
 		this.checkIndex(b);
-		this.matrix[a][b] = ab;
-		this.matrix[b][a] = ba;
+		this.edgeChanged(a, b);
+		this.edgeChanged(b, a);
+		final var writable = this.writableAdjacency();
+		writable.set(a, b, ab);
+		writable.set(b, a, ba);
+		this.cacheEdge(a, b);
+		this.cacheEdge(b, a);
+		this.edgeVersion++;
 	}
 
 	/**
@@ -133,10 +210,9 @@ public class Graph<T> implements Consumer<T> {
 	public List<Integer> allConnections(final int idx) {
 		this.checkIndex(idx);
 		final List<Integer> ret = new ArrayList<>();
-		for (var i = 0; i < this.values.size(); i++) {
-			if (this.matrix[idx][i] != -1) {
-				ret.add(i);
-			}
+		this.adjacency.forEachOut(idx, ret::add);
+		if (this.adjacency.get(idx, idx) != -1) {
+			ret.add(-Collections.binarySearch(ret, idx) - 1, idx);
 		}
 		return ret;
 	}
@@ -160,73 +236,112 @@ public class Graph<T> implements Consumer<T> {
 		if (consumer == null) {
 			throw new IllegalArgumentException("consumer==null");
 		}
-		for (var i = 0; i < this.visited.size(); i++) {
-			this.visited.set(i, false);
-		}
-		this.dfs0(start, consumer);
+		this.newTraversal().dfs(start, i -> consumer.accept(this.values.get(i)));
 	}
 
-	private void dfs0(final int start, final Consumer<T> consumer) {
-		this.visited.set(start, true);
-		consumer.accept(this.values.get(start));
-		for (var i = 0; i < this.values.size(); i++) {
-			final var v = this.matrix[i][start];
-			if ((v != -1) && (v != -2) && !this.visited.get(i)) {
-				this.dfs0(i, consumer);
-			}
+	/**
+	 * Calls {@code consumer} for every neighbour of a node, i.e. every node with an edge from the given node, in
+	 * ascending order.
+	 *
+	 * @param idx      The index of the node.
+	 * @param consumer Accepts the index of every neighbour and the weight of the edge to it.
+	 */
+	public void forEachNeighbour(final int idx, final IntDoubleConsumer consumer) {
+		this.checkIndex(idx);
+		if (consumer == null) {
+			throw new IllegalArgumentException("consumer==null");
 		}
+		this.adjacency.forEachOut(idx, i -> consumer.accept(i, this.adjacency.get(idx, i)));
+	}
+
+	/**
+	 * Creates a cursor, that iterates over the neighbours of a node without allocating.
+	 *
+	 * @return A new cursor.
+	 */
+	public NeighbourCursor newNeighbourCursor() {
+		return new NeighbourCursor(this);
+	}
+
+	/**
+	 * Creates a traversal for iterative depth-first and breadth-first searches on the current nodes of this graph.
+	 * The traversal can be reused for any number of searches, but only by one thread at a time.
+	 *
+	 * @return A new traversal.
+	 */
+	public GraphTraversal newTraversal() {
+		return new GraphTraversal(this.adjacency, this.values.size());
 	}
 
 	/**
 	 * Returns all bridges. A bridge is a connection, that, if removed, disconnects
-	 * the graph, so it has two parts.
+	 * the graph, so it has two parts. The graph is treated as undirected, the result
+	 * is computed in O(V+E) and cached until the edges change.
 	 *
-	 * @return A list of bridges (Two indices are one bridge)
+	 * @return A list of bridges (Two indices are one bridge, the smaller index is the first), sorted by the indices.
 	 */
 	public List<Pair<Integer, Integer>> getBridges() {
-		final List<Pair<Integer, Integer>> ret = new ArrayList<>();
-		final var size = this.values.size();
-		for (var i = 0; i < size; i++) {
-			for (var j = 0; j < size; j++) {
-				final var first = this.matrix[i][j];
-				final var second = this.matrix[j][i];
-				this.matrix[i][j] = -1;
-				this.matrix[j][i] = -1;
-				final var b = this.isConnected();
-				if (!b) {
-					var add = true;
-					for (final var a : ret) {
-						if ((a.first() == j) && (a.second() == i)) {
-							add = false;
-							break;
-						}
-					}
-					if (add) {
-						ret.add(new Pair<>(i, j));
-					}
-				}
-				this.matrix[i][j] = first;
-				this.matrix[j][i] = second;
-			}
-		}
-		return ret;
+		return new ArrayList<>(this.decompose().getBridges());
+	}
+
+	/**
+	 * Returns all articulation points. An articulation point is a node, that, if
+	 * removed, disconnects the graph. The graph is treated as undirected, the result
+	 * is computed in O(V+E) and cached until the edges change.
+	 *
+	 * @return The indices of all articulation points in ascending order.
+	 */
+	public List<Integer> getArticulationPoints() {
+		return new ArrayList<>(this.decompose().getArticulationPoints());
 	}
 
 	/**
 	 * Returns every possible component. A component is a part of the graph that
-	 * will result, if a bridge if removed.
+	 * will result, if a bridge if removed. The components are cached until the edges
+	 * change, the sets may not be modified.
 	 *
-	 * @return A list with every possible component.
+	 * @return A list with every possible component, in the order of {@link #getBridges()}.
 	 */
 	public List<Pair<Set<Integer>, Set<Integer>>> getComponents() {
-		final var bridges = this.getBridges();
-		final var ret = new ArrayList<Pair<Set<Integer>, Set<Integer>>>();
-		for (final var bridge : bridges) {
-			ret.add(this.getTwoAreas(bridge));
+		return new ArrayList<>(this.decompose().getComponents());
+	}
+
+	Adjacency getAdjacency() {
+		return this.adjacency;
+	}
+
+	long getEdgeVersion() {
+		return this.edgeVersion;
+	}
+
+	private Adjacency writableAdjacency() {
+		if (this.sharedAdjacency) {
+			synchronized (this) {
+				if (this.sharedAdjacency) {
+					this.adjacency = this.adjacency.copy();
+					this.sharedAdjacency = false;
+				}
+			}
+		}
+		return this.adjacency;
+	}
+
+	private Decomposition decompose() {
+		var ret = this.decomposition;
+		if (ret == null) {
+			ret = new Decomposition(this.adjacency, this.values.size());
+			this.decomposition = ret;
 		}
 		return ret;
 	}
 
+	private void edgeChanged(final int a, final int b) {
+		// Only a new edge changes the decomposition, not a new weight.
+		if ((this.decomposition != null) && (a != b) && (this.adjacency.get(a, b) == -1)) {
+			this.decomposition = null;
+		}
+	}
+
 	/**
 	 * Returns values of nodes that are connected to the first node with the
 	 * specified value.
@@ -252,11 +367,12 @@ public class Graph<T> implements Consumer<T> {
 		if (idx == -1) {
 			throw new NoSuchElementException();
 		}
-		for (var i = 0; i < this.values.size(); i++) {
-			if (this.matrix[i][idx] != -1) {
-				ret.add(this.values.get(i));
-			}
+		final List<Integer> indices = new ArrayList<>();
+		this.adjacency.forEachIn(idx, indices::add);
+		if (this.adjacency.get(idx, idx) != -1) {
+			indices.add(-Collections.binarySearch(indices, idx) - 1, idx);
 		}
+		indices.forEach(i -> ret.add(this.values.get(i)));
 		return ret;
 	}
 
@@ -268,16 +384,23 @@ public class Graph<T> implements Consumer<T> {
 	 * @throws NoSuchElementException If {@code a} wasn't be found
 	 */
 	public List<T> getConnected(final T a) {
-		final List<T> ret = new ArrayList<>();
-		final var idx = this.values.indexOf(a);
+		final var idx = this.indexOf(a);
 		if (idx == -1) {
 			throw new NoSuchElementException();
 		}
-		for (var i = 0; i < this.values.size(); i++) {
-			if ((this.matrix[i][idx] != -1) && (this.matrix[i][idx] != -2) && (i != idx)) {
-				ret.add(this.values.get(i));
-			}
-		}
+		return this.getConnectedAt(idx);
+	}
+
+	/**
+	 * Returns a list of connected values to the value at the given index.
+	 *
+	 * @param idx The index of the value.
+	 * @return All connected values.
+	 */
+	public List<T> getConnectedAt(final int idx) {
+		this.checkIndex(idx);
+		final List<T> ret = new ArrayList<>();
+		this.adjacency.forEachIn(idx, i -> ret.add(this.values.get(i)));
 		return ret;
 	}
 
@@ -290,13 +413,12 @@ public class Graph<T> implements Consumer<T> {
 	public List<Triple<Integer, Integer, Double>> getConnections() {
 		final var ret = new ArrayList<Triple<Integer, Integer, Double>>();
 		for (var i = 0; i < this.values.size(); i++) {
-			for (var j = 0; j < this.values.size(); j++) {
-				final var first = this.values.get(i);
-				final var second = this.values.get(j);
-				if ((first != second) && this.isConnected(first, second)) {
-					ret.add(new Triple<>(i, j, this.getWeight(first, second)));
+			final var first = i;
+			this.adjacency.forEachOut(i, j -> {
+				if (this.values.get(first) != this.values.get(j)) {
+					ret.add(new Triple<>(first, j, this.adjacency.get(first, j)));
 				}
-			}
+			});
 		}
 		return ret;
 	}
@@ -315,17 +437,30 @@ public class Graph<T> implements Consumer<T> {
 		final Set<Integer> b = new HashSet<>();
 		final int i = bridge.first();
 		final int j = bridge.second();
-		final var first = this.matrix[i][j];
-		final var second = this.matrix[j][i];
-		this.matrix[i][j] = -1;
-		this.matrix[j][i] = -1;
-		this.idxDfs(i, a::add);
-		this.idxDfs(j, b::add);
-		this.matrix[i][j] = first;
-		this.matrix[j][i] = second;
+		final var traversal = this.newTraversal();
+		traversal.dfs(i, a::add, i, j);
+		traversal.dfs(j, b::add, i, j);
 		return new Pair<>(a, b);
 	}
 
+	/**
+	 * Returns whether this graph only stores the existing edges.
+	 *
+	 * @return True if the graph is sparse.
+	 */
+	public boolean isSparse() {
+		return this.sparse;
+	}
+
+	/**
+	 * Returns the number of values in this graph.
+	 *
+	 * @return The number of values
+	 */
+	public int size() {
+		return this.values.size();
+	}
+
 	/**
 	 * Get value at specified index
 	 *
@@ -356,50 +491,75 @@ public class Graph<T> implements Consumer<T> {
 	 * connected.
 	 */
 	public double getWeight(final T c, final T a) {
-		final var i1 = this.values.indexOf(c);
-		final var i2 = this.values.indexOf(a);
-		if ((i1 == -1) || (i2 == -2)) {
+		final var i1 = this.indexOf(c);
+		final var i2 = this.indexOf(a);
+		if ((i1 == -1) || (i2 == -1)) {
 			throw new NoSuchElementException();
 		}
-		return this.matrix[i1][i2];
+		return this.adjacency.get(i1, i2);
 	}
 
-	private void idxDfs(final int start, final Consumer<Integer> consumer) {
-		for (var i = 0; i < this.visited.size(); i++) {
-			this.visited.set(i, false);
-		}
-		this.idxDfs0(start, consumer);
+	/**
+	 * Get the weight between the values at the given indices.
+	 *
+	 * @param i1 Index of the first value
+	 * @param i2 Index of the second value
+	 * @return The weight between this two values. -1 and -2 means, these are not
+	 * connected.
+	 */
+	public double getWeightAt(final int i1, final int i2) {
+		this.checkIndex(i1);
+		this.checkIndex(i2);
+		return this.adjacency.get(i1, i2);
 	}
 
-	private void idxDfs0(final int start, final Consumer<Integer> consumer) {
-		this.visited.set(start, true);
-		consumer.accept(start);
-		for (var i = 0; i < this.values.size(); i++) {
-			final var v = this.matrix[i][start];
-			if ((v != -1) && (v != -2) && !this.visited.get(i)) {
-				this.idxDfs0(i, consumer);
-			}
-		}
+	/**
+	 * Returns the index of the given value. The value is looked up by identity first, so this is usually a
+	 * constant time operation. If no identical value is found, the first value that is equal to {@code t} is
+	 * used.
+	 *
+	 * @param t The value to search for.
+	 * @return The index of the value or -1, if the value isn't part of this graph.
+	 */
+	public int indexOf(final T t) {
+		final var idx = this.indices.get(t);
+		return idx != null ? idx : this.values.indexOf(t);
 	}
 
 	/**
-	 * Initializes a cache. This may provide faster lookup times.
+	 * Initializes a cache. This may provide faster lookup times. The cache stores the sorted neighbours of every
+	 * node, it is built in O(E) for sparse graphs and kept up to date when edges are added.
 	 */
 	public void initCache() {
-		this.map.clear();
-		for (final var a : this.values) {
-			for (final var b : this.values) {
-				final Map<T, Boolean> c;
-				if (this.map.containsKey(a)) {
-					c = this.map.get(a);
-				} else {
-					c = new HashMap<>();
-				}
-				c.put(b, this.isConnected(a, b));
-				this.map.put(a, c);
+		final var rows = new int[this.capacity][];
+		final var row = new ArrayList<Integer>();
+		for (var i = 0; i < rows.length; i++) {
+			row.clear();
+			if (i >= this.values.size()) {
+				rows[i] = new int[0];
+				continue;
 			}
+			this.adjacency.forEachOut(i, row::add);
+			rows[i] = row.stream().mapToInt(Integer::intValue).toArray();
+		}
+		this.neighbours = rows;
+	}
+
+	private void cacheEdge(final int a, final int b) {
+		final var rows = this.neighbours;
+		if ((rows == null) || (a == b)) {
+			return;
+		}
+		final var row = rows[a];
+		final var pos = Arrays.binarySearch(row, b);
+		if (pos < 0) {
+			final var insertAt = -pos - 1;
+			final var newRow = new int[row.length + 1];
+			System.arraycopy(row, 0, newRow, 0, insertAt);
+			newRow[insertAt] = b;
+			System.arraycopy(row, insertAt, newRow, insertAt + 1, row.length - insertAt);
+			rows[a] = newRow;
 		}
-		this.cached = true;
 	}
 
 	/**
@@ -409,9 +569,9 @@ public class Graph<T> implements Consumer<T> {
 	 * @return True if the graph is connected.
 	 */
 	public boolean isConnected() {
-		this.cnt = 0;
-		this.dfs(0, this);
-		return this.cnt == this.values.size();
+		this.checkIndex(0);
+		return this.newTraversal().dfs(0, i -> {
+		}) == this.values.size();
 	}
 
 	/**
@@ -425,14 +585,27 @@ public class Graph<T> implements Consumer<T> {
 		if (c == a) {
 			return false;
 		}
-		if (this.cached) {
-			return this.map.get(c).get(a);
-		} else {
-			final var i1 = this.values.indexOf(c);
-			final var i2 = this.values.indexOf(a);
-			this.checkIndex(i1);
-			this.checkIndex(i2);
-			return (this.matrix[i1][i2] != -1) && (this.matrix[i1][i2] != -2);
+		return this.isConnectedAt(this.indexOf(c), this.indexOf(a));
+	}
+
+	/**
+	 * Returns whether the nodes at the given indices are connected
+	 *
+	 * @param i1 Index of the first node
+	 * @param i2 Index of the second node
+	 * @return True if these are connected.
+	 */
+	public boolean isConnectedAt(final int i1, final int i2) {
+		this.checkIndex(i1);
+		this.checkIndex(i2);
+		if (i1 == i2) {
+			return false;
+		}
+		final var rows = this.neighbours;
+		if (rows != null) {
+			return Arrays.binarySearch(rows[i1], i2) >= 0;
 		}
+		final var weight = this.adjacency.get(i1, i2);
+		return (weight != -1) && (weight != -2);
 	}
 }
@@ -0,0 +1,148 @@
+package conquer.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Iterative depth-first and breadth-first searches over a {@link Graph}. Both searches follow the edges to a node,
+ * for undirected graphs this is the same as following the edges from a node. The visitors get the indices of the
+ * visited nodes.<br>
+ * A traversal keeps the visited nodes in a bitset, that is reused for the next search: Instead of clearing the
+ * bitset, every search increments a generation counter and a word of the bitset is only valid, if it was written
+ * in the current generation. A traversal may only be used by one thread at a time, but any number of traversals
+ * can run concurrently on a graph, that isn't modified.
+ */
+public final class GraphTraversal {
+	private final Adjacency adjacency;
+	private final int size;
+	private final long[] visited;
+	private final int[] generations;
+	private int generation;
+	private int[] stack;
+	private int[] cursors;
+
+	GraphTraversal(final Adjacency adjacency, final int size) {
+		this.adjacency = adjacency;
+		this.size = size;
+		this.visited = new long[(size + 63) >>> 6];
+		this.generations = new int[this.visited.length];
+	}
+
+	/**
+	 * Does a depth-first-search from the specified start index. The nodes are visited in the same order as a
+	 * recursive search, that visits the adjacent nodes in ascending order.
+	 *
+	 * @param start   Start index
+	 * @param visitor The visitor that will accept the index of every visited node.
+	 * @return The number of visited nodes.
+	 */
+	public int dfs(final int start, final IntConsumer visitor) {
+		return this.dfs(start, visitor, -1, -1);
+	}
+
+	// Depth-first-search, that ignores the edges between a and b
+	int dfs(final int start, final IntConsumer visitor, final int a, final int b) {
+		this.prepare(start, visitor);
+		if (this.stack == null) {
+			this.stack = new int[this.size];
+			this.cursors = new int[this.size];
+		}
+		var top = 0;
+		var count = 1;
+		this.mark(start);
+		visitor.accept(start);
+		this.stack[0] = start;
+		this.cursors[0] = 0;
+		while (top >= 0) {
+			final var node = this.stack[top];
+			var next = this.adjacency.nextIn(node, this.cursors[top]);
+			while ((next != -1) && (this.isVisited(next) || ((node == a) && (next == b))
+					|| ((node == b) && (next == a)))) {
+				next = this.adjacency.nextIn(node, next + 1);
+			}
+			if (next == -1) {
+				top--;
+				continue;
+			}
+			this.cursors[top] = next + 1;
+			this.mark(next);
+			visitor.accept(next);
+			count++;
+			top++;
+			this.stack[top] = next;
+			this.cursors[top] = 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Does a breadth-first-search from the specified start index. The adjacent nodes of a node are visited in
+	 * ascending order.
+	 *
+	 * @param start   Start index
+	 * @param visitor The visitor that will accept the index of every visited node.
+	 * @return The number of visited nodes.
+	 */
+	public int bfs(final int start, final IntConsumer visitor) {
+		this.prepare(start, visitor);
+		if (this.stack == null) {
+			this.stack = new int[this.size];
+			this.cursors = new int[this.size];
+		}
+		final var queue = this.stack;
+		var head = 0;
+		var tail = 0;
+		this.mark(start);
+		visitor.accept(start);
+		queue[tail++] = start;
+		while (head < tail) {
+			final var node = queue[head++];
+			for (var next = this.adjacency.nextIn(node, 0); next != -1; next = this.adjacency.nextIn(node,
+					next + 1)) {
+				if (!this.isVisited(next)) {
+					this.mark(next);
+					visitor.accept(next);
+					queue[tail++] = next;
+				}
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Returns whether the node with the given index was visited by the last search.
+	 *
+	 * @param idx The index of the node.
+	 * @return True if the node was visited.
+	 */
+	public boolean isVisited(final int idx) {
+		if ((idx < 0) || (idx >= this.size)) {
+			throw new IllegalArgumentException("index out of bounds: " + idx);
+		}
+		final var word = idx >>> 6;
+		return (this.generations[word] == this.generation) && ((this.visited[word] & (1L << idx)) != 0);
+	}
+
+	private void prepare(final int start, final IntConsumer visitor) {
+		if ((start < 0) || (start >= this.size)) {
+			throw new IllegalArgumentException("index out of bounds: " + start);
+		} else if (visitor == null) {
+			throw new IllegalArgumentException("visitor==null");
+		}
+		this.generation++;
+		if (this.generation == 0) {
+			// Overflow, every old generation could be valid again
+			Arrays.fill(this.generations, 0);
+			this.generation = 1;
+		}
+	}
+
+	private void mark(final int idx) {
+		final var word = idx >>> 6;
+		if (this.generations[word] != this.generation) {
+			this.generations[word] = this.generation;
+			this.visited[word] = 0;
+		}
+		this.visited[word] |= 1L << idx;
+	}
+}
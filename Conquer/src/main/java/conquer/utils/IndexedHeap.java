@@ -0,0 +1,212 @@
+package conquer.utils;
+
+import java.util.Arrays;
+
+/**
+ * A binary max-heap of the integers {@code 0..capacity-1}, usually the indices of the nodes of a {@link Graph}, each
+ * with a priority. Every index is contained at most once, and the position of every index is stored, so changing
+ * the priority of an index or removing it costs O(log n) instead of sorting everything again. Indices with the same
+ * priority are returned in ascending order.
+ */
+public final class IndexedHeap {
+	private final int[] heap;
+	// The position of every index in the heap or -1
+	private final int[] positions;
+	private final double[] priorities;
+	private int size;
+
+	/**
+	 * Creates an empty heap.
+	 *
+	 * @param capacity The number of indices. May not be negative.
+	 */
+	public IndexedHeap(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity < 0: " + capacity);
+		}
+		this.heap = new int[capacity];
+		this.positions = new int[capacity];
+		Arrays.fill(this.positions, -1);
+		this.priorities = new double[capacity];
+	}
+
+	/**
+	 * Returns the number of indices, that can be stored.
+	 *
+	 * @return The capacity.
+	 */
+	public int capacity() {
+		return this.positions.length;
+	}
+
+	/**
+	 * Returns the number of indices in the heap.
+	 *
+	 * @return The size.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns whether the heap is empty.
+	 *
+	 * @return True if the heap is empty.
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns whether an index is in the heap.
+	 *
+	 * @param idx The index.
+	 * @return True if the index is in the heap.
+	 */
+	public boolean contains(final int idx) {
+		this.checkIndex(idx);
+		return this.positions[idx] != -1;
+	}
+
+	/**
+	 * Returns the priority of an index in the heap.
+	 *
+	 * @param idx The index, it has to be in the heap.
+	 * @return The priority.
+	 */
+	public double getPriority(final int idx) {
+		if (!this.contains(idx)) {
+			throw new IllegalArgumentException("Not in the heap: " + idx);
+		}
+		return this.priorities[idx];
+	}
+
+	/**
+	 * Adds an index or changes its priority, if it is already in the heap.
+	 *
+	 * @param idx      The index.
+	 * @param priority The priority. May not be NaN.
+	 */
+	public void set(final int idx, final double priority) {
+		this.checkIndex(idx);
+		if (Double.isNaN(priority)) {
+			throw new IllegalArgumentException("priority is NaN");
+		}
+		this.priorities[idx] = priority;
+		var position = this.positions[idx];
+		if (position == -1) {
+			position = this.size++;
+			this.heap[position] = idx;
+			this.positions[idx] = position;
+		}
+		this.siftDown(this.siftUp(position));
+	}
+
+	/**
+	 * Returns the index with the highest priority without removing it.
+	 *
+	 * @return The index.
+	 */
+	public int peek() {
+		if (this.size == 0) {
+			throw new IllegalStateException("Empty heap");
+		}
+		return this.heap[0];
+	}
+
+	/**
+	 * Removes the index with the highest priority.
+	 *
+	 * @return The index.
+	 */
+	public int poll() {
+		final var ret = this.peek();
+		this.remove(ret);
+		return ret;
+	}
+
+	/**
+	 * Removes an index, if it is in the heap.
+	 *
+	 * @param idx The index.
+	 * @return True if the index was in the heap.
+	 */
+	public boolean remove(final int idx) {
+		this.checkIndex(idx);
+		final var position = this.positions[idx];
+		if (position == -1) {
+			return false;
+		}
+		this.size--;
+		this.positions[idx] = -1;
+		if (position != this.size) {
+			final var last = this.heap[this.size];
+			this.heap[position] = last;
+			this.positions[last] = position;
+			this.siftDown(this.siftUp(position));
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all indices.
+	 */
+	public void clear() {
+		for (var i = 0; i < this.size; i++) {
+			this.positions[this.heap[i]] = -1;
+		}
+		this.size = 0;
+	}
+
+	// True if a should be closer to the root than b
+	private boolean before(final int a, final int b) {
+		final var cmp = Double.compare(this.priorities[a], this.priorities[b]);
+		return (cmp > 0) || ((cmp == 0) && (a < b));
+	}
+
+	private int siftUp(final int start) {
+		var position = start;
+		final var idx = this.heap[position];
+		while (position > 0) {
+			final var parent = (position - 1) >>> 1;
+			if (!this.before(idx, this.heap[parent])) {
+				break;
+			}
+			this.move(this.heap[parent], position);
+			position = parent;
+		}
+		this.move(idx, position);
+		return position;
+	}
+
+	private void siftDown(final int start) {
+		var position = start;
+		final var idx = this.heap[position];
+		while (true) {
+			var child = (2 * position) + 1;
+			if (child >= this.size) {
+				break;
+			}
+			if (((child + 1) < this.size) && this.before(this.heap[child + 1], this.heap[child])) {
+				child++;
+			}
+			if (!this.before(this.heap[child], idx)) {
+				break;
+			}
+			this.move(this.heap[child], position);
+			position = child;
+		}
+		this.move(idx, position);
+	}
+
+	private void move(final int idx, final int position) {
+		this.heap[position] = idx;
+		this.positions[idx] = position;
+	}
+
+	private void checkIndex(final int idx) {
+		if ((idx < 0) || (idx >= this.positions.length)) {
+			throw new IllegalArgumentException("index out of bounds: " + idx);
+		}
+	}
+}
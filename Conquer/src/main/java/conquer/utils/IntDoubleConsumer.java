@@ -0,0 +1,15 @@
+package conquer.utils;
+
+/**
+ * Accepts an index and a weight, e.g. a neighbour of a node in a {@link Graph} and the weight of the edge to it.
+ */
+@FunctionalInterface
+public interface IntDoubleConsumer {
+	/**
+	 * Performs this operation on the given arguments.
+	 *
+	 * @param index  The index.
+	 * @param weight The weight.
+	 */
+	void accept(int index, double weight);
+}
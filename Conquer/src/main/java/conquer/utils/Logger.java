@@ -9,6 +9,7 @@ import java.util.Date;
 public final class Logger {
 	private final String file;
 	private BufferedWriter bw;
+	private volatile boolean enabled = true;
 
 	public Logger(final String string) {
 		this.file = string;
@@ -19,11 +20,24 @@ public final class Logger {
 		}
 	}
 
-	public void close() throws IOException {
+	/**
+	 * Enables or disables this logger. A disabled logger drops every message, e.g. when running thousands of
+	 * games without a GUI.
+	 *
+	 * @param enabled {@code false} to drop all messages.
+	 */
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public synchronized void close() throws IOException {
 		this.bw.close();
 	}
 
-	public void error(final String message) {
+	public synchronized void error(final String message) {
+		if (!this.enabled) {
+			return;
+		}
 		try {
 			this.bw.write("[ERROR date= " + new Date() + "]: " + message + "\n");
 			this.bw.flush();
@@ -32,7 +46,7 @@ public final class Logger {
 		}
 	}
 
-	public void reopen() {
+	public synchronized void reopen() {
 		try {
 			this.close();
 		} catch (final IOException e1) {
@@ -45,7 +59,10 @@ public final class Logger {
 		}
 	}
 
-	public void exception(final Throwable throwable) {
+	public synchronized void exception(final Throwable throwable) {
+		if (!this.enabled) {
+			return;
+		}
 		try {
 			this.bw.write("[EXCEPTION date= " + new Date() + "]\n");
 			this.bw.write(throwable.getClass().getName() + ": " + throwable.getMessage() + "\n");
@@ -59,7 +76,10 @@ public final class Logger {
 		}
 	}
 
-	public void message(final String message) {
+	public synchronized void message(final String message) {
+		if (!this.enabled) {
+			return;
+		}
 		try {
 			this.bw.write("[MESSAGE date= " + new Date() + "]: " + message + "\n");
 			this.bw.flush();
@@ -68,7 +88,10 @@ public final class Logger {
 		}
 	}
 
-	public void warning(final String message) {
+	public synchronized void warning(final String message) {
+		if (!this.enabled) {
+			return;
+		}
 		try {
 			this.bw.write("[WARNING date= " + new Date() + "]: " + message + "\n");
 			this.bw.flush();
@@ -0,0 +1,82 @@
+package conquer.utils;
+
+/**
+ * Iterates over the neighbours of a node of a {@link Graph} without allocating. A neighbour is a node, that can be
+ * reached with one edge. The neighbours are returned in ascending order. A cursor can be reused for any number of
+ * nodes, but only by one thread at a time:
+ *
+ * <pre>
+ * final var cursor = graph.newNeighbourCursor();
+ * cursor.reset(node);
+ * while (cursor.next()) {
+ * 	use(cursor.index(), cursor.weight());
+ * }
+ * </pre>
+ */
+public final class NeighbourCursor {
+	private final Graph<?> graph;
+	private int node = -1;
+	private int current = -1;
+
+	NeighbourCursor(final Graph<?> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Starts iterating over the neighbours of a node.
+	 *
+	 * @param idx The index of the node.
+	 * @return This cursor.
+	 * @throws IllegalArgumentException If the index is smaller than 0 or bigger than the size of the graph.
+	 */
+	public NeighbourCursor reset(final int idx) {
+		if ((idx < 0) || (idx >= this.graph.size())) {
+			throw new IllegalArgumentException("index out of bounds: " + idx);
+		}
+		this.node = idx;
+		this.current = -1;
+		return this;
+	}
+
+	/**
+	 * Moves to the next neighbour.
+	 *
+	 * @return False if there are no more neighbours.
+	 */
+	public boolean next() {
+		if (this.node == -1) {
+			throw new IllegalStateException("Cursor wasn't reset");
+		} else if (this.current == Integer.MIN_VALUE) {
+			return false;
+		}
+		final var next = this.graph.getAdjacency().nextOut(this.node, this.current + 1);
+		this.current = next == -1 ? Integer.MIN_VALUE : next;
+		return next != -1;
+	}
+
+	/**
+	 * Returns the index of the current neighbour.
+	 *
+	 * @return The index.
+	 */
+	public int index() {
+		this.checkPosition();
+		return this.current;
+	}
+
+	/**
+	 * Returns the weight of the edge to the current neighbour.
+	 *
+	 * @return The weight.
+	 */
+	public double weight() {
+		this.checkPosition();
+		return this.graph.getAdjacency().get(this.node, this.current);
+	}
+
+	private void checkPosition() {
+		if (this.current < 0) {
+			throw new IllegalStateException("No current neighbour");
+		}
+	}
+}
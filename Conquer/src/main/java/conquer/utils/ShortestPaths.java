@@ -0,0 +1,270 @@
+package conquer.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * The cheapest routes between the nodes of a {@link Graph}. The cost of an edge is derived from its weight, the
+ * cost of a route is the sum of the costs of its edges.<br>
+ * For every source node, Dijkstra's algorithm computes one row of costs and next hops, so every query is an array
+ * lookup. Rows are computed when they are needed or all at once in parallel with {@link #computeAll()}. If an
+ * edge of the graph is added or changes its weight, all rows are discarded and computed again on demand. The
+ * queries may be used by several threads at the same time.
+ *
+ * @param <T> The type of the values of the graph.
+ */
+public final class ShortestPaths<T> {
+	private final Graph<T> graph;
+	private final DoubleUnaryOperator edgeCost;
+	private volatile Row[] rows;
+	private volatile long version;
+
+	/**
+	 * Creates an oracle that uses the weights of the edges as costs.
+	 *
+	 * @param graph The graph. May not be {@code null}.
+	 */
+	public ShortestPaths(final Graph<T> graph) {
+		this(graph, DoubleUnaryOperator.identity());
+	}
+
+	/**
+	 * Creates an oracle with a custom cost for every edge.
+	 *
+	 * @param graph    The graph. May not be {@code null}.
+	 * @param edgeCost Maps the weight of an edge to its cost. The costs have to be positive. May not be
+	 *                 {@code null}.
+	 */
+	public ShortestPaths(final Graph<T> graph, final DoubleUnaryOperator edgeCost) {
+		if (graph == null) {
+			throw new IllegalArgumentException("graph==null");
+		} else if (edgeCost == null) {
+			throw new IllegalArgumentException("edgeCost==null");
+		}
+		this.graph = graph;
+		this.edgeCost = edgeCost;
+		this.version = graph.getEdgeVersion();
+		this.rows = new Row[graph.size()];
+	}
+
+	/**
+	 * Computes the routes from every node in parallel.
+	 */
+	public void computeAll() {
+		final var current = this.currentRows();
+		IntStream.range(0, current.length).parallel().forEach(i -> this.row(current, i));
+	}
+
+	/**
+	 * Returns the cost of the cheapest route.
+	 *
+	 * @param from The index of the start.
+	 * @param to   The index of the destination.
+	 * @return The cost, 0 if {@code from==to} and {@link Double#POSITIVE_INFINITY} if there is no route.
+	 */
+	public double getCost(final int from, final int to) {
+		final var current = this.currentRows();
+		this.checkIndex(current, to);
+		return this.row(current, from).costs[to];
+	}
+
+	/**
+	 * Returns the first node on the cheapest route.
+	 *
+	 * @param from The index of the start.
+	 * @param to   The index of the destination.
+	 * @return The index of the node after {@code from} on the cheapest route. -1 if {@code from==to} or if there is
+	 * no route.
+	 */
+	public int getNextHop(final int from, final int to) {
+		final var current = this.currentRows();
+		this.checkIndex(current, to);
+		return this.row(current, from).nextHops[to];
+	}
+
+	/**
+	 * Returns the cheapest route.
+	 *
+	 * @param from The index of the start.
+	 * @param to   The index of the destination.
+	 * @return The indices of all nodes on the route, including {@code from} and {@code to}. An empty list if there
+	 * is no route.
+	 */
+	public List<Integer> getPath(final int from, final int to) {
+		final var current = this.currentRows();
+		this.checkIndex(current, to);
+		final var ret = new ArrayList<Integer>();
+		if (Double.isInfinite(this.row(current, from).costs[to])) {
+			return ret;
+		}
+		ret.add(from);
+		for (var node = from; node != to; ) {
+			node = this.row(current, node).nextHops[to];
+			ret.add(node);
+			if (ret.size() > current.length) {
+				throw new InternalError("Cycle in the next hops, are there edges without costs?");
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the cost of the cheapest route between two values of the graph.
+	 *
+	 * @param from The start.
+	 * @param to   The destination.
+	 * @return The cost, 0 if {@code from==to} and {@link Double#POSITIVE_INFINITY} if there is no route.
+	 */
+	public double getCost(final T from, final T to) {
+		return this.getCost(this.graph.indexOf(from), this.graph.indexOf(to));
+	}
+
+	/**
+	 * Returns the first value on the cheapest route between two values of the graph.
+	 *
+	 * @param from The start.
+	 * @param to   The destination.
+	 * @return The value after {@code from} on the cheapest route or {@code null}, if {@code from==to} or if there
+	 * is no route.
+	 */
+	public T getNextHop(final T from, final T to) {
+		final var hop = this.getNextHop(this.graph.indexOf(from), this.graph.indexOf(to));
+		return hop == -1 ? null : this.graph.getValue(hop);
+	}
+
+	private Row[] currentRows() {
+		final var edgeVersion = this.graph.getEdgeVersion();
+		if ((edgeVersion != this.version) || (this.rows.length != this.graph.size())) {
+			synchronized (this) {
+				if ((edgeVersion != this.version) || (this.rows.length != this.graph.size())) {
+					this.rows = new Row[this.graph.size()];
+					this.version = edgeVersion;
+				}
+			}
+		}
+		return this.rows;
+	}
+
+	private void checkIndex(final Row[] current, final int idx) {
+		if ((idx < 0) || (idx >= current.length)) {
+			throw new IllegalArgumentException("index out of bounds: " + idx);
+		}
+	}
+
+	private Row row(final Row[] current, final int source) {
+		this.checkIndex(current, source);
+		var ret = current[source];
+		if (ret == null) {
+			// Two threads may compute the same row, both results are equal.
+			ret = this.dijkstra(source, current.length);
+			current[source] = ret;
+		}
+		return ret;
+	}
+
+	private Row dijkstra(final int source, final int size) {
+		final var adjacency = this.graph.getAdjacency();
+		final var costs = new double[size];
+		final var nextHops = new int[size];
+		final var done = new boolean[size];
+		Arrays.fill(costs, Double.POSITIVE_INFINITY);
+		Arrays.fill(nextHops, -1);
+		costs[source] = 0;
+		final var heap = new Heap(size);
+		heap.push(0, source);
+		while (!heap.isEmpty()) {
+			final var node = heap.pop();
+			if (done[node]) {
+				continue;
+			}
+			done[node] = true;
+			adjacency.forEachOut(node, next -> {
+				if (done[next]) {
+					return;
+				}
+				final var cost = costs[node] + this.edgeCost.applyAsDouble(adjacency.get(node, next));
+				if (cost < costs[next]) {
+					costs[next] = cost;
+					nextHops[next] = node == source ? next : nextHops[node];
+					heap.push(cost, next);
+				}
+			});
+		}
+		return new Row(costs, nextHops);
+	}
+
+	// The fields are final, so a row is safely published to other threads.
+	private static final class Row {
+		private final double[] costs;
+		private final int[] nextHops;
+
+		private Row(final double[] costs, final int[] nextHops) {
+			this.costs = costs;
+			this.nextHops = nextHops;
+		}
+	}
+
+	// Binary min heap of (cost, node) pairs, a node may be contained several times.
+	private static final class Heap {
+		private double[] keys;
+		private int[] nodes;
+		private int size;
+
+		private Heap(final int capacity) {
+			this.keys = new double[Math.max(capacity, 1)];
+			this.nodes = new int[this.keys.length];
+		}
+
+		private boolean isEmpty() {
+			return this.size == 0;
+		}
+
+		private void push(final double key, final int node) {
+			if (this.size == this.keys.length) {
+				this.keys = Arrays.copyOf(this.keys, this.size * 2);
+				this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+			}
+			var i = this.size++;
+			while (i > 0) {
+				final var parent = (i - 1) >>> 1;
+				if (this.keys[parent] <= key) {
+					break;
+				}
+				this.keys[i] = this.keys[parent];
+				this.nodes[i] = this.nodes[parent];
+				i = parent;
+			}
+			this.keys[i] = key;
+			this.nodes[i] = node;
+		}
+
+		private int pop() {
+			final var ret = this.nodes[0];
+			this.size--;
+			final var key = this.keys[this.size];
+			final var node = this.nodes[this.size];
+			var i = 0;
+			while (true) {
+				var child = (2 * i) + 1;
+				if (child >= this.size) {
+					break;
+				}
+				if (((child + 1) < this.size) && (this.keys[child + 1] < this.keys[child])) {
+					child++;
+				}
+				if (key <= this.keys[child]) {
+					break;
+				}
+				this.keys[i] = this.keys[child];
+				this.nodes[i] = this.nodes[child];
+				i = child;
+			}
+			this.keys[i] = key;
+			this.nodes[i] = node;
+			return ret;
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package conquer.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Stores the edges in compressed sparse rows. The edges from a node are stored in one contiguous, sorted range, so
+ * iterating over the neighbours of a node costs O(degree) and the memory grows with the number of edges. A second
+ * set of ranges, that points into the first one, holds the edges to a node.<br>
+ * Changing the weight of an existing edge is done in place. New edges are collected and merged into the rows as
+ * soon as the edges are read the next time.<br>
+ * The rows are an immutable snapshot, that a merge replaces as a whole. Every read uses one snapshot, so several
+ * threads can read at the same time, even while one of them merges the new edges. Adding edges and merging them
+ * is guarded by the lock of this object.
+ */
+final class SparseAdjacency implements Adjacency {
+	private static final int[] NO_INTS = new int[0];
+	private static final double[] NO_DOUBLES = new double[0];
+	private final int number;
+	private final double[] diagonal;
+	private volatile Rows rows;
+	// Edges that were added since the last merge
+	private int[] pendingFrom = new int[16];
+	private int[] pendingTo = new int[16];
+	private double[] pendingWeights = new double[16];
+	// Written after the rows, a reader that sees 0 sees the merged rows, too.
+	private volatile int numPending;
+
+	SparseAdjacency(final int number) {
+		this.number = number;
+		this.diagonal = new double[number];
+		Arrays.fill(this.diagonal, -2);
+		this.rows = new Rows(new int[number + 1], SparseAdjacency.NO_INTS, SparseAdjacency.NO_DOUBLES,
+				new int[number + 1], SparseAdjacency.NO_INTS, SparseAdjacency.NO_INTS);
+	}
+
+	@Override
+	public synchronized Adjacency copy() {
+		final var rows = this.merge();
+		final var ret = new SparseAdjacency(this.number);
+		System.arraycopy(this.diagonal, 0, ret.diagonal, 0, this.number);
+		// Only the weights are changed in place, the other arrays are replaced by a merge.
+		ret.rows = new Rows(rows.outStart, rows.outTargets, rows.weights.clone(), rows.inStart, rows.inSources,
+				rows.inEdges);
+		return ret;
+	}
+
+	@Override
+	public double get(final int from, final int to) {
+		if (from == to) {
+			return this.diagonal[from];
+		}
+		final var rows = this.merge();
+		final var idx = rows.find(from, to);
+		return idx < 0 ? -1 : rows.weights[idx];
+	}
+
+	@Override
+	public synchronized void set(final int from, final int to, final double weight) {
+		if (from == to) {
+			this.diagonal[from] = weight;
+			return;
+		}
+		if (this.numPending == 0) {
+			final var rows = this.rows;
+			final var idx = rows.find(from, to);
+			if (idx >= 0) {
+				rows.weights[idx] = weight;
+				return;
+			} else if (weight == -1) {
+				// Removing a missing edge
+				return;
+			}
+		}
+		if (this.numPending == this.pendingFrom.length) {
+			final var newLength = this.pendingFrom.length * 2;
+			this.pendingFrom = Arrays.copyOf(this.pendingFrom, newLength);
+			this.pendingTo = Arrays.copyOf(this.pendingTo, newLength);
+			this.pendingWeights = Arrays.copyOf(this.pendingWeights, newLength);
+		}
+		this.pendingFrom[this.numPending] = from;
+		this.pendingTo[this.numPending] = to;
+		this.pendingWeights[this.numPending] = weight;
+		this.numPending++;
+	}
+
+	@Override
+	public void forEachOut(final int from, final IntConsumer consumer) {
+		final var rows = this.merge();
+		final var end = rows.outStart[from + 1];
+		for (var i = rows.outStart[from]; i < end; i++) {
+			if (rows.weights[i] != -1) {
+				consumer.accept(rows.outTargets[i]);
+			}
+		}
+	}
+
+	@Override
+	public void forEachIn(final int to, final IntConsumer consumer) {
+		final var rows = this.merge();
+		final var end = rows.inStart[to + 1];
+		for (var i = rows.inStart[to]; i < end; i++) {
+			if (rows.weights[rows.inEdges[i]] != -1) {
+				consumer.accept(rows.inSources[i]);
+			}
+		}
+	}
+
+	@Override
+	public int nextOut(final int from, final int start) {
+		final var rows = this.merge();
+		final var end = rows.outStart[from + 1];
+		final var idx = Arrays.binarySearch(rows.outTargets, rows.outStart[from], end, start);
+		for (var i = idx < 0 ? -idx - 1 : idx; i < end; i++) {
+			if (rows.weights[i] != -1) {
+				return rows.outTargets[i];
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int nextIn(final int to, final int from) {
+		final var rows = this.merge();
+		final var end = rows.inStart[to + 1];
+		final var idx = Arrays.binarySearch(rows.inSources, rows.inStart[to], end, from);
+		for (var i = idx < 0 ? -idx - 1 : idx; i < end; i++) {
+			if (rows.weights[rows.inEdges[i]] != -1) {
+				return rows.inSources[i];
+			}
+		}
+		return -1;
+	}
+
+	// Returns the rows with all edges, that were added before.
+	private Rows merge() {
+		if (this.numPending != 0) {
+			this.rebuild();
+		}
+		return this.rows;
+	}
+
+	private synchronized void rebuild() {
+		if (this.numPending == 0) {
+			return;
+		}
+		final var rows = this.rows;
+		final var numPending = this.numPending;
+		// Every row gets the old edges first and then the new ones in the order they were added, so sorting the
+		// entries by the destination and the position keeps the last weight that was set for an edge.
+		final var oldEdges = rows.outTargets.length;
+		final var total = oldEdges + numPending;
+		final var rowStart = new int[this.number + 1];
+		for (var i = 0; i < this.number; i++) {
+			rowStart[i + 1] = rows.outStart[i + 1] - rows.outStart[i];
+		}
+		for (var i = 0; i < numPending; i++) {
+			rowStart[this.pendingFrom[i] + 1]++;
+		}
+		for (var i = 0; i < this.number; i++) {
+			rowStart[i + 1] += rowStart[i];
+		}
+		final var fill = Arrays.copyOf(rowStart, this.number);
+		final var keys = new long[total];
+		for (var i = 0; i < this.number; i++) {
+			for (var j = rows.outStart[i]; j < rows.outStart[i + 1]; j++) {
+				keys[fill[i]++] = ((long) rows.outTargets[j] << 32) | j;
+			}
+		}
+		for (var i = 0; i < numPending; i++) {
+			keys[fill[this.pendingFrom[i]]++] = ((long) this.pendingTo[i] << 32) | (oldEdges + i);
+		}
+		final var newStart = new int[this.number + 1];
+		final var newTargets = new int[total];
+		final var newWeights = new double[total];
+		var size = 0;
+		for (var i = 0; i < this.number; i++) {
+			Arrays.sort(keys, rowStart[i], rowStart[i + 1]);
+			for (var j = rowStart[i]; j < rowStart[i + 1]; j++) {
+				final var target = (int) (keys[j] >>> 32);
+				if ((j + 1 < rowStart[i + 1]) && ((int) (keys[j + 1] >>> 32) == target)) {
+					// Overwritten by a later entry
+					continue;
+				}
+				final var position = (int) keys[j];
+				final var weight = position < oldEdges ? rows.weights[position]
+						: this.pendingWeights[position - oldEdges];
+				if (weight == -1) {
+					continue;
+				}
+				newTargets[size] = target;
+				newWeights[size] = weight;
+				size++;
+			}
+			newStart[i + 1] = size;
+		}
+		this.rows = SparseAdjacency.withIncoming(this.number, newStart, Arrays.copyOf(newTargets, size),
+				Arrays.copyOf(newWeights, size));
+		this.numPending = 0;
+	}
+
+	private static Rows withIncoming(final int number, final int[] outStart, final int[] outTargets,
+									 final double[] weights) {
+		final var size = outTargets.length;
+		final var newStart = new int[number + 1];
+		for (var i = 0; i < size; i++) {
+			newStart[outTargets[i] + 1]++;
+		}
+		for (var i = 0; i < number; i++) {
+			newStart[i + 1] += newStart[i];
+		}
+		final var fill = Arrays.copyOf(newStart, number);
+		final var sources = new int[size];
+		final var edges = new int[size];
+		// The rows are visited in ascending order, so the sources of every node are sorted, too.
+		for (var i = 0; i < number; i++) {
+			for (var j = outStart[i]; j < outStart[i + 1]; j++) {
+				final var slot = fill[outTargets[j]]++;
+				sources[slot] = i;
+				edges[slot] = j;
+			}
+		}
+		return new Rows(outStart, outTargets, weights, newStart, sources, edges);
+	}
+
+	// The fields are final, so the rows are safely published to other threads. Only the weights of existing edges
+	// are changed in place.
+	private static final class Rows {
+		// Edges from a node: outTargets[outStart[i]..outStart[i + 1]] in ascending order
+		private final int[] outStart;
+		private final int[] outTargets;
+		private final double[] weights;
+		// Edges to a node: Indices into outTargets and weights, ordered by the source node
+		private final int[] inStart;
+		private final int[] inSources;
+		private final int[] inEdges;
+
+		private Rows(final int[] outStart, final int[] outTargets, final double[] weights, final int[] inStart,
+					 final int[] inSources, final int[] inEdges) {
+			this.outStart = outStart;
+			this.outTargets = outTargets;
+			this.weights = weights;
+			this.inStart = inStart;
+			this.inSources = inSources;
+			this.inEdges = inEdges;
+		}
+
+		private int find(final int from, final int to) {
+			final var idx = Arrays.binarySearch(this.outTargets, this.outStart[from], this.outStart[from + 1], to);
+			return idx < 0 ? -1 : idx;
+		}
+	}
+}
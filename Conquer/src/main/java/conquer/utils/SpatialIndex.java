@@ -0,0 +1,228 @@
+package conquer.utils;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A static k-d tree over points with integer coordinates, usually the positions of the cities of a {@link Graph}.
+ * Every point is identified by its index, the position in the arrays passed to the constructor. Building costs
+ * O(n log n), finding the nearest point O(log n) on average and finding the points in a circle or rectangle
+ * O(sqrt(n) + k) for k results, so no query has to look at every point. The tree is stored in three arrays, and
+ * the index can't be changed after it was built.
+ */
+public final class SpatialIndex {
+	// The points in tree order: The median of every range [lo, hi) is at (lo + hi) >>> 1, the points before it
+	// have a coordinate <= the median and the points after it a coordinate >= the median. The coordinate is x
+	// on even and y on odd depths.
+	private final int[] indices;
+	private final int[] xs;
+	private final int[] ys;
+
+	/**
+	 * Builds the index.
+	 *
+	 * @param xs The x-coordinates of the points. May not be {@code null}.
+	 * @param ys The y-coordinates of the points. May not be {@code null} and has to be as long as {@code xs}.
+	 */
+	public SpatialIndex(final int[] xs, final int[] ys) {
+		if (xs == null) {
+			throw new IllegalArgumentException("xs==null");
+		} else if (ys == null) {
+			throw new IllegalArgumentException("ys==null");
+		} else if (xs.length != ys.length) {
+			throw new IllegalArgumentException("xs.length != ys.length: " + xs.length + ", " + ys.length);
+		}
+		final var n = xs.length;
+		this.indices = new int[n];
+		this.xs = xs.clone();
+		this.ys = ys.clone();
+		for (var i = 0; i < n; i++) {
+			this.indices[i] = i;
+		}
+		this.build(0, n, 0);
+	}
+
+	private void build(final int lo, final int hi, final int depth) {
+		if ((hi - lo) <= 1) {
+			return;
+		}
+		final var mid = (lo + hi) >>> 1;
+		this.select(lo, hi, mid, (depth & 1) == 0 ? this.xs : this.ys);
+		this.build(lo, mid, depth + 1);
+		this.build(mid + 1, hi, depth + 1);
+	}
+
+	// Quickselect with a three-way partition, so many equal coordinates don't degrade it.
+	private void select(final int from, final int to, final int nth, final int[] keys) {
+		var lo = from;
+		var hi = to - 1;
+		while (lo < hi) {
+			final var pivot = keys[(lo + hi) >>> 1];
+			var lt = lo;
+			var gt = hi;
+			var i = lo;
+			while (i <= gt) {
+				if (keys[i] < pivot) {
+					this.swap(lt++, i++);
+				} else if (keys[i] > pivot) {
+					this.swap(i, gt--);
+				} else {
+					i++;
+				}
+			}
+			if (nth < lt) {
+				hi = lt - 1;
+			} else if (nth > gt) {
+				lo = gt + 1;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void swap(final int a, final int b) {
+		final var index = this.indices[a];
+		this.indices[a] = this.indices[b];
+		this.indices[b] = index;
+		final var x = this.xs[a];
+		this.xs[a] = this.xs[b];
+		this.xs[b] = x;
+		final var y = this.ys[a];
+		this.ys[a] = this.ys[b];
+		this.ys[b] = y;
+	}
+
+	/**
+	 * Returns the number of points.
+	 *
+	 * @return The number of points.
+	 */
+	public int size() {
+		return this.indices.length;
+	}
+
+	/**
+	 * Returns the point, that is nearest to a position. If several points have the same distance, the smallest
+	 * index is returned.
+	 *
+	 * @param x The x-coordinate of the position.
+	 * @param y The y-coordinate of the position.
+	 * @return The index of the point or -1, if the index is empty.
+	 */
+	public int nearest(final int x, final int y) {
+		if (this.indices.length == 0) {
+			return -1;
+		}
+		final var best = new double[]{Double.POSITIVE_INFINITY, -1};
+		this.nearest(0, this.indices.length, 0, x, y, best);
+		return (int) best[1];
+	}
+
+	// best[0] is the squared distance and best[1] the index of the best point so far.
+	private void nearest(final int lo, final int hi, final int depth, final int x, final int y,
+						 final double[] best) {
+		if (lo >= hi) {
+			return;
+		}
+		final var mid = (lo + hi) >>> 1;
+		final var distance = SpatialIndex.squaredDistance(this.xs[mid] - (long) x, this.ys[mid] - (long) y);
+		if ((distance < best[0]) || ((distance == best[0]) && (this.indices[mid] < best[1]))) {
+			best[0] = distance;
+			best[1] = this.indices[mid];
+		}
+		final long diff = (depth & 1) == 0 ? x - (long) this.xs[mid] : y - (long) this.ys[mid];
+		// Search the side of the position first, the other side only if it can contain a point, that is as near.
+		if (diff < 0) {
+			this.nearest(lo, mid, depth + 1, x, y, best);
+			if (((double) diff * diff) <= best[0]) {
+				this.nearest(mid + 1, hi, depth + 1, x, y, best);
+			}
+		} else {
+			this.nearest(mid + 1, hi, depth + 1, x, y, best);
+			if (((double) diff * diff) <= best[0]) {
+				this.nearest(lo, mid, depth + 1, x, y, best);
+			}
+		}
+	}
+
+	/**
+	 * Passes every point, whose distance to a position is at most {@code radius}, to a consumer. The order is
+	 * unspecified.
+	 *
+	 * @param x        The x-coordinate of the center.
+	 * @param y        The y-coordinate of the center.
+	 * @param radius   The radius. May not be negative.
+	 * @param consumer Receives the indices of the points. May not be {@code null}.
+	 */
+	public void withinRadius(final int x, final int y, final double radius, final IntConsumer consumer) {
+		if (!(radius >= 0)) {
+			throw new IllegalArgumentException("radius < 0: " + radius);
+		} else if (consumer == null) {
+			throw new IllegalArgumentException("consumer==null");
+		}
+		this.withinRadius(0, this.indices.length, 0, x, y, radius * radius, consumer);
+	}
+
+	private void withinRadius(final int lo, final int hi, final int depth, final int x, final int y,
+							  final double squaredRadius, final IntConsumer consumer) {
+		if (lo >= hi) {
+			return;
+		}
+		final var mid = (lo + hi) >>> 1;
+		if (SpatialIndex.squaredDistance(this.xs[mid] - (long) x, this.ys[mid] - (long) y) <= squaredRadius) {
+			consumer.accept(this.indices[mid]);
+		}
+		final long diff = (depth & 1) == 0 ? x - (long) this.xs[mid] : y - (long) this.ys[mid];
+		if ((diff <= 0) || (((double) diff * diff) <= squaredRadius)) {
+			this.withinRadius(lo, mid, depth + 1, x, y, squaredRadius, consumer);
+		}
+		if ((diff >= 0) || (((double) diff * diff) <= squaredRadius)) {
+			this.withinRadius(mid + 1, hi, depth + 1, x, y, squaredRadius, consumer);
+		}
+	}
+
+	/**
+	 * Passes every point in a rectangle, e.g. the visible part of a map, to a consumer. The bounds are inclusive
+	 * and the order is unspecified.
+	 *
+	 * @param minX     The smallest x-coordinate.
+	 * @param minY     The smallest y-coordinate.
+	 * @param maxX     The largest x-coordinate. May not be smaller than {@code minX}.
+	 * @param maxY     The largest y-coordinate. May not be smaller than {@code minY}.
+	 * @param consumer Receives the indices of the points. May not be {@code null}.
+	 */
+	public void inRectangle(final int minX, final int minY, final int maxX, final int maxY,
+							final IntConsumer consumer) {
+		if ((maxX < minX) || (maxY < minY)) {
+			throw new IllegalArgumentException("Empty rectangle: " + minX + ", " + minY + ", " + maxX + ", " + maxY);
+		} else if (consumer == null) {
+			throw new IllegalArgumentException("consumer==null");
+		}
+		this.inRectangle(0, this.indices.length, 0, minX, minY, maxX, maxY, consumer);
+	}
+
+	private void inRectangle(final int lo, final int hi, final int depth, final int minX, final int minY,
+							 final int maxX, final int maxY, final IntConsumer consumer) {
+		if (lo >= hi) {
+			return;
+		}
+		final var mid = (lo + hi) >>> 1;
+		final var x = this.xs[mid];
+		final var y = this.ys[mid];
+		if ((x >= minX) && (x <= maxX) && (y >= minY) && (y <= maxY)) {
+			consumer.accept(this.indices[mid]);
+		}
+		final var even = (depth & 1) == 0;
+		final var coordinate = even ? x : y;
+		if (coordinate >= (even ? minX : minY)) {
+			this.inRectangle(lo, mid, depth + 1, minX, minY, maxX, maxY, consumer);
+		}
+		if (coordinate <= (even ? maxX : maxY)) {
+			this.inRectangle(mid + 1, hi, depth + 1, minX, minY, maxX, maxY, consumer);
+		}
+	}
+
+	// Computed as double, as the square of the difference of two ints may overflow a long.
+	private static double squaredDistance(final long dx, final long dy) {
+		return ((double) dx * dx) + ((double) dy * dy);
+	}
+}
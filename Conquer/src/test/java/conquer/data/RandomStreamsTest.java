@@ -0,0 +1,78 @@
+package conquer.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+class RandomStreamsTest {
+
+	@Test
+	void testSameSeedSameStream() {
+		final var a = new RandomStreams(42).stream("events");
+		final var b = new RandomStreams(42).stream("events");
+		for (var i = 0; i < 100; i++) {
+			Assertions.assertEquals(a.nextLong(), b.nextLong());
+		}
+	}
+
+	@Test
+	void testDifferentNames() {
+		final var streams = new RandomStreams(42);
+		Assertions.assertNotEquals(streams.stream("events").nextLong(), streams.stream("cities").nextLong());
+		Assertions.assertNotEquals(streams.stream("strategy", 0).nextLong(), streams.stream("strategy", 1).nextLong());
+		Assertions.assertNotEquals(streams.stream("strategy").nextLong(), streams.stream("strategy", 0).nextLong());
+	}
+
+	@Test
+	void testDifferentSeeds() {
+		Assertions.assertNotEquals(new RandomStreams(1).stream("events").nextLong(),
+				new RandomStreams(2).stream("events").nextLong());
+	}
+
+	@Test
+	void testNullName() {
+		final var streams = new RandomStreams(0);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> streams.stream(null));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> streams.stream(null, 0));
+	}
+
+	@Test
+	void testShuffleIsPermutation() {
+		final var list = new ArrayList<>(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+		RandomStreams.shuffle(list, new SplittableRandom(3));
+		Assertions.assertEquals(10, list.size());
+		for (var i = 0; i < 10; i++) {
+			Assertions.assertTrue(list.contains(i));
+		}
+	}
+
+	@Test
+	void testGaussian() {
+		final var random = new SplittableRandom(5);
+		var sum = 0.0;
+		var sumOfSquares = 0.0;
+		final var n = 100_000;
+		for (var i = 0; i < n; i++) {
+			final var value = RandomStreams.nextGaussian(random);
+			sum += value;
+			sumOfSquares += value * value;
+		}
+		Assertions.assertEquals(0, sum / n, 0.02);
+		Assertions.assertEquals(1, sumOfSquares / n, 0.02);
+	}
+
+	@Test
+	void testUnseededInfo() {
+		// An implementation, that was written before the seed existed.
+		final var info = (ConquerInfo) Proxy.newProxyInstance(ConquerInfo.class.getClassLoader(),
+				new Class<?>[]{ConquerInfo.class}, (proxy, method, args) -> InvocationHandler.invokeDefault(proxy,
+						method, args));
+		Assertions.assertDoesNotThrow(() -> info.setSeed(42));
+		Assertions.assertThrows(UnsupportedOperationException.class, info::getSeed);
+	}
+}
@@ -116,6 +116,17 @@ class StreamUtilsTest {
 		Assertions.assertEquals(expected, actual);
 	}
 
+	@Test
+	void testCountAndSumCitiesAroundCity() {
+		final var middle = this.cityList.get(4);
+		Assertions.assertEquals(4, StreamUtils.countCitiesAroundCity(this.cities, middle, a -> true));
+		Assertions.assertEquals(2, StreamUtils.countCitiesAroundCity(this.cities, middle,
+				a -> a.getClan() == this.clans.get(0)));
+		Assertions.assertEquals(4, StreamUtils.sumCitiesAroundCity(this.cities, middle, a -> true, a -> 1));
+		Assertions.assertEquals(0, StreamUtils.countCitiesAroundCity(this.cities, this.cityList.get(0),
+				a -> a.getClan() != this.clans.get(0)));
+	}
+
 	static class DummyCity implements ICity {
 		private final IClan clan;
 		private final String name;
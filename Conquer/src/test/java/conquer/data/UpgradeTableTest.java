@@ -0,0 +1,145 @@
+package conquer.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.SplittableRandom;
+
+class UpgradeTableTest {
+
+	private static double cityCosts(final int level) {
+		var ret = Math.pow(level, Math.E);
+		if (level != 0) {
+			ret = Math.pow(ret, 1.0d / 8.0d) * Math.pow(level, 1.0d / 3.0d);
+		}
+		ret = Math.pow(ret, (Math.PI / Math.E) + Math.pow(level, 1.0d / 40.0d));
+		ret *= Math.toRadians(level);
+		ret *= Math.toDegrees(level / 360.0d) / Math.PI;
+		return ret;
+	}
+
+	private static double soldierCosts(final int level) {
+		if (level == 0) {
+			return 40;
+		}
+		return Math.sqrt(Math.pow(Math.log(level), 3)) * level * level * Math.sqrt(level) * Math.log(level);
+	}
+
+	// The number of levels, that are affordable when paying one level after another.
+	private static int sequential(final UpgradeTable table, final int from, double coins, final int limit) {
+		var cnt = 0;
+		while ((cnt < limit) && (table.costs(from + cnt) <= coins)) {
+			coins -= table.costs(from + cnt);
+			cnt++;
+		}
+		return cnt;
+	}
+
+	@Test
+	void testMatchesFormulas() {
+		for (var level = 0; level <= (UpgradeTable.MAX_LEVEL + 10); level++) {
+			Assertions.assertEquals(UpgradeTableTest.cityCosts(level), UpgradeTable.city().costs(level));
+			Assertions.assertEquals(UpgradeTableTest.soldierCosts(level),
+					UpgradeTable.soldiers(SoldierUpgrade.DEFENSE).costs(level));
+			Assertions.assertEquals(UpgradeTableTest.soldierCosts(level) * 10,
+					UpgradeTable.soldiers(SoldierUpgrade.BOTH).costs(level));
+			Assertions.assertEquals(Math.sqrt(Math.log(level) + (4 * level)) / 50,
+					UpgradeTable.soldiers(SoldierUpgrade.OFFENSE).power(level));
+			Assertions.assertEquals(Math.sqrt(Math.log(level) + (4 * level)) / 100,
+					UpgradeTable.soldiers(SoldierUpgrade.BOTH).power(level));
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> UpgradeTable.soldiers(null));
+	}
+
+	@Test
+	void testRangeCosts() {
+		final var table = UpgradeTable.city();
+		Assertions.assertEquals(0, table.costs(5, 5));
+		Assertions.assertEquals(table.costs(7), table.costs(7, 8));
+		var sum = 0.0;
+		for (var level = 10; level < 500; level++) {
+			sum += table.costs(level);
+		}
+		Assertions.assertEquals(sum, table.costs(10, 500), sum * 1e-12);
+		// Partially outside of the table
+		final var from = UpgradeTable.MAX_LEVEL - 2;
+		final var to = UpgradeTable.MAX_LEVEL + 5;
+		sum = 0.0;
+		for (var level = from; level < to; level++) {
+			sum += table.costs(level);
+		}
+		Assertions.assertEquals(sum, table.costs(from, to), sum * 1e-12);
+	}
+
+	@Test
+	void testAffordableLevels() {
+		final var random = new SplittableRandom(7);
+		final var tables = new UpgradeTable[]{UpgradeTable.city(), UpgradeTable.soldiers(SoldierUpgrade.BOTH),
+				UpgradeTable.soldiers(SoldierUpgrade.DEFENSE)};
+		for (final var table : tables) {
+			for (var i = 0; i < 1000; i++) {
+				final var from = random.nextInt(UpgradeTable.MAX_LEVEL);
+				final var limit = random.nextInt(UpgradeTable.MAX_LEVEL - from + 1);
+				final var coins = table.costs(from, from + random.nextInt(limit + 1)) + random.nextDouble(100);
+				Assertions.assertEquals(UpgradeTableTest.sequential(table, from, coins, limit),
+						table.affordableLevels(from, coins, limit));
+			}
+		}
+	}
+
+	@Test
+	void testAffordableLevelsAtBoundary() {
+		// The coins are exactly the costs of some levels, summed in both orders and one ulp around them.
+		final var table = UpgradeTable.city();
+		for (var from = 1; from < UpgradeTable.MAX_LEVEL; from += 37) {
+			for (var cnt = 1; (from + cnt) <= UpgradeTable.MAX_LEVEL; cnt += 53) {
+				final var limit = UpgradeTable.MAX_LEVEL - from;
+				final var sum = table.costs(from, from + cnt);
+				final var sequentialSum = table.costs(from) + table.costs(from + 1, from + cnt);
+				for (final var coins : new double[]{sum, Math.nextDown(sum), Math.nextUp(sum), sequentialSum,
+						Math.nextDown(sequentialSum), Math.nextUp(sequentialSum)}) {
+					Assertions.assertEquals(UpgradeTableTest.sequential(table, from, coins, limit),
+							table.affordableLevels(from, coins, limit), from + ", " + cnt + ", " + coins);
+				}
+			}
+		}
+	}
+
+	@Test
+	void testPay() {
+		final var table = UpgradeTable.soldiers(SoldierUpgrade.BOTH);
+		var coins = 1e12;
+		final var expected = table.pay(20, 300, coins);
+		for (var level = 20; level < 320; level++) {
+			coins -= table.costs(level);
+		}
+		Assertions.assertEquals(coins, expected);
+		Assertions.assertEquals(5.0, table.pay(20, 0, 5.0));
+	}
+
+	@Test
+	void testCustomCosts() {
+		// A clan with other costs has to get its own number of levels, not the one of the table.
+		final var clan = (IClan) Proxy.newProxyInstance(IClan.class.getClassLoader(), new Class<?>[]{IClan.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "upgradeCostsForDefense", "upgradeCostsForOffense", "upgradeCostsForOffenseAndDefense" -> 1.0;
+					default -> InvocationHandler.invokeDefault(proxy, method, args);
+				});
+		Assertions.assertEquals(10, clan.maxLevels(SoldierUpgrade.DEFENSE, 5, 10.5));
+		Assertions.assertEquals(10, clan.maxLevels(SoldierUpgrade.OFFENSE, 5, 10));
+		Assertions.assertEquals(2, clan.maxLevels(SoldierUpgrade.BOTH, 5, 25));
+	}
+
+	@Test
+	void testAffordableLevelsLimits() {
+		final var table = UpgradeTable.soldiers(SoldierUpgrade.DEFENSE);
+		Assertions.assertEquals(0, table.affordableLevels(3, 1e300, 0));
+		Assertions.assertEquals(0, table.affordableLevels(3, 0, 10));
+		Assertions.assertEquals(10, table.affordableLevels(3, 1e300, 10));
+		Assertions.assertEquals(UpgradeTable.MAX_LEVEL, table.affordableLevels(0, 1e300, UpgradeTable.MAX_LEVEL));
+		// Beyond the table
+		Assertions.assertEquals(20, table.affordableLevels(UpgradeTable.MAX_LEVEL - 5, 1e300, 20));
+	}
+}
@@ -0,0 +1,29 @@
+package conquer.data.builtin;
+
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProfile.Parameter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+class DefensiveStrategyImplTest {
+
+	@Test
+	void testModerateProbability() {
+		final var never = StrategyProfile.DEFAULT.with(Parameter.DEFENSIVE_MODERATE_PROBABILITY, 0);
+		final var always = StrategyProfile.DEFAULT.with(Parameter.DEFENSIVE_MODERATE_PROBABILITY, 1);
+		final var mostly = StrategyProfile.DEFAULT.with(Parameter.DEFENSIVE_MODERATE_PROBABILITY, 0.9);
+		final var random = new SplittableRandom(42);
+		var moderate = 0;
+		for (var i = 0; i < 1000; i++) {
+			Assertions.assertFalse(DefensiveStrategyImpl.playsModerately(random, never));
+			Assertions.assertTrue(DefensiveStrategyImpl.playsModerately(random, always));
+			if (DefensiveStrategyImpl.playsModerately(random, mostly)) {
+				moderate++;
+			}
+		}
+		// The parameter is the probability of the moderate play, not of the upgrades.
+		Assertions.assertTrue(moderate > 800, "moderate: " + moderate);
+	}
+}
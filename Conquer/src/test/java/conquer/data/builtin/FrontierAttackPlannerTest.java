@@ -0,0 +1,159 @@
+package conquer.data.builtin;
+
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.data.strategy.StrategyObject;
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProfile.Parameter;
+import conquer.utils.Graph;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+class FrontierAttackPlannerTest {
+	private static final StrategyProfile PLANNER = StrategyProfile.DEFAULT.with(Parameter.FRONTIER_PLANNER, 1);
+
+	private static <T> T proxy(final Class<T> type, final InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "equals" -> proxy == args[0];
+					case "hashCode" -> System.identityHashCode(proxy);
+					default -> handler.invoke(proxy, method, args);
+				}));
+	}
+
+	private static IClan clan(final int id) {
+		return FrontierAttackPlannerTest.proxy(IClan.class, (proxy, method, args) -> switch (method.getName()) {
+			case "getId" -> id;
+			case "getCoins" -> 0.0;
+			case "toString" -> "Clan " + id;
+			default -> null;
+		});
+	}
+
+	/**
+	 * A small game: Soldiers can be moved without costs, recruiting does nothing. An attack kills as many attackers
+	 * as the target has soldiers and defense, the survivors conquer the city. Every call is written to a log.
+	 */
+	private static final class World {
+		private final List<IClan> clans = List.of(FrontierAttackPlannerTest.clan(0), FrontierAttackPlannerTest.clan(1),
+				FrontierAttackPlannerTest.clan(2));
+		private final Graph<ICity> graph;
+		private final List<IClan> owners = new ArrayList<>();
+		private final List<Long> soldiers = new ArrayList<>();
+		private final List<Double> defenses = new ArrayList<>();
+		private final List<String> log = new ArrayList<>();
+		private final StrategyObject object;
+
+		// Every city is a triple of owner, soldiers and defense.
+		private World(final double[][] cities, final int[][] edges) {
+			this.graph = new Graph<>(cities.length);
+			for (var i = 0; i < cities.length; i++) {
+				final var index = i;
+				this.owners.add(this.clans.get((int) cities[i][0]));
+				this.soldiers.add((long) cities[i][1]);
+				this.defenses.add(cities[i][2]);
+				this.graph.add(FrontierAttackPlannerTest.proxy(ICity.class, (proxy, method, args) ->
+						switch (method.getName()) {
+							case "getClan" -> this.owners.get(index);
+							case "getClanId" -> this.owners.get(index).getId();
+							case "getNumberOfSoldiers" -> this.soldiers.get(index);
+							case "getDefense" -> this.defenses.get(index);
+							case "toString" -> "City " + index;
+							default -> null;
+						}));
+			}
+			for (final var edge : edges) {
+				this.graph.addUndirectedEdge(edge[0], edge[1], 1);
+			}
+			this.object = FrontierAttackPlannerTest.proxy(StrategyObject.class, (proxy, method, args) -> {
+				if (method.isDefault()) {
+					return InvocationHandler.invokeDefault(proxy, method, args);
+				}
+				return switch (method.getName()) {
+					case "getCities" -> this.graph;
+					case "getRelationship" -> 0.0;
+					case "maximumNumberToMove" -> args[2];
+					case "attack" -> {
+						this.attack((ICity) args[0], (ICity) args[1], (Boolean) args[2], (Long) args[3]);
+						yield null;
+					}
+					case "recruitSoldiers" -> {
+						this.log.add("recruit " + this.graph.indexOf((ICity) args[1]));
+						yield null;
+					}
+					default -> throw new UnsupportedOperationException(method.getName());
+				};
+			});
+		}
+
+		private void attack(final ICity src, final ICity dst, final boolean managed, final long num) {
+			final var source = this.graph.indexOf(src);
+			final var target = this.graph.indexOf(dst);
+			final var count = managed ? num : this.soldiers.get(source);
+			this.log.add("attack " + source + " " + target + " " + count);
+			this.soldiers.set(source, this.soldiers.get(source) - count);
+			final var survivors = count - this.soldiers.get(target) - (long) (double) this.defenses.get(target);
+			if (survivors > 0) {
+				this.owners.set(target, this.owners.get(source));
+				this.soldiers.set(target, survivors);
+			} else {
+				this.soldiers.set(target, Math.max(0, this.soldiers.get(target) - count));
+			}
+		}
+
+		private List<Integer> owners() {
+			return this.owners.stream().map(IClan::getId).toList();
+		}
+
+		private void offensiveAttack(final StrategyProfile profile) {
+			BuiltinShared.offensiveAttack(this.clans.get(0), this.graph, this.object, profile);
+		}
+	}
+
+	@Test
+	void testPriorityOrder() {
+		// City 0 can attack city 1 and 2, city 2 is the better target. Afterwards, the edge to city 1 is outdated
+		// and city 4 attacks city 1 first.
+		final var world = new World(new double[][]{{0, 30, 0}, {1, 0, 10}, {1, 0, 5}, {0, 20, 0}, {0, 15, 0}},
+				new int[][]{{0, 1}, {0, 2}, {3, 2}, {4, 1}});
+		world.offensiveAttack(FrontierAttackPlannerTest.PLANNER);
+		Assertions.assertEquals(List.of("attack 0 2 30", "attack 4 1 15"), world.log);
+		Assertions.assertEquals(world.clans.get(0), world.owners.get(1));
+		Assertions.assertEquals(world.clans.get(0), world.owners.get(2));
+		Assertions.assertEquals(List.of(0L, 5L, 25L, 20L, 0L), world.soldiers);
+	}
+
+	@Test
+	void testModerateAttacksOnce() {
+		// The best attack first, city 0 doesn't attack a second time.
+		final var world = new World(new double[][]{{0, 30, 0}, {1, 5, 0}, {2, 20, 0}, {0, 10, 0}},
+				new int[][]{{0, 1}, {0, 2}, {3, 2}});
+		FrontierAttackPlanner.moderateAttack(world.clans.get(0), world.graph, world.object,
+				FrontierAttackPlannerTest.PLANNER);
+		Assertions.assertEquals(List.of("attack 0 1 30"), world.log);
+		Assertions.assertEquals(world.clans.get(0), world.owners.get(1));
+		Assertions.assertEquals(world.clans.get(2), world.owners.get(2));
+	}
+
+	@Test
+	void testSameResultAsOffensiveAttack() {
+		// A chain of conquests from city 0, a city without enough soldiers and an unreachable enemy.
+		final var cities = new double[][]{{0, 50, 0}, {1, 5, 10}, {0, 3, 0}, {2, 0, 20}, {1, 0, 5}, {2, 7, 0},
+				{1, 1, 1}, {0, 12, 0}};
+		final var edges = new int[][]{{0, 1}, {1, 4}, {2, 3}, {7, 5}, {3, 6}};
+		final var original = new World(cities, edges);
+		original.offensiveAttack(StrategyProfile.DEFAULT);
+		final var planned = new World(cities, edges);
+		planned.offensiveAttack(FrontierAttackPlannerTest.PLANNER);
+		// Both conquered the chain and city 5.
+		Assertions.assertEquals(List.of(0, 0, 0, 2, 0, 0, 1, 0), original.owners());
+		Assertions.assertEquals(original.owners(), planned.owners());
+		Assertions.assertEquals(original.soldiers, planned.soldiers);
+		Assertions.assertEquals(original.log.stream().sorted().toList(), planned.log.stream().sorted().toList());
+	}
+}
@@ -0,0 +1,38 @@
+package conquer.data.builtin;
+
+import conquer.data.RandomStreams;
+import conquer.data.strategy.StrategyProfile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+class RandomStrategyProviderTest {
+
+	@Test
+	void testSameStreamSameStrategy() {
+		final var provider = new RandomStrategyProvider();
+		final Set<Class<?>> chosen = new HashSet<>();
+		for (var i = 0; i < 30; i++) {
+			final var a = provider.buildStrategy(new RandomStreams(42).stream("provider", i));
+			final var b = provider.buildStrategy(StrategyProfile.DEFAULT, new RandomStreams(42).stream("provider", i));
+			Assertions.assertSame(a.getClass(), b.getClass());
+			chosen.add(a.getClass());
+		}
+		// Every builtin strategy, except for the random one itself.
+		Assertions.assertEquals(Set.of(DefensiveStrategyImpl.class, ModerateStrategyImpl.class,
+				OffensiveStrategyImpl.class), chosen);
+	}
+
+	@Test
+	void testNull() {
+		final var provider = new RandomStrategyProvider();
+		Assertions.assertThrows(IllegalArgumentException.class, () -> provider.buildStrategy((SplittableRandom) null));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> provider.buildStrategy(null, new SplittableRandom(1)));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> provider.buildStrategy(StrategyProfile.DEFAULT, null));
+	}
+}
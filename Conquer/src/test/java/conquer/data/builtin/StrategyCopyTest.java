@@ -0,0 +1,34 @@
+package conquer.data.builtin;
+
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProfile.Parameter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StrategyCopyTest {
+	private static final StrategyProfile PROFILE = StrategyProfile.DEFAULT.with(Parameter.UPGRADE_LEVELS, 3)
+			.with(Parameter.DEFENSIVE_MODERATE_PROBABILITY, 0.1);
+
+	@Test
+	void testCopyKeepsProfile() {
+		final var defensive = new DefensiveStrategyImpl(StrategyCopyTest.PROFILE);
+		final var defensiveCopy = (DefensiveStrategyImpl) defensive.copy();
+		Assertions.assertNotSame(defensive, defensiveCopy);
+		Assertions.assertSame(StrategyCopyTest.PROFILE, defensiveCopy.profile);
+		final var moderate = new ModerateStrategyImpl(StrategyCopyTest.PROFILE);
+		final var moderateCopy = (ModerateStrategyImpl) moderate.copy();
+		Assertions.assertNotSame(moderate, moderateCopy);
+		Assertions.assertSame(StrategyCopyTest.PROFILE, moderateCopy.profile);
+		final var offensive = new OffensiveStrategyImpl(StrategyCopyTest.PROFILE);
+		final var offensiveCopy = (OffensiveStrategyImpl) offensive.copy();
+		Assertions.assertNotSame(offensive, offensiveCopy);
+		Assertions.assertSame(StrategyCopyTest.PROFILE, offensiveCopy.profile);
+	}
+
+	@Test
+	void testRestoredStrategiesUseTheDefaultProfile() {
+		Assertions.assertSame(BuiltinShared.PROFILE, new DefensiveStrategyImpl().profile);
+		Assertions.assertSame(BuiltinShared.PROFILE, new ModerateStrategyImpl().profile);
+		Assertions.assertSame(BuiltinShared.PROFILE, new OffensiveStrategyImpl().profile);
+	}
+}
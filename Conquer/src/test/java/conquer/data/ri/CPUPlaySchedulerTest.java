@@ -0,0 +1,135 @@
+package conquer.data.ri;
+
+import conquer.data.AttackResult;
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.data.strategy.CommandBatch;
+import conquer.messages.ExtinctionMessage;
+import conquer.messages.Message;
+import conquer.plugins.AttackHook;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+class CPUPlaySchedulerTest {
+
+	// A path of eight cities, every clan from 1 to 4 owns two of them. Clan 5 has no city.
+	private static Game createPath() {
+		final var fixture = new GameFixture(6);
+		for (var i = 0; i < 8; i++) {
+			fixture.city((i / 2) + 1, 10, 10);
+			if (i > 0) {
+				fixture.connect(i - 1, i, 1);
+			}
+		}
+		return fixture.build();
+	}
+
+	private static List<IClan> clans(final Game game, final int... ids) {
+		return IntStream.of(ids).mapToObj(game::getClan).toList();
+	}
+
+	@Test
+	void testPartitionOfConnectedMap() {
+		final var game = CPUPlaySchedulerTest.createPath();
+		final var waves = new CPUPlayScheduler().partition(game.getCities(),
+				CPUPlaySchedulerTest.clans(game, 5, 1, 2, 3, 4), 6);
+		// Only neighbours conflict, the dead clan is skipped.
+		Assertions.assertEquals(List.of(CPUPlaySchedulerTest.clans(game, 1, 3), CPUPlaySchedulerTest.clans(game, 2, 4)),
+				waves);
+		final var reversed = new CPUPlayScheduler().partition(game.getCities(),
+				CPUPlaySchedulerTest.clans(game, 4, 3, 2, 1), 6);
+		Assertions.assertEquals(List.of(CPUPlaySchedulerTest.clans(game, 4, 2), CPUPlaySchedulerTest.clans(game, 3, 1)),
+				reversed);
+	}
+
+	@Test
+	void testPartitionWithSharedNeighbour() {
+		// Clan 1 and 3 don't border each other, but both border city 1.
+		final var game = new GameFixture(5).city(1, 10, 10).city(2, 10, 10).city(3, 10, 10).city(4, 10, 10)
+				.connect(0, 1, 1).connect(1, 2, 1).connect(2, 3, 1).build();
+		final var waves = new CPUPlayScheduler().partition(game.getCities(),
+				CPUPlaySchedulerTest.clans(game, 1, 2, 3, 4), 5);
+		Assertions.assertEquals(List.of(CPUPlaySchedulerTest.clans(game, 1, 4), CPUPlaySchedulerTest.clans(game, 2),
+				CPUPlaySchedulerTest.clans(game, 3)), waves);
+	}
+
+	@Test
+	void testRun() {
+		final var game = CPUPlaySchedulerTest.createPath();
+		final var scheduler = new CPUPlayScheduler();
+		final var waves = scheduler.partition(game.getCities(), CPUPlaySchedulerTest.clans(game, 1, 2, 3, 4), 6);
+		final List<IClan> played = Collections.synchronizedList(new ArrayList<>());
+		final List<Message> events = new ArrayList<>();
+		scheduler.run(game.getCities(), waves, clan -> {
+			final var group = scheduler.currentGroup();
+			// Clan 1 leaves its territory and plays alone, clan 3 stays in its territory.
+			group.claim(clan.getId() == 1 ? 7 : 5);
+			group.addMessage(new ExtinctionMessage(clan));
+			played.add(clan);
+		}, events::add);
+		Assertions.assertEquals(4, played.size());
+		Assertions.assertEquals(List.of(game.getClan(1), game.getClan(3)), played.subList(0, 2).stream()
+				.sorted((a, b) -> Integer.compare(a.getId(), b.getId())).toList());
+		Assertions.assertNull(scheduler.currentGroup());
+		// The messages are in the order of the turns, not in the order in which the clans finished.
+		Assertions.assertEquals(CPUPlaySchedulerTest.clans(game, 1, 3, 2, 4),
+				events.stream().map(message -> ((ExtinctionMessage) message).clan()).toList());
+	}
+
+	@Test
+	void testWaveWithHooks() {
+		// Clan 1 and 2 play in one wave, clan 3 owns the cities between them.
+		final var game = new GameFixture(4).city(1, 100, 100).city(3, 10, 1).city(3, 10, 1).city(3, 10, 1)
+				.city(2, 100, 100).connect(0, 1, 1).connect(1, 2, 1).connect(2, 3, 1).connect(3, 4, 1).build();
+		final var attacked = new CountDownLatch(1);
+		final var recruited = new AtomicInteger();
+		game.addAttackHook(new AttackHook() {
+			@Override
+			public void after(final ICity src, final ICity destination, final long survivingSoldiers,
+							  final AttackResult result) {
+			}
+
+			@Override
+			public void before(final ICity src, final ICity destination, final long numberOfSoldiersMoved) {
+				attacked.countDown();
+			}
+		});
+		game.addRecruitHook((city, numberOfSoldiers) -> recruited.incrementAndGet());
+		// Two threads, even on a machine with a single processor.
+		final var pool = Executors.newFixedThreadPool(2);
+		game.scheduler = new CPUPlayScheduler(pool);
+		final var waves = game.scheduler.partition(game.getCities(), CPUPlaySchedulerTest.clans(game, 1, 2), 4);
+		Assertions.assertEquals(List.of(CPUPlaySchedulerTest.clans(game, 1, 2)), waves);
+		Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> game.scheduler.run(game.getCities(), waves,
+				clan -> {
+					if (clan.getId() == 1) {
+						// The second attack leaves the territory, while the hooks are registered.
+						game.submit(clan, new CommandBatch().attack(0, 1, 50).attack(1, 2, 20));
+					} else {
+						// Calls the hooks while clan 1 attacks, unless clan 1 waits for this turn to finish.
+						try {
+							attacked.await(200, TimeUnit.MILLISECONDS);
+						} catch (final InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						game.submit(clan, new CommandBatch().recruit(4, 5));
+					}
+				}, message -> {
+				}));
+		pool.shutdown();
+		Assertions.assertEquals(1, game.getCities().getValue(1).getClanId());
+		Assertions.assertEquals(1, game.getCities().getValue(2).getClanId());
+		Assertions.assertEquals(105, game.getCities().getValue(4).getNumberOfSoldiers());
+		Assertions.assertEquals(1, recruited.get());
+	}
+}
@@ -0,0 +1,174 @@
+package conquer.data.ri;
+
+import conquer.data.strategy.CommandBatch;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class CityStoreTest {
+	private static List<Integer> ownedSlots(final CityStore store, final int clanId) {
+		final var ret = new ArrayList<Integer>();
+		for (var slot = store.nextOwnedSlot(clanId, 0); slot >= 0; slot = store.nextOwnedSlot(clanId, slot + 1)) {
+			ret.add(slot);
+		}
+		return ret;
+	}
+
+	@Test
+	void testInitialIndex() {
+		final var store = new CityStore(4);
+		Assertions.assertEquals(0, store.getNumberOfAliveClans());
+		Assertions.assertEquals(0, store.getNumberOfCities(0));
+		Assertions.assertEquals(-1, store.nextOwnedSlot(0, 0));
+		Assertions.assertEquals(0, store.getNumberOfCities(-1));
+	}
+
+	@Test
+	void testOwnership() {
+		final var store = new CityStore(5);
+		store.setClanId(0, 1);
+		store.setClanId(1, 0);
+		store.setClanId(2, 1);
+		store.setClanId(4, 1);
+		Assertions.assertEquals(2, store.getNumberOfAliveClans());
+		Assertions.assertEquals(1, store.getNumberOfCities(0));
+		Assertions.assertEquals(3, store.getNumberOfCities(1));
+		final var slots = new ArrayList<Integer>();
+		for (var slot = store.nextOwnedSlot(1, 0); slot >= 0; slot = store.nextOwnedSlot(1, slot + 1)) {
+			slots.add(slot);
+		}
+		Assertions.assertEquals(List.of(0, 2, 4), slots);
+	}
+
+	@Test
+	void testChangeOfOwner() {
+		final var store = new CityStore(3);
+		store.setClanId(0, 0);
+		store.setClanId(1, 1);
+		store.setClanId(2, 1);
+		store.setClanId(0, 1);
+		Assertions.assertEquals(1, store.getNumberOfAliveClans());
+		Assertions.assertEquals(0, store.getNumberOfCities(0));
+		Assertions.assertEquals(3, store.getNumberOfCities(1));
+		store.setClanId(2, 2);
+		Assertions.assertEquals(2, store.getNumberOfAliveClans());
+		Assertions.assertEquals(2, store.nextOwnedSlot(2, 0));
+		// Setting the same owner again doesn't change anything.
+		store.setClanId(2, 2);
+		Assertions.assertEquals(1, store.getNumberOfCities(2));
+	}
+
+	@Test
+	void testCopy() {
+		final var store = new CityStore(3);
+		store.setClanId(0, 0);
+		store.setClanId(1, 1);
+		store.setSoldiers(1, 40);
+		store.setLevel(2, 1, 3);
+		final var copy = store.copy(List.of());
+		Assertions.assertEquals(40, copy.getSoldiers(1));
+		Assertions.assertEquals(3, copy.getLevel(2, 1));
+		Assertions.assertEquals(2, copy.getNumberOfAliveClans());
+		copy.setClanId(0, 1);
+		copy.setSoldiers(1, 5);
+		Assertions.assertEquals(40, store.getSoldiers(1));
+		Assertions.assertEquals(0, store.getClanId(0));
+		Assertions.assertEquals(1, store.getNumberOfCities(0));
+		Assertions.assertEquals(0, copy.getNumberOfCities(0));
+		Assertions.assertEquals(1, copy.getNumberOfAliveClans());
+	}
+
+	@Test
+	void testReserveClans() {
+		final var store = new CityStore(2);
+		store.reserveClans(8);
+		Assertions.assertEquals(0, store.getNumberOfCities(7));
+		Assertions.assertEquals(-1, store.nextOwnedSlot(7, 0));
+		store.setClanId(1, 7);
+		Assertions.assertEquals(1, store.nextOwnedSlot(7, 0));
+	}
+
+	@Test
+	void testViewWritesStore() {
+		final var fixture = new GameFixture(3).city(1, 100, 100).city(2, 20, 10).city(1, 30, 60);
+		final var game = fixture.build();
+		final var store = fixture.store();
+		final var city = (City) game.getCities().getValue(1);
+		city.setNumberOfPeople(55);
+		city.setNumberOfSoldiers(7);
+		city.setGrowth(1.25);
+		Assertions.assertEquals(55, store.getPeople(1));
+		Assertions.assertEquals(7, store.getSoldiers(1));
+		Assertions.assertEquals(1.25, store.getGrowth(1));
+		city.getLevels().set(2, 4);
+		Assertions.assertEquals(4, store.getLevel(1, 2));
+		city.setLevels(new ArrayList<>(Collections.nCopies(CityStore.NUM_LEVELS, 3)));
+		for (var i = 0; i < CityStore.NUM_LEVELS; i++) {
+			Assertions.assertEquals(3, store.getLevel(1, i));
+		}
+		city.setClan(game.getClan(1));
+		Assertions.assertEquals(1, store.getClanId(1));
+		Assertions.assertSame(game.getClan(1), store.getClan(1));
+		Assertions.assertEquals(List.of(0, 1, 2), CityStoreTest.ownedSlots(store, 1));
+		Assertions.assertEquals(0, store.getNumberOfCities(2));
+		Assertions.assertEquals(1, store.getNumberOfAliveClans());
+		// The other slots are untouched.
+		Assertions.assertEquals(100, store.getPeople(0));
+		Assertions.assertEquals(60, store.getSoldiers(2));
+		Assertions.assertEquals(0, store.getLevel(2, 2));
+	}
+
+	@Test
+	void testStoreWritesView() {
+		final var fixture = new GameFixture(3).city(1, 100, 100).city(2, 20, 10).city(1, 30, 60);
+		final var game = fixture.build();
+		final var store = fixture.store();
+		final var city = game.getCities().getValue(2);
+		store.setPeople(2, 9);
+		store.setSoldiers(2, 12);
+		store.setGrowth(2, 0.5);
+		store.setProduction(2, 1, 0.75);
+		store.setLevel(2, CityStore.NUM_LEVELS - 1, 6);
+		Assertions.assertEquals(9, city.getNumberOfPeople());
+		Assertions.assertEquals(12, city.getNumberOfSoldiers());
+		Assertions.assertEquals(0.5, city.getGrowth());
+		Assertions.assertEquals(0.75, city.getProductions().get(1));
+		Assertions.assertEquals(0, city.getProductions().get(0));
+		Assertions.assertEquals(6, city.getLevels().get(CityStore.NUM_LEVELS - 1));
+		store.setClan(2, game.getClan(2));
+		Assertions.assertEquals(2, city.getClanId());
+		Assertions.assertSame(game.getClan(2), city.getClan());
+		Assertions.assertEquals(List.of(1, 2), CityStoreTest.ownedSlots(store, 2));
+		Assertions.assertEquals(List.of(0), CityStoreTest.ownedSlots(store, 1));
+	}
+
+	@Test
+	void testConquest() {
+		final var fixture = new GameFixture(3).city(1, 100, 100).city(2, 20, 10).city(1, 30, 60).connect(0, 1, 1)
+				.connect(1, 2, 1);
+		final var game = fixture.build();
+		final var store = fixture.store();
+		Assertions.assertEquals(2, store.getNumberOfAliveClans());
+		// 50 attackers against 10 defenders: Clan 2 loses its only city.
+		final var batch = new CommandBatch().attack(0, 1, 50);
+		Assertions.assertEquals(1, game.submit(game.getClan(1), batch));
+		final var conquered = game.getCities().getValue(1);
+		Assertions.assertEquals(1, conquered.getClanId());
+		Assertions.assertSame(game.getClan(1), conquered.getClan());
+		Assertions.assertEquals(1, store.getClanId(1));
+		Assertions.assertEquals(store.getSoldiers(1), conquered.getNumberOfSoldiers());
+		Assertions.assertEquals(3, store.getNumberOfCities(1));
+		Assertions.assertEquals(List.of(0, 1, 2), CityStoreTest.ownedSlots(store, 1));
+		Assertions.assertEquals(0, store.getNumberOfCities(2));
+		Assertions.assertEquals(-1, store.nextOwnedSlot(2, 0));
+		Assertions.assertEquals(1, store.getNumberOfAliveClans());
+		Assertions.assertTrue(game.isDead(game.getClan(2)));
+		// The slots keep their cities.
+		for (var slot = 0; slot < store.size(); slot++) {
+			Assertions.assertEquals("City " + slot, game.getCities().getValue(slot).getName());
+		}
+	}
+}
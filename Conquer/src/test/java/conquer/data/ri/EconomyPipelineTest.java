@@ -0,0 +1,161 @@
+package conquer.data.ri;
+
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.data.Resource;
+import conquer.data.StreamUtils;
+import conquer.plugins.MoneyHook;
+import conquer.plugins.ResourceHook;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class EconomyPipelineTest {
+	private static final int ROUNDS = 3;
+
+	// Clan 1 is poor, so its coins and resources are clamped. One city shrinks.
+	private static Game game(final GameFixture fixture) {
+		final var game = fixture.city(0, 100, 20).city(1, 50, 200).city(2, 80, 10).city(1, 30, 5).city(0, 5, 0)
+				.city(2, 0, 40).build();
+		final var growths = new double[]{1.05, 0.9, 1.2, 1, 1.5, 1.1};
+		// The productions can't be changed through the cities.
+		final var store = fixture.store();
+		for (var slot = 0; slot < store.size(); slot++) {
+			for (var r = 0; r < Resource.values().length; r++) {
+				store.setProduction(slot, r, ((slot + 1) * 0.3) + (r * 0.1));
+			}
+			game.getCities().getValue(slot).setGrowth(growths[slot]);
+		}
+		final var poor = game.getClan(1);
+		poor.setCoins(10);
+		for (var r = 0; r < Resource.values().length; r++) {
+			poor.getResources().set(r, 5.0);
+		}
+		return game;
+	}
+
+	// The four passes, that the pipeline replaced
+	private static void separatePasses(final Game game, final List<MoneyHook> moneyHooks,
+									   final List<ResourceHook> resourceHooks) {
+		final var cities = game.getCities();
+		for (var c = 0; c < cities.size(); c++) {
+			final var city = cities.getValue(c);
+			final var clan = city.getClan();
+			clan.setCoins(clan.getCoins() + city.getCoinDiff());
+		}
+		game.getClans().forEach(clan -> moneyHooks.forEach(
+				a -> a.moneyPaid(StreamUtils.getCitiesAsStream(cities, clan).toList(), clan)));
+		for (var c = 0; c < cities.size(); c++) {
+			final var city = cities.getValue(c);
+			final var clan = city.getClan();
+			final var resourcesOfClan = clan.getResources();
+			for (var i = 0; i < resourcesOfClan.size(); i++) {
+				final var productions = city.getNumberOfPeople() * city.getProductions().get(i);
+				resourcesOfClan.set(i, resourcesOfClan.get(i) + productions);
+				clan.getResourceStats().set(i, clan.getResourceStats().get(i) + productions);
+			}
+		}
+		for (var c = 0; c < cities.size(); c++) {
+			final var city = cities.getValue(c);
+			final var resources = city.getClan().getResources();
+			final var stats = city.getClan().getResourceStats();
+			for (var i = 0; i < Resource.values().length; i++) {
+				final var va = game.getResourceUsage().get(i);
+				final var use = (city.getNumberOfSoldiers() * va[1]) + (city.getNumberOfPeople() * va[0]);
+				final var left = resources.get(i) - use;
+				stats.set(i, stats.get(i) - use);
+				resources.set(i, left < 0 ? 0 : left);
+			}
+			resourceHooks.forEach(a -> a.analyzeStats(city, stats, city.getClan()));
+		}
+		for (var c = 0; c < cities.size(); c++) {
+			final var city = cities.getValue(c);
+			final var cnt = city.getNumberOfPeople();
+			final var l = cnt < 0 ? 0 : cnt;
+			var lNew = (long) (cnt * city.getGrowth());
+			if ((lNew - l) == 0) {
+				lNew++;
+			}
+			city.setNumberOfPeople(lNew < 0 ? 15 : lNew);
+		}
+	}
+
+	private static String describe(final ICity city) {
+		return city.getName() + ":" + city.getNumberOfPeople() + ":" + city.getNumberOfSoldiers();
+	}
+
+	private static String describe(final IClan clan) {
+		return clan.getId() + ":" + clan.getCoins() + ":" + clan.getResources() + ":" + clan.getResourceStats();
+	}
+
+	// Hooks like the ones of the default plugins: They log their arguments and change the cities and clans.
+	private static List<MoneyHook> moneyHooks(final List<String> log) {
+		return List.of((cities, clan) -> {
+			log.add("money " + EconomyPipelineTest.describe(clan) + " "
+					+ cities.stream().map(EconomyPipelineTest::describe).toList());
+			if (clan.getCoins() < 100) {
+				cities.forEach(a -> a.setNumberOfSoldiers(a.getNumberOfSoldiers() / 2));
+				clan.setCoins(clan.getCoins() + 1);
+			}
+		});
+	}
+
+	private static List<ResourceHook> resourceHooks(final List<String> log) {
+		return List.of((city, statistics, clan) -> {
+			log.add("resource " + EconomyPipelineTest.describe(city) + " " + statistics + " "
+					+ EconomyPipelineTest.describe(clan));
+			if (clan.getResources().get(0) == 0) {
+				city.setNumberOfPeople(Math.max(0, city.getNumberOfPeople() - 3));
+				statistics.set(0, 0.0);
+			}
+		});
+	}
+
+	private static void assertSameState(final Game expected, final Game actual) {
+		for (var i = 0; i < expected.getClans().size(); i++) {
+			Assertions.assertEquals(EconomyPipelineTest.describe(expected.getClan(i)),
+					EconomyPipelineTest.describe(actual.getClan(i)));
+		}
+		for (var i = 0; i < expected.getCities().size(); i++) {
+			Assertions.assertEquals(EconomyPipelineTest.describe(expected.getCities().getValue(i)),
+					EconomyPipelineTest.describe(actual.getCities().getValue(i)));
+		}
+	}
+
+	@Test
+	void testWithoutHooks() {
+		final var expected = EconomyPipelineTest.game(new GameFixture(3));
+		final var fixture = new GameFixture(3);
+		final var actual = EconomyPipelineTest.game(fixture);
+		final var pipeline = new EconomyPipeline(fixture.store());
+		for (var round = 0; round < EconomyPipelineTest.ROUNDS; round++) {
+			EconomyPipelineTest.separatePasses(expected, List.of(), List.of());
+			pipeline.run(actual, actual.getClans(), actual.getCities(), List.of(), List.of());
+			EconomyPipelineTest.assertSameState(expected, actual);
+		}
+		// The poor clan ran out of coins and resources.
+		Assertions.assertEquals(0, expected.getClan(1).getResources().get(0));
+	}
+
+	@Test
+	void testWithHooks() {
+		final var expectedLog = new ArrayList<String>();
+		final var expected = EconomyPipelineTest.game(new GameFixture(3));
+		final var actualLog = new ArrayList<String>();
+		final var fixture = new GameFixture(3);
+		final var actual = EconomyPipelineTest.game(fixture);
+		final var pipeline = new EconomyPipeline(fixture.store());
+		for (var round = 0; round < EconomyPipelineTest.ROUNDS; round++) {
+			EconomyPipelineTest.separatePasses(expected, EconomyPipelineTest.moneyHooks(expectedLog),
+					EconomyPipelineTest.resourceHooks(expectedLog));
+			pipeline.run(actual, actual.getClans(), actual.getCities(), EconomyPipelineTest.moneyHooks(actualLog),
+					EconomyPipelineTest.resourceHooks(actualLog));
+			EconomyPipelineTest.assertSameState(expected, actual);
+		}
+		// Every clan once and every city once per round
+		Assertions.assertEquals(EconomyPipelineTest.ROUNDS * 9, expectedLog.size());
+		Assertions.assertEquals(expectedLog, actualLog);
+	}
+}
@@ -0,0 +1,113 @@
+package conquer.data.ri;
+
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.data.Resource;
+import conquer.utils.Graph;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds a small game without a scenario file, the same way {@link ScenarioFileReader} does. Clan 0 is the clan of
+ * the player, every clan starts with a million coins and a million units of every resource.
+ */
+final class GameFixture {
+	private final int numClans;
+	private final List<double[]> cities = new ArrayList<>();
+	private final List<double[]> edges = new ArrayList<>();
+	private CityStore store;
+
+	/**
+	 * @param numClans The number of clans, at least 2.
+	 */
+	GameFixture(final int numClans) {
+		this.numClans = numClans;
+	}
+
+	/**
+	 * Adds a city with a defense of 0 and a bonus of 1.
+	 *
+	 * @return This fixture.
+	 */
+	GameFixture city(final int clan, final long people, final long soldiers) {
+		return this.city(clan, people, soldiers, 0, 1);
+	}
+
+	/**
+	 * Adds a city.
+	 *
+	 * @return This fixture.
+	 */
+	GameFixture city(final int clan, final long people, final long soldiers, final double defense,
+					 final double bonus) {
+		this.cities.add(new double[]{clan, people, soldiers, defense, bonus});
+		return this;
+	}
+
+	/**
+	 * Connects two cities in both directions.
+	 *
+	 * @return This fixture.
+	 */
+	GameFixture connect(final int a, final int b, final double distance) {
+		this.edges.add(new double[]{a, b, distance});
+		return this;
+	}
+
+	Game build() {
+		final var game = new Game();
+		game.setPlayers(this.numClans);
+		final List<IClan> clans = new ArrayList<>();
+		for (var i = 0; i < this.numClans; i++) {
+			final var clan = new Clan();
+			clan.setInfo(game);
+			clan.setId(i);
+			clan.setName("Clan " + i);
+			clan.setColor(Color.BLACK);
+			clan.setCoins(1_000_000);
+			clan.setResources(new ArrayList<>(Collections.nCopies(Resource.values().length, 1_000_000.0)));
+			clan.setResourceStats(new ArrayList<>(Collections.nCopies(Resource.values().length, 0.0)));
+			clans.add(clan);
+		}
+		final var relations = new Graph<Integer>(this.numClans);
+		for (var i = 0; i < this.numClans; i++) {
+			relations.add(i);
+		}
+		for (var i = 0; i < this.numClans; i++) {
+			for (var j = 0; j < this.numClans; j++) {
+				final var value = i == j ? Double.MAX_VALUE : 50;
+				relations.addDirectedEdge(i, j, value, value);
+			}
+		}
+		game.setRelations(relations);
+		final var graph = new Graph<ICity>(this.cities.size(), true);
+		final var store = new CityStore(this.cities.size());
+		final var image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+		for (var i = 0; i < this.cities.size(); i++) {
+			final var values = this.cities.get(i);
+			graph.add(new CityBuilder(game, store, i).setImage(image).setClan(clans.get((int) values[0]))
+					.setNumberOfPeople((long) values[1]).setNumberOfSoldiers((long) values[2]).setX(10 * i)
+					.setY(10 * i).setDefense(values[3]).setDefenseBonus(values[4]).setGrowth(1).setName("City " + i)
+					.setProductionRates(new ArrayList<>(Collections.nCopies(Resource.values().length, 0.0)))
+					.build());
+		}
+		for (final var edge : this.edges) {
+			graph.addDirectedEdge((int) edge[0], (int) edge[1], edge[2], edge[2]);
+		}
+		game.setClans(clans);
+		game.setGraph(graph, store);
+		this.store = store;
+		return game;
+	}
+
+	/**
+	 * @return The store of the cities of the last built game.
+	 */
+	CityStore store() {
+		return this.store;
+	}
+}
@@ -0,0 +1,186 @@
+package conquer.data.ri;
+
+import conquer.data.AttackResult;
+import conquer.data.Gift;
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.data.strategy.CommandBatch;
+import conquer.data.strategy.Strategy;
+import conquer.data.strategy.StrategyData;
+import conquer.data.strategy.StrategyObject;
+import conquer.messages.AnnihilationMessage;
+import conquer.messages.AttackLostMessage;
+import conquer.messages.ConquerMessage;
+import conquer.utils.Graph;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.DoubleConsumer;
+
+class GameTest {
+
+	// Clan 1 owns city 0 and 2, clan 2 owns city 1 between them.
+	private static Game createGame() {
+		return new GameFixture(3).city(1, 100, 100).city(2, 20, 10).city(1, 30, 60).connect(0, 1, 1)
+				.connect(1, 2, 1).build();
+	}
+
+	@Test
+	void testSubmitValidatesFirst() {
+		final var game = GameTest.createGame();
+		final var clan = game.getClan(1);
+		final var batch = new CommandBatch().recruit(0, 5).attack(0, 1, 50).recruit(3, 1);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> game.submit(clan, batch));
+		Assertions.assertEquals(100, game.getCities().getValue(0).getNumberOfSoldiers());
+		Assertions.assertEquals(100, game.getCities().getValue(0).getNumberOfPeople());
+		Assertions.assertEquals(2, game.getCities().getValue(1).getClanId());
+		Assertions.assertEquals(1_000_000, clan.getCoins());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> game.submit(null, new CommandBatch()));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> game.submit(clan, null));
+	}
+
+	@Test
+	void testSubmitRevalidates() {
+		final var game = GameTest.createGame();
+		final var cities = game.getCities();
+		final var batch = new CommandBatch().attack(0, 1, 50).attack(2, 1, 20).move(1, 2, 10).move(1, 0, 1000)
+				.recruit(1, 1);
+		Assertions.assertEquals(4, game.submit(game.getClan(1), batch));
+		// 50 attackers against 10 defenders: The city is conquered with 40 survivors.
+		Assertions.assertEquals(50, batch.getResult(0));
+		Assertions.assertEquals(1, cities.getValue(1).getClanId());
+		// The second attack targets an own city now.
+		Assertions.assertEquals(CommandBatch.REJECTED, batch.getResult(1));
+		// The conquered city can be used as source, the moves are limited to its soldiers.
+		Assertions.assertEquals(10, batch.getResult(2));
+		Assertions.assertEquals(30, batch.getResult(3));
+		Assertions.assertEquals(1, batch.getResult(4));
+		Assertions.assertEquals(1, cities.getValue(1).getNumberOfSoldiers());
+		Assertions.assertEquals(70, cities.getValue(2).getNumberOfSoldiers());
+		Assertions.assertEquals(80, cities.getValue(0).getNumberOfSoldiers());
+		// The former owner lost the source of its commands.
+		final var lost = new CommandBatch().recruit(1, 1).upgradeDefense(1, 1);
+		Assertions.assertEquals(0, game.submit(game.getClan(2), lost));
+		Assertions.assertEquals(CommandBatch.REJECTED, lost.getResult(0));
+		Assertions.assertEquals(CommandBatch.REJECTED, lost.getResult(1));
+	}
+
+	@Test
+	void testSubmitRecruitsAtMostThePeople() {
+		final var game = GameTest.createGame();
+		final var city = game.getCities().getValue(2);
+		final var batch = new CommandBatch().recruit(2, 10_000).recruit(2, 5);
+		Assertions.assertEquals(2, game.submit(game.getClan(1), batch));
+		Assertions.assertEquals(30, batch.getResult(0));
+		Assertions.assertEquals(0, batch.getResult(1));
+		Assertions.assertEquals(0, city.getNumberOfPeople());
+		Assertions.assertEquals(90, city.getNumberOfSoldiers());
+	}
+
+	@Test
+	void testPredictAttack() {
+		// Soldiers, strength, offense and defense of the clans, defense and bonus of the city, attacking soldiers.
+		final double[][] cases = {
+				{10, 1, 1, 1, 0, 1, 50},
+				{60, 1, 1.3, 1, 5, 1.5, 20},
+				{10, 1, 1, 1, 0, 1, 10},
+				{17, 1.1, 1.7, 2.3, 7.5, 1.2, 33},
+				{17, 1.1, 1.7, 2.3, 7.5, 1.2, 40},
+				{0, 1, 1, 1, 3, 1, 3},
+				{10, 1, 1, 1, 0, 1, 1},
+		};
+		final Set<AttackResult> results = new HashSet<>();
+		for (final var values : cases) {
+			final var game = new GameFixture(3).city(1, 100, 100).city(2, 100, (long) values[0], values[4], values[5])
+					.connect(0, 1, 1).build();
+			final var source = game.getCities().getValue(0);
+			final var target = game.getCities().getValue(1);
+			for (final var i : new int[]{1, 2}) {
+				final var clan = (Clan) game.getClan(i);
+				clan.setSoldiersStrength(values[1]);
+				clan.setSoldiersOffenseStrength(values[2]);
+				clan.setSoldiersDefenseStrength(values[3]);
+			}
+			final var prediction = game.predictAttack(source, target, (long) values[6]);
+			game.attack(source, target, true, (long) values[6]);
+			// A conquest of the last city adds an extinction message after the conquest.
+			final var messages = game.getEventList();
+			final var message = messages.isEmpty() ? null : messages.get(0);
+			final AttackResult result;
+			if (message instanceof ConquerMessage) {
+				result = AttackResult.CITY_CONQUERED;
+			} else if (message instanceof AttackLostMessage) {
+				result = AttackResult.ATTACK_DEFEATED;
+			} else if (message instanceof AnnihilationMessage) {
+				result = AttackResult.ALL_SOLDIERS_DEAD;
+			} else {
+				result = null;
+			}
+			Assertions.assertEquals(result, prediction.result());
+			results.add(result);
+			if (result == AttackResult.CITY_CONQUERED) {
+				Assertions.assertEquals(1, target.getClanId());
+				Assertions.assertEquals(prediction.survivingAttackers(), target.getNumberOfSoldiers());
+			} else {
+				Assertions.assertEquals(2, target.getClanId());
+				Assertions.assertEquals(prediction.survivingDefenders(), target.getNumberOfSoldiers());
+			}
+		}
+		// Every result and an attack, that isn't executed at all.
+		Assertions.assertEquals(4, results.size());
+	}
+
+	@Test
+	void testForkSeed() {
+		final var game = GameTest.createGame();
+		game.setSeed(5);
+		// Every fork of a round uses the same seed.
+		Assertions.assertEquals(game.getSeed() + game.currentRound(), game.fork().getSeed());
+		final var fork = game.fork(42);
+		Assertions.assertEquals(42, fork.getSeed());
+		Assertions.assertEquals(5, game.getSeed());
+		Assertions.assertEquals(100, fork.getCities().getValue(0).getNumberOfSoldiers());
+	}
+
+	@Test
+	void testForkCopiesStrategy() {
+		final var game = GameTest.createGame();
+		final var strategy = new ConfiguredStrategy(7);
+		game.getClan(1).setStrategy(strategy);
+		final var copy = game.fork().getClan(1).getStrategy();
+		Assertions.assertNotSame(strategy, copy);
+		Assertions.assertEquals(7, ((ConfiguredStrategy) copy).configuration);
+	}
+
+	// Can't be created with reflection, only with copy().
+	private static final class ConfiguredStrategy implements Strategy {
+		private final int configuration;
+
+		private ConfiguredStrategy(final int configuration) {
+			this.configuration = configuration;
+		}
+
+		@Override
+		public boolean acceptGift(final IClan sourceClan, final IClan destinationClan, final Gift gift,
+								  final double oldValue, final DoubleConsumer newValue,
+								  final StrategyObject strategyObject) {
+			return false;
+		}
+
+		@Override
+		public void applyStrategy(final IClan clan, final Graph<ICity> cities, final StrategyObject obj) {
+		}
+
+		@Override
+		public StrategyData getData() {
+			return null;
+		}
+
+		@Override
+		public Strategy copy() {
+			return new ConfiguredStrategy(this.configuration);
+		}
+	}
+}
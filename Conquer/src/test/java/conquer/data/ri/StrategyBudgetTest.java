@@ -0,0 +1,116 @@
+package conquer.data.ri;
+
+import conquer.data.Gift;
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.data.strategy.Strategy;
+import conquer.data.strategy.StrategyData;
+import conquer.data.strategy.StrategyObject;
+import conquer.utils.Graph;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleConsumer;
+
+class StrategyBudgetTest {
+
+	private static Clan clan(final long sleepMillis) {
+		final var ret = new Clan();
+		ret.setId(1);
+		ret.setName("Slow");
+		ret.setStrategy(new SleepingStrategy(sleepMillis));
+		return ret;
+	}
+
+	@Test
+	void testUnlimited() {
+		final var budget = new StrategyBudget(2, 0, 1, () -> new SleepingStrategy(0));
+		final var clan = StrategyBudgetTest.clan(2);
+		budget.play(clan, strategy -> {
+			Assertions.assertEquals(StrategyObject.NO_DEADLINE, budget.getDeadline(clan));
+			strategy.applyStrategy(clan, null, null);
+		});
+		final var timing = budget.getTiming(clan);
+		Assertions.assertEquals(1, timing.calls());
+		Assertions.assertEquals(0, timing.overruns());
+		Assertions.assertTrue(timing.maxNanos() >= TimeUnit.MILLISECONDS.toNanos(2));
+		Assertions.assertFalse(budget.usesFallback(clan));
+	}
+
+	@Test
+	void testDeadline() {
+		final var limit = TimeUnit.SECONDS.toNanos(10);
+		final var budget = new StrategyBudget(2, limit, 0, null);
+		final var clan = StrategyBudgetTest.clan(0);
+		final var start = System.nanoTime();
+		budget.play(clan, strategy -> {
+			final var deadline = budget.getDeadline(clan);
+			Assertions.assertNotEquals(StrategyObject.NO_DEADLINE, deadline);
+			Assertions.assertTrue(deadline - start >= limit);
+			Assertions.assertTrue(deadline - System.nanoTime() <= limit);
+		});
+		Assertions.assertEquals(StrategyObject.NO_DEADLINE, budget.getDeadline(clan));
+		Assertions.assertEquals(0, budget.getTiming(clan).overruns());
+	}
+
+	@Test
+	void testFallback() {
+		final var fallback = new SleepingStrategy(0);
+		final var budget = new StrategyBudget(2, TimeUnit.MILLISECONDS.toNanos(1), 2, () -> fallback);
+		final var clan = StrategyBudgetTest.clan(5);
+		final var slow = clan.getStrategy();
+		for (var i = 0; i < 2; i++) {
+			Assertions.assertFalse(budget.usesFallback(clan));
+			budget.play(clan, strategy -> {
+				Assertions.assertSame(slow, strategy);
+				strategy.applyStrategy(clan, null, null);
+			});
+		}
+		Assertions.assertTrue(budget.usesFallback(clan));
+		Assertions.assertEquals(2, budget.getTiming(clan).overruns());
+		budget.play(clan, strategy -> Assertions.assertSame(fallback, strategy));
+		Assertions.assertEquals(3, budget.getTiming(clan).calls());
+	}
+
+	@Test
+	void testOverrunsHaveToBeConsecutive() {
+		final var budget = new StrategyBudget(2, TimeUnit.MILLISECONDS.toNanos(1), 2, () -> new SleepingStrategy(0));
+		final var clan = StrategyBudgetTest.clan(5);
+		budget.play(clan, strategy -> strategy.applyStrategy(clan, null, null));
+		budget.play(clan, strategy -> {
+		});
+		budget.play(clan, strategy -> strategy.applyStrategy(clan, null, null));
+		Assertions.assertEquals(2, budget.getTiming(clan).overruns());
+		Assertions.assertFalse(budget.usesFallback(clan));
+	}
+
+	private static final class SleepingStrategy implements Strategy {
+		private final long millis;
+
+		private SleepingStrategy(final long millis) {
+			this.millis = millis;
+		}
+
+		@Override
+		public boolean acceptGift(final IClan sourceClan, final IClan destinationClan, final Gift gift,
+								  final double oldValue, final DoubleConsumer newValue,
+								  final StrategyObject strategyObject) {
+			return false;
+		}
+
+		@Override
+		public void applyStrategy(final IClan clan, final Graph<ICity> cities, final StrategyObject obj) {
+			try {
+				Thread.sleep(this.millis);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public StrategyData getData() {
+			return null;
+		}
+	}
+}
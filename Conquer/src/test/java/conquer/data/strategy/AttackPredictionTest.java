@@ -0,0 +1,113 @@
+package conquer.data.strategy;
+
+import conquer.data.AttackResult;
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.utils.Graph;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+class AttackPredictionTest {
+	// Clan 0 has strong offense, clan 1 strong defense
+	private final IClan[] clans = {this.createClan(1.5, 2, 1), this.createClan(1, 1, 1.2)};
+	private final Graph<ICity> graph = new Graph<>(4);
+	private final StrategyObject object;
+
+	AttackPredictionTest() {
+		this.graph.add(this.createCity(0, 100, 0, 1, false));
+		this.graph.add(this.createCity(1, 50, 30, 1.1, false));
+		this.graph.add(this.createCity(1, 0, 25, 1, false));
+		this.graph.add(this.createCity(0, 1, 0, 1, true));
+		// Only the default methods and getCities() are needed.
+		this.object = (StrategyObject) Proxy.newProxyInstance(StrategyObject.class.getClassLoader(),
+				new Class<?>[]{StrategyObject.class}, (proxy, method, args) -> {
+					if (method.isDefault()) {
+						return InvocationHandler.invokeDefault(proxy, method, args);
+					} else if ("getCities".equals(method.getName())) {
+						return this.graph;
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	private IClan createClan(final double strength, final double offense, final double defense) {
+		return (IClan) Proxy.newProxyInstance(IClan.class.getClassLoader(), new Class<?>[]{IClan.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "getSoldiersStrength" -> strength;
+					case "getSoldiersOffenseStrength" -> offense;
+					case "getSoldiersDefenseStrength" -> defense;
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "equals" -> proxy == args[0];
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	private ICity createCity(final int clan, final long soldiers, final double defense, final double bonus,
+							 final boolean player) {
+		return (ICity) Proxy.newProxyInstance(ICity.class.getClassLoader(), new Class<?>[]{ICity.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "getClan" -> this.clans[clan];
+					case "getNumberOfSoldiers" -> soldiers;
+					case "getDefense" -> defense;
+					case "getBonus" -> bonus;
+					case "isPlayerCity" -> player;
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "equals" -> proxy == args[0];
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	@Test
+	void testSingle() {
+		final var source = this.graph.getValue(0);
+		final var target = this.graph.getValue(1);
+		// Defender: 30 + 50 * 1.1 * 1.2 * 1 = 96, attacker: count * 1.5 * 2 = 3 * count
+		final var won = this.object.predictAttack(source, target, 40);
+		Assertions.assertEquals(AttackResult.CITY_CONQUERED, won.result());
+		Assertions.assertEquals(1.0, won.winProbability());
+		// (120 - 96) / 2 / 1.5
+		Assertions.assertEquals(8, won.survivingAttackers());
+		Assertions.assertEquals(0, won.survivingDefenders());
+		final var lost = this.object.predictAttack(source, target, 10);
+		Assertions.assertEquals(AttackResult.ATTACK_DEFEATED, lost.result());
+		Assertions.assertEquals(0.0, lost.winProbability());
+		// (96 - 30 - 30) / 1.1 / 1.2
+		Assertions.assertEquals(27, lost.survivingDefenders());
+		Assertions.assertEquals(AttackResult.ALL_SOLDIERS_DEAD,
+				this.object.predictAttack(source, target, 32).result());
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> this.object.predictAttack(source, this.graph.getValue(3), 5));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> this.object.predictAttack(source, target, -1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> this.object.predictAttack(null, target, 1));
+	}
+
+	@Test
+	void testBatch() {
+		final var predictions = new AttackPredictions(0);
+		predictions.add(0, 2, 8).add(0, 2, 9).add(0, 1, 1).add(3, 2, 1).add(0, 3, 10);
+		this.object.predictAttacks(predictions);
+		// A city without soldiers keeps none after a defeat.
+		Assertions.assertEquals(AttackResult.ATTACK_DEFEATED, predictions.getResult(0));
+		Assertions.assertEquals(0, predictions.getSurvivingDefenders(0));
+		Assertions.assertEquals(AttackResult.CITY_CONQUERED, predictions.getResult(1));
+		Assertions.assertEquals(0, predictions.getSurvivingAttackers(1));
+		// The CPU doesn't attack with one soldier, the player does.
+		Assertions.assertNull(predictions.getResult(2));
+		Assertions.assertEquals(50, predictions.getSurvivingDefenders(2));
+		Assertions.assertEquals(AttackResult.ATTACK_DEFEATED, predictions.getResult(3));
+		// Own city
+		Assertions.assertNull(predictions.getResult(4));
+		Assertions.assertEquals(predictions.get(1), this.object.predictAttack(this.graph.getValue(0),
+				this.graph.getValue(2), 9));
+		predictions.add(0, 4, 1);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> this.object.predictAttacks(predictions));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> predictions.add(0, 1, -1));
+		predictions.clear();
+		Assertions.assertEquals(0, predictions.size());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> predictions.getResult(0));
+	}
+}
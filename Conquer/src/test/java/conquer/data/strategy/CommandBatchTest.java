@@ -0,0 +1,56 @@
+package conquer.data.strategy;
+
+import conquer.data.Resource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CommandBatchTest {
+
+	@Test
+	void testQueue() {
+		final var batch = new CommandBatch(0);
+		batch.attack(1, 2, 30).move(3, 4, 5).recruit(6, 7).upgradeDefense(8, 9)
+				.upgradeResource(10, Resource.IRON, 11);
+		Assertions.assertEquals(5, batch.size());
+		Assertions.assertEquals(CommandBatch.Kind.ATTACK, batch.getKind(0));
+		Assertions.assertEquals(1, batch.getSource(0));
+		Assertions.assertEquals(2, batch.getTarget(0));
+		Assertions.assertEquals(30, batch.getAmount(0));
+		Assertions.assertEquals(CommandBatch.Kind.MOVE, batch.getKind(1));
+		Assertions.assertEquals(CommandBatch.Kind.RECRUIT, batch.getKind(2));
+		Assertions.assertEquals(6, batch.getTarget(2));
+		Assertions.assertEquals(CommandBatch.Kind.UPGRADE_DEFENSE, batch.getKind(3));
+		Assertions.assertEquals(9, batch.getAmount(3));
+		Assertions.assertEquals(CommandBatch.Kind.UPGRADE_RESOURCE, batch.getKind(4));
+		Assertions.assertEquals(Resource.IRON.getIndex(), batch.getTarget(4));
+		Assertions.assertEquals(11, batch.getAmount(4));
+	}
+
+	@Test
+	void testGrowAndClear() {
+		final var batch = new CommandBatch();
+		for (var i = 0; i < 100; i++) {
+			batch.move(i, i + 1, i);
+		}
+		Assertions.assertEquals(100, batch.size());
+		Assertions.assertEquals(99, batch.getSource(99));
+		batch.setResult(99, 4);
+		Assertions.assertEquals(4, batch.getResult(99));
+		batch.clear();
+		Assertions.assertEquals(0, batch.size());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> batch.getKind(0));
+		// The results of reused slots are reset
+		batch.recruit(0, 1);
+		Assertions.assertEquals(0, batch.getResult(0));
+	}
+
+	@Test
+	void testInvalidCommands() {
+		final var batch = new CommandBatch();
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new CommandBatch(-1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> batch.attack(-1, 0, 1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> batch.move(0, 1, -1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> batch.upgradeResource(0, null, 1));
+		Assertions.assertEquals(0, batch.size());
+	}
+}
@@ -0,0 +1,61 @@
+package conquer.data.strategy;
+
+import conquer.data.strategy.StrategyProfile.Parameter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+class StrategyProfileTest {
+
+	private static StrategyProfile read(final String text) throws IOException {
+		return StrategyProfile.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void testDefaults() {
+		for (final var parameter : Parameter.values()) {
+			Assertions.assertEquals(parameter.getDefaultValue(), StrategyProfile.DEFAULT.get(parameter));
+			Assertions.assertTrue(parameter.getMin() <= parameter.getDefaultValue());
+			Assertions.assertTrue(parameter.getDefaultValue() <= parameter.getMax());
+		}
+		Assertions.assertEquals(75, StrategyProfile.DEFAULT.get(Parameter.GOOD_RELATION));
+		Assertions.assertEquals(100, StrategyProfile.DEFAULT.getInt(Parameter.UPGRADE_LEVELS));
+	}
+
+	@Test
+	void testClamping() {
+		final var profile = StrategyProfile.DEFAULT.with(Parameter.MODERATE_GIFT_COINS, 3)
+				.with(Parameter.UPGRADE_LEVELS, 10.6).with(Parameter.COINS_TO_RETAIN, -5);
+		Assertions.assertEquals(1, profile.get(Parameter.MODERATE_GIFT_COINS));
+		Assertions.assertEquals(11, profile.get(Parameter.UPGRADE_LEVELS));
+		Assertions.assertEquals(0, profile.get(Parameter.COINS_TO_RETAIN));
+		Assertions.assertEquals(StrategyProfile.DEFAULT, StrategyProfile.of(StrategyProfile.DEFAULT.toVector()));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> StrategyProfile.of(new double[1]));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> StrategyProfile.DEFAULT.with(Parameter.GOOD_RELATION, Double.NaN));
+	}
+
+	@Test
+	void testWriteAndRead() throws IOException {
+		final var profile = StrategyProfile.DEFAULT.with(Parameter.GOOD_RELATION, 42.5)
+				.with(Parameter.OFFENSIVE_UPGRADE_PROBABILITY, 0.3);
+		final var out = new ByteArrayOutputStream();
+		profile.write(out, "Two\nlines");
+		final var text = out.toString(StandardCharsets.UTF_8);
+		Assertions.assertTrue(text.startsWith("# Two\n# lines\n"));
+		Assertions.assertTrue(text.contains("relation.good=42.5\n"));
+		Assertions.assertEquals(profile, StrategyProfileTest.read(text));
+	}
+
+	@Test
+	void testReadPartial() throws IOException {
+		final var profile = StrategyProfileTest.read("# Comment\ncoins.retain = 30\n");
+		Assertions.assertEquals(StrategyProfile.DEFAULT.with(Parameter.COINS_TO_RETAIN, 30), profile);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> StrategyProfileTest.read("unknown=1"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> StrategyProfileTest.read("relation.good=x"));
+	}
+}
@@ -0,0 +1,98 @@
+package conquer.data.strategy;
+
+import conquer.data.ICity;
+import conquer.utils.Graph;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.SplittableRandom;
+
+class ThreatMapTest {
+	private final int[] clans = {0, 0, 1, 1, 2};
+	private final long[] soldiers = {10, 20, 30, 40, 50};
+
+	// A line 0-1-2-3-4, the cities only know their owner and their soldiers
+	private Graph<ICity> createGraph(final int[] owners, final long[] numbers) {
+		final var graph = new Graph<ICity>(owners.length);
+		for (var i = 0; i < owners.length; i++) {
+			final var slot = i;
+			graph.add((ICity) Proxy.newProxyInstance(ICity.class.getClassLoader(), new Class<?>[]{ICity.class},
+					(proxy, method, args) -> switch (method.getName()) {
+						case "getClanId" -> owners[slot];
+						case "getNumberOfSoldiers" -> numbers[slot];
+						case "hashCode" -> slot;
+						case "equals" -> proxy == args[0];
+						default -> throw new UnsupportedOperationException(method.getName());
+					}));
+		}
+		return graph;
+	}
+
+	@Test
+	void testValues() {
+		final var graph = this.createGraph(this.clans, this.soldiers);
+		for (var i = 0; i < 4; i++) {
+			graph.addUndirectedEdge(i, i + 1, 1);
+		}
+		final var map = new ThreatMap(graph);
+		Assertions.assertTrue(map.isValid());
+		Assertions.assertEquals(0, map.getEnemyPressure(0));
+		Assertions.assertEquals(20, map.getFriendlySupport(0));
+		Assertions.assertFalse(map.isBorder(0));
+		Assertions.assertEquals(30, map.getEnemyPressure(1));
+		Assertions.assertEquals(10, map.getFriendlySupport(1));
+		Assertions.assertEquals(1, map.getHostileNeighbours(1));
+		Assertions.assertEquals(20, map.getEnemyPressure(2));
+		Assertions.assertEquals(40, map.getFriendlySupport(2));
+		Assertions.assertEquals(50, map.getEnemyPressure(3));
+		Assertions.assertEquals(40, map.getEnemyPressure(graph.getValue(4)));
+		Assertions.assertTrue(map.isBorder(graph.getValue(4)));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> map.getEnemyPressure(5));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> map.isBorder(null));
+	}
+
+	@Test
+	void testUpdatesMatchRecompute() {
+		final var random = new SplittableRandom(42);
+		final var size = 60;
+		final var owners = new int[size];
+		final var numbers = new long[size];
+		for (var i = 0; i < size; i++) {
+			owners[i] = random.nextInt(4);
+			numbers[i] = random.nextInt(100);
+		}
+		final var graph = this.createGraph(owners, numbers);
+		for (var i = 0; i < (size * 3); i++) {
+			final var a = random.nextInt(size);
+			final var b = random.nextInt(size);
+			if (a != b) {
+				graph.addUndirectedEdge(a, b, 1);
+			}
+		}
+		final var map = new ThreatMap(graph);
+		for (var round = 0; round < 500; round++) {
+			final var city = random.nextInt(size);
+			if (random.nextBoolean()) {
+				owners[city] = random.nextInt(4);
+			} else {
+				numbers[city] = random.nextInt(100);
+			}
+			map.update(city);
+			final var expected = new ThreatMap(graph);
+			for (var i = 0; i < size; i++) {
+				Assertions.assertEquals(expected.getEnemyPressure(i), map.getEnemyPressure(i));
+				Assertions.assertEquals(expected.getFriendlySupport(i), map.getFriendlySupport(i));
+				Assertions.assertEquals(expected.getHostileNeighbours(i), map.getHostileNeighbours(i));
+			}
+		}
+		// An invalid map ignores updates until it is computed again.
+		map.invalidate();
+		numbers[0] += 1000;
+		map.update(0);
+		Assertions.assertFalse(map.isValid());
+		map.recompute();
+		Assertions.assertTrue(map.isValid());
+		Assertions.assertEquals(new ThreatMap(graph).getFriendlySupport(0), map.getFriendlySupport(0));
+	}
+}
@@ -3,7 +3,14 @@ package conquer.utils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 class GraphTest {
@@ -193,8 +200,279 @@ class GraphTest {
 		this.assertThat("Should be connected", g.isConnected(4, 5));
 	}
 
+	@Test
+	void testSparseSelection() {
+		Assertions.assertFalse(new Graph<Integer>(2).isSparse());
+		Assertions.assertTrue(new Graph<Integer>(Graph.SPARSE_THRESHOLD).isSparse());
+		Assertions.assertTrue(new Graph<Integer>(2, true).isSparse());
+	}
+
+	@Test
+	void testSparseMatchesDense() {
+		final var dense = this.getTestGraph(false);
+		final var sparse = this.getTestGraph(true);
+		for (var i = 0; i < GraphTest.N_VALUES; i++) {
+			Assertions.assertEquals(dense.allConnections(i), sparse.allConnections(i));
+			Assertions.assertEquals(dense.getConnected(i), sparse.getConnected(i));
+			Assertions.assertEquals(dense.getConnected(Integer::compare, i), sparse.getConnected(Integer::compare, i));
+			final var denseOrder = new ArrayList<Integer>();
+			final var sparseOrder = new ArrayList<Integer>();
+			dense.dfs(i, denseOrder::add);
+			sparse.dfs(i, sparseOrder::add);
+			Assertions.assertEquals(denseOrder, sparseOrder);
+			for (var j = 0; j < GraphTest.N_VALUES; j++) {
+				Assertions.assertEquals(dense.getWeight(i, j), sparse.getWeight(i, j));
+				Assertions.assertEquals(dense.isConnected(i, j), sparse.isConnected(i, j));
+			}
+		}
+		Assertions.assertEquals(dense.getConnections().toString(), sparse.getConnections().toString());
+		Assertions.assertEquals(dense.getBridges().toString(), sparse.getBridges().toString());
+	}
+
+	@Test
+	void testSparseUpdates() {
+		final var g = this.getTestGraph(true);
+		g.addDirectedEdge(0, 1, 5.0);
+		Assertions.assertEquals(5.0, g.getWeight(0, 1));
+		Assertions.assertEquals(2.3, g.getWeight(1, 0));
+		g.addDirectedEdge(0, 9, 1.0);
+		g.addDirectedEdge(0, 9, 3.0);
+		Assertions.assertEquals(3.0, g.getWeight(0, 9));
+		Assertions.assertEquals(-1, g.getWeight(9, 0));
+		Assertions.assertEquals(List.of(0, 1, 2, 3, 4, 9), g.allConnections(0));
+		Assertions.assertEquals(List.of(0, 5, 6, 8, 9), g.getConnected(Integer::compare, 9));
+		Assertions.assertEquals(-2, g.getWeight(3, 3));
+	}
+
+	@Test
+	void testSparseConcurrentReads() throws InterruptedException, ExecutionException {
+		final var pool = Executors.newFixedThreadPool(8);
+		try {
+			for (var round = 0; round < 20; round++) {
+				// The edges are pending until the first read, the threads race to merge them.
+				final var n = 1000;
+				final var g = new Graph<Integer>(n, true);
+				for (var i = 0; i < n; i++) {
+					g.add(i);
+				}
+				for (var i = 1; i < n; i++) {
+					g.addUndirectedEdge(i - 1, i, i);
+				}
+				final var start = new CountDownLatch(1);
+				final List<Future<Boolean>> futures = new ArrayList<>();
+				for (var t = 0; t < 8; t++) {
+					final var offset = t;
+					futures.add(pool.submit(() -> {
+						start.await();
+						var ret = true;
+						for (var i = offset; i < n; i += 8) {
+							ret &= (((i == 0) || (i == (n - 1))) ? 1 : 2) == g.getConnected(i).size();
+							ret &= (i == 0) || (g.getWeight(i - 1, i) == i);
+						}
+						return ret;
+					}));
+				}
+				start.countDown();
+				for (final var future : futures) {
+					Assertions.assertTrue(future.get());
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void testIndexOf() {
+		final var g = new Graph<String>(3);
+		final var first = "first";
+		g.add(first);
+		g.add("second");
+		Assertions.assertEquals(0, g.indexOf(first));
+		Assertions.assertEquals(1, g.indexOf(new String("second")));
+		Assertions.assertEquals(-1, g.indexOf("third"));
+		g._set(0, "replaced");
+		Assertions.assertEquals(-1, g.indexOf(first));
+		Assertions.assertEquals(0, g.indexOf("replaced"));
+	}
+
+	@Test
+	void testIndexOverloads() {
+		final var g = this.getTestGraph();
+		Assertions.assertEquals(2.3, g.getWeightAt(4, 5));
+		Assertions.assertEquals(-1, g.getWeightAt(0, 9));
+		Assertions.assertTrue(g.isConnectedAt(4, 5));
+		Assertions.assertFalse(g.isConnectedAt(4, 4));
+		Assertions.assertEquals(g.getConnected(5), g.getConnectedAt(5));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> g.getWeightAt(0, GraphTest.N_VALUES));
+	}
+
+	@Test
+	void testCache() {
+		for (final var sparse : new boolean[]{false, true}) {
+			final var uncached = this.getTestGraph(sparse);
+			final var cached = this.getTestGraph(sparse);
+			cached.initCache();
+			for (var i = 0; i < GraphTest.N_VALUES; i++) {
+				for (var j = 0; j < GraphTest.N_VALUES; j++) {
+					Assertions.assertEquals(uncached.isConnected(i, j), cached.isConnected(i, j));
+				}
+			}
+			Assertions.assertFalse(cached.isConnected(0, 9));
+			cached.addDirectedEdge(0, 9, 1.0);
+			Assertions.assertTrue(cached.isConnected(0, 9));
+			Assertions.assertFalse(cached.isConnected(9, 0));
+			cached.addUndirectedEdge(1, 8, 1.0);
+			Assertions.assertTrue(cached.isConnectedAt(1, 8));
+			Assertions.assertTrue(cached.isConnectedAt(8, 1));
+		}
+	}
+
+	@Test
+	void testArticulationPoints() {
+		final var g = this.getTestGraph(true);
+		Assertions.assertEquals(List.of(4, 5), g.getArticulationPoints());
+		g.addUndirectedEdge(3, 6, 1.0);
+		Assertions.assertTrue(g.getBridges().isEmpty());
+		Assertions.assertTrue(g.getArticulationPoints().isEmpty());
+		Assertions.assertTrue(g.getComponents().isEmpty());
+	}
+
+	@Test
+	void testBridgesOfRandomGraphs() {
+		final var random = new Random(4);
+		for (var round = 0; round < 20; round++) {
+			final var n = 2 + random.nextInt(40);
+			final var g = new Graph<Integer>(n, (round % 2) == 0);
+			for (var i = 0; i < n; i++) {
+				g.add(i);
+			}
+			for (var i = 1; i < n; i++) {
+				g.addUndirectedEdge(random.nextInt(i), i, 1.0);
+			}
+			for (var i = random.nextInt(n); i > 0; i--) {
+				final var a = random.nextInt(n);
+				final var b = random.nextInt(n);
+				if (a != b) {
+					g.addUndirectedEdge(a, b, 1.0);
+				}
+			}
+			final var expected = new ArrayList<Pair<Integer, Integer>>();
+			for (var i = 0; i < n; i++) {
+				for (var j = i + 1; j < n; j++) {
+					if (g.isConnected(i, j) && !g.getTwoAreas(new Pair<>(i, j)).first().contains(j)) {
+						expected.add(new Pair<>(i, j));
+					}
+				}
+			}
+			Assertions.assertEquals(expected.toString(), g.getBridges().toString());
+			final var components = g.getComponents();
+			for (var i = 0; i < expected.size(); i++) {
+				final var areas = g.getTwoAreas(expected.get(i));
+				Assertions.assertEquals(areas.first(), components.get(i).first());
+				Assertions.assertEquals(areas.second(), components.get(i).second());
+			}
+		}
+	}
+
+	@Test
+	void testTraversal() {
+		final var g = this.getTestGraph(true);
+		final var traversal = g.newTraversal();
+		final var order = new ArrayList<Integer>();
+		Assertions.assertEquals(GraphTest.N_VALUES, traversal.bfs(4, order::add));
+		Assertions.assertEquals(List.of(4, 0, 3, 5, 1, 2, 6, 7, 8, 9), order);
+		order.clear();
+		Assertions.assertEquals(GraphTest.N_VALUES, traversal.dfs(4, order::add));
+		Assertions.assertEquals(List.of(4, 0, 1, 2, 3, 5, 6, 9, 8, 7), order);
+		final var unconnected = new Graph<Integer>(3);
+		unconnected.add(0);
+		unconnected.add(1);
+		unconnected.add(2);
+		unconnected.addUndirectedEdge(0, 1, 1.0);
+		final var reused = unconnected.newTraversal();
+		Assertions.assertEquals(2, reused.dfs(0, a -> {
+		}));
+		Assertions.assertTrue(reused.isVisited(1));
+		Assertions.assertEquals(1, reused.dfs(2, a -> {
+		}));
+		Assertions.assertFalse(reused.isVisited(1));
+	}
+
+	@Test
+	void testDeepTraversal() {
+		final var n = 200_000;
+		final var g = new Graph<Integer>(n);
+		Assertions.assertTrue(g.isSparse());
+		for (var i = 0; i < n; i++) {
+			g.add(i);
+		}
+		for (var i = 1; i < n; i++) {
+			g.addUndirectedEdge(i - 1, i, 1.0);
+		}
+		Assertions.assertTrue(g.isConnected());
+		Assertions.assertEquals(n - 1, g.getBridges().size());
+	}
+
+	@Test
+	void testNeighbours() {
+		for (final var sparse : new boolean[]{false, true}) {
+			final var g = this.getTestGraph(sparse);
+			g.addDirectedEdge(5, 0, 7.0);
+			final var cursor = g.newNeighbourCursor();
+			final var indices = new ArrayList<Integer>();
+			final var weights = new ArrayList<Double>();
+			cursor.reset(5);
+			while (cursor.next()) {
+				indices.add(cursor.index());
+				weights.add(cursor.weight());
+			}
+			Assertions.assertFalse(cursor.next());
+			Assertions.assertEquals(List.of(0, 4, 6, 7, 8, 9), indices);
+			Assertions.assertEquals(List.of(7.0, 2.3, 2.3, 2.3, 2.3, 2.3), weights);
+			final var visited = new ArrayList<Integer>();
+			g.forEachNeighbour(5, (idx, weight) -> visited.add(idx));
+			Assertions.assertEquals(indices, visited);
+			cursor.reset(1);
+			Assertions.assertTrue(cursor.next());
+			Assertions.assertEquals(0, cursor.index());
+		}
+		Assertions.assertThrows(IllegalStateException.class, () -> this.getTestGraph().newNeighbourCursor().next());
+	}
+
+	@Test
+	void testCopyWithValues() {
+		for (final var sparse : new boolean[]{false, true}) {
+			final var g = this.getTestGraph(sparse);
+			g.initCache();
+			final var names = new ArrayList<String>();
+			for (var i = 0; i < g.size(); i++) {
+				names.add("city" + i);
+			}
+			final var copy = g.copyWithValues(names);
+			Assertions.assertEquals("city5", copy.getValue(5));
+			Assertions.assertEquals(5, copy.indexOf("city5"));
+			Assertions.assertEquals(g.getConnections().toString(), copy.getConnections().toString());
+			Assertions.assertEquals(g.getBridges().toString(), copy.getBridges().toString());
+			// Changing one graph doesn't change the other one.
+			copy.addUndirectedEdge(1, 9, 4.0);
+			g.addUndirectedEdge(0, 1, 1.0);
+			Assertions.assertTrue(copy.isConnectedAt(1, 9));
+			Assertions.assertFalse(g.isConnectedAt(1, 9));
+			Assertions.assertEquals(2.3, copy.getWeightAt(0, 1));
+			Assertions.assertEquals(1.0, g.getWeightAt(0, 1));
+			Assertions.assertEquals(1, g.getBridges().size());
+			Assertions.assertEquals(0, copy.getBridges().size());
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> this.getTestGraph().copyWithValues(List.of()));
+	}
+
 	private Graph<Integer> getTestGraph() {
-		final var ret = new Graph<Integer>(GraphTest.N_VALUES);
+		return this.getTestGraph(false);
+	}
+
+	private Graph<Integer> getTestGraph(final boolean sparse) {
+		final var ret = new Graph<Integer>(GraphTest.N_VALUES, sparse);
 		for (var i = 0; i < GraphTest.N_VALUES; i++) {
 			ret.add(i);
 		}
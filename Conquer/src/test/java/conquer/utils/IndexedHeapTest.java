@@ -0,0 +1,95 @@
+package conquer.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+
+class IndexedHeapTest {
+
+	@Test
+	void testOrder() {
+		final var heap = new IndexedHeap(5);
+		heap.set(0, 1.0);
+		heap.set(1, 5.0);
+		heap.set(2, 3.0);
+		heap.set(3, 5.0);
+		heap.set(4, -2.0);
+		Assertions.assertEquals(5, heap.size());
+		// Same priority: The smaller index first
+		Assertions.assertEquals(1, heap.poll());
+		Assertions.assertEquals(3, heap.poll());
+		Assertions.assertEquals(2, heap.poll());
+		Assertions.assertEquals(0, heap.poll());
+		Assertions.assertEquals(4, heap.poll());
+		Assertions.assertTrue(heap.isEmpty());
+		Assertions.assertThrows(IllegalStateException.class, heap::peek);
+	}
+
+	@Test
+	void testUpdateAndRemove() {
+		final var heap = new IndexedHeap(4);
+		heap.set(0, 1.0);
+		heap.set(1, 2.0);
+		heap.set(2, 3.0);
+		Assertions.assertEquals(2, heap.peek());
+		heap.set(0, 10.0);
+		Assertions.assertEquals(0, heap.peek());
+		Assertions.assertEquals(10.0, heap.getPriority(0));
+		heap.set(0, -1.0);
+		Assertions.assertEquals(2, heap.peek());
+		Assertions.assertTrue(heap.remove(2));
+		Assertions.assertFalse(heap.remove(2));
+		Assertions.assertFalse(heap.contains(2));
+		Assertions.assertFalse(heap.contains(3));
+		Assertions.assertEquals(2, heap.size());
+		Assertions.assertEquals(1, heap.poll());
+		heap.clear();
+		Assertions.assertTrue(heap.isEmpty());
+		Assertions.assertFalse(heap.contains(0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> heap.getPriority(0));
+	}
+
+	@Test
+	void testInvalidArguments() {
+		final var heap = new IndexedHeap(2);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new IndexedHeap(-1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> heap.set(2, 0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> heap.set(-1, 0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> heap.set(0, Double.NaN));
+	}
+
+	@Test
+	void testRandom() {
+		final var random = new Random(3);
+		final var n = 200;
+		final var heap = new IndexedHeap(n);
+		final var priorities = new double[n];
+		final var contained = new boolean[n];
+		for (var i = 0; i < 5000; i++) {
+			final var idx = random.nextInt(n);
+			if (random.nextInt(4) == 0) {
+				Assertions.assertEquals(contained[idx], heap.remove(idx));
+				contained[idx] = false;
+			} else {
+				priorities[idx] = random.nextInt(50);
+				heap.set(idx, priorities[idx]);
+				contained[idx] = true;
+			}
+		}
+		final var expected = new ArrayList<Integer>();
+		for (var i = 0; i < n; i++) {
+			if (contained[i]) {
+				expected.add(i);
+			}
+		}
+		expected.sort(Comparator.comparingDouble((Integer i) -> -priorities[i]).thenComparingInt(i -> i));
+		final var actual = new ArrayList<Integer>();
+		while (!heap.isEmpty()) {
+			actual.add(heap.poll());
+		}
+		Assertions.assertEquals(expected, actual);
+	}
+}
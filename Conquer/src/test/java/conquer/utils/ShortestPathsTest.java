@@ -0,0 +1,104 @@
+package conquer.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+class ShortestPathsTest {
+
+	@Test
+	void testLine() {
+		final var g = this.line(4);
+		final var paths = new ShortestPaths<>(g, weight -> 1 + weight);
+		Assertions.assertEquals(0, paths.getCost(2, 2));
+		Assertions.assertEquals(9, paths.getCost(0, 3));
+		Assertions.assertEquals(1, paths.getNextHop(0, 3));
+		Assertions.assertEquals(-1, paths.getNextHop(1, 1));
+		Assertions.assertEquals(List.of(3, 2, 1, 0), paths.getPath(3, 0));
+		Assertions.assertEquals(Integer.valueOf(2), paths.getNextHop(Integer.valueOf(3), Integer.valueOf(0)));
+	}
+
+	@Test
+	void testUnreachable() {
+		final var g = new Graph<Integer>(3);
+		g.add(0);
+		g.add(1);
+		g.add(2);
+		g.addUndirectedEdge(0, 1, 1.0);
+		final var paths = new ShortestPaths<>(g);
+		Assertions.assertEquals(Double.POSITIVE_INFINITY, paths.getCost(0, 2));
+		Assertions.assertEquals(-1, paths.getNextHop(0, 2));
+		Assertions.assertTrue(paths.getPath(0, 2).isEmpty());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> paths.getCost(0, 3));
+	}
+
+	@Test
+	void testEdgeChanges() {
+		final var g = this.line(4);
+		final var paths = new ShortestPaths<>(g);
+		Assertions.assertEquals(6, paths.getCost(0, 3));
+		g.addUndirectedEdge(0, 3, 1.0);
+		Assertions.assertEquals(1, paths.getCost(0, 3));
+		g.addUndirectedEdge(0, 3, 10.0);
+		Assertions.assertEquals(6, paths.getCost(0, 3));
+		Assertions.assertEquals(1, paths.getNextHop(0, 3));
+	}
+
+	@Test
+	void testAgainstFloydWarshall() {
+		final var random = new Random(7);
+		final var n = 30;
+		final var g = new Graph<Integer>(n, true);
+		for (var i = 0; i < n; i++) {
+			g.add(i);
+		}
+		for (var i = 0; i < 80; i++) {
+			final var a = random.nextInt(n);
+			final var b = random.nextInt(n);
+			if (a != b) {
+				g.addDirectedEdge(a, b, 1 + random.nextInt(20));
+			}
+		}
+		final var expected = new double[n][n];
+		for (var i = 0; i < n; i++) {
+			for (var j = 0; j < n; j++) {
+				final var weight = g.getWeightAt(i, j);
+				expected[i][j] = i == j ? 0 : (weight == -1 ? Double.POSITIVE_INFINITY : weight);
+			}
+		}
+		for (var k = 0; k < n; k++) {
+			for (var i = 0; i < n; i++) {
+				for (var j = 0; j < n; j++) {
+					expected[i][j] = Math.min(expected[i][j], expected[i][k] + expected[k][j]);
+				}
+			}
+		}
+		final var paths = new ShortestPaths<>(g);
+		paths.computeAll();
+		for (var i = 0; i < n; i++) {
+			for (var j = 0; j < n; j++) {
+				Assertions.assertEquals(expected[i][j], paths.getCost(i, j));
+				final var path = paths.getPath(i, j);
+				var cost = 0.0;
+				for (var k = 1; k < path.size(); k++) {
+					cost += g.getWeightAt(path.get(k - 1), path.get(k));
+				}
+				Assertions.assertEquals(path.isEmpty() ? Double.POSITIVE_INFINITY : expected[i][j],
+						path.isEmpty() ? Double.POSITIVE_INFINITY : cost);
+			}
+		}
+	}
+
+	private Graph<Integer> line(final int n) {
+		final var ret = new Graph<Integer>(n);
+		for (var i = 0; i < n; i++) {
+			ret.add(i);
+		}
+		for (var i = 1; i < n; i++) {
+			ret.addUndirectedEdge(i - 1, i, 2.0);
+		}
+		return ret;
+	}
+}
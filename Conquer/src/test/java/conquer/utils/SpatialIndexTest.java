@@ -0,0 +1,98 @@
+package conquer.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+class SpatialIndexTest {
+
+	@Test
+	void testSmall() {
+		final var index = new SpatialIndex(new int[]{0, 10, 10, 5, 10}, new int[]{0, 0, 10, 5, 0});
+		Assertions.assertEquals(5, index.size());
+		Assertions.assertEquals(3, index.nearest(6, 6));
+		// 1 and 4 have the same position: The smaller index wins.
+		Assertions.assertEquals(1, index.nearest(11, -1));
+		Assertions.assertEquals(List.of(0, 3),
+				SpatialIndexTest.sorted(c -> index.withinRadius(0, 0, Math.sqrt(50), c)));
+		Assertions.assertEquals(List.of(1, 2, 3, 4),
+				SpatialIndexTest.sorted(c -> index.inRectangle(5, 0, 10, 10, c)));
+		Assertions.assertEquals(List.of(), SpatialIndexTest.sorted(c -> index.inRectangle(1, 1, 4, 4, c)));
+		final var empty = new SpatialIndex(new int[0], new int[0]);
+		Assertions.assertEquals(-1, empty.nearest(0, 0));
+		Assertions.assertEquals(List.of(), SpatialIndexTest.sorted(c -> empty.withinRadius(0, 0, 100, c)));
+	}
+
+	@Test
+	void testRandom() {
+		final var random = new Random(42);
+		for (var round = 0; round < 20; round++) {
+			final var n = random.nextInt(500);
+			// A small range creates many points with the same coordinates.
+			final var range = round % 2 == 0 ? 20 : 10_000;
+			final var xs = new int[n];
+			final var ys = new int[n];
+			for (var i = 0; i < n; i++) {
+				xs[i] = random.nextInt(range);
+				ys[i] = random.nextInt(range);
+			}
+			final var index = new SpatialIndex(xs, ys);
+			for (var query = 0; query < 50; query++) {
+				final var x = random.nextInt(range + 20) - 10;
+				final var y = random.nextInt(range + 20) - 10;
+				final var radius = random.nextDouble() * range / 4;
+				final var width = random.nextInt(range / 2);
+				final var height = random.nextInt(range / 2);
+				var nearest = -1;
+				final List<Integer> inCircle = new ArrayList<>();
+				final List<Integer> inRectangle = new ArrayList<>();
+				for (var i = 0; i < n; i++) {
+					if ((nearest == -1) || (SpatialIndexTest.distance(xs[i], ys[i], x, y)
+							< SpatialIndexTest.distance(xs[nearest], ys[nearest], x, y))) {
+						nearest = i;
+					}
+					if (SpatialIndexTest.distance(xs[i], ys[i], x, y) <= (radius * radius)) {
+						inCircle.add(i);
+					}
+					if ((xs[i] >= x) && (xs[i] <= (x + width)) && (ys[i] >= y) && (ys[i] <= (y + height))) {
+						inRectangle.add(i);
+					}
+				}
+				Assertions.assertEquals(nearest, index.nearest(x, y));
+				Assertions.assertEquals(inCircle, SpatialIndexTest.sorted(c -> index.withinRadius(x, y, radius, c)));
+				Assertions.assertEquals(inRectangle,
+						SpatialIndexTest.sorted(c -> index.inRectangle(x, y, x + width, y + height, c)));
+			}
+		}
+	}
+
+	@Test
+	void testInvalidArguments() {
+		final var index = new SpatialIndex(new int[]{1}, new int[]{1});
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new SpatialIndex(null, new int[0]));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new SpatialIndex(new int[1], new int[2]));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> index.withinRadius(0, 0, -1, a -> {
+		}));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> index.withinRadius(0, 0, 1, null));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> index.inRectangle(1, 0, 0, 0, a -> {
+		}));
+	}
+
+	private static long distance(final int x1, final int y1, final int x2, final int y2) {
+		final long dx = x1 - x2;
+		final long dy = y1 - y2;
+		return (dx * dx) + (dy * dy);
+	}
+
+	private static List<Integer> sorted(final Consumer<IntConsumer> query) {
+		final List<Integer> ret = new ArrayList<>();
+		query.accept(ret::add);
+		ret.sort(null);
+		return ret;
+	}
+}
@@ -0,0 +1,104 @@
+package conquer.headless;
+
+import conquer.data.GlobalContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a batch of games without any frontend. Every clan, including the clan of the player, is played by its
+ * strategy. The games run in parallel, but the results are always written in the order of the games.
+ */
+public final class BatchSimulation {
+	private final SimulationConfiguration configuration;
+	private final GlobalContext context;
+	private final GamePlayer player;
+
+	/**
+	 * Creates a new batch.
+	 *
+	 * @param configuration The configuration of the batch. May not be {@code null}.
+	 * @param context       The context that is used to look up the installed scenarios and the strategies.
+	 *                      May not be {@code null}.
+	 */
+	public BatchSimulation(final SimulationConfiguration configuration, final GlobalContext context) {
+		if (configuration == null) {
+			throw new IllegalArgumentException("configuration==null");
+		} else if (context == null) {
+			throw new IllegalArgumentException("context==null");
+		}
+		this.configuration = configuration;
+		this.context = context;
+		this.player = new GamePlayer(context, configuration.getRounds(), configuration.usePlugins());
+	}
+
+	/**
+	 * Creates the jobs of this batch. Every job gets its own seed, that is derived from the seed of the batch, so
+	 * the same configuration always produces the same jobs.
+	 *
+	 * @return All jobs in the order they are reported.
+	 */
+	public List<SimulationJob> createJobs() {
+		final var scenarios = GamePlayer.resolveScenarios(this.context, this.configuration.getScenarios());
+		final var random = new SplittableRandom(this.configuration.getSeed());
+		final var ret = new ArrayList<SimulationJob>();
+		for (final var scenario : scenarios) {
+			for (var i = 0; i < this.configuration.getGames(); i++) {
+				ret.add(new SimulationJob(ret.size(), scenario, random.nextLong()));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Runs all jobs and writes every result to {@code writer}.
+	 *
+	 * @param writer The receiver of the results. May not be {@code null}.
+	 * @return The number of games that were played.
+	 * @throws IOException If writing a result failed.
+	 */
+	public int run(final ResultWriter writer) throws IOException {
+		if (writer == null) {
+			throw new IllegalArgumentException("writer==null");
+		}
+		final var jobs = this.createJobs();
+		final var executor = Executors.newFixedThreadPool(this.configuration.getParallelism());
+		try {
+			final var futures = new ArrayList<Future<SimulationResult>>(jobs.size());
+			jobs.forEach(job -> futures.add(executor.submit(() -> this.play(job))));
+			for (final var future : futures) {
+				try {
+					writer.write(future.get());
+				} catch (final ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return jobs.size();
+	}
+
+	/**
+	 * Plays one game.
+	 *
+	 * @param job The game to play. May not be {@code null}.
+	 * @return The result of the game.
+	 */
+	public SimulationResult play(final SimulationJob job) {
+		if (job == null) {
+			throw new IllegalArgumentException("job==null");
+		}
+		final var game = this.player.play(job, this.configuration::getStrategy, nanos -> {
+		});
+		return GamePlayer.summarize(job, game);
+	}
+}
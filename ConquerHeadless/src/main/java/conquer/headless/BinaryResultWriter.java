@@ -0,0 +1,58 @@
+package conquer.headless;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the results in a compact binary format. The stream starts with the magic number {@link #MAGIC} and
+ * {@link #VERSION}, followed by one record per game: game (int), scenario (UTF), seed (long), winner (int),
+ * rounds (int), number of clans (int) and the strength of every clan (double).
+ */
+public final class BinaryResultWriter implements ResultWriter {
+	/**
+	 * The first four bytes of the stream.
+	 */
+	public static final int MAGIC = 0x43_51_52_53;
+	/**
+	 * The version of the format.
+	 */
+	public static final int VERSION = 1;
+	private final DataOutputStream out;
+
+	/**
+	 * Creates a new writer and writes the header.
+	 *
+	 * @param out The target. May not be {@code null}.
+	 * @throws IOException If the header couldn't be written.
+	 */
+	public BinaryResultWriter(final OutputStream out) throws IOException {
+		if (out == null) {
+			throw new IllegalArgumentException("out==null");
+		}
+		this.out = new DataOutputStream(out);
+		this.out.writeInt(BinaryResultWriter.MAGIC);
+		this.out.writeInt(BinaryResultWriter.VERSION);
+	}
+
+	@Override
+	public void write(final SimulationResult result) throws IOException {
+		if (result == null) {
+			throw new IllegalArgumentException("result==null");
+		}
+		this.out.writeInt(result.game());
+		this.out.writeUTF(result.scenario());
+		this.out.writeLong(result.seed());
+		this.out.writeInt(result.winner());
+		this.out.writeInt(result.rounds());
+		this.out.writeInt(result.strengths().length);
+		for (final var strength : result.strengths()) {
+			this.out.writeDouble(strength);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.out.close();
+	}
+}
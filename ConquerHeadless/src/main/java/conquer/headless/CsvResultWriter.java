@@ -0,0 +1,43 @@
+package conquer.headless;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the results as CSV, see {@link OutputFormat#CSV}.
+ */
+public final class CsvResultWriter implements ResultWriter {
+	private final Writer writer;
+
+	/**
+	 * Creates a new writer and writes the header.
+	 *
+	 * @param writer The target. May not be {@code null}.
+	 * @throws IOException If the header couldn't be written.
+	 */
+	public CsvResultWriter(final Writer writer) throws IOException {
+		if (writer == null) {
+			throw new IllegalArgumentException("writer==null");
+		}
+		this.writer = writer;
+		this.writer.write("game,scenario,seed,winner,rounds,strengths\n");
+	}
+
+	@Override
+	public void write(final SimulationResult result) throws IOException {
+		if (result == null) {
+			throw new IllegalArgumentException("result==null");
+		}
+		final var strengths = Arrays.stream(result.strengths()).mapToObj(Double::toString)
+				.collect(Collectors.joining(";"));
+		this.writer.write(result.game() + "," + result.scenario().replace(",", "_") + "," + result.seed() + ","
+				+ result.winner() + "," + result.rounds() + "," + strengths + "\n");
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.writer.close();
+	}
+}
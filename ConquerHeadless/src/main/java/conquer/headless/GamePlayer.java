@@ -0,0 +1,157 @@
+package conquer.headless;
+
+import conquer.data.ConquerInfo;
+import conquer.data.GlobalContext;
+import conquer.data.ICity;
+import conquer.data.InstalledScenario;
+import conquer.data.SPIContextBuilder;
+import conquer.data.Shared;
+import conquer.data.StreamUtils;
+import conquer.data.strategy.StrategyProvider;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongConsumer;
+
+/**
+ * Plays single games without any frontend. Every clan, including the clan of the player, is played by its
+ * strategy. Shared by the batch simulation and the tournament.
+ */
+final class GamePlayer {
+	private final GlobalContext context;
+	private final int rounds;
+	private final boolean plugins;
+
+	/**
+	 * Creates a new player.
+	 *
+	 * @param context The context that is used to look up the installed scenarios and the strategies.
+	 * @param rounds  The maximum number of rounds per game.
+	 * @param plugins Whether the plugins are loaded for every game.
+	 */
+	GamePlayer(final GlobalContext context, final int rounds, final boolean plugins) {
+		this.context = context;
+		this.rounds = rounds;
+		this.plugins = plugins;
+	}
+
+	/**
+	 * Resolves the names of scenarios.
+	 *
+	 * @param context The context with the installed scenarios.
+	 * @param names   Names of installed scenarios or paths to scenario files. If empty, all installed scenarios
+	 *                are returned.
+	 * @return The scenarios.
+	 * @throws IllegalArgumentException If a scenario doesn't exist.
+	 */
+	static List<InstalledScenario> resolveScenarios(final GlobalContext context, final List<String> names) {
+		if (names.isEmpty()) {
+			return context.getInstalledMaps();
+		}
+		final var ret = new ArrayList<InstalledScenario>();
+		for (final var name : names) {
+			final var installed = context.getInstalledMaps().stream().filter(a -> a.name().equals(name))
+					.findFirst();
+			if (installed.isPresent()) {
+				ret.add(installed.get());
+			} else if (new File(name).isFile()) {
+				ret.add(new InstalledScenario(new File(name).getName(), name, null, null));
+			} else {
+				throw new IllegalArgumentException("Unknown scenario: " + name);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Plays one game until only one clan is left or the round limit is reached.
+	 *
+	 * @param job         The game to play.
+	 * @param strategies  Maps the id of a clan to the id of its strategy, {@code -1} keeps the strategy of the
+	 *                    scenario.
+	 * @param playerTurns Receives the duration of every turn of the clan of the player in nanoseconds. The other
+	 *                    clans are measured by the game.
+	 * @return The game after the last round.
+	 */
+	ConquerInfo play(final SimulationJob job, final IntUnaryOperator strategies, final LongConsumer playerTurns) {
+		return this.play(job, strategies, List.of(), playerTurns);
+	}
+
+	/**
+	 * Plays one game with additional strategies, that are only known to this game.
+	 *
+	 * @param job         The game to play.
+	 * @param strategies  Maps the id of a clan to the id of its strategy, {@code -1} keeps the strategy of the
+	 *                    scenario.
+	 * @param additional  Strategies, that are added to the strategies of the context.
+	 * @param playerTurns Receives the duration of every turn of the clan of the player in nanoseconds.
+	 * @return The game after the last round.
+	 */
+	ConquerInfo play(final SimulationJob job, final IntUnaryOperator strategies,
+					 final List<StrategyProvider> additional, final LongConsumer playerTurns) {
+		final var game = this.context.loadInfo(job.scenario());
+		game.getClans().forEach(clan -> {
+			final var strategy = strategies.applyAsInt(clan.getId());
+			if (strategy != -1) {
+				clan.setFlags(strategy);
+			}
+		});
+		game.setSeed(job.seed());
+		game.addContext(this.contextForGame(additional));
+		game.setPlayerGiftCallback(
+				(source, destination, gift, oldValue, newValue, strategyObject) -> destination.getStrategy()
+						.acceptGift(source, destination, gift, oldValue, newValue, strategyObject));
+		game.init();
+		final var player = game.getPlayerClan();
+		while (!game.onlyOneClanAlive() && (game.currentRound() <= this.rounds)) {
+			if (!game.isDead(player)) {
+				final var start = System.nanoTime();
+				player.getStrategy().applyStrategy(player, game.getCities(), game);
+				playerTurns.accept(System.nanoTime() - start);
+				player.update(game.currentRound());
+			}
+			game.executeActions();
+		}
+		return game;
+	}
+
+	private GlobalContext contextForGame(final List<StrategyProvider> additional) {
+		// Plugins keep state, so every game needs its own instances.
+		final var ret = new SPIContextBuilder().buildContext();
+		if (!this.plugins) {
+			ret.getPlugins().clear();
+			ret.getPluginNames().clear();
+		}
+		ret.getStrategies().clear();
+		ret.getStrategyNames().clear();
+		ret.getStrategies().addAll(this.context.getStrategies());
+		ret.getStrategyNames().addAll(this.context.getStrategyNames());
+		additional.forEach(provider -> {
+			ret.getStrategies().add(provider);
+			ret.getStrategyNames().add(provider.getClass().getName());
+		});
+		return ret;
+	}
+
+	/**
+	 * Summarizes a finished game.
+	 *
+	 * @param job  The job of the game.
+	 * @param game The game after the last round.
+	 * @return The result.
+	 */
+	static SimulationResult summarize(final SimulationJob job, final ConquerInfo game) {
+		final var strengths = new double[game.getClans().size()];
+		StreamUtils.forEach(game.getCities(), city -> strengths[city.getClanId()] += city.getDefenseStrength());
+		final var winner = game.onlyOneClanAlive()
+				? StreamUtils.getCitiesAsStream(game.getCities()).findFirst().map(ICity::getClanId).orElse(-1)
+				: -1;
+		if (winner == -1) {
+			Shared.LOGGER.message("Game " + job.game() + " reached the round limit");
+		}
+		return new SimulationResult(job.game(), job.scenario().name(), job.seed(), winner, game.currentRound() - 1,
+				strengths);
+	}
+}
@@ -0,0 +1,161 @@
+package conquer.headless;
+
+import conquer.data.SPIContextBuilder;
+import conquer.data.Shared;
+import conquer.data.XMLReader;
+import conquer.data.strategy.StrategyProfile;
+
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Entry point of the headless simulator.
+ */
+public final class Main {
+	private Main() {
+	}
+
+	/**
+	 * Runs a batch of games, see {@link SimulationConfiguration#usage()} for the arguments. If the first argument
+	 * is {@code tournament}, a {@link Tournament} is played instead, see {@link TournamentConfiguration#usage()}.
+	 * If it is {@code train}, the profile of a builtin strategy is tuned by a {@link Trainer}, see
+	 * {@link TrainerConfiguration#usage()}.
+	 *
+	 * @param args The arguments.
+	 * @throws IOException If the results couldn't be written.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if ((args.length > 0) && "tournament".equals(args[0])) {
+			Main.tournament(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		} else if ((args.length > 0) && "train".equals(args[0])) {
+			Main.train(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		final SimulationConfiguration configuration;
+		try {
+			configuration = SimulationConfiguration.parse(args);
+		} catch (final IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.print(SimulationConfiguration.usage());
+			System.exit(1);
+			return;
+		}
+		Shared.LOGGER.setEnabled(configuration.useLogging());
+		@SuppressWarnings("removal")
+		final var context = Shared.useSPI() ? new SPIContextBuilder().buildContext()
+				: XMLReader.getInstance().readInfo();
+		final var simulation = new BatchSimulation(configuration, context);
+		final var start = System.nanoTime();
+		final int games;
+		try (final var writer = Main.createWriter(configuration)) {
+			games = simulation.run(writer);
+		}
+		final var seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		System.err.printf("Played %d games in %.2fs (Seed: %d)%n", games, seconds, configuration.getSeed());
+	}
+
+	private static void tournament(final String[] args) throws IOException {
+		final TournamentConfiguration configuration;
+		try {
+			configuration = TournamentConfiguration.parse(args);
+		} catch (final IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.print(TournamentConfiguration.usage());
+			System.exit(1);
+			return;
+		}
+		Shared.LOGGER.setEnabled(configuration.useLogging());
+		@SuppressWarnings("removal")
+		final var context = Shared.useSPI() ? new SPIContextBuilder().buildContext()
+				: XMLReader.getInstance().readInfo();
+		final var tournament = new Tournament(configuration, context);
+		final var games = tournament.createJobs().size();
+		final var start = System.nanoTime();
+		final var statistics = tournament.run();
+		final OutputStream out = configuration.getOutput() == null ? new NonClosingOutputStream(System.out)
+				: new BufferedOutputStream(new FileOutputStream(configuration.getOutput()));
+		try (final var writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+			TournamentReport.write(statistics, writer);
+		}
+		final var seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		System.err.printf("Played %d games in %.2fs (Seed: %d)%n", games, seconds, configuration.getSeed());
+	}
+
+	private static void train(final String[] args) throws IOException {
+		final TrainerConfiguration configuration;
+		final Trainer trainer;
+		final StrategyProfile initial;
+		try {
+			configuration = TrainerConfiguration.parse(args);
+			Shared.LOGGER.setEnabled(configuration.useLogging());
+			@SuppressWarnings("removal")
+			final var context = Shared.useSPI() ? new SPIContextBuilder().buildContext()
+					: XMLReader.getInstance().readInfo();
+			trainer = new Trainer(configuration, context);
+			if (configuration.getInitial() == null) {
+				initial = StrategyProfile.DEFAULT;
+			} else {
+				try (final var in = new FileInputStream(configuration.getInitial())) {
+					initial = StrategyProfile.read(in);
+				}
+			}
+		} catch (final IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.print(TrainerConfiguration.usage());
+			System.exit(1);
+			return;
+		}
+		final var start = System.nanoTime();
+		final var generation = new int[1];
+		final var best = trainer.run(initial, evaluations -> {
+			final var first = evaluations.get(0);
+			final var mean = evaluations.stream().mapToDouble(Trainer.Evaluation::fitness).average().orElse(0);
+			System.err.printf("Generation %d: best %.4f (win rate %.4f, %.3fms/decision), mean %.4f%n",
+					++generation[0], first.fitness(), first.winRate(), first.millis(), mean);
+		});
+		final OutputStream out = configuration.getOutput() == null ? new NonClosingOutputStream(System.out)
+				: new BufferedOutputStream(new FileOutputStream(configuration.getOutput()));
+		try (out) {
+			best.profile().write(out, String.format("Trained %s against %s (Seed: %d)\nFitness: %.4f, win rate: "
+							+ "%.4f, %.3fms/decision", configuration.getBase(), configuration.getOpponents(),
+					configuration.getSeed(), best.fitness(), best.winRate(), best.millis()));
+		}
+		final var seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		System.err.printf("Trained %d generations in %.2fs (Seed: %d)%n", generation[0], seconds,
+				configuration.getSeed());
+	}
+
+	private static ResultWriter createWriter(final SimulationConfiguration configuration) throws IOException {
+		final OutputStream out = configuration.getOutput() == null ? new NonClosingOutputStream(System.out)
+				: new BufferedOutputStream(new FileOutputStream(configuration.getOutput()));
+		return switch (configuration.getFormat()) {
+			case CSV -> new CsvResultWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			case BINARY -> new BinaryResultWriter(out);
+		};
+	}
+
+	// System.out has to stay usable after the writer was closed.
+	private static final class NonClosingOutputStream extends FilterOutputStream {
+		private NonClosingOutputStream(final OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			this.out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.flush();
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package conquer.headless;
+
+/**
+ * The format of the summary of a batch simulation.
+ */
+public enum OutputFormat {
+	/**
+	 * One line per game: {@code game,scenario,seed,winner,rounds,strengths}. The strengths of the clans are
+	 * separated by semicolons.
+	 */
+	CSV,
+	/**
+	 * A stream of {@link java.io.DataOutputStream} records, see {@link BinaryResultWriter}.
+	 */
+	BINARY
+}
@@ -0,0 +1,17 @@
+package conquer.headless;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives the results of a batch in the order of the games.
+ */
+public interface ResultWriter extends Closeable {
+	/**
+	 * Writes one result.
+	 *
+	 * @param result The result. May not be {@code null}.
+	 * @throws IOException If writing failed.
+	 */
+	void write(SimulationResult result) throws IOException;
+}
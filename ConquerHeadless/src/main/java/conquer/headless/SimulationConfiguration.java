@@ -0,0 +1,155 @@
+package conquer.headless;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parsed command line of a batch simulation.
+ */
+public final class SimulationConfiguration {
+	/**
+	 * Used in a strategy assignment to address every clan that wasn't assigned explicitly.
+	 */
+	public static final int ALL_CLANS = -1;
+	private final List<String> scenarios = new ArrayList<>();
+	private final Map<Integer, Integer> strategies = new HashMap<>();
+	private long seed = System.nanoTime();
+	private int rounds = 1000;
+	private int games = 1;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private String output;
+	private OutputFormat format = OutputFormat.CSV;
+	private boolean plugins;
+	private boolean logging;
+
+	private SimulationConfiguration() {
+	}
+
+	/**
+	 * Parses the command line.
+	 *
+	 * @param args The arguments, see {@link #usage()}. May not be null.
+	 * @return The configuration
+	 * @throws IllegalArgumentException If an argument is unknown or malformed.
+	 */
+	public static SimulationConfiguration parse(final String[] args) {
+		if (args == null) {
+			throw new IllegalArgumentException("args==null");
+		}
+		final var ret = new SimulationConfiguration();
+		for (var i = 0; i < args.length; i++) {
+			final var arg = args[i];
+			switch (arg) {
+				case "--scenarios" -> ret.scenarios.addAll(List.of(SimulationConfiguration.value(args, ++i).split(",")));
+				case "--strategies" -> ret.parseStrategies(SimulationConfiguration.value(args, ++i));
+				case "--seed" -> ret.seed = Long.parseLong(SimulationConfiguration.value(args, ++i));
+				case "--rounds" -> ret.rounds = SimulationConfiguration.positive(args, ++i);
+				case "--games" -> ret.games = SimulationConfiguration.positive(args, ++i);
+				case "--parallelism" -> ret.parallelism = SimulationConfiguration.positive(args, ++i);
+				case "--output" -> ret.output = SimulationConfiguration.value(args, ++i);
+				case "--format" -> ret.format = OutputFormat.valueOf(SimulationConfiguration.value(args, ++i).toUpperCase());
+				case "--plugins" -> ret.plugins = true;
+				case "--logging" -> ret.logging = true;
+				default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+			}
+		}
+		return ret;
+	}
+
+	private static String value(final String[] args, final int index) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+		}
+		return args[index];
+	}
+
+	private static int positive(final String[] args, final int index) {
+		final var ret = Integer.parseInt(SimulationConfiguration.value(args, index));
+		if (ret <= 0) {
+			throw new IllegalArgumentException(args[index - 1] + " has to be positive: " + ret);
+		}
+		return ret;
+	}
+
+	private void parseStrategies(final String assignments) {
+		for (final var assignment : assignments.split(",")) {
+			final var parts = assignment.split("=");
+			if (parts.length != 2) {
+				throw new IllegalArgumentException("Expected <clan>=<strategy>, got " + assignment);
+			}
+			final var clan = "*".equals(parts[0]) ? SimulationConfiguration.ALL_CLANS : Integer.parseInt(parts[0]);
+			this.strategies.put(clan, Integer.parseInt(parts[1]));
+		}
+	}
+
+	/**
+	 * Returns the help text for the command line.
+	 *
+	 * @return The help text.
+	 */
+	public static String usage() {
+		return """
+				Usage: conquer.headless.Main [options]
+				  --scenarios a,b,...     Names of installed scenarios or paths to scenario files (Default: all installed)
+				  --strategies c=s,...    Play clan c with the strategy with the id s, use * for all other clans
+				  --seed n                Seed for the games (Default: random)
+				  --rounds n              Maximum number of rounds per game (Default: 1000)
+				  --games n               Number of games per scenario (Default: 1)
+				  --parallelism n         Number of games running at once (Default: number of cores)
+				  --output file           Target file (Default: stdout)
+				  --format csv|binary     Format of the summary (Default: csv)
+				  --plugins               Load the plugins for every game
+				  --logging               Keep logging to the logfile enabled
+				Use conquer.headless.Main tournament [options] to compare strategies.
+				""";
+	}
+
+	public List<String> getScenarios() {
+		return Collections.unmodifiableList(this.scenarios);
+	}
+
+	/**
+	 * Returns the strategy for a clan.
+	 *
+	 * @param clan The id of the clan
+	 * @return The id of the strategy provider or {@code -1}, if the clan keeps the strategy of the scenario.
+	 */
+	public int getStrategy(final int clan) {
+		return this.strategies.getOrDefault(clan, this.strategies.getOrDefault(SimulationConfiguration.ALL_CLANS, -1));
+	}
+
+	public long getSeed() {
+		return this.seed;
+	}
+
+	public int getRounds() {
+		return this.rounds;
+	}
+
+	public int getGames() {
+		return this.games;
+	}
+
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	public String getOutput() {
+		return this.output;
+	}
+
+	public OutputFormat getFormat() {
+		return this.format;
+	}
+
+	public boolean usePlugins() {
+		return this.plugins;
+	}
+
+	public boolean useLogging() {
+		return this.logging;
+	}
+}
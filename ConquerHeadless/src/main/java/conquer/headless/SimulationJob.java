@@ -0,0 +1,10 @@
+package conquer.headless;
+
+import conquer.data.InstalledScenario;
+
+/**
+ * One game of a batch.<br>
+ * {@code game} is the index of the game in the batch, {@code seed} the seed for this game.
+ */
+public record SimulationJob(int game, InstalledScenario scenario, long seed) {
+}
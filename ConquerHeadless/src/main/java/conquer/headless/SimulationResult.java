@@ -0,0 +1,11 @@
+package conquer.headless;
+
+/**
+ * The outcome of one game.<br>
+ * {@code game} is the index of the game in the batch, {@code winner} is the id of the only surviving clan or
+ * {@code -1}, if the round limit was reached first. {@code rounds} is the number of played rounds.
+ * {@code strengths} contains the sum of the defense strengths of all cities of each clan, indexed by the id of
+ * the clan.
+ */
+public record SimulationResult(int game, String scenario, long seed, int winner, int rounds, double[] strengths) {
+}
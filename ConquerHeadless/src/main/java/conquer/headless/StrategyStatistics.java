@@ -0,0 +1,155 @@
+package conquer.headless;
+
+import conquer.data.strategy.StrategyTiming;
+
+/**
+ * The results of one strategy in a tournament. A strategy takes part in a game, if at least one clan plays it.
+ * The intervals are 95% confidence intervals: The Wilson score interval for the win rate and the normal
+ * approximation for the mean number of rounds to a victory.
+ */
+public final class StrategyStatistics {
+	private static final double Z = 1.959_963_984_540_054;
+	private final int id;
+	private final String name;
+	private int games;
+	private int wins;
+	private long rounds;
+	private double squaredRounds;
+	private double shares;
+	private StrategyTiming timing = StrategyTiming.NONE;
+
+	/**
+	 * Creates empty statistics.
+	 *
+	 * @param id   The id of the strategy.
+	 * @param name The name of the strategy.
+	 */
+	StrategyStatistics(final int id, final String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	/**
+	 * Adds a game, that the strategy took part in.
+	 *
+	 * @param won    Whether a clan of the strategy won the game.
+	 * @param rounds The number of rounds of the game.
+	 * @param share  The share of the defense strength of all cities, that belonged to the clans of the strategy at
+	 *               the end.
+	 */
+	void addGame(final boolean won, final int rounds, final double share) {
+		this.games++;
+		this.shares += share;
+		if (won) {
+			this.wins++;
+			this.rounds += rounds;
+			this.squaredRounds += (double) rounds * rounds;
+		}
+	}
+
+	/**
+	 * Adds the turns of a clan, that played the strategy.
+	 *
+	 * @param clanTiming The timing of the clan.
+	 */
+	void addTiming(final StrategyTiming clanTiming) {
+		this.timing = this.timing.merge(clanTiming);
+	}
+
+	public int getId() {
+		return this.id;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getGames() {
+		return this.games;
+	}
+
+	public int getWins() {
+		return this.wins;
+	}
+
+	/**
+	 * Returns the fraction of the games, that were won.
+	 *
+	 * @return The win rate, 0 without games.
+	 */
+	public double getWinRate() {
+		return this.games == 0 ? 0 : (double) this.wins / this.games;
+	}
+
+	/**
+	 * Returns the lower bound of the confidence interval of the win rate.
+	 *
+	 * @return The lower bound, 0 without games.
+	 */
+	public double getWinRateLow() {
+		return this.games == 0 ? 0 : Math.max(0, this.wilsonCenter() - this.wilsonHalfWidth());
+	}
+
+	/**
+	 * Returns the upper bound of the confidence interval of the win rate.
+	 *
+	 * @return The upper bound, 1 without games.
+	 */
+	public double getWinRateHigh() {
+		return this.games == 0 ? 1 : Math.min(1, this.wilsonCenter() + this.wilsonHalfWidth());
+	}
+
+	private double wilsonCenter() {
+		final var z2 = StrategyStatistics.Z * StrategyStatistics.Z;
+		return (this.getWinRate() + (z2 / (2.0 * this.games))) / (1 + (z2 / this.games));
+	}
+
+	private double wilsonHalfWidth() {
+		final var z2 = StrategyStatistics.Z * StrategyStatistics.Z;
+		final var p = this.getWinRate();
+		return (StrategyStatistics.Z * Math.sqrt(((p * (1 - p)) / this.games) + (z2 / (4.0 * this.games * this.games))))
+				/ (1 + (z2 / this.games));
+	}
+
+	/**
+	 * Returns the mean number of rounds of the won games.
+	 *
+	 * @return The mean, {@link Double#NaN} without a victory.
+	 */
+	public double getMeanRoundsToVictory() {
+		return this.wins == 0 ? Double.NaN : (double) this.rounds / this.wins;
+	}
+
+	/**
+	 * Returns the half width of the confidence interval of the mean number of rounds to a victory.
+	 *
+	 * @return The half width, {@link Double#NaN} with less than two victories.
+	 */
+	public double getRoundsToVictoryError() {
+		if (this.wins < 2) {
+			return Double.NaN;
+		}
+		final var mean = this.getMeanRoundsToVictory();
+		final var variance = (this.squaredRounds - (this.wins * mean * mean)) / (this.wins - 1);
+		return StrategyStatistics.Z * Math.sqrt(Math.max(0, variance) / this.wins);
+	}
+
+	/**
+	 * Returns the mean share of the defense strength of all cities at the end of a game. It still ranks the
+	 * strategies, if most games reach the round limit.
+	 *
+	 * @return The mean share, 0 without games.
+	 */
+	public double getMeanShare() {
+		return this.games == 0 ? 0 : this.shares / this.games;
+	}
+
+	/**
+	 * Returns the duration of the turns of all clans, that played the strategy.
+	 *
+	 * @return The timing.
+	 */
+	public StrategyTiming getTiming() {
+		return this.timing;
+	}
+}
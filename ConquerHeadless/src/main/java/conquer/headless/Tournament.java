@@ -0,0 +1,149 @@
+package conquer.headless;
+
+import conquer.data.GlobalContext;
+import conquer.data.strategy.StrategyTiming;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares strategies by playing them against each other on many games. For every scenario and seed, the game is
+ * played once per rotation of the strategies over the clans, so every strategy gets every seat of the scenario.
+ * The games run in parallel, the statistics are collected in the order of the games, so the same configuration
+ * always produces the same results, except for the timing. This includes the builtin random strategy, it chooses
+ * one of the other builtin strategies with a generator of the game.
+ */
+public final class Tournament {
+	// Built into the game, so they aren't part of the context.
+	private static final List<String> BUILTIN_STRATEGIES = List.of("defensive", "moderate", "offensive", "random");
+	private final TournamentConfiguration configuration;
+	private final GlobalContext context;
+	private final GamePlayer player;
+	private final List<StrategyStatistics> template = new ArrayList<>();
+
+	/**
+	 * Creates a new tournament.
+	 *
+	 * @param configuration The configuration of the tournament. May not be {@code null}.
+	 * @param context       The context that is used to look up the installed scenarios and the strategies.
+	 *                      May not be {@code null}.
+	 * @throws IllegalArgumentException If a strategy of the configuration is unknown.
+	 */
+	public Tournament(final TournamentConfiguration configuration, final GlobalContext context) {
+		if (configuration == null) {
+			throw new IllegalArgumentException("configuration==null");
+		} else if (context == null) {
+			throw new IllegalArgumentException("context==null");
+		}
+		this.configuration = configuration;
+		this.context = context;
+		this.player = new GamePlayer(context, configuration.getRounds(), false);
+		final var available = new TreeMap<Integer, String>();
+		for (var i = 0; i < Tournament.BUILTIN_STRATEGIES.size(); i++) {
+			available.put(i, Tournament.BUILTIN_STRATEGIES.get(i));
+		}
+		context.getStrategies().forEach(provider -> available.putIfAbsent(provider.getId(), provider.getName()));
+		final var ids = configuration.getStrategies().isEmpty() ? List.copyOf(available.keySet())
+				: configuration.getStrategies();
+		for (final var id : ids) {
+			if (!available.containsKey(id)) {
+				throw new IllegalArgumentException("Unknown strategy: " + id);
+			}
+			this.template.add(new StrategyStatistics(id, available.get(id)));
+		}
+	}
+
+	/**
+	 * Creates the jobs of this tournament. The seeds are derived from the seed of the tournament.
+	 *
+	 * @return All jobs in the order they are collected.
+	 */
+	public List<TournamentJob> createJobs() {
+		final var scenarios = GamePlayer.resolveScenarios(this.context, this.configuration.getScenarios());
+		final var random = new SplittableRandom(this.configuration.getSeed());
+		final var ret = new ArrayList<TournamentJob>();
+		for (final var scenario : scenarios) {
+			for (var i = 0; i < this.configuration.getGames(); i++) {
+				final var seed = random.nextLong();
+				for (var rotation = 0; rotation < this.template.size(); rotation++) {
+					ret.add(new TournamentJob(new SimulationJob(ret.size(), scenario, seed), rotation));
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Plays all games.
+	 *
+	 * @return The statistics of every strategy in the order of the configuration.
+	 */
+	public List<StrategyStatistics> run() {
+		final var ret = new ArrayList<StrategyStatistics>();
+		this.template.forEach(a -> ret.add(new StrategyStatistics(a.getId(), a.getName())));
+		final var jobs = this.createJobs();
+		final var executor = Executors.newFixedThreadPool(this.configuration.getParallelism());
+		try {
+			final var futures = new ArrayList<Future<Outcome>>(jobs.size());
+			jobs.forEach(job -> futures.add(executor.submit(() -> this.play(job))));
+			for (final var future : futures) {
+				try {
+					this.collect(future.get(), ret);
+				} catch (final ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return ret;
+	}
+
+	int strategyIndex(final TournamentJob job, final int clan) {
+		return (clan + job.rotation()) % this.template.size();
+	}
+
+	private Outcome play(final TournamentJob job) {
+		final var playerTiming = new StrategyTiming[]{StrategyTiming.NONE};
+		final var game = this.player.play(job.game(),
+				clan -> this.template.get(this.strategyIndex(job, clan)).getId(),
+				nanos -> playerTiming[0] = playerTiming[0].add(nanos));
+		final var timings = new StrategyTiming[game.getClans().size()];
+		for (var i = 0; i < timings.length; i++) {
+			final var clan = game.getClan(i);
+			timings[i] = clan.isPlayerClan() ? playerTiming[0] : game.getStrategyTiming(clan);
+		}
+		return new Outcome(job, GamePlayer.summarize(job.game(), game), timings);
+	}
+
+	void collect(final Outcome outcome, final List<StrategyStatistics> statistics) {
+		final var result = outcome.result();
+		final var shares = new double[statistics.size()];
+		final var playing = new boolean[statistics.size()];
+		var total = 0.0;
+		for (var clan = 0; clan < result.strengths().length; clan++) {
+			final var idx = this.strategyIndex(outcome.job(), clan);
+			playing[idx] = true;
+			shares[idx] += result.strengths()[clan];
+			total += result.strengths()[clan];
+			statistics.get(idx).addTiming(outcome.timings()[clan]);
+		}
+		final var winner = result.winner() == -1 ? -1 : this.strategyIndex(outcome.job(), result.winner());
+		for (var i = 0; i < statistics.size(); i++) {
+			if (playing[i]) {
+				statistics.get(i).addGame(i == winner, result.rounds(), total == 0 ? 0 : shares[i] / total);
+			}
+		}
+	}
+
+	record Outcome(TournamentJob job, SimulationResult result, StrategyTiming[] timings) {
+	}
+}
@@ -0,0 +1,135 @@
+package conquer.headless;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parsed command line of a tournament.
+ */
+public final class TournamentConfiguration {
+	private final List<String> scenarios = new ArrayList<>();
+	private final List<Integer> strategies = new ArrayList<>();
+	private long seed = System.nanoTime();
+	private int rounds = 500;
+	private int games = 10;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private String output;
+	private boolean logging;
+
+	private TournamentConfiguration() {
+	}
+
+	/**
+	 * Parses the command line.
+	 *
+	 * @param args The arguments after {@code tournament}, see {@link #usage()}. May not be null.
+	 * @return The configuration
+	 * @throws IllegalArgumentException If an argument is unknown or malformed.
+	 */
+	public static TournamentConfiguration parse(final String[] args) {
+		if (args == null) {
+			throw new IllegalArgumentException("args==null");
+		}
+		final var ret = new TournamentConfiguration();
+		for (var i = 0; i < args.length; i++) {
+			final var arg = args[i];
+			switch (arg) {
+				case "--scenarios" -> ret.scenarios.addAll(List.of(TournamentConfiguration.value(args, ++i).split(",")));
+				case "--strategies" -> ret.parseStrategies(TournamentConfiguration.value(args, ++i));
+				case "--seed" -> ret.seed = Long.parseLong(TournamentConfiguration.value(args, ++i));
+				case "--rounds" -> ret.rounds = TournamentConfiguration.positive(args, ++i);
+				case "--games" -> ret.games = TournamentConfiguration.positive(args, ++i);
+				case "--parallelism" -> ret.parallelism = TournamentConfiguration.positive(args, ++i);
+				case "--output" -> ret.output = TournamentConfiguration.value(args, ++i);
+				case "--logging" -> ret.logging = true;
+				default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+			}
+		}
+		return ret;
+	}
+
+	private static String value(final String[] args, final int index) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+		}
+		return args[index];
+	}
+
+	private static int positive(final String[] args, final int index) {
+		final var ret = Integer.parseInt(TournamentConfiguration.value(args, index));
+		if (ret <= 0) {
+			throw new IllegalArgumentException(args[index - 1] + " has to be positive: " + ret);
+		}
+		return ret;
+	}
+
+	private void parseStrategies(final String ids) {
+		for (final var id : ids.split(",")) {
+			final var strategy = Integer.parseInt(id);
+			if (strategy < 0) {
+				throw new IllegalArgumentException("Invalid strategy: " + strategy);
+			} else if (this.strategies.contains(strategy)) {
+				throw new IllegalArgumentException("Duplicate strategy: " + strategy);
+			}
+			this.strategies.add(strategy);
+		}
+	}
+
+	/**
+	 * Returns the help text for the command line.
+	 *
+	 * @return The help text.
+	 */
+	public static String usage() {
+		return """
+				Usage: conquer.headless.Main tournament [options]
+				  --scenarios a,b,...     Names of installed scenarios or paths to scenario files (Default: all installed)
+				  --strategies s,t,...    Ids of the strategies to compare (Default: all available)
+				  --seed n                Seed for the games (Default: random)
+				  --rounds n              Maximum number of rounds per game (Default: 500)
+				  --games n               Number of seeds per scenario, every seed is played once per rotation of
+				                          the strategies over the clans (Default: 10)
+				  --parallelism n         Number of games running at once (Default: number of cores)
+				  --output file           Target file of the report (Default: stdout)
+				  --logging               Keep logging to the logfile enabled
+				""";
+	}
+
+	public List<String> getScenarios() {
+		return Collections.unmodifiableList(this.scenarios);
+	}
+
+	/**
+	 * Returns the ids of the strategies.
+	 *
+	 * @return The ids in the order of the command line, empty if all available strategies should play.
+	 */
+	public List<Integer> getStrategies() {
+		return Collections.unmodifiableList(this.strategies);
+	}
+
+	public long getSeed() {
+		return this.seed;
+	}
+
+	public int getRounds() {
+		return this.rounds;
+	}
+
+	public int getGames() {
+		return this.games;
+	}
+
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	public String getOutput() {
+		return this.output;
+	}
+
+	public boolean useLogging() {
+		return this.logging;
+	}
+}
@@ -0,0 +1,9 @@
+package conquer.headless;
+
+/**
+ * One game of a tournament.<br>
+ * The clan with the id {@code c} plays the strategy with the index {@code (c + rotation) % n} of the {@code n}
+ * strategies of the tournament. The games of one seed differ only in the rotation.
+ */
+public record TournamentJob(SimulationJob game, int rotation) {
+}
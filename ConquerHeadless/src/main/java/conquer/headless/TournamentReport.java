@@ -0,0 +1,43 @@
+package conquer.headless;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the statistics of a tournament as CSV, one line per strategy:
+ * {@code strategy,name,games,wins,winRate,winRateLow,winRateHigh,meanRoundsToVictory,roundsToVictoryError,
+ * meanShare,turns,meanTurnMicros,maxTurnMicros,overruns}. {@code overruns} counts the turns, that exceeded the
+ * budget of the game, see {@code conquer.cpu.budget}. Missing values are written as {@code NaN}.
+ */
+public final class TournamentReport {
+	private TournamentReport() {
+	}
+
+	/**
+	 * Writes the report.
+	 *
+	 * @param statistics The statistics of all strategies. May not be {@code null}.
+	 * @param writer     The target. May not be {@code null}.
+	 * @throws IOException If writing failed.
+	 */
+	public static void write(final List<StrategyStatistics> statistics, final Writer writer) throws IOException {
+		if (statistics == null) {
+			throw new IllegalArgumentException("statistics==null");
+		} else if (writer == null) {
+			throw new IllegalArgumentException("writer==null");
+		}
+		writer.write("strategy,name,games,wins,winRate,winRateLow,winRateHigh,meanRoundsToVictory,"
+				+ "roundsToVictoryError,meanShare,turns,meanTurnMicros,maxTurnMicros,overruns\n");
+		for (final var s : statistics) {
+			final var timing = s.getTiming();
+			writer.write(String.format(Locale.ROOT, "%d,%s,%d,%d,%.4f,%.4f,%.4f,%.2f,%.2f,%.4f,%d,%.1f,%.1f,%d\n",
+					s.getId(), s.getName().replace(",", "_"), s.getGames(), s.getWins(), s.getWinRate(),
+					s.getWinRateLow(), s.getWinRateHigh(), s.getMeanRoundsToVictory(), s.getRoundsToVictoryError(),
+					s.getMeanShare(), timing.calls(), timing.meanNanos() / 1000, timing.maxNanos() / 1000.0,
+					timing.overruns()));
+		}
+		writer.flush();
+	}
+}
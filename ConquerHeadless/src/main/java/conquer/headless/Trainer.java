@@ -0,0 +1,262 @@
+package conquer.headless;
+
+import conquer.data.GlobalContext;
+import conquer.data.strategy.Strategy;
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProvider;
+import conquer.data.strategy.StrategyTiming;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Tunes the {@link StrategyProfile} of a builtin strategy with a genetic algorithm. Every generation, each profile
+ * of the population plays the same games against the opponents, once per seat of every scenario and seed. The
+ * fitness of a profile is its score minus the configured weight times the mean duration of a decision in
+ * milliseconds. A won game scores 1, a lost game 0 and a game, that reached the round limit, scores the share of
+ * the trained clans of the total defense strength.<br>
+ * The best profiles are kept, the others are replaced by children of profiles chosen in tournaments of three,
+ * built by uniform crossover and gaussian mutation. All games of a generation run in parallel, so the evolution
+ * only depends on the seed, except for the measured durations.
+ */
+public final class Trainer {
+	private static final int TOURNAMENT_SIZE = 3;
+	// The probability, that a single parameter of a child is mutated
+	private static final double MUTATION_PROBABILITY = 0.25;
+	private static final StrategyProfile.Parameter[] PARAMETERS = StrategyProfile.Parameter.values();
+	private final TrainerConfiguration configuration;
+	private final GlobalContext context;
+	private final GamePlayer player;
+	private final StrategyProvider base;
+	// The id of the trained strategy, it isn't used by any other strategy.
+	private final int traineeId;
+
+	/**
+	 * Creates a new trainer.
+	 *
+	 * @param configuration The configuration. May not be {@code null}.
+	 * @param context       The context that is used to look up the installed scenarios and the strategies.
+	 *                      May not be {@code null}.
+	 * @throws IllegalArgumentException If the base strategy or an opponent is unknown.
+	 */
+	public Trainer(final TrainerConfiguration configuration, final GlobalContext context) {
+		if (configuration == null) {
+			throw new IllegalArgumentException("configuration==null");
+		} else if (context == null) {
+			throw new IllegalArgumentException("context==null");
+		}
+		this.configuration = configuration;
+		this.context = context;
+		this.player = new GamePlayer(context, configuration.getRounds(), false);
+		this.base = context.getStrategies().stream().filter(a -> a.getId() == configuration.getBase()).findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown strategy: " + configuration.getBase()));
+		for (final var opponent : configuration.getOpponents()) {
+			if (context.getStrategies().stream().noneMatch(a -> a.getId() == opponent)) {
+				throw new IllegalArgumentException("Unknown strategy: " + opponent);
+			}
+		}
+		this.traineeId = context.getStrategies().stream().mapToInt(StrategyProvider::getId).max().orElse(0) + 1;
+	}
+
+	/**
+	 * Evolves the profiles.
+	 *
+	 * @param initial    The profile, that the first generation is derived from. May not be {@code null}.
+	 * @param generation Receives the evaluated profiles of every generation, starting with the best.
+	 *                   May not be {@code null}.
+	 * @return The best profile of the last generation.
+	 */
+	public Evaluation run(final StrategyProfile initial, final Consumer<List<Evaluation>> generation) {
+		if (initial == null) {
+			throw new IllegalArgumentException("initial==null");
+		} else if (generation == null) {
+			throw new IllegalArgumentException("generation==null");
+		}
+		final var random = new Random(this.configuration.getSeed());
+		final var scenarios = GamePlayer.resolveScenarios(this.context, this.configuration.getScenarios());
+		var population = new ArrayList<StrategyProfile>();
+		population.add(initial);
+		while (population.size() < this.configuration.getPopulation()) {
+			population.add(this.mutate(initial.toVector(), random));
+		}
+		final var executor = Executors.newFixedThreadPool(this.configuration.getParallelism());
+		try {
+			List<Evaluation> evaluations = null;
+			for (var i = 0; i < this.configuration.getGenerations(); i++) {
+				// Every profile of a generation plays the same games.
+				final var jobs = new ArrayList<TournamentJob>();
+				for (final var scenario : scenarios) {
+					for (var j = 0; j < this.configuration.getGames(); j++) {
+						final var seed = random.nextLong();
+						for (var seat = 0; seat <= this.configuration.getOpponents().size(); seat++) {
+							jobs.add(new TournamentJob(new SimulationJob(jobs.size(), scenario, seed), seat));
+						}
+					}
+				}
+				evaluations = this.evaluate(population, jobs, executor);
+				generation.accept(evaluations);
+				if (i + 1 < this.configuration.getGenerations()) {
+					population = this.breed(evaluations, random);
+				}
+			}
+			return evaluations.get(0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private List<Evaluation> evaluate(final List<StrategyProfile> population, final List<TournamentJob> jobs,
+									  final ExecutorService executor) {
+		final var futures = new ArrayList<List<Future<Outcome>>>();
+		for (final var profile : population) {
+			final var provider = new TraineeProvider(this.base, profile, this.traineeId);
+			final var games = new ArrayList<Future<Outcome>>();
+			jobs.forEach(job -> games.add(executor.submit(() -> this.play(job, provider))));
+			futures.add(games);
+		}
+		final var ret = new ArrayList<Evaluation>();
+		for (var i = 0; i < population.size(); i++) {
+			var score = 0.0;
+			var timing = StrategyTiming.NONE;
+			for (final var future : futures.get(i)) {
+				final var outcome = Trainer.get(future);
+				score += outcome.score();
+				timing = timing.merge(outcome.timing());
+			}
+			final var millis = timing.meanNanos() / 1_000_000;
+			final var winRate = score / jobs.size();
+			ret.add(new Evaluation(population.get(i), winRate - (this.configuration.getCpuWeight() * millis), winRate,
+					millis));
+		}
+		// Stable, so equal profiles keep their order.
+		ret.sort(Comparator.comparingDouble(Evaluation::fitness).reversed());
+		return ret;
+	}
+
+	private static Outcome get(final Future<Outcome> future) {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// The trained strategy sits on the clans, whose id plus the seat is a multiple of the number of strategies.
+	private int strategyOf(final TournamentJob job, final int clan) {
+		final var opponents = this.configuration.getOpponents();
+		final var idx = (clan + job.rotation()) % (opponents.size() + 1);
+		return idx == 0 ? this.traineeId : opponents.get(idx - 1);
+	}
+
+	private Outcome play(final TournamentJob job, final StrategyProvider provider) {
+		final var playerTiming = new StrategyTiming[]{StrategyTiming.NONE};
+		final var game = this.player.play(job.game(), clan -> this.strategyOf(job, clan), List.of(provider),
+				nanos -> playerTiming[0] = playerTiming[0].add(nanos));
+		final var result = GamePlayer.summarize(job.game(), game);
+		var timing = StrategyTiming.NONE;
+		var own = 0.0;
+		var total = 0.0;
+		for (var i = 0; i < game.getClans().size(); i++) {
+			total += result.strengths()[i];
+			if (this.strategyOf(job, i) == this.traineeId) {
+				final var clan = game.getClan(i);
+				timing = timing.merge(clan.isPlayerClan() ? playerTiming[0] : game.getStrategyTiming(clan));
+				own += result.strengths()[i];
+			}
+		}
+		final double score;
+		if (result.winner() != -1) {
+			score = this.strategyOf(job, result.winner()) == this.traineeId ? 1 : 0;
+		} else {
+			score = total == 0 ? 0 : own / total;
+		}
+		return new Outcome(score, timing);
+	}
+
+	ArrayList<StrategyProfile> breed(final List<Evaluation> evaluations, final Random random) {
+		final var ret = new ArrayList<StrategyProfile>();
+		for (var i = 0; i < this.configuration.getElite(); i++) {
+			ret.add(evaluations.get(i).profile());
+		}
+		while (ret.size() < this.configuration.getPopulation()) {
+			final var first = Trainer.select(evaluations, random).toVector();
+			final var second = Trainer.select(evaluations, random).toVector();
+			for (var i = 0; i < first.length; i++) {
+				if (random.nextBoolean()) {
+					first[i] = second[i];
+				}
+			}
+			ret.add(this.mutate(first, random));
+		}
+		return ret;
+	}
+
+	// The evaluations are sorted, so the smallest index wins the tournament.
+	private static StrategyProfile select(final List<Evaluation> evaluations, final Random random) {
+		var best = evaluations.size();
+		for (var i = 0; i < Trainer.TOURNAMENT_SIZE; i++) {
+			best = Math.min(best, random.nextInt(evaluations.size()));
+		}
+		return evaluations.get(best).profile();
+	}
+
+	private StrategyProfile mutate(final double[] vector, final Random random) {
+		for (var i = 0; i < vector.length; i++) {
+			if (random.nextDouble() < Trainer.MUTATION_PROBABILITY) {
+				final var parameter = Trainer.PARAMETERS[i];
+				vector[i] += random.nextGaussian() * this.configuration.getMutation()
+						* (parameter.getMax() - parameter.getMin());
+			}
+		}
+		return StrategyProfile.of(vector);
+	}
+
+	/**
+	 * The result of one profile in one generation.
+	 *
+	 * @param profile The profile.
+	 * @param fitness The score minus the penalty for the duration of the decisions.
+	 * @param winRate The mean score of all games, see {@link Trainer}.
+	 * @param millis  The mean duration of a decision of the trained strategy in milliseconds.
+	 */
+	public record Evaluation(StrategyProfile profile, double fitness, double winRate, double millis) {
+	}
+
+	private record Outcome(double score, StrategyTiming timing) {
+	}
+
+	// The base strategy with the profile of one member of the population
+	private record TraineeProvider(StrategyProvider base, StrategyProfile profile, int id)
+			implements StrategyProvider {
+		@Override
+		public Strategy buildStrategy() {
+			return this.base.buildStrategy(this.profile);
+		}
+
+		@Override
+		public Strategy buildStrategy(final SplittableRandom random) {
+			return this.base.buildStrategy(this.profile, random);
+		}
+
+		@Override
+		public int getId() {
+			return this.id;
+		}
+
+		@Override
+		public String getName() {
+			return "trained " + this.base.getName();
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package conquer.headless;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parsed command line of a {@link Trainer}.
+ */
+public final class TrainerConfiguration {
+	private final List<String> scenarios = new ArrayList<>();
+	private final List<Integer> opponents = new ArrayList<>(List.of(0, 1, 2));
+	private int base = 1;
+	private long seed = System.nanoTime();
+	private int rounds = 200;
+	private int games = 2;
+	private int generations = 20;
+	private int population = 16;
+	private int elite = 2;
+	private double mutation = 0.1;
+	private double cpuWeight = 0.05;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private String initial;
+	private String output;
+	private boolean logging;
+
+	private TrainerConfiguration() {
+	}
+
+	/**
+	 * Parses the command line.
+	 *
+	 * @param args The arguments after {@code train}, see {@link #usage()}. May not be null.
+	 * @return The configuration
+	 * @throws IllegalArgumentException If an argument is unknown or malformed.
+	 */
+	public static TrainerConfiguration parse(final String[] args) {
+		if (args == null) {
+			throw new IllegalArgumentException("args==null");
+		}
+		final var ret = new TrainerConfiguration();
+		for (var i = 0; i < args.length; i++) {
+			final var arg = args[i];
+			switch (arg) {
+				case "--scenarios" -> ret.scenarios.addAll(List.of(TrainerConfiguration.value(args, ++i).split(",")));
+				case "--base" -> ret.base = TrainerConfiguration.nonNegative(args, ++i);
+				case "--opponents" -> ret.parseOpponents(TrainerConfiguration.value(args, ++i));
+				case "--seed" -> ret.seed = Long.parseLong(TrainerConfiguration.value(args, ++i));
+				case "--rounds" -> ret.rounds = TrainerConfiguration.positive(args, ++i);
+				case "--games" -> ret.games = TrainerConfiguration.positive(args, ++i);
+				case "--generations" -> ret.generations = TrainerConfiguration.positive(args, ++i);
+				case "--population" -> ret.population = TrainerConfiguration.positive(args, ++i);
+				case "--elite" -> ret.elite = TrainerConfiguration.nonNegative(args, ++i);
+				case "--mutation" -> ret.mutation = TrainerConfiguration.nonNegativeDouble(args, ++i);
+				case "--cpu-weight" -> ret.cpuWeight = TrainerConfiguration.nonNegativeDouble(args, ++i);
+				case "--parallelism" -> ret.parallelism = TrainerConfiguration.positive(args, ++i);
+				case "--initial" -> ret.initial = TrainerConfiguration.value(args, ++i);
+				case "--output" -> ret.output = TrainerConfiguration.value(args, ++i);
+				case "--logging" -> ret.logging = true;
+				default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+			}
+		}
+		if (ret.elite >= ret.population) {
+			throw new IllegalArgumentException("--elite has to be smaller than --population: " + ret.elite);
+		}
+		return ret;
+	}
+
+	private static String value(final String[] args, final int index) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+		}
+		return args[index];
+	}
+
+	private static int positive(final String[] args, final int index) {
+		final var ret = Integer.parseInt(TrainerConfiguration.value(args, index));
+		if (ret <= 0) {
+			throw new IllegalArgumentException(args[index - 1] + " has to be positive: " + ret);
+		}
+		return ret;
+	}
+
+	private static int nonNegative(final String[] args, final int index) {
+		final var ret = Integer.parseInt(TrainerConfiguration.value(args, index));
+		if (ret < 0) {
+			throw new IllegalArgumentException(args[index - 1] + " may not be negative: " + ret);
+		}
+		return ret;
+	}
+
+	private static double nonNegativeDouble(final String[] args, final int index) {
+		final var ret = Double.parseDouble(TrainerConfiguration.value(args, index));
+		if (!(ret >= 0) || Double.isInfinite(ret)) {
+			throw new IllegalArgumentException(args[index - 1] + " has to be a non-negative number: " + ret);
+		}
+		return ret;
+	}
+
+	private void parseOpponents(final String ids) {
+		this.opponents.clear();
+		for (final var id : ids.split(",")) {
+			final var strategy = Integer.parseInt(id);
+			if (strategy < 0) {
+				throw new IllegalArgumentException("Invalid strategy: " + strategy);
+			}
+			this.opponents.add(strategy);
+		}
+	}
+
+	/**
+	 * Returns the help text for the command line.
+	 *
+	 * @return The help text.
+	 */
+	public static String usage() {
+		return """
+				Usage: conquer.headless.Main train [options]
+				  --scenarios a,b,...     Names of installed scenarios or paths to scenario files (Default: all installed)
+				  --base n                Id of the builtin strategy, whose profile is trained (Default: 1)
+				  --opponents s,t,...     Ids of the strategies, that play against it with their default profile.
+				                          Ids may repeat (Default: 0,1,2)
+				  --seed n                Seed for the evolution and the games (Default: random)
+				  --rounds n              Maximum number of rounds per game (Default: 200)
+				  --games n               Number of seeds per scenario and generation, every seed is played once per
+				                          seat of the trained strategy (Default: 2)
+				  --generations n         Number of generations (Default: 20)
+				  --population n          Number of profiles per generation (Default: 16)
+				  --elite n               Number of the best profiles, that are kept unchanged (Default: 2)
+				  --mutation x            Standard deviation of a mutation relative to the range of the
+				                          parameter (Default: 0.1)
+				  --cpu-weight x          Fitness lost per millisecond, that a decision takes on average
+				                          (Default: 0.05)
+				  --parallelism n         Number of games running at once (Default: number of cores)
+				  --initial file          Profile, that the evolution starts with (Default: the builtin defaults)
+				  --output file           Target file of the best profile (Default: stdout)
+				  --logging               Keep logging to the logfile enabled
+				""";
+	}
+
+	public List<String> getScenarios() {
+		return Collections.unmodifiableList(this.scenarios);
+	}
+
+	/**
+	 * Returns the ids of the strategies, that play against the trained strategy.
+	 *
+	 * @return The ids in the order of the command line.
+	 */
+	public List<Integer> getOpponents() {
+		return Collections.unmodifiableList(this.opponents);
+	}
+
+	public int getBase() {
+		return this.base;
+	}
+
+	public long getSeed() {
+		return this.seed;
+	}
+
+	public int getRounds() {
+		return this.rounds;
+	}
+
+	public int getGames() {
+		return this.games;
+	}
+
+	public int getGenerations() {
+		return this.generations;
+	}
+
+	public int getPopulation() {
+		return this.population;
+	}
+
+	public int getElite() {
+		return this.elite;
+	}
+
+	public double getMutation() {
+		return this.mutation;
+	}
+
+	public double getCpuWeight() {
+		return this.cpuWeight;
+	}
+
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	public String getInitial() {
+		return this.initial;
+	}
+
+	public String getOutput() {
+		return this.output;
+	}
+
+	public boolean useLogging() {
+		return this.logging;
+	}
+}
@@ -0,0 +1,8 @@
+/**
+ * Runs games without any GUI, e.g. for balancing the strategies.
+ */
+module conquer.headless {
+	requires transitive conquer;
+
+	exports conquer.headless;
+}
@@ -0,0 +1,95 @@
+package conquer.headless;
+
+import conquer.data.strategy.StrategyTiming;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Locale;
+
+class ResultWriterTest {
+	private static final SimulationResult FIRST = new SimulationResult(0, "Some, scenario", 42, 1, 17,
+			new double[]{0, 12.5});
+	private static final SimulationResult SECOND = new SimulationResult(1, "Other", -3, -1, 500,
+			new double[]{1, 2, 3});
+
+	@Test
+	void testCsv() throws IOException {
+		final var out = new StringWriter();
+		try (final var writer = new CsvResultWriter(out)) {
+			writer.write(ResultWriterTest.FIRST);
+			writer.write(ResultWriterTest.SECOND);
+		}
+		Assertions.assertEquals("""
+				game,scenario,seed,winner,rounds,strengths
+				0,Some_ scenario,42,1,17,0.0;12.5
+				1,Other,-3,-1,500,1.0;2.0;3.0
+				""", out.toString());
+	}
+
+	@Test
+	void testBinary() throws IOException {
+		final var out = new ByteArrayOutputStream();
+		try (final var writer = new BinaryResultWriter(out)) {
+			writer.write(ResultWriterTest.FIRST);
+			writer.write(ResultWriterTest.SECOND);
+		}
+		final var in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+		Assertions.assertEquals(BinaryResultWriter.MAGIC, in.readInt());
+		Assertions.assertEquals(BinaryResultWriter.VERSION, in.readInt());
+		for (final var expected : List.of(ResultWriterTest.FIRST, ResultWriterTest.SECOND)) {
+			Assertions.assertEquals(expected.game(), in.readInt());
+			Assertions.assertEquals(expected.scenario(), in.readUTF());
+			Assertions.assertEquals(expected.seed(), in.readLong());
+			Assertions.assertEquals(expected.winner(), in.readInt());
+			Assertions.assertEquals(expected.rounds(), in.readInt());
+			final var strengths = new double[in.readInt()];
+			for (var i = 0; i < strengths.length; i++) {
+				strengths[i] = in.readDouble();
+			}
+			Assertions.assertArrayEquals(expected.strengths(), strengths);
+		}
+		Assertions.assertEquals(-1, in.read());
+	}
+
+	@Test
+	void testTournamentReport() throws IOException {
+		final var won = new StrategyStatistics(0, "a,b");
+		won.addGame(true, 10, 0.75);
+		won.addGame(true, 30, 1);
+		won.addTiming(StrategyTiming.NONE.add(2000).add(4000, true));
+		final var lost = new StrategyStatistics(7, "lost");
+		lost.addGame(false, 500, 0.25);
+		final var out = new StringWriter();
+		TournamentReport.write(List.of(won, lost), out);
+		final var lines = out.toString().split("\n");
+		Assertions.assertEquals(3, lines.length);
+		Assertions.assertEquals("strategy,name,games,wins,winRate,winRateLow,winRateHigh,meanRoundsToVictory,"
+				+ "roundsToVictoryError,meanShare,turns,meanTurnMicros,maxTurnMicros,overruns", lines[0]);
+		Assertions.assertEquals(String.format(Locale.ROOT,
+				"0,a_b,2,2,1.0000,%.4f,1.0000,20.00,%.2f,0.8750,2,3.0,4.0,1", won.getWinRateLow(),
+				won.getRoundsToVictoryError()), lines[1]);
+		Assertions.assertEquals(String.format(Locale.ROOT,
+				"7,lost,1,0,0.0000,0.0000,%.4f,NaN,NaN,0.2500,0,0.0,0.0,0", lost.getWinRateHigh()), lines[2]);
+	}
+
+	@Test
+	void testNull() throws IOException {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new CsvResultWriter(null));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new BinaryResultWriter(null));
+		try (final var writer = new CsvResultWriter(new StringWriter())) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> writer.write(null));
+		}
+		try (final var writer = new BinaryResultWriter(new ByteArrayOutputStream())) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> writer.write(null));
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> TournamentReport.write(null,
+				new StringWriter()));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> TournamentReport.write(List.of(), null));
+	}
+}
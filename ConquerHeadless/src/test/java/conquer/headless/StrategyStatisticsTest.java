@@ -0,0 +1,92 @@
+package conquer.headless;
+
+import conquer.data.strategy.StrategyTiming;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StrategyStatisticsTest {
+	private static final double DELTA = 1e-4;
+
+	private static StrategyStatistics statistics(final int games, final int wins) {
+		final var ret = new StrategyStatistics(0, "test");
+		for (var i = 0; i < games; i++) {
+			ret.addGame(i < wins, 100, 0.5);
+		}
+		return ret;
+	}
+
+	@Test
+	void testWithoutGames() {
+		final var statistics = new StrategyStatistics(3, "empty");
+		Assertions.assertEquals(0, statistics.getWinRate());
+		Assertions.assertEquals(0, statistics.getWinRateLow());
+		Assertions.assertEquals(1, statistics.getWinRateHigh());
+		Assertions.assertEquals(0, statistics.getMeanShare());
+		Assertions.assertTrue(Double.isNaN(statistics.getMeanRoundsToVictory()));
+		Assertions.assertTrue(Double.isNaN(statistics.getRoundsToVictoryError()));
+		Assertions.assertEquals(StrategyTiming.NONE, statistics.getTiming());
+	}
+
+	@Test
+	void testNoWins() {
+		final var statistics = StrategyStatisticsTest.statistics(10, 0);
+		Assertions.assertEquals(0, statistics.getWinRate());
+		Assertions.assertEquals(0, statistics.getWinRateLow());
+		// z^2 / (n + z^2)
+		Assertions.assertEquals(0.2775, statistics.getWinRateHigh(), StrategyStatisticsTest.DELTA);
+		Assertions.assertTrue(Double.isNaN(statistics.getMeanRoundsToVictory()));
+	}
+
+	@Test
+	void testAllWins() {
+		final var statistics = StrategyStatisticsTest.statistics(10, 10);
+		Assertions.assertEquals(1, statistics.getWinRate());
+		// n / (n + z^2)
+		Assertions.assertEquals(0.7225, statistics.getWinRateLow(), StrategyStatisticsTest.DELTA);
+		Assertions.assertEquals(1, statistics.getWinRateHigh(), StrategyStatisticsTest.DELTA);
+		Assertions.assertTrue(statistics.getWinRateHigh() <= 1);
+		Assertions.assertEquals(100, statistics.getMeanRoundsToVictory());
+		Assertions.assertEquals(0, statistics.getRoundsToVictoryError(), StrategyStatisticsTest.DELTA);
+	}
+
+	@Test
+	void testWilsonInterval() {
+		final var half = StrategyStatisticsTest.statistics(10, 5);
+		Assertions.assertEquals(0.5, half.getWinRate());
+		Assertions.assertEquals(0.2366, half.getWinRateLow(), StrategyStatisticsTest.DELTA);
+		Assertions.assertEquals(0.7634, half.getWinRateHigh(), StrategyStatisticsTest.DELTA);
+		final var asymmetric = StrategyStatisticsTest.statistics(20, 3);
+		Assertions.assertEquals(0.15, asymmetric.getWinRate());
+		Assertions.assertEquals(0.0524, asymmetric.getWinRateLow(), StrategyStatisticsTest.DELTA);
+		Assertions.assertEquals(0.3604, asymmetric.getWinRateHigh(), StrategyStatisticsTest.DELTA);
+	}
+
+	@Test
+	void testRoundsToVictory() {
+		final var statistics = new StrategyStatistics(0, "test");
+		statistics.addGame(true, 10, 1);
+		// A single victory has no error.
+		Assertions.assertEquals(10, statistics.getMeanRoundsToVictory());
+		Assertions.assertTrue(Double.isNaN(statistics.getRoundsToVictoryError()));
+		statistics.addGame(true, 20, 1);
+		statistics.addGame(true, 30, 1);
+		// Lost games don't count.
+		statistics.addGame(false, 500, 0);
+		Assertions.assertEquals(4, statistics.getGames());
+		Assertions.assertEquals(3, statistics.getWins());
+		Assertions.assertEquals(20, statistics.getMeanRoundsToVictory());
+		// z * s / sqrt(n) with s = 10
+		Assertions.assertEquals(11.3159, statistics.getRoundsToVictoryError(), StrategyStatisticsTest.DELTA);
+		Assertions.assertEquals(0.75, statistics.getMeanShare());
+	}
+
+	@Test
+	void testTiming() {
+		final var statistics = new StrategyStatistics(0, "test");
+		statistics.addTiming(StrategyTiming.NONE.add(1000));
+		statistics.addTiming(StrategyTiming.NONE.add(3000).add(2000));
+		Assertions.assertEquals(3, statistics.getTiming().calls());
+		Assertions.assertEquals(6000, statistics.getTiming().totalNanos());
+		Assertions.assertEquals(3000, statistics.getTiming().maxNanos());
+	}
+}
@@ -0,0 +1,133 @@
+package conquer.headless;
+
+import conquer.data.GlobalContext;
+import conquer.data.SPIContextBuilder;
+import conquer.data.strategy.StrategyTiming;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class TournamentTest {
+	@TempDir
+	Path directory;
+
+	private static GlobalContext context() {
+		return new SPIContextBuilder().buildContext();
+	}
+
+	private static Tournament tournament(final String... args) {
+		return new Tournament(TournamentConfiguration.parse(args), TournamentTest.context());
+	}
+
+	// The scenarios are only resolved, so any file will do.
+	private String scenarios() throws IOException {
+		return Files.createFile(this.directory.resolve("a.data")) + ","
+				+ Files.createFile(this.directory.resolve("b.data"));
+	}
+
+	private static Tournament.Outcome outcome(final int rotation, final int winner, final double... strengths) {
+		final var timings = new StrategyTiming[strengths.length];
+		for (var i = 0; i < timings.length; i++) {
+			timings[i] = StrategyTiming.NONE.add(1000L * (i + 1));
+		}
+		final var job = new TournamentJob(new SimulationJob(0, null, 1), rotation);
+		return new Tournament.Outcome(job, new SimulationResult(0, "test", 1, winner, 42, strengths), timings);
+	}
+
+	@Test
+	void testJobs() throws IOException {
+		final var args = new String[]{"--scenarios", this.scenarios(), "--strategies", "0,1,2", "--games", "3",
+				"--seed", "5"};
+		final var tournament = TournamentTest.tournament(args);
+		final var jobs = tournament.createJobs();
+		// Two scenarios, three seeds per scenario and three rotations per seed
+		Assertions.assertEquals(18, jobs.size());
+		final Set<Long> seeds = new HashSet<>();
+		for (var i = 0; i < jobs.size(); i++) {
+			final var job = jobs.get(i);
+			final var first = jobs.get(i - (i % 3));
+			Assertions.assertEquals(i, job.game().game());
+			Assertions.assertEquals(i % 3, job.rotation());
+			Assertions.assertEquals(first.game().seed(), job.game().seed());
+			Assertions.assertEquals(first.game().scenario(), job.game().scenario());
+			seeds.add(job.game().seed());
+		}
+		Assertions.assertEquals(6, seeds.size());
+		Assertions.assertEquals(jobs, TournamentTest.tournament(args).createJobs());
+	}
+
+	@Test
+	void testFairRotation() throws IOException {
+		final var tournament = TournamentTest.tournament("--scenarios", this.scenarios(), "--strategies", "3,0,2",
+				"--games", "1", "--seed", "1");
+		final var jobs = tournament.createJobs().subList(0, 3);
+		// Every clan plays every strategy once per seed and every rotation uses every strategy equally often.
+		for (var clans = 1; clans <= 7; clans++) {
+			final var perRotation = new int[jobs.size()][3];
+			for (var clan = 0; clan < clans; clan++) {
+				final List<Integer> seats = new ArrayList<>();
+				for (var rotation = 0; rotation < jobs.size(); rotation++) {
+					final var idx = tournament.strategyIndex(jobs.get(rotation), clan);
+					seats.add(idx);
+					perRotation[rotation][idx]++;
+				}
+				Assertions.assertEquals(List.of(0, 1, 2), seats.stream().sorted().toList());
+			}
+			for (var idx = 0; idx < 3; idx++) {
+				var total = 0;
+				for (final var counts : perRotation) {
+					total += counts[idx];
+				}
+				Assertions.assertEquals(clans, total);
+			}
+		}
+	}
+
+	@Test
+	void testCollect() {
+		final var tournament = TournamentTest.tournament("--strategies", "0,1,2");
+		final var statistics = List.of(new StrategyStatistics(0, "defensive"), new StrategyStatistics(1, "moderate"),
+				new StrategyStatistics(2, "offensive"));
+		// The clans play the strategies 1, 2, 0 and 1, the round limit was reached.
+		tournament.collect(TournamentTest.outcome(1, -1, 10, 20, 0, 30), statistics);
+		// Clan 2 plays strategy 2 and wins.
+		tournament.collect(TournamentTest.outcome(0, 2, 0, 0, 5), statistics);
+		// Only two clans, strategy 1 doesn't take part. Clan 0 plays strategy 2 and wins.
+		tournament.collect(TournamentTest.outcome(2, 0, 3, 1), statistics);
+		// No strength at all
+		tournament.collect(TournamentTest.outcome(0, -1, 0, 0), statistics);
+		final var games = statistics.stream().mapToInt(StrategyStatistics::getGames).toArray();
+		Assertions.assertArrayEquals(new int[]{4, 3, 3}, games);
+		final var wins = statistics.stream().mapToInt(StrategyStatistics::getWins).toArray();
+		Assertions.assertArrayEquals(new int[]{0, 0, 2}, wins);
+		Assertions.assertEquals(42, statistics.get(2).getMeanRoundsToVictory());
+		Assertions.assertEquals(0.25 / 4, statistics.get(0).getMeanShare(), 1e-9);
+		Assertions.assertEquals((40.0 / 60) / 3, statistics.get(1).getMeanShare(), 1e-9);
+		Assertions.assertEquals(((20.0 / 60) + 1 + 0.75) / 3, statistics.get(2).getMeanShare(), 1e-9);
+		// Every game with any strength distributes a share of 1.
+		final var shares = statistics.stream().mapToDouble(a -> a.getMeanShare() * a.getGames()).sum();
+		Assertions.assertEquals(3, shares, 1e-9);
+		final var calls = statistics.stream().mapToLong(a -> a.getTiming().calls()).toArray();
+		Assertions.assertArrayEquals(new long[]{4, 4, 3}, calls);
+		// Clan 0 and 3 of the first game and clan 1 of the second and the last game
+		Assertions.assertEquals(4000, statistics.get(1).getTiming().maxNanos());
+		Assertions.assertEquals(1000 + 4000 + 2000 + 2000, statistics.get(1).getTiming().totalNanos());
+	}
+
+	@Test
+	void testStrategies() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> TournamentTest.tournament("--strategies",
+				"0,1000"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new Tournament(null, TournamentTest.context()));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> new Tournament(TournamentConfiguration.parse(new String[0]), null));
+	}
+}
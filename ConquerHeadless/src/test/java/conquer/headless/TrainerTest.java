@@ -0,0 +1,78 @@
+package conquer.headless;
+
+import conquer.data.SPIContextBuilder;
+import conquer.data.strategy.StrategyProfile;
+import conquer.data.strategy.StrategyProfile.Parameter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class TrainerTest {
+	private static Trainer trainer(final String mutation) {
+		final var configuration = TrainerConfiguration.parse(new String[]{"--base", "0", "--opponents", "1,2",
+				"--population", "8", "--elite", "2", "--mutation", mutation});
+		return new Trainer(configuration, new SPIContextBuilder().buildContext());
+	}
+
+	// A sorted generation of random profiles
+	private static List<Trainer.Evaluation> generation(final long seed) {
+		final var random = new Random(seed);
+		final var ret = new ArrayList<Trainer.Evaluation>();
+		for (var i = 0; i < 8; i++) {
+			final var vector = StrategyProfile.DEFAULT.toVector();
+			for (var j = 0; j < vector.length; j++) {
+				final var parameter = Parameter.values()[j];
+				vector[j] = parameter.getMin() + (random.nextDouble() * (parameter.getMax() - parameter.getMin()));
+			}
+			ret.add(new Trainer.Evaluation(StrategyProfile.of(vector), 1.0 - (i / 8.0), 1.0 - (i / 8.0), 0));
+		}
+		return ret;
+	}
+
+	@Test
+	void testDeterministicBreeding() {
+		final var trainer = TrainerTest.trainer("0.1");
+		final var generation = TrainerTest.generation(1);
+		final var first = trainer.breed(generation, new Random(42));
+		Assertions.assertEquals(first, trainer.breed(generation, new Random(42)));
+		Assertions.assertEquals(first, TrainerTest.trainer("0.1").breed(generation, new Random(42)));
+		Assertions.assertNotEquals(first, trainer.breed(generation, new Random(43)));
+	}
+
+	@Test
+	void testElite() {
+		final var generation = TrainerTest.generation(2);
+		final var children = TrainerTest.trainer("0.1").breed(generation, new Random(3));
+		Assertions.assertEquals(8, children.size());
+		// The two best profiles are kept unchanged.
+		Assertions.assertSame(generation.get(0).profile(), children.get(0));
+		Assertions.assertSame(generation.get(1).profile(), children.get(1));
+	}
+
+	@Test
+	void testMutationsAreClamped() {
+		// The mutations are far bigger than the range of every parameter.
+		final var trainer = TrainerTest.trainer("100");
+		final var generation = TrainerTest.generation(4);
+		final var random = new Random(5);
+		var bounded = 0;
+		for (var i = 0; i < 20; i++) {
+			for (final var child : trainer.breed(generation, random)) {
+				for (final var parameter : Parameter.values()) {
+					final var value = child.get(parameter);
+					Assertions.assertTrue(value >= parameter.getMin() && value <= parameter.getMax(),
+							parameter.getKey() + "=" + value);
+					Assertions.assertEquals(parameter.clamp(value), value);
+					if (value == parameter.getMin() || value == parameter.getMax()) {
+						bounded++;
+					}
+				}
+			}
+		}
+		// Without the clamping, some values would be outside of their range.
+		Assertions.assertTrue(bounded > 0);
+	}
+}
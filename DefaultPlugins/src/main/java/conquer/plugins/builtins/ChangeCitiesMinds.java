@@ -6,14 +6,16 @@ import conquer.data.Shared;
 import conquer.data.StreamUtils;
 import conquer.plugins.Context;
 import conquer.plugins.Plugin;
+import conquer.plugins.PluginInterface;
 import conquer.utils.Graph;
 
-import java.util.Random;
+import java.io.InputStream;
+import java.util.SplittableRandom;
 
 public final class ChangeCitiesMinds implements Plugin {
 	private static final double INSTANT_CLAN_CHANGE = 0.05;
 	private static final int PROBABILITY_NO_CHANGE_OF_CLAN = 75;
-	private final Random random = new Random();
+	private SplittableRandom random = new SplittableRandom();
 
 	private void change(final ICity c, final Context ctx, final IClan oldClan, final IClan otherClan) {
 		var changedClan = false;
@@ -36,26 +38,36 @@ public final class ChangeCitiesMinds implements Plugin {
 
 	private boolean evalClanChange(final double soldiersToCivilians, final ICity c, final IClan otherClan) {
 		if (this.random.nextInt(100) > 90) {
-			if ((soldiersToCivilians < 0.15) && (Math.random() > 0.85)) {
+			if ((soldiersToCivilians < 0.15) && (this.random.nextDouble() > 0.85)) {
 				c.setClan(otherClan);
-				c.setNumberOfPeople((long) (c.getNumberOfPeople() * Shared.randomPercentage(90, 98)));
-				c.setNumberOfSoldiers((long) (c.getNumberOfSoldiers() * Shared.randomPercentage(45, 90)));
+				c.setNumberOfPeople((long) (c.getNumberOfPeople() * Shared.randomPercentage(this.random, 90, 98)));
+				c.setNumberOfSoldiers((long) (c.getNumberOfSoldiers() * Shared.randomPercentage(this.random, 45, 90)));
 				return true;
-			} else if ((soldiersToCivilians < 0.25) && (Math.random() > 0.9)) {
+			} else if ((soldiersToCivilians < 0.25) && (this.random.nextDouble() > 0.9)) {
 				c.setClan(otherClan);
-				c.setNumberOfPeople((long) (c.getNumberOfPeople() * Shared.randomPercentage(60, 88)));
-				c.setNumberOfSoldiers((long) (c.getNumberOfSoldiers() * Shared.randomPercentage(55, 90)));
+				c.setNumberOfPeople((long) (c.getNumberOfPeople() * Shared.randomPercentage(this.random, 60, 88)));
+				c.setNumberOfSoldiers((long) (c.getNumberOfSoldiers() * Shared.randomPercentage(this.random, 55, 90)));
 				return true;
-			} else if ((soldiersToCivilians < 0.35) && (Math.random() > 0.98)) {
+			} else if ((soldiersToCivilians < 0.35) && (this.random.nextDouble() > 0.98)) {
 				c.setClan(otherClan);
-				c.setNumberOfPeople((long) (c.getNumberOfPeople() * Shared.randomPercentage(20, 60)));
-				c.setNumberOfSoldiers((long) (c.getNumberOfSoldiers() * Shared.randomPercentage(80, 98)));
+				c.setNumberOfPeople((long) (c.getNumberOfPeople() * Shared.randomPercentage(this.random, 20, 60)));
+				c.setNumberOfSoldiers((long) (c.getNumberOfSoldiers() * Shared.randomPercentage(this.random, 80, 98)));
 				return true;
 			}
 		}
 		return false;
 	}
 
+	@Override
+	public void init(final PluginInterface pluginInterface) {
+		this.random = pluginInterface.getRandom(this);
+	}
+
+	@Override
+	public void resume(final PluginInterface game, final InputStream bytes) {
+		this.random = game.getRandom(this);
+	}
+
 	@Override
 	public String getName() {
 		return "ChangeCitiesMinds";
@@ -65,7 +77,7 @@ public final class ChangeCitiesMinds implements Plugin {
 	public void handle(final Graph<ICity> cities, final Context ctx) {
 		StreamUtils.forEach(cities, c -> {
 			// Only continue, if the loss of one city may not extinct one entire clan.
-			if (StreamUtils.getCitiesAsStream(cities, c.getClan()).count() == 1) {
+			if (c.getInfo().getNumberOfCities(c.getClan()) == 1) {
 				return;
 			}
 			final var oldClan = c.getClan();
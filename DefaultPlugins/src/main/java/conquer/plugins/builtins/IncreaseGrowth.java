@@ -4,11 +4,16 @@ import conquer.data.ICity;
 import conquer.data.StreamUtils;
 import conquer.plugins.Context;
 import conquer.plugins.Plugin;
+import conquer.plugins.PluginInterface;
 import conquer.utils.Graph;
 
+import java.io.InputStream;
+import java.util.SplittableRandom;
+
 public final class IncreaseGrowth implements Plugin {
 
 	private static final double MAXIMUM_INCREASE = 0.1;
+	private SplittableRandom random = new SplittableRandom();
 
 	@Override
 	public String getName() {
@@ -19,9 +24,18 @@ public final class IncreaseGrowth implements Plugin {
 	public void handle(final Graph<ICity> cities, final Context ctx) {
 		StreamUtils.forEach(cities, a -> {
 			if (a.getGrowth() < 1) {
-				a.setGrowth(a.getGrowth() * (1 + (Math.random() % IncreaseGrowth.MAXIMUM_INCREASE)));
+				a.setGrowth(a.getGrowth() * (1 + (this.random.nextDouble() % IncreaseGrowth.MAXIMUM_INCREASE)));
 			}
 		});
 	}
 
+	@Override
+	public void init(final PluginInterface pluginInterface) {
+		this.random = pluginInterface.getRandom(this);
+	}
+
+	@Override
+	public void resume(final PluginInterface game, final InputStream bytes) {
+		this.random = game.getRandom(this);
+	}
 }
@@ -15,11 +15,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public final class MoneyAnalyzer implements Plugin, MoneyHook {
 	private static final int MAX_ITERATIONS = 12000;
-	private final Random random = new Random();
+	private SplittableRandom random = new SplittableRandom();
 	private EventList events;
 	private int currentRound = 0;
 
@@ -37,6 +37,7 @@ public final class MoneyAnalyzer implements Plugin, MoneyHook {
 	public void init(final PluginInterface pi) {
 		pi.addMoneyHook(this);
 		this.events = pi.getEventList();
+		this.random = pi.getRandom(this);
 	}
 
 	@Override
@@ -72,6 +73,7 @@ public final class MoneyAnalyzer implements Plugin, MoneyHook {
 			this.currentRound = dis.readInt();
 		}
 		this.events = game.getEventList();
+		this.random = game.getRandom(this);
 	}
 
 	@Override
@@ -6,18 +6,18 @@ import conquer.plugins.Plugin;
 import conquer.plugins.PluginInterface;
 import conquer.utils.Graph;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public final class PeriodicGrowthChange implements Plugin {
-	private static final Random RANDOM = new Random(System.nanoTime());
-
 	private static double newGrowth(final int currValue) {
 		return 0.1 * Math.sin((0.3 * currValue) % (2 * Math.PI));
 	}
 
 	private List<Integer> values;
+	private SplittableRandom random = new SplittableRandom();
 
 	@Override
 	public String getName() {
@@ -40,6 +40,12 @@ public final class PeriodicGrowthChange implements Plugin {
 	@Override
 	public void init(final PluginInterface pi) {
 		this.values = null;
+		this.random = pi.getRandom(this);
+	}
+
+	@Override
+	public void resume(final PluginInterface game, final InputStream bytes) {
+		this.random = game.getRandom(this);
 	}
 
 	private void initList(final Graph<ICity> cities) {
@@ -47,7 +53,7 @@ public final class PeriodicGrowthChange implements Plugin {
 			this.values = new ArrayList<>();
 			final var cityArr = cities.getValues(new ICity[0]);
 			for (var i = 0; i < cityArr.length; i++) {
-				this.values.add(PeriodicGrowthChange.RANDOM.nextInt(37));
+				this.values.add(this.random.nextInt(37));
 				cityArr[i].setGrowth(cityArr[i].getGrowth() * (1 + PeriodicGrowthChange.newGrowth(this.values.get(i))));
 			}
 		}
@@ -0,0 +1,236 @@
+package conquer.strategies;
+
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.data.Resource;
+import conquer.data.strategy.AttackPredictions;
+import conquer.data.strategy.CommandBatch;
+import conquer.data.strategy.StrategyObject;
+import conquer.utils.Graph;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One action of a clan, that the Monte-Carlo search can try. The cities are stored as indices of the graph, so the
+ * same action can be applied to the game and to every fork of it.
+ */
+final class MonteCarloAction {
+	static final MonteCarloAction PASS = new MonteCarloAction(Type.PASS, -1, -1, null, 0);
+	private static final int ATTACKS = 4;
+	private static final int MOVES = 2;
+	private static final int RECRUITS = 2;
+	private final Type type;
+	private final int source;
+	private final int target;
+	private final Resource resource;
+	// Only used to choose the candidates, the search decides on the rollouts.
+	private final double prior;
+
+	private MonteCarloAction(final Type type, final int source, final int target, final Resource resource,
+							 final double prior) {
+		this.type = type;
+		this.source = source;
+		this.target = target;
+		this.resource = resource;
+		this.prior = prior;
+	}
+
+	/**
+	 * Collects the most promising actions of every type. The first action is always {@link #PASS}.
+	 *
+	 * @param clan The clan.
+	 * @param obj  The game.
+	 * @return The actions.
+	 */
+	static List<MonteCarloAction> candidates(final IClan clan, final StrategyObject obj) {
+		final var graph = obj.getCities();
+		final var threats = obj.getThreatMap();
+		final var predictions = new AttackPredictions();
+		final var moves = new ArrayList<MonteCarloAction>();
+		final var recruits = new ArrayList<MonteCarloAction>();
+		var defense = -1;
+		var defensePressure = 0L;
+		final var cursor = graph.newNeighbourCursor();
+		for (var idx = 0; idx < graph.size(); idx++) {
+			final var own = graph.getValue(idx);
+			if (own.getClan() != clan) {
+				continue;
+			}
+			final var border = threats.isBorder(idx);
+			cursor.reset(idx);
+			while (cursor.next()) {
+				final var other = graph.getValue(cursor.index());
+				if (!obj.canMove(own, other) || (own.getNumberOfSoldiers() == 0)) {
+					continue;
+				}
+				final var cnt = obj.maximumNumberToMove(clan, own, other, own.getNumberOfSoldiers());
+				if (cnt == 0) {
+					continue;
+				}
+				if (other.getClan() != clan) {
+					predictions.add(idx, cursor.index(), cnt);
+				} else if (!border && threats.isBorder(cursor.index())) {
+					moves.add(new MonteCarloAction(Type.MOVE, idx, cursor.index(), null,
+							threats.getEnemyPressure(cursor.index()) / (1.0 + other.getNumberOfSoldiers())));
+				}
+			}
+			if (border) {
+				final var pressure = threats.getEnemyPressure(idx);
+				recruits.add(new MonteCarloAction(Type.RECRUIT, idx, idx, null,
+						pressure / (1.0 + own.getNumberOfSoldiers())));
+				if ((defense == -1) || (pressure > defensePressure)) {
+					defense = idx;
+					defensePressure = pressure;
+				}
+			}
+		}
+		// Conquering attacks are scored by the surviving attackers, the others by the surviving defenders.
+		obj.predictAttacks(predictions);
+		final var attacks = new ArrayList<MonteCarloAction>(predictions.size());
+		for (var i = 0; i < predictions.size(); i++) {
+			final var prior = predictions.getWinProbability(i) > 0 ? 1.0 + predictions.getSurvivingAttackers(i)
+					: -1.0 - predictions.getSurvivingDefenders(i);
+			attacks.add(new MonteCarloAction(Type.ATTACK, predictions.getSource(i), predictions.getTarget(i), null,
+					prior));
+		}
+		final var ret = new ArrayList<MonteCarloAction>();
+		ret.add(MonteCarloAction.PASS);
+		MonteCarloAction.addBest(ret, attacks, MonteCarloAction.ATTACKS);
+		MonteCarloAction.addBest(ret, moves, MonteCarloAction.MOVES);
+		if (clan.getCoins() > 0) {
+			MonteCarloAction.addBest(ret, recruits, MonteCarloAction.RECRUITS);
+		}
+		if (defense != -1) {
+			ret.add(new MonteCarloAction(Type.UPGRADE_DEFENSE, defense, defense, null, defensePressure));
+		}
+		final var resourceUpgrade = MonteCarloAction.resourceUpgrade(clan, graph);
+		if (resourceUpgrade != null) {
+			ret.add(resourceUpgrade);
+		}
+		return ret;
+	}
+
+	// The city, that produces most of the resource, that is missing most.
+	private static MonteCarloAction resourceUpgrade(final IClan clan, final Graph<ICity> graph) {
+		final var stats = clan.getResourceStats();
+		var missing = Resource.values()[0];
+		for (final var resource : Resource.values()) {
+			if (stats.get(resource.getIndex()) < stats.get(missing.getIndex())) {
+				missing = resource;
+			}
+		}
+		var best = -1;
+		var production = 0.0;
+		for (var idx = 0; idx < graph.size(); idx++) {
+			final var city = graph.getValue(idx);
+			if (city.getClan() != clan) {
+				continue;
+			}
+			final var value = city.getProductions().get(missing.getIndex());
+			if ((best == -1) || (value > production)) {
+				best = idx;
+				production = value;
+			}
+		}
+		return best == -1 ? null : new MonteCarloAction(Type.UPGRADE_RESOURCE, best, best, missing, production);
+	}
+
+	private static void addBest(final List<MonteCarloAction> ret, final List<MonteCarloAction> actions,
+								final int limit) {
+		actions.sort(Comparator.comparingDouble((MonteCarloAction a) -> -a.prior)
+				.thenComparingInt(a -> a.source).thenComparingInt(a -> a.target));
+		ret.addAll(actions.subList(0, Math.min(limit, actions.size())));
+	}
+
+	/**
+	 * Plays a clan without a search: Every attack, that is expected to succeed, is executed, then soldiers are
+	 * recruited at the most threatened city. Used in the rollouts and if the game can't be forked.
+	 *
+	 * @param clan The clan.
+	 * @param obj  The game.
+	 */
+	static void playGreedy(final IClan clan, final StrategyObject obj) {
+		final var actions = MonteCarloAction.candidates(clan, obj);
+		final var batch = new CommandBatch();
+		for (final var action : actions) {
+			if ((action.type == Type.ATTACK) && (action.prior > 0)) {
+				// All soldiers, that are left in the city when the attack is executed
+				batch.attack(action.source, action.target, Long.MAX_VALUE);
+			}
+		}
+		obj.submit(clan, batch);
+		actions.stream().filter(a -> a.type == Type.RECRUIT).findFirst().ifPresent(a -> a.apply(clan, obj));
+	}
+
+	/**
+	 * Returns whether this action does nothing.
+	 *
+	 * @return True for {@link #PASS}.
+	 */
+	boolean isPass() {
+		return this.type == Type.PASS;
+	}
+
+	/**
+	 * Executes the action, if it is still possible.
+	 *
+	 * @param clan The clan, that executes the action.
+	 * @param obj  The game or a fork of it. The graph has to have the same indices as the graph of the candidates.
+	 * @return True if the action was executed.
+	 */
+	boolean apply(final IClan clan, final StrategyObject obj) {
+		if (this.type == Type.PASS) {
+			return true;
+		}
+		final var graph = obj.getCities();
+		final var own = graph.getValue(this.source);
+		final var other = graph.getValue(this.target);
+		if (own.getClan() != clan) {
+			return false;
+		}
+		switch (this.type) {
+			case ATTACK, MOVE -> {
+				if ((other.getClan() == clan) != (this.type == Type.MOVE) || (own.getNumberOfSoldiers() == 0)) {
+					return false;
+				}
+				final var cnt = obj.maximumNumberToMove(clan, own, other, own.getNumberOfSoldiers());
+				if (cnt == 0) {
+					return false;
+				}
+				if (this.type == Type.ATTACK) {
+					obj.attack(own, other, true, cnt);
+				} else {
+					obj.moveSoldiers(own, null, true, other, cnt);
+				}
+				return true;
+			}
+			case RECRUIT -> {
+				if (clan.getCoins() <= 0) {
+					return false;
+				}
+				// Keep half of the coins for the upgrades
+				obj.recruitSoldiers(clan.getCoins() / 2, own, false, 0);
+				return true;
+			}
+			case UPGRADE_DEFENSE -> {
+				return obj.upgradeDefense(own);
+			}
+			case UPGRADE_RESOURCE -> {
+				return obj.upgradeResource(this.resource, own);
+			}
+			default -> throw new InternalError("Unexpected action: " + this.type);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return this.type + "(" + this.source + "->" + this.target + (this.resource == null ? "" : ", " + this.resource)
+				+ ")";
+	}
+
+	private enum Type {
+		PASS, ATTACK, MOVE, RECRUIT, UPGRADE_DEFENSE, UPGRADE_RESOURCE
+	}
+}
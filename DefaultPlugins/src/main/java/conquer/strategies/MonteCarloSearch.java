@@ -0,0 +1,253 @@
+package conquer.strategies;
+
+import conquer.data.ConquerInfo;
+import conquer.data.Shared;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses one action with flat Monte-Carlo search: Every rollout forks the game, applies an action, simulates
+ * some rounds and scores the share of the defense strength, that belongs to the clan afterwards. The actions are
+ * selected with UCB1, so the promising ones get more rollouts.<br>
+ * The game is forked once by the thread, that creates the search, and the rollouts fork this snapshot, so they
+ * never read the game itself. The rollouts run on a shared {@link ForkJoinPool}. The search returns at the
+ * deadline, rollouts that are still running are abandoned and their results are ignored. An abandoned rollout
+ * stops at the next turn of a clan, that plays this strategy, see {@link #checkRollout()}, or at the end of the
+ * round, so it doesn't keep the threads of the pool busy.
+ */
+final class MonteCarloSearch {
+	private static final double EXPLORATION = Math.sqrt(2);
+	private static final int ROUNDS = Integer.getInteger("conquer.mcts.rounds", 1);
+	// The search, whose rollout runs on the current thread
+	private static final ThreadLocal<MonteCarloSearch> ROLLOUT = new ThreadLocal<>();
+	private static ForkJoinPool pool;
+	private final ConquerInfo snapshot;
+	private final int clanId;
+	private final List<MonteCarloAction> actions;
+	private final long deadline;
+	private final long seed;
+	private final int[] visits;
+	private final double[] rewards;
+	// The rollouts, that finished, visits also counts the running ones.
+	private final int[] finished;
+	private int total;
+	private boolean stopped;
+	private RuntimeException failure;
+
+	/**
+	 * Creates a new search.
+	 *
+	 * @param game     The game, it is only forked, before the constructor returns.
+	 * @param clanId   The id of the clan.
+	 * @param actions  The actions to choose from.
+	 * @param deadline The deadline as returned by {@link System#nanoTime()}.
+	 * @param seed     The seed of the first rollout.
+	 * @throws UnsupportedOperationException If the game can't be forked.
+	 */
+	MonteCarloSearch(final ConquerInfo game, final int clanId, final List<MonteCarloAction> actions,
+					 final long deadline, final long seed) {
+		// The game is changed after the search returned, but the abandoned rollouts may still run.
+		this.snapshot = game.fork();
+		this.clanId = clanId;
+		this.actions = actions;
+		this.deadline = deadline;
+		this.seed = seed;
+		this.visits = new int[actions.size()];
+		this.rewards = new double[actions.size()];
+		this.finished = new int[actions.size()];
+	}
+
+	// Shared by all clans, so the number of threads doesn't grow with the number of clans.
+	private static synchronized ForkJoinPool pool() {
+		if (MonteCarloSearch.pool == null) {
+			MonteCarloSearch.pool = new ForkJoinPool(
+					Integer.getInteger("conquer.mcts.threads", Runtime.getRuntime().availableProcessors()));
+		}
+		return MonteCarloSearch.pool;
+	}
+
+	/**
+	 * Returns whether the current thread runs a rollout. The copies of the strategy in the forks mustn't start a
+	 * search again.
+	 *
+	 * @return True, if a rollout runs.
+	 */
+	static boolean inRollout() {
+		return MonteCarloSearch.ROLLOUT.get() != null;
+	}
+
+	/**
+	 * Ends the rollout on the current thread, if its search returned or the deadline passed. Called at every turn
+	 * of a clan in a rollout, the exception unwinds the round of the fork, that is thrown away anyway.
+	 *
+	 * @throws Abandoned If the rollout was abandoned.
+	 */
+	static void checkRollout() {
+		final var search = MonteCarloSearch.ROLLOUT.get();
+		if ((search != null) && search.isAbandoned()) {
+			throw new Abandoned();
+		}
+	}
+
+	private synchronized boolean isAbandoned() {
+		return this.stopped || (System.nanoTime() >= this.deadline);
+	}
+
+	/**
+	 * Runs the search until the deadline. If a rollout fails, the search stops and the exception is thrown.
+	 *
+	 * @return The action with the best mean reward or {@code null}, if no rollout finished.
+	 */
+	MonteCarloAction run() {
+		final var executor = MonteCarloSearch.pool();
+		final var workers = executor.getParallelism();
+		final var done = new CountDownLatch(workers);
+		for (var i = 0; i < workers; i++) {
+			executor.execute(() -> {
+				try {
+					this.work();
+				} catch (final RuntimeException e) {
+					this.fail(e);
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		try {
+			done.await(Math.max(0, this.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (this) {
+			if (this.failure != null) {
+				throw this.failure;
+			}
+			this.stopped = true;
+			Shared.logLevel1("MonteCarloStrategy: " + this.total + " rollouts");
+			var best = -1;
+			for (var i = 0; i < this.actions.size(); i++) {
+				if ((this.finished[i] != 0) && ((best == -1) || (this.finishedMean(i) > this.finishedMean(best)))) {
+					best = i;
+				}
+			}
+			return best == -1 ? null : this.actions.get(best);
+		}
+	}
+
+	private void work() {
+		while (true) {
+			final int arm;
+			final long rolloutSeed;
+			synchronized (this) {
+				if (this.stopped || (System.nanoTime() >= this.deadline)) {
+					return;
+				}
+				arm = this.select();
+				rolloutSeed = this.seed + this.total;
+				// Counted before the rollout ends, so the other workers choose other actions meanwhile.
+				this.visits[arm]++;
+				this.total++;
+			}
+			final var reward = this.rollout(this.actions.get(arm), rolloutSeed);
+			synchronized (this) {
+				if (this.stopped) {
+					return;
+				}
+				if (Double.isNaN(reward)) {
+					// Abandoned at the deadline
+					this.visits[arm]--;
+					this.total--;
+					return;
+				}
+				this.rewards[arm] += reward;
+				this.finished[arm]++;
+			}
+		}
+	}
+
+	// Stops the search, the failure is thrown by run(), if it didn't return yet.
+	private synchronized void fail(final RuntimeException e) {
+		if (this.stopped) {
+			Shared.LOGGER.exception(e);
+		} else if (this.failure == null) {
+			this.failure = e;
+			this.stopped = true;
+		}
+	}
+
+	// UCB1, actions without rollouts are tried first
+	private int select() {
+		var best = 0;
+		var bestValue = Double.NEGATIVE_INFINITY;
+		for (var i = 0; i < this.actions.size(); i++) {
+			if (this.visits[i] == 0) {
+				return i;
+			}
+			final var value = this.mean(i)
+					+ (MonteCarloSearch.EXPLORATION * Math.sqrt(Math.log(this.total) / this.visits[i]));
+			if (value > bestValue) {
+				best = i;
+				bestValue = value;
+			}
+		}
+		return best;
+	}
+
+	private double mean(final int arm) {
+		return this.rewards[arm] / this.visits[arm];
+	}
+
+	private double finishedMean(final int arm) {
+		return this.rewards[arm] / this.finished[arm];
+	}
+
+	private double rollout(final MonteCarloAction action, final long rolloutSeed) {
+		MonteCarloSearch.ROLLOUT.set(this);
+		try {
+			final var fork = this.snapshot.fork(rolloutSeed);
+			final var clan = fork.getClan(this.clanId);
+			if (!action.apply(clan, fork)) {
+				return 0;
+			}
+			for (var i = 0; i < MonteCarloSearch.ROUNDS; i++) {
+				if (this.isAbandoned()) {
+					return Double.NaN;
+				}
+				fork.executeActions();
+			}
+			return MonteCarloSearch.score(fork, this.clanId);
+		} catch (final Abandoned e) {
+			return Double.NaN;
+		} finally {
+			MonteCarloSearch.ROLLOUT.remove();
+		}
+	}
+
+	// The share of the defense strength of all cities, that belongs to the clan.
+	private static double score(final ConquerInfo fork, final int clanId) {
+		final var cities = fork.getCities();
+		var own = 0.0;
+		var all = 0.0;
+		for (var i = 0; i < cities.size(); i++) {
+			final var city = cities.getValue(i);
+			final var strength = city.getDefenseStrength();
+			all += strength;
+			if (city.getClanId() == clanId) {
+				own += strength;
+			}
+		}
+		return all == 0 ? 0 : own / all;
+	}
+
+	// Thrown through the round of an abandoned rollout, it has no stack trace, as it is always caught.
+	static final class Abandoned extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private Abandoned() {
+			super("Abandoned at the deadline", null, false, false);
+		}
+	}
+}
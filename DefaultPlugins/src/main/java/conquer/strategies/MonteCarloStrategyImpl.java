@@ -0,0 +1,91 @@
+package conquer.strategies;
+
+import conquer.data.ConquerInfo;
+import conquer.data.Gift;
+import conquer.data.ICity;
+import conquer.data.IClan;
+import conquer.data.strategy.Strategy;
+import conquer.data.strategy.StrategyData;
+import conquer.data.strategy.StrategyObject;
+import conquer.utils.Graph;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Chooses the actions of a clan with Monte-Carlo rollouts on forks of the game instead of fixed thresholds. A turn
+ * consists of several decisions, each decision gets an equal share of the remaining budget and searches the best
+ * of a few candidate actions with {@link MonteCarloSearch}. The turn ends, if doing nothing is the best action or
+ * if the budget is used up.<br>
+ * The budget per turn in milliseconds is read from the property {@code conquer.mcts.budget}, the number of threads
+ * from {@code conquer.mcts.threads}. A shorter deadline of the game is respected. In the rollouts and if the game
+ * can't be forked, the clan plays greedy.
+ */
+public final class MonteCarloStrategyImpl implements Strategy {
+	private static final long BUDGET = TimeUnit.MILLISECONDS.toNanos(Long.getLong("conquer.mcts.budget", 200));
+	private static final int MAXIMUM_DECISIONS = 6;
+
+	@Override
+	public boolean acceptGift(final IClan sourceClan, final IClan destinationClan, final Gift gift,
+							  final double oldValue, final DoubleConsumer newValue,
+							  final StrategyObject strategyObject) {
+		if (gift.getNumberOfCoins() == 0) {
+			return false;
+		}
+		// The more the gift is worth compared to the own coins, the better the relationship gets.
+		final var worth = destinationClan.getCoins() == 0 ? 1 : gift.getNumberOfCoins() / destinationClan.getCoins();
+		newValue.accept(oldValue + Math.min(worth * 10, 10));
+		return true;
+	}
+
+	@Override
+	public void applyStrategy(final IClan clan, final Graph<ICity> cities, final StrategyObject obj) {
+		if (MonteCarloSearch.inRollout() || !(obj instanceof ConquerInfo)) {
+			MonteCarloSearch.checkRollout();
+			MonteCarloAction.playGreedy(clan, obj);
+			return;
+		}
+		final var game = (ConquerInfo) obj;
+		final var random = obj.getRandom(clan);
+		var deadline = System.nanoTime() + MonteCarloStrategyImpl.BUDGET;
+		final var gameDeadline = obj.getDeadline(clan);
+		if ((gameDeadline != StrategyObject.NO_DEADLINE) && ((gameDeadline - deadline) < 0)) {
+			// The game gives the clan less time than the own budget.
+			deadline = gameDeadline;
+		}
+		for (var i = 0; i < MonteCarloStrategyImpl.MAXIMUM_DECISIONS; i++) {
+			final var remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return;
+			}
+			final var actions = MonteCarloAction.candidates(clan, obj);
+			if (actions.size() == 1) {
+				return;
+			}
+			final MonteCarloSearch search;
+			try {
+				search = new MonteCarloSearch(game, clan.getId(), actions,
+						System.nanoTime() + (remaining / (MonteCarloStrategyImpl.MAXIMUM_DECISIONS - i)),
+						random.nextLong());
+			} catch (final UnsupportedOperationException e) {
+				// The game can't be forked
+				MonteCarloAction.playGreedy(clan, obj);
+				return;
+			}
+			final var best = search.run();
+			if (best == null) {
+				// Not a single rollout finished in time
+				MonteCarloAction.playGreedy(clan, obj);
+				return;
+			}
+			if (best.isPass() || !best.apply(clan, obj)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public StrategyData getData() {
+		return null;
+	}
+}
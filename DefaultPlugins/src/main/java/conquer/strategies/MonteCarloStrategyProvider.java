@@ -0,0 +1,23 @@
+package conquer.strategies;
+
+import conquer.data.strategy.Strategy;
+import conquer.data.strategy.StrategyProvider;
+
+public final class MonteCarloStrategyProvider implements StrategyProvider {
+
+	@Override
+	public Strategy buildStrategy() {
+		return new MonteCarloStrategyImpl();
+	}
+
+	@Override
+	public int getId() {
+		return 1001;
+	}
+
+	@Override
+	public String getName() {
+		return "MonteCarlo";
+	}
+
+}
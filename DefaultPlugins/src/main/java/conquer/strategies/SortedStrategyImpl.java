@@ -10,25 +10,28 @@ import conquer.data.strategy.Strategy;
 import conquer.data.strategy.StrategyData;
 import conquer.data.strategy.StrategyObject;
 import conquer.utils.Graph;
-import conquer.utils.Pair;
+import conquer.utils.IndexedHeap;
+import conquer.utils.NeighbourCursor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.function.DoubleConsumer;
 
 public final class SortedStrategyImpl implements Strategy {
 	private static final double MAXIMUM_VARIANCE = 0.3;
 	private static final double FIFTY_FIFTY_PROBABILITY = 0.5;
-	private List<ICity> cities;
-	private final Map<ICity, Pair<Double, Double>> values = new HashMap<>();
 	private final List<IClan> gifts;
+	// The targets of the current turn and the estimated numbers of people and soldiers of the enemy cities
+	private IndexedHeap targets;
+	private double[] people;
+	private double[] soldiers;
+	private boolean[] attacked;
 	private int counter;
 
 	public SortedStrategyImpl() {
-		this.cities = new ArrayList<>();
 		this.gifts = new ArrayList<>();
 	}
 
@@ -36,7 +39,8 @@ public final class SortedStrategyImpl implements Strategy {
 	public boolean acceptGift(final IClan sourceClan, final IClan destinationClan, final Gift gift,
 							  final double oldValue, final DoubleConsumer newValue,
 							  final StrategyObject strategyObject) {
-		if ((this.gifts.contains(sourceClan) && (Math.random() < 0.8)) || (Math.random() < 0.1)) {
+		final var random = strategyObject.getRandom(destinationClan);
+		if ((this.gifts.contains(sourceClan) && (random.nextDouble() < 0.8)) || (random.nextDouble() < 0.1)) {
 			return false;
 		}
 		var preference = strategyObject.getRelationship(sourceClan, destinationClan) * 0.01;
@@ -65,34 +69,68 @@ public final class SortedStrategyImpl implements Strategy {
 		} else {
 			this.counter++;
 		}
-		this.refreshList(clan, cities);
+		this.refreshList(clan, cities, obj.getRandom(clan));
 		this.attack(cities, obj, clan);
 		this.upgradeCities(cities, clan, obj);
 		this.upgradeClan(clan);
 	}
 
+	// The targets are attacked in the order of the heap. A conquered city makes its neighbours new targets.
 	private void attack(final Graph<ICity> graph, final StrategyObject obj, final IClan clan) {
-		this.cities.forEach(target -> {
-			final var own = StreamUtils.getCitiesAsStream(graph, a -> graph.isConnected(a, target))
-					.sorted(Comparator.comparingLong(ICity::getNumberOfSoldiers))
-					.toList();
-			own.forEach(ownCity -> {
-				final var pair = this.values.get(target);
-				final var second = pair.second();
+		final var cursor = graph.newNeighbourCursor();
+		final var own = new ArrayList<ICity>();
+		final var factor = clan.getSoldiersOffenseStrength() * clan.getSoldiersStrength();
+		while (!this.targets.isEmpty()) {
+			final var targetIdx = this.targets.poll();
+			this.attacked[targetIdx] = true;
+			final var target = graph.getValue(targetIdx);
+			own.clear();
+			cursor.reset(targetIdx);
+			while (cursor.next()) {
+				final var city = graph.getValue(cursor.index());
+				if (city.getClan() == clan) {
+					own.add(city);
+				}
+			}
+			own.sort(Comparator.comparingLong(ICity::getNumberOfSoldiers));
+			final var second = this.soldiers[targetIdx];
+			for (final var ownCity : own) {
+				if (target.getClan() == clan) {
+					break;
+				}
 				final var ownCitySoldiers = ownCity.getNumberOfSoldiers();
-				final var factor = clan.getSoldiersOffenseStrength() * clan.getSoldiersStrength();
 				if (this.tryRecruiting(clan, factor, second, ownCity, ownCitySoldiers, obj)) {
-					return;// We are too weak to attack.
+					continue;// We are too weak to attack.
 				}
 				final long numberOfSoldiersUsed;
 				if ((ownCitySoldiers > second) || ((ownCitySoldiers * factor) > second)) {
-					numberOfSoldiersUsed = second > ownCitySoldiers ? ownCitySoldiers : second.longValue();
+					numberOfSoldiersUsed = second > ownCitySoldiers ? ownCitySoldiers : (long) second;
 				} else {
-					return;
+					continue;
 				}
 				obj.attack(ownCity, target, true, numberOfSoldiersUsed);
-			});
-		});
+			}
+			if (target.getClan() == clan) {
+				this.addTargets(graph, cursor, clan, targetIdx);
+			}
+		}
+	}
+
+	// Adds the enemy neighbours of a city to the heap, that weren't attacked in this turn.
+	private void addTargets(final Graph<ICity> graph, final NeighbourCursor cursor, final IClan clan,
+							final int idx) {
+		cursor.reset(idx);
+		while (cursor.next()) {
+			final var neighbour = cursor.index();
+			if (!this.attacked[neighbour] && (graph.getValue(neighbour).getClan() != clan)) {
+				this.targets.set(neighbour, this.ratio(neighbour));
+			}
+		}
+	}
+
+	// The cities with a high people/soldiers ratio are attacked first.
+	private double ratio(final int idx) {
+		return this.people[idx] / (this.soldiers[idx] == 0 ? 1 : this.soldiers[idx]);
 	}
 
 	@Override
@@ -100,31 +138,40 @@ public final class SortedStrategyImpl implements Strategy {
 		return null;
 	}
 
-	private void refreshList(final IClan clan, final Graph<ICity> cities2) {
-		this.values.clear();
-		StreamUtils.getCitiesAsStreamNot(cities2, clan).forEach(a -> {
+	private void refreshList(final IClan clan, final Graph<ICity> cities2, final SplittableRandom random) {
+		final var size = cities2.size();
+		if ((this.targets == null) || (this.targets.capacity() != size)) {
+			this.targets = new IndexedHeap(size);
+			this.people = new double[size];
+			this.soldiers = new double[size];
+			this.attacked = new boolean[size];
+		}
+		this.targets.clear();
+		Arrays.fill(this.attacked, false);
+		for (var i = 0; i < size; i++) {
+			final var a = cities2.getValue(i);
+			if (a.getClan() == clan) {
+				continue;
+			}
 			// Make the strategy a bit wrong to make it possible for the player to win.
-			final var soldiersA = a.getNumberOfSoldiers() * (Math.random() > SortedStrategyImpl.FIFTY_FIFTY_PROBABILITY
-					? (1 + (Math.random() % SortedStrategyImpl.MAXIMUM_VARIANCE))
-					: (1 - (Math.random() % SortedStrategyImpl.MAXIMUM_VARIANCE)));
-			final var peopleA = a.getNumberOfPeople() * (Math.random() > SortedStrategyImpl.FIFTY_FIFTY_PROBABILITY
-					? (1 + (Math.random() % SortedStrategyImpl.MAXIMUM_VARIANCE))
-					: (1 - (Math.random() % SortedStrategyImpl.MAXIMUM_VARIANCE)));
-			this.values.put(a, new Pair<>(peopleA, soldiersA));
-		});
-		this.cities = StreamUtils
-				.getCitiesAsStreamNot(cities2, clan,
-						a -> cities2.getConnected(a).stream().anyMatch(b -> b.getClan() == clan))
-				.sorted((a, b) -> {
-					final var pA = this.values.get(a);
-					final var pB = this.values.get(b);
-					final var ratioA = pA.first() / (pA.second() == 0 ? 1 : pA.second());
-					final var ratioB = pB.first() / (pB.second() == 0 ? 1 : pB.second());
-					return Double.compare(ratioB, ratioA);// The cities with a high people/soldiers ratio come first.
-				}).toList();
+			this.soldiers[i] = a.getNumberOfSoldiers() * SortedStrategyImpl.variance(random);
+			this.people[i] = a.getNumberOfPeople() * SortedStrategyImpl.variance(random);
+		}
+		final var cursor = cities2.newNeighbourCursor();
+		for (var i = 0; i < size; i++) {
+			if (cities2.getValue(i).getClan() == clan) {
+				this.addTargets(cities2, cursor, clan, i);
+			}
+		}
+	}
+
+	private static double variance(final SplittableRandom random) {
+		return random.nextDouble() > SortedStrategyImpl.FIFTY_FIFTY_PROBABILITY
+				? (1 + (random.nextDouble() % SortedStrategyImpl.MAXIMUM_VARIANCE))
+				: (1 - (random.nextDouble() % SortedStrategyImpl.MAXIMUM_VARIANCE));
 	}
 
-	private boolean tryRecruiting(final IClan clan, final double factor, final Double second, final ICity ownCity,
+	private boolean tryRecruiting(final IClan clan, final double factor, final double second, final ICity ownCity,
 								  final long ownCitySoldiers, final StrategyObject obj) {
 		if (second > (ownCitySoldiers * factor)) {
 			obj.recruitSoldiers(clan.getCoins() * 0.25, ownCity, true, ownCity.getNumberOfPeople());
@@ -0,0 +1,134 @@
+package conquer.strategies;
+
+import conquer.data.ConquerInfo;
+import conquer.data.ICity;
+import conquer.utils.Graph;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class MonteCarloSearchTest {
+	private static final long BUDGET = TimeUnit.MILLISECONDS.toNanos(50);
+
+	// A game without cities, that counts its forks. A round takes a millisecond or fails, if failure isn't null.
+	// Forks are seeded while they are created, never afterwards.
+	private static ConquerInfo game(final AtomicInteger forks, final Supplier<ConquerInfo> fork,
+									final RuntimeException failure) {
+		return (ConquerInfo) Proxy.newProxyInstance(ConquerInfo.class.getClassLoader(),
+				new Class<?>[]{ConquerInfo.class}, (proxy, method, args) -> switch (method.getName()) {
+					case "fork" -> {
+						forks.incrementAndGet();
+						yield fork.get();
+					}
+					case "executeActions" -> {
+						if (failure != null) {
+							throw failure;
+						}
+						Thread.sleep(1);
+						yield null;
+					}
+					case "getCities" -> new Graph<ICity>(0);
+					case "setSeed" -> throw new IllegalStateException("Seeded after the fork");
+					default -> null;
+				});
+	}
+
+	private static MonteCarloSearch search(final ConquerInfo game) {
+		return new MonteCarloSearch(game, 1, List.of(MonteCarloAction.PASS), System.nanoTime()
+				+ MonteCarloSearchTest.BUDGET, 42);
+	}
+
+	@Test
+	void testRolloutsForkASnapshot() throws InterruptedException {
+		final var liveForks = new AtomicInteger();
+		final var rollouts = new AtomicInteger();
+		final var snapshot = MonteCarloSearchTest.game(rollouts,
+				() -> MonteCarloSearchTest.game(new AtomicInteger(), () -> null, null), null);
+		final var game = MonteCarloSearchTest.game(liveForks, () -> snapshot, null);
+		final var search = MonteCarloSearchTest.search(game);
+		Assertions.assertEquals(1, liveForks.get());
+		final var start = System.nanoTime();
+		Assertions.assertSame(MonteCarloAction.PASS, search.run());
+		// Returns at the deadline, a generous margin for slow machines.
+		final var elapsed = System.nanoTime() - start;
+		Assertions.assertTrue(elapsed < (MonteCarloSearchTest.BUDGET + TimeUnit.SECONDS.toNanos(1)));
+		Assertions.assertTrue(rollouts.get() > 0);
+		// The abandoned rollouts may still run, but they never touch the game again.
+		Thread.sleep(20);
+		Assertions.assertEquals(1, liveForks.get());
+	}
+
+	@Test
+	void testRolloutsAreSeeded() {
+		final List<Object> seeds = Collections.synchronizedList(new ArrayList<>());
+		final var rollout = MonteCarloSearchTest.game(new AtomicInteger(), () -> null, null);
+		final var snapshot = (ConquerInfo) Proxy.newProxyInstance(ConquerInfo.class.getClassLoader(),
+				new Class<?>[]{ConquerInfo.class}, (proxy, method, args) -> {
+					seeds.add(args == null ? null : args[0]);
+					return rollout;
+				});
+		final var search = MonteCarloSearchTest.search(MonteCarloSearchTest.game(new AtomicInteger(),
+				() -> snapshot, null));
+		Assertions.assertSame(MonteCarloAction.PASS, search.run());
+		// One seed per rollout, starting with the seed of the search
+		Assertions.assertEquals(42L, seeds.get(0));
+		Assertions.assertEquals(seeds.size(), new HashSet<>(seeds).size());
+	}
+
+	@Test
+	void testAbandonedRolloutsStop() throws InterruptedException {
+		// A round, that would take ten seconds, but every turn checks the deadline.
+		final var running = new AtomicInteger();
+		final var rollout = (ConquerInfo) Proxy.newProxyInstance(ConquerInfo.class.getClassLoader(),
+				new Class<?>[]{ConquerInfo.class}, (proxy, method, args) -> {
+					if (!"executeActions".equals(method.getName())) {
+						return null;
+					}
+					running.incrementAndGet();
+					try {
+						for (var turn = 0; turn < 10_000; turn++) {
+							MonteCarloSearch.checkRollout();
+							Thread.sleep(1);
+						}
+					} finally {
+						running.decrementAndGet();
+					}
+					return null;
+				});
+		final var snapshot = MonteCarloSearchTest.game(new AtomicInteger(), () -> rollout, null);
+		final var search = MonteCarloSearchTest.search(MonteCarloSearchTest.game(new AtomicInteger(),
+				() -> snapshot, null));
+		// No rollout finished.
+		Assertions.assertNull(search.run());
+		Thread.sleep(100);
+		Assertions.assertEquals(0, running.get());
+		// Outside of a rollout, nothing is checked.
+		Assertions.assertDoesNotThrow(MonteCarloSearch::checkRollout);
+	}
+
+	@Test
+	void testGameCantBeForked() {
+		final var game = MonteCarloSearchTest.game(new AtomicInteger(), () -> {
+			throw new UnsupportedOperationException("fork");
+		}, null);
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> MonteCarloSearchTest.search(game));
+	}
+
+	@Test
+	void testFailingRollout() {
+		final var failure = new IllegalStateException("Broken");
+		final var snapshot = MonteCarloSearchTest.game(new AtomicInteger(),
+				() -> MonteCarloSearchTest.game(new AtomicInteger(), () -> null, failure), null);
+		final var search = MonteCarloSearchTest.search(MonteCarloSearchTest.game(new AtomicInteger(),
+				() -> snapshot, null));
+		Assertions.assertSame(failure, Assertions.assertThrows(IllegalStateException.class, search::run));
+	}
+}